@@ -0,0 +1,47 @@
+package br.com.jeandro.sccon.bench;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.CompactPersonRepository;
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.PersonRepository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/** Massa de dados determinística compartilhada pelos benchmarks. */
+final class BenchmarkData {
+    private static final String[] NOMES = { "Maria", "João", "Ana", "José", "Érica", "Luís", "Beatriz", "Otávio" };
+    private static final String[] SOBRENOMES = { "Silva", "Souza", "Lima", "Araújo", "Gonçalves", "Pereira" };
+
+    private BenchmarkData() {}
+
+    static List<Person> people(int n) {
+        SplittableRandom rnd = new SplittableRandom(42);
+        List<Person> people = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) people.add(person(rnd));
+        return people;
+    }
+
+    static Person person(SplittableRandom rnd) {
+        LocalDate nascimento = LocalDate.of(1950, 1, 1).plusDays(rnd.nextInt(20_000));
+        return new Person(null,
+            NOMES[rnd.nextInt(NOMES.length)] + " " + SOBRENOMES[rnd.nextInt(SOBRENOMES.length)] + " " + rnd.nextInt(100_000),
+            nascimento,
+            nascimento.plusYears(18 + rnd.nextInt(30)),
+            BigDecimal.valueOf(100_000 + rnd.nextInt(2_000_000), 2));
+    }
+
+    /** Repositório do backend pedido ("map" ou "compact") já populado com {@code size} pessoas. */
+    static PersonRepository repository(String backend, int size) {
+        PersonRepository repo = switch (backend) {
+            case "map" -> new InMemoryPersonRepository();
+            case "compact" -> new CompactPersonRepository();
+            default -> throw new IllegalArgumentException("Backend desconhecido: " + backend);
+        };
+        repo.saveAll(people(size));
+        return repo;
+    }
+}
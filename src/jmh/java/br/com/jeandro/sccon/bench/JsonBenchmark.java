@@ -0,0 +1,77 @@
+package br.com.jeandro.sccon.bench;
+
+import br.com.jeandro.sccon.dto.PersonCreateRequest;
+import br.com.jeandro.sccon.dto.PersonJsonModule;
+import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.model.Person;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (De)serialização Jackson de {@link PersonResponse} com as datas {@code dd/MM/yyyy}, usando
+ * a mesma configuração que o Spring Boot aplica ao ObjectMapper: {@code reflective} só com as
+ * anotações dos DTOs, {@code module} com o {@link PersonJsonModule} e {@code cbor} com o módulo
+ * gerando CBOR (Accept: application/cbor).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonBenchmark {
+
+    @Param({ "1", "100", "1000" })
+    public int size;
+
+    @Param({ "reflective", "module", "cbor" })
+    public String format;
+
+    private ObjectWriter writer;
+    private ObjectReader createReader;
+    private List<PersonResponse> responses;
+    private byte[] createJson;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper mapper = format.equals("cbor") ? new ObjectMapper(new CBORFactory()) : JsonMapper.builder().build();
+        mapper.registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        if (!format.equals("reflective")) mapper.registerModule(new PersonJsonModule());
+        long id = 1;
+        List<Person> people = BenchmarkData.people(size);
+        for (Person p : people) p.setId(id++);
+        responses = people.stream()
+            .map(p -> new PersonResponse(p.getId(), p.getNome(), p.getDataNascimento(), p.getDataAdmissao(), p.getSalarioAtual()))
+            .toList();
+        writer = mapper.writer();
+        createReader = mapper.readerFor(PersonCreateRequest.class);
+        createJson = mapper.writeValueAsBytes(responses.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return writer.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] serializeOne() throws IOException {
+        return writer.writeValueAsBytes(responses.get(0));
+    }
+
+    @Benchmark
+    public PersonCreateRequest deserializeCreate() throws IOException {
+        return createReader.readValue(createJson);
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.jeandro.sccon.bench;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Gerador de carga em malha fechada contra uma instância em execução: cada cliente (thread
+ * virtual) repete GET /persons/{id}, GET /persons/{id}/idade e PATCH /persons/{id} até o fim
+ * do tempo e registra a latência de cada requisição. Usa só o JDK, então roda direto do fonte:
+ * <pre>
+ * java src/jmh/java/br/com/jeandro/sccon/bench/LoadTest.java http://localhost:8080 2000 30 10
+ *      (url, clientes, segundos, % de escritas)
+ * </pre>
+ * Com vários valores de clientes separados por vírgula ({@code 500,2000,8000}), roda um degrau
+ * por valor. Respostas 503 (limite de concorrência) são contadas à parte e ficam fora dos
+ * percentis das atendidas.
+ */
+public class LoadTest {
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String base = args.length > 0 ? args[0] : "http://localhost:8080";
+        int[] steps = Arrays.stream((args.length > 1 ? args[1] : "1000").split(",")).mapToInt(Integer::parseInt).toArray();
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        long[] ids = ids(http, base);
+        if (ids.length == 0) throw new IllegalStateException("Nenhuma pessoa em " + base + "/persons");
+
+        run(http, base, ids, steps[0], Math.max(1, seconds / 5), 0); // aquecimento
+        for (int clients : steps) {
+            System.out.printf("clientes=%d duração=%ds escritas=%d%% pessoas=%d%n", clients, seconds, writePercent, ids.length);
+            report(run(http, base, ids, clients, seconds, writePercent));
+        }
+    }
+
+    private record Result(long elapsedNanos, List<Recorder> recorders, List<Recorder> shed) {}
+
+    private static Result run(HttpClient http, String base, long[] ids, int clients, int seconds, int writePercent)
+        throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + seconds * 1_000_000_000L;
+        List<Recorder> recorders = new ArrayList<>(clients);
+        List<Recorder> shed = new ArrayList<>(clients);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                Recorder r = new Recorder();
+                Recorder s = new Recorder();
+                recorders.add(r);
+                shed.add(s);
+                pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (System.nanoTime() < deadline) {
+                        long id = ids[rnd.nextInt(ids.length)];
+                        int op = rnd.nextInt(100);
+                        HttpRequest req = op < writePercent ? patch(base, id, rnd) : op % 2 == 0
+                            ? get(base + "/persons/" + id) : get(base + "/persons/" + id + "/idade?output=anos");
+                        long t0 = System.nanoTime();
+                        try {
+                            int status = http.send(req, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status == 503) {
+                                s.add(System.nanoTime() - t0);
+                                continue;
+                            }
+                            if (status >= 400) r.errors++;
+                        } catch (IOException e) {
+                            r.errors++;
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        r.add(System.nanoTime() - t0);
+                    }
+                });
+            }
+        }
+        return new Result(System.nanoTime() - start, recorders, shed);
+    }
+
+    private static void report(Result result) {
+        long[] all = sorted(result.recorders());
+        long[] shed = sorted(result.shed());
+        long errors = result.recorders().stream().mapToLong(r -> r.errors).sum();
+        double seconds = result.elapsedNanos() / 1e9;
+        System.out.printf("requisições=%d erros=%d vazão=%.0f req/s%n", all.length, errors, all.length / seconds);
+        System.out.printf("p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+            pct(all, 0.50), pct(all, 0.99), pct(all, 0.999), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        if (shed.length > 0) {
+            System.out.printf("recusadas(503)=%d (%.1f%%) p50=%.2fms p99=%.2fms%n", shed.length,
+                100.0 * shed.length / (shed.length + all.length), pct(shed, 0.50), pct(shed, 0.99));
+        }
+    }
+
+    private static long[] sorted(List<Recorder> recorders) {
+        return recorders.stream().flatMapToLong(r -> Arrays.stream(r.values, 0, r.size)).sorted().toArray();
+    }
+
+    private static double pct(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)] / 1e6;
+    }
+
+    private static long[] ids(HttpClient http, String base) throws IOException, InterruptedException {
+        String body = http.send(get(base + "/persons?limit=1000"), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher m = ID.matcher(body);
+        List<Long> ids = new ArrayList<>();
+        while (m.find()) ids.add(Long.parseLong(m.group(1)));
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private static HttpRequest patch(String base, long id, ThreadLocalRandom rnd) {
+        String json = "{\"salarioAtual\": " + (1000 + rnd.nextInt(9000)) + ".00}";
+        return HttpRequest.newBuilder(URI.create(base + "/persons/" + id))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    /** Latências de um cliente (só ele escreve; lido depois que o pool termina). */
+    private static final class Recorder {
+        long[] values = new long[4096];
+        int size;
+        long errors;
+
+        void add(long v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
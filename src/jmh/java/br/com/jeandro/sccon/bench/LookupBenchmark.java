@@ -0,0 +1,88 @@
+package br.com.jeandro.sccon.bench;
+
+import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.ShardServer;
+import br.com.jeandro.sccon.repository.ShardedPersonRepository;
+import br.com.jeandro.sccon.service.PersonLookup;
+import br.com.jeandro.sccon.service.PersonService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /persons/{id} (via {@link PersonService#get}) sobre um repositório remoto: dois nós
+ * particionados no mesmo processo, com metade dos IDs atrás do servidor interno em loopback. Mede
+ * a busca direta, com coalescing e com micro-batching, com 90% das buscas em {@code hot} IDs
+ * (rajada sobre poucos registros). Rode com várias threads, por exemplo
+ * {@code -Djmh.include=LookupBenchmark -Djmh.threads=32}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LookupBenchmark {
+    private static final int SIZE = 10_000;
+
+    /** direct | coalesce | batch | both */
+    @Param({ "direct", "coalesce", "batch", "both" })
+    public String mode;
+
+    @Param({ "16" })
+    public int hot;
+
+    private ShardServer remote;
+    private ShardedPersonRepository remoteNode;
+    private ShardedPersonRepository repo;
+    private PersonService service;
+    private long[] ids;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        InMemoryPersonRepository remotePartition = new InMemoryPersonRepository();
+        remote = ShardServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), remotePartition, "bench");
+        // o nó 0 não é chamado pelo nó 1 aqui; só o endereço do nó 1 precisa existir
+        List<URI> nodes = List.of(URI.create("http://127.0.0.1:1"), URI.create("http://127.0.0.1:" + remote.port()));
+        repo = new ShardedPersonRepository(0, nodes, new InMemoryPersonRepository(), Duration.ofSeconds(5), "bench");
+        remoteNode = new ShardedPersonRepository(1, nodes, remotePartition, Duration.ofSeconds(5), "bench");
+        // IDs gerados por um nó pertencem a ele: metade local, metade atrás do loopback
+        SplittableRandom rnd = new SplittableRandom(42);
+        ids = new long[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            ids[i] = (i % 2 == 0 ? repo : remoteNode).save(BenchmarkData.person(rnd)).getId();
+        }
+
+        boolean coalesce = mode.equals("coalesce") || mode.equals("both");
+        long windowMicros = mode.equals("batch") || mode.equals("both") ? 200 : 0;
+        service = new PersonService(repo, Validation.buildDefaultValidatorFactory().getValidator(),
+            new SimpleMeterRegistry(), new PersonLookup(repo, coalesce, windowMicros, 64));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repo.close();
+        remoteNode.close();
+        remote.close();
+    }
+
+    @Benchmark
+    public PersonResponse get() {
+        return service.get(ids[randomIndex()]);
+    }
+
+    private int randomIndex() {
+        ThreadLocalRandom r = ThreadLocalRandom.current();
+        return r.nextInt(10) < 9 ? r.nextInt(hot) : r.nextInt(SIZE);
+    }
+}
@@ -0,0 +1,98 @@
+package br.com.jeandro.sccon.bench;
+
+import br.com.jeandro.sccon.dto.PersonPatchRequest;
+import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.service.PersonService;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminhos quentes do {@link PersonService}. {@code list} copia e converte a base inteira, por
+ * isso os tamanhos aqui são menores que no {@link RepositoryBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersonServiceBenchmark {
+    private static final BigDecimal SALARIO_MINIMO = new BigDecimal("1320.00");
+
+    @Param({ "map", "compact" })
+    public String backend;
+
+    @Param({ "1000", "10000", "100000" })
+    public int size;
+
+    private PersonService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        service = new PersonService(BenchmarkData.repository(backend, size),
+            Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(size);
+    }
+
+    @Benchmark
+    public List<PersonResponse> list() {
+        return service.list();
+    }
+
+    @Benchmark
+    public PersonResponse get() {
+        return service.get(randomId());
+    }
+
+    @Benchmark
+    public PersonResponse patch() {
+        PersonPatchRequest r = new PersonPatchRequest();
+        r.setSalarioAtual(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100_000, 2_000_000), 2));
+        return service.patch(randomId(), r);
+    }
+
+    /**
+     * Todas as threads alteram a mesma pessoa: mede o compare-and-set de {@code patch} sob
+     * contenção (rode com {@code -Djmh.threads=4} ou mais).
+     */
+    @Benchmark
+    public PersonResponse patchHotId() {
+        PersonPatchRequest r = new PersonPatchRequest();
+        r.setSalarioAtual(BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100_000, 2_000_000), 2));
+        return service.patch(1L, r);
+    }
+
+    @Benchmark
+    public Number idadeAnos() {
+        return service.idade(randomId(), "anos");
+    }
+
+    @Benchmark
+    public BigDecimal salarioMultiplo() {
+        return service.salarioMultiplo(randomId(), SALARIO_MINIMO);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedRead(Blackhole bh) {
+        long id = randomId();
+        bh.consume(service.get(id));
+        bh.consume(service.idade(id, "dias"));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public PersonResponse mixedPatch() {
+        return patch();
+    }
+}
@@ -0,0 +1,89 @@
+package br.com.jeandro.sccon.bench;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.PayrollStats;
+import br.com.jeandro.sccon.repository.PersonRepository;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Operações básicas dos backends de repositório. O grupo {@code mixed} mede leituras por ID
+ * concorrendo com atualizações (3 leitores para 1 escritor). {@code payrollStats} lê os agregados
+ * mantidos pelo repositório; {@code payrollStatsScan} calcula o mesmo percorrendo a base.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryBenchmark {
+
+    @Param({ "map", "compact" })
+    public String backend;
+
+    @Param({ "1000", "100000", "1000000" })
+    public int size;
+
+    private PersonRepository repo;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        repo = BenchmarkData.repository(backend, size);
+    }
+
+    private long randomId() {
+        return 1 + ThreadLocalRandom.current().nextLong(size);
+    }
+
+    @Benchmark
+    public Optional<Person> findById() {
+        return repo.findById(randomId());
+    }
+
+    @Benchmark
+    public List<Person> findPageByName() {
+        return repo.findPageByName(null, 100);
+    }
+
+    @Benchmark
+    public Person saveExisting() {
+        return repo.save(updated(randomId()));
+    }
+
+    @Benchmark
+    public PayrollStats payrollStats() {
+        return repo.payrollStats();
+    }
+
+    @Benchmark
+    public PayrollStats payrollStatsScan() {
+        return PayrollStats.of(repo.streamAll());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public void mixedRead(Blackhole bh) {
+        bh.consume(repo.findById(randomId()));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Person mixedWrite() {
+        return repo.save(updated(randomId()));
+    }
+
+    private Person updated(long id) {
+        Person p = repo.findById(id).orElseThrow();
+        // cópia: o backend compacto não guarda a instância, o de mapa sim
+        return new Person(id, p.getNome(), p.getDataNascimento(), p.getDataAdmissao(),
+            p.getSalarioAtual().add(BigDecimal.ONE));
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.controller.ConcurrencyLimitInterceptor;
+import br.com.jeandro.sccon.service.ConcurrencyLimiter;
+import br.com.jeandro.sccon.service.ConcurrencyLimits;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Limite de concorrência adaptativo da API ({@code sccon.limit.enabled: true}). No MVC é aplicado
+ * pelo {@link ConcurrencyLimitInterceptor}; no WebFlux, pelas rotas do {@code PersonRouter}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sccon.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public ConcurrencyLimits concurrencyLimits(
+        @Value("${sccon.limit.cheap.initial:100}") int cheapInitial,
+        @Value("${sccon.limit.cheap.min:10}") int cheapMin,
+        @Value("${sccon.limit.cheap.max:1000}") int cheapMax,
+        @Value("${sccon.limit.cheap.latency-target-ms:10}") long cheapTargetMs,
+        @Value("${sccon.limit.expensive.initial:20}") int expensiveInitial,
+        @Value("${sccon.limit.expensive.min:2}") int expensiveMin,
+        @Value("${sccon.limit.expensive.max:200}") int expensiveMax,
+        @Value("${sccon.limit.expensive.latency-target-ms:100}") long expensiveTargetMs,
+        @Value("${sccon.limit.backoff:0.9}") double backoff,
+        @Value("${sccon.limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        return new ConcurrencyLimits(
+            new ConcurrencyLimiter.Options(cheapInitial, cheapMin, cheapMax, Duration.ofMillis(cheapTargetMs), backoff),
+            new ConcurrencyLimiter.Options(expensiveInitial, expensiveMin, expensiveMax, Duration.ofMillis(expensiveTargetMs), backoff),
+            retryAfterSeconds);
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer concurrencyLimitInterceptor(ConcurrencyLimits limits) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ConcurrencyLimitInterceptor(limits)).addPathPatterns("/persons", "/persons/**");
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.dto.PersonJsonModule;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Serialização: o {@link PersonJsonModule} entra no ObjectMapper da aplicação (o Spring Boot
+ * registra os beans {@link Module}) e a API também fala CBOR ({@code application/cbor}) para
+ * clientes que pedirem, com a mesma configuração e os mesmos (de)serializadores do JSON.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module personJsonModule() {
+        return new PersonJsonModule();
+    }
+
+    /** Substitui o conversor CBOR padrão do Spring MVC, que não passa pelos módulos e propriedades do Boot. */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
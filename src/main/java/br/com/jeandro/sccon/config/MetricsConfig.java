@@ -0,0 +1,109 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.PersonRepository;
+import br.com.jeandro.sccon.repository.ReplicaPersonRepository;
+import br.com.jeandro.sccon.repository.SqlWriteBehind;
+import br.com.jeandro.sccon.service.ConcurrencyLimiter;
+import br.com.jeandro.sccon.service.ConcurrencyLimits;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Métricas do repositório, lidas a cada coleta (ex.: scrape do Prometheus em
+ * /actuator/prometheus). Os timers das operações ficam no PersonService e os contadores de erro
+ * no GlobalExceptionHandler.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder personRepositoryMetrics(PersonRepository repo, ObjectProvider<SqlWriteBehind> writeBehind,
+                                               ObjectProvider<ConcurrencyLimits> concurrencyLimits) {
+        return registry -> {
+            Gauge.builder("sccon.persons.count", repo, PersonRepository::count)
+                .description("Pessoas cadastradas")
+                .register(registry);
+            Gauge.builder("sccon.persons.memory.estimated", repo, PersonRepository::estimatedBytes)
+                .description("Memória estimada das pessoas e índices")
+                .baseUnit("bytes")
+                .register(registry);
+            Gauge.builder("sccon.persons.id.sequence", repo, PersonRepository::lastId)
+                .description("Último ID atribuído")
+                .register(registry);
+            FunctionCounter.builder("sccon.persons.changes", repo, PersonRepository::modificationCount)
+                .description("Gravações e remoções desde a inicialização")
+                .register(registry);
+            if (repo instanceof InMemoryPersonRepository memory && memory.persistent()) {
+                persistenceFailures(registry, memory, "sync", InMemoryPersonRepository::syncFailures);
+                persistenceFailures(registry, memory, "compaction", InMemoryPersonRepository::compactionFailures);
+                persistenceFailures(registry, memory, "snapshot", InMemoryPersonRepository::snapshotFailures);
+            }
+            if (repo instanceof ReplicaPersonRepository replica) {
+                Gauge.builder("sccon.replication.staleness", replica, ReplicaPersonRepository::stalenessMillis)
+                    .description("Tempo desde a última vez em dia com o líder")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+                Gauge.builder("sccon.replication.applied", replica, ReplicaPersonRepository::appliedSequence)
+                    .description("Última sequência do feed do líder aplicada")
+                    .register(registry);
+            }
+            SqlWriteBehind sql = writeBehind.getIfAvailable();
+            if (sql != null) {
+                Gauge.builder("sccon.write.behind.pending", sql, SqlWriteBehind::pending)
+                    .description("IDs com alterações aguardando gravação no banco SQL")
+                    .register(registry);
+                Gauge.builder("sccon.write.behind.lag", sql, SqlWriteBehind::lagMillis)
+                    .description("Espera da alteração mais antiga ainda não gravada no banco SQL")
+                    .baseUnit("milliseconds")
+                    .register(registry);
+                FunctionCounter.builder("sccon.write.behind.rows", sql, SqlWriteBehind::rowsWritten)
+                    .description("Linhas gravadas ou removidas no banco SQL")
+                    .register(registry);
+                FunctionCounter.builder("sccon.write.behind.batches", sql, SqlWriteBehind::batchesWritten)
+                    .description("Lotes confirmados no banco SQL")
+                    .register(registry);
+                FunctionCounter.builder("sccon.write.behind.failures", sql, SqlWriteBehind::failures)
+                    .description("Lotes recusados pelo banco SQL (tentados de novo)")
+                    .register(registry);
+                FunctionCounter.builder("sccon.write.behind.rejected", sql, SqlWriteBehind::rejected)
+                    .description("Escritas recusadas com 503 por fila cheia")
+                    .register(registry);
+            }
+            ConcurrencyLimits limits = concurrencyLimits.getIfAvailable();
+            if (limits != null) {
+                for (ConcurrencyLimits.Cost cost : ConcurrencyLimits.Cost.values()) {
+                    ConcurrencyLimiter limiter = limits.limiter(cost);
+                    String tag = cost.name().toLowerCase();
+                    Gauge.builder("sccon.limit.limit", limiter, ConcurrencyLimiter::limit)
+                        .description("Requisições simultâneas admitidas pelo limite adaptativo")
+                        .tag("cost", tag)
+                        .register(registry);
+                    Gauge.builder("sccon.limit.inflight", limiter, ConcurrencyLimiter::inFlight)
+                        .description("Requisições em andamento dentro do limite")
+                        .tag("cost", tag)
+                        .register(registry);
+                    FunctionCounter.builder("sccon.limit.rejected", limiter, ConcurrencyLimiter::rejected)
+                        .description("Requisições recusadas com 503 pelo limite")
+                        .tag("cost", tag)
+                        .register(registry);
+                }
+            }
+        };
+    }
+
+    private static void persistenceFailures(MeterRegistry registry, InMemoryPersonRepository repo, String operation,
+                                            ToDoubleFunction<InMemoryPersonRepository> failures) {
+        FunctionCounter.builder("sccon.persistence.failures", repo, failures)
+            .description("Falhas das tarefas de persistência em segundo plano (tentadas de novo no ciclo seguinte)")
+            .tag("operation", operation)
+            .register(registry);
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.repository.PersonRepository;
+import br.com.jeandro.sccon.repository.ReplicationServer;
+import br.com.jeandro.sccon.repository.ShardServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+
+/**
+ * Lado do líder na replicação ({@code sccon.replication.role: leader}): o stream de alterações
+ * para as réplicas e o servidor que recebe as escritas encaminhadas por elas. A réplica é criada
+ * no {@link RepositoryConfig}. As duas portas escutam só em {@code sccon.replication.bind-address}
+ * (loopback por padrão) e exigem {@code sccon.replication.secret}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sccon.replication.role", havingValue = "leader")
+public class ReplicationConfig {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationConfig.class);
+
+    private final InetAddress bind;
+    private final String secret;
+
+    public ReplicationConfig(
+        @Value("${sccon.replication.bind-address:127.0.0.1}") String bindAddress,
+        @Value("${sccon.replication.secret:}") String secret) throws IOException {
+        if (secret.isBlank()) throw new IllegalStateException("sccon.replication.secret é obrigatório no líder");
+        this.bind = InetAddress.getByName(bindAddress);
+        this.secret = secret;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicationServer replicationServer(
+        PersonRepository repo,
+        @Value("${sccon.replication.port:9200}") int port,
+        @Value("${sccon.replication.heartbeat-ms:1000}") long heartbeatMs) throws IOException {
+        ReplicationServer server = ReplicationServer.start(new InetSocketAddress(bind, port), repo, Duration.ofMillis(heartbeatMs), secret);
+        log.info("Líder de replicação: stream para réplicas em {}:{}", bind.getHostAddress(), server.port());
+        return server;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ShardServer replicationWriteServer(
+        PersonRepository repo,
+        @Value("${sccon.replication.write-port:9201}") int writePort) throws IOException {
+        ShardServer server = ShardServer.start(new InetSocketAddress(bind, writePort), repo, secret);
+        log.info("Líder de replicação: escritas encaminhadas pelas réplicas em {}:{}", bind.getHostAddress(), server.port());
+        return server;
+    }
+}
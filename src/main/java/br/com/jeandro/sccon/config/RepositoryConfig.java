@@ -0,0 +1,110 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.repository.CompactPersonRepository;
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.PersistenceOptions;
+import br.com.jeandro.sccon.repository.PersonRepository;
+import br.com.jeandro.sccon.repository.ReplicaOptions;
+import br.com.jeandro.sccon.repository.ReplicaPersonRepository;
+import br.com.jeandro.sccon.repository.ShardedPersonRepository;
+import br.com.jeandro.sccon.repository.SqlWriteBehind;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+public class RepositoryConfig {
+    private static final Logger log = LoggerFactory.getLogger(RepositoryConfig.class);
+
+    @Bean(destroyMethod = "close")
+    public PersonRepository personRepository(
+        @Value("${sccon.repository.backend:map}") String backend,
+        @Value("${sccon.persistence.enabled:false}") boolean enabled,
+        @Value("${sccon.persistence.path:data/persons.log}") String path,
+        @Value("${sccon.persistence.sync-interval-ms:0}") long syncIntervalMs,
+        @Value("${sccon.persistence.compaction-min-bytes:67108864}") long compactionMinBytes,
+        @Value("${sccon.persistence.compaction-check-ms:60000}") long compactionCheckMs,
+        @Value("${sccon.persistence.snapshot-path:}") String snapshotPath,
+        @Value("${sccon.cluster.nodes:}") List<String> clusterNodes,
+        @Value("${sccon.cluster.self:0}") int clusterSelf,
+        @Value("${sccon.cluster.timeout-ms:2000}") long clusterTimeoutMs,
+        @Value("${sccon.cluster.bind-address:}") String clusterBindAddress,
+        @Value("${sccon.cluster.secret:}") String clusterSecret,
+        @Value("${sccon.replication.role:none}") String replicationRole,
+        @Value("${sccon.replication.leader:}") String leaderHost,
+        @Value("${sccon.replication.port:9200}") int replicationPort,
+        @Value("${sccon.replication.write-port:9201}") int replicationWritePort,
+        @Value("${sccon.replication.heartbeat-ms:1000}") long heartbeatMs,
+        @Value("${sccon.replication.max-staleness-ms:5000}") long maxStalenessMs,
+        @Value("${sccon.replication.timeout-ms:2000}") long replicationTimeoutMs,
+        @Value("${sccon.replication.secret:}") String replicationSecret,
+        ObjectProvider<SqlWriteBehind> writeBehind) throws IOException {
+        SqlWriteBehind sql = writeBehind.getIfAvailable();
+        if ("replica".equalsIgnoreCase(replicationRole)) {
+            if (enabled || !"map".equalsIgnoreCase(backend) || !clusterNodes.stream().allMatch(String::isBlank) || sql != null) {
+                throw new IllegalStateException(
+                    "A réplica usa o backend 'map' só em memória, sem sccon.persistence, sccon.cluster nem sccon.write-behind");
+            }
+            if (leaderHost.isBlank()) throw new IllegalStateException("sccon.replication.leader é obrigatório na réplica");
+            if (replicationSecret.isBlank()) throw new IllegalStateException("sccon.replication.secret é obrigatório na réplica");
+            ReplicaPersonRepository replica = ReplicaPersonRepository.start(new InMemoryPersonRepository(), new ReplicaOptions(
+                new InetSocketAddress(leaderHost, replicationPort),
+                URI.create("http://" + leaderHost + ":" + replicationWritePort),
+                Duration.ofMillis(heartbeatMs), Duration.ofMillis(maxStalenessMs), Duration.ofMillis(replicationTimeoutMs),
+                replicationSecret));
+            log.info("Réplica de leitura do líder {} (stream na porta {}, escritas na porta {})",
+                leaderHost, replicationPort, replicationWritePort);
+            return replica;
+        }
+        PersonRepository local = local(backend, enabled, path, syncIntervalMs, compactionMinBytes, compactionCheckMs, snapshotPath, sql);
+        List<URI> nodes = clusterNodes.stream().filter(n -> !n.isBlank()).map(n -> URI.create(n.trim())).toList();
+        if (nodes.isEmpty()) return local;
+        if (clusterSecret.isBlank()) throw new IllegalStateException("sccon.cluster.secret é obrigatório com sccon.cluster.nodes");
+        if (clusterSelf < 0 || clusterSelf >= nodes.size())
+            throw new IllegalStateException("sccon.cluster.self fora da lista de " + nodes.size() + " nós");
+        // por padrão, só a interface do próprio endereço em 'nodes' (nunca todas)
+        InetAddress bind = InetAddress.getByName(clusterBindAddress.isBlank() ? nodes.get(clusterSelf).getHost() : clusterBindAddress);
+        ShardedPersonRepository sharded = ShardedPersonRepository.start(clusterSelf, nodes, local, Duration.ofMillis(clusterTimeoutMs),
+            bind, clusterSecret);
+        log.info("Repositório particionado: nó {} de {}, partição servida em {}:{}", clusterSelf, nodes.size(),
+            bind.getHostAddress(), nodes.get(clusterSelf).getPort());
+        return sharded;
+    }
+
+    private PersonRepository local(String backend, boolean enabled, String path, long syncIntervalMs,
+                                   long compactionMinBytes, long compactionCheckMs, String snapshotPath,
+                                   SqlWriteBehind sql) throws IOException {
+        if ("compact".equalsIgnoreCase(backend)) {
+            if (enabled) throw new IllegalStateException("O backend 'compact' não suporta sccon.persistence.enabled");
+            if (sql != null) throw new IllegalStateException("O backend 'compact' não suporta sccon.write-behind.enabled");
+            return new CompactPersonRepository();
+        }
+        if (!"map".equalsIgnoreCase(backend)) {
+            throw new IllegalStateException("sccon.repository.backend inválido: " + backend + " (use map | compact)");
+        }
+        InMemoryPersonRepository repo;
+        if (enabled) {
+            repo = new InMemoryPersonRepository(new PersistenceOptions(
+                Path.of(path), syncIntervalMs, compactionMinBytes, compactionCheckMs,
+                snapshotPath.isBlank() ? null : Path.of(snapshotPath)));
+            InMemoryPersonRepository.StartupReport r = repo.startupReport();
+            log.info("Repositório carregado: {} pessoas do snapshot em {} ms, {} registros do log em {} ms",
+                r.snapshotRows(), r.snapshotMillis(), r.logRecords(), r.logMillis());
+        } else {
+            repo = new InMemoryPersonRepository();
+        }
+        if (sql != null) sql.attach(repo);
+        return repo;
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.jeandro.sccon.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Executor das respostas assíncronas do MVC ({@code GET /persons/export} e
+ * {@code GET /persons/changes}). Cada stream passa a maior parte do tempo bloqueado esperando
+ * alterações ou o socket, até 5 minutos; no {@code applicationTaskExecutor} do Boot (8 threads e
+ * fila sem limite) a nona conexão ficaria na fila sem começar. Aqui cada stream ganha a sua
+ * thread virtual, com ou sem {@code spring.threads.virtual.enabled}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class StreamingConfig {
+
+    @Bean
+    public WebMvcConfigurer streamingAsyncSupport() {
+        AsyncTaskExecutor executor = streamExecutor();
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(executor);
+            }
+        };
+    }
+
+    /** Uma thread virtual por stream, sem limite de quantidade. */
+    public static AsyncTaskExecutor streamExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("person-stream-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+}
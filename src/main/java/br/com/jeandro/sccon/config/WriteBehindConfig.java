@@ -0,0 +1,35 @@
+package br.com.jeandro.sccon.config;
+
+import br.com.jeandro.sccon.repository.SqlWriteBehind;
+import br.com.jeandro.sccon.repository.WriteBehindOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Cópia assíncrona das gravações para um banco SQL ({@code sccon.write-behind.enabled: true}).
+ * O {@link RepositoryConfig} liga a cópia ao repositório local; o repositório a fecha junto com ele.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sccon.write-behind.enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean(destroyMethod = "close")
+    public SqlWriteBehind sqlWriteBehind(
+        @Value("${sccon.write-behind.url:jdbc:h2:file:./data/persons-sql}") String url,
+        @Value("${sccon.write-behind.user:sa}") String user,
+        @Value("${sccon.write-behind.password:}") String password,
+        @Value("${sccon.write-behind.flush-interval-ms:1000}") long flushIntervalMs,
+        @Value("${sccon.write-behind.batch-size:500}") int batchSize,
+        @Value("${sccon.write-behind.capacity:100000}") int capacity,
+        @Value("${sccon.write-behind.max-wait-ms:1000}") long maxWaitMs) {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalStateException("sccon.write-behind.batch-size e capacity devem ser positivos");
+        }
+        return new SqlWriteBehind(new WriteBehindOptions(url, user, password, Duration.ofMillis(flushIntervalMs),
+            batchSize, capacity, Duration.ofMillis(maxWaitMs)));
+    }
+}
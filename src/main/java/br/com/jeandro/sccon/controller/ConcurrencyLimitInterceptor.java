@@ -0,0 +1,40 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.service.ConcurrencyLimits;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Ocupa uma vaga dos {@link ConcurrencyLimits} antes dos métodos anotados com
+ * {@link ConcurrencyLimited} e a libera depois da resposta escrita, de modo que a latência medida
+ * inclui a serialização. Sem vaga, a {@code OverloadedException} vira 503 com {@code Retry-After}
+ * no {@code GlobalExceptionHandler}.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+    private static final String PERMIT = ConcurrencyLimitInterceptor.class.getName() + ".permit";
+
+    private final ConcurrencyLimits limits;
+
+    public ConcurrencyLimitInterceptor(ConcurrencyLimits limits) {
+        this.limits = limits;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            ConcurrencyLimited limited = method.getMethodAnnotation(ConcurrencyLimited.class);
+            if (limited != null) request.setAttribute(PERMIT, limits.acquire(limited.value()));
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(PERMIT) instanceof ConcurrencyLimits.Permit permit) {
+            request.removeAttribute(PERMIT);
+            permit.release();
+        }
+    }
+}
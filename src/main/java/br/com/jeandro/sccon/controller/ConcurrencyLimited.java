@@ -0,0 +1,19 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.service.ConcurrencyLimits;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Endpoint sujeito ao limite de concorrência do grupo {@link #value()}, aplicado pelo
+ * {@link ConcurrencyLimitInterceptor} quando {@code sccon.limit.enabled} está ligado. Streams
+ * longos (export, changes) ficam de fora.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+    ConcurrencyLimits.Cost value();
+}
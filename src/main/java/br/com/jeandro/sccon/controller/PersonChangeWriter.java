@@ -0,0 +1,69 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.dto.PersonChange;
+import br.com.jeandro.sccon.service.PersonChangeReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Escreve o feed de alterações em Server-Sent Events ou NDJSON até o cliente desconectar, o
+ * leitor se perder (envia um RESYNC e encerra) ou acabar a duração máxima da conexão. Nesse
+ * último caso o cliente reconecta a partir do último cursor; em SSE o navegador já faz isso
+ * sozinho com o header Last-Event-ID.
+ */
+class PersonChangeWriter {
+    /** Espera máxima por alterações antes de enviar um keep-alive (só em SSE). */
+    static final long KEEP_ALIVE_MILLIS = 15_000;
+    static final long MAX_STREAM_MILLIS = 5 * 60_000;
+
+    private static final byte[] KEEP_ALIVE = ": keep-alive\n\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ObjectWriter writer;
+    private final long maxStreamMillis;
+
+    PersonChangeWriter(ObjectMapper mapper) {
+        this(mapper, MAX_STREAM_MILLIS);
+    }
+
+    PersonChangeWriter(ObjectMapper mapper, long maxStreamMillis) {
+        this.writer = mapper.writerFor(PersonChange.class);
+        this.maxStreamMillis = maxStreamMillis;
+    }
+
+    void write(PersonChangeReader reader, boolean sse, OutputStream out) throws IOException {
+        long end = System.currentTimeMillis() + maxStreamMillis;
+        while (true) {
+            if (reader.lost()) {
+                PersonChange resync = reader.resync();
+                // sem "id:": um cliente que ignorar o evento volta com o cursor perdido e recebe outro
+                if (sse) out.write("event: resync\n".getBytes(StandardCharsets.US_ASCII));
+                data(resync, sse, out);
+                out.flush();
+                return;
+            }
+            long remaining = end - System.currentTimeMillis();
+            if (remaining <= 0) return;
+            List<PersonChange> changes = reader.poll(Math.min(KEEP_ALIVE_MILLIS, remaining));
+            if (changes.isEmpty()) {
+                if (!sse || reader.lost()) continue;
+                out.write(KEEP_ALIVE); // uma conexão caída só é percebida ao escrever
+            }
+            for (PersonChange c : changes) {
+                if (sse) out.write(("id: " + c.getCursor() + "\n").getBytes(StandardCharsets.US_ASCII));
+                data(c, sse, out);
+            }
+            out.flush();
+        }
+    }
+
+    private void data(PersonChange change, boolean sse, OutputStream out) throws IOException {
+        if (sse) out.write("data: ".getBytes(StandardCharsets.US_ASCII));
+        out.write(writer.writeValueAsBytes(change));
+        out.write(sse ? "\n\n".getBytes(StandardCharsets.US_ASCII) : "\n".getBytes(StandardCharsets.US_ASCII));
+    }
+}
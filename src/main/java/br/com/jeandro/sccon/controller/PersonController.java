@@ -2,7 +2,15 @@ package br.com.jeandro.sccon.controller;
 
 import br.com.jeandro.sccon.dto.*;
 import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.PersonFilter;
+import br.com.jeandro.sccon.service.ConcurrencyLimits.Cost;
+import br.com.jeandro.sccon.service.PersonChangeReader;
 import br.com.jeandro.sccon.service.PersonService;
+import br.com.jeandro.sccon.util.ETags;
+import br.com.jeandro.sccon.util.MediaTypes;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,49 +18,198 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/persons")
 @Tag(name = "Person", description = "Gerenciamento de pessoas")
 public class PersonController {
 
     private static final BigDecimal DEFAULT_SALARIO_MINIMO = new BigDecimal("1320.00");
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int DEFAULT_JSON_CACHE_ENTRIES = 4096;
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final PersonService service;
+    private final PersonNdjsonWriter ndjson;
+    private final PersonNdjsonReader ndjsonReader;
+    private final PersonJsonCache json;
+    private final PersonJsonCache cbor;
+    private final PersonChangeWriter changes;
 
     public PersonController(PersonService service) {
+        this(service, new ObjectMapper().findAndRegisterModules().registerModule(new PersonJsonModule()),
+            new ObjectMapper(new CBORFactory()).findAndRegisterModules().registerModule(new PersonJsonModule()),
+            DEFAULT_JSON_CACHE_ENTRIES);
+    }
+
+    @Autowired
+    public PersonController(PersonService service, ObjectMapper mapper, MappingJackson2CborHttpMessageConverter cborConverter,
+                            @Value("${sccon.cache.person-json-entries:4096}") int jsonCacheEntries) {
+        this(service, mapper, cborConverter.getObjectMapper(), jsonCacheEntries);
+    }
+
+    private PersonController(PersonService service, ObjectMapper mapper, ObjectMapper cborMapper, int jsonCacheEntries) {
         this.service = service;
+        this.ndjson = new PersonNdjsonWriter(mapper);
+        this.ndjsonReader = new PersonNdjsonReader(mapper);
+        this.json = new PersonJsonCache(mapper, jsonCacheEntries);
+        this.cbor = new PersonJsonCache(cborMapper, jsonCacheEntries);
+        this.changes = new PersonChangeWriter(mapper);
     }
 
     @GetMapping
+    @ConcurrencyLimited(Cost.EXPENSIVE)
     @Operation(summary = "Lista todas as pessoas",
-        description = "Retorna uma lista de pessoas, ordenada em ordem alfabética por nome.")
-    @ApiResponse(responseCode = "200", description = "Lista de pessoas retornada com sucesso")
-    public List<PersonResponse> list() {
-        return service.list();
+        description = "Retorna uma lista de pessoas, ordenada em ordem alfabética por nome. "
+            + "Com 'limit' e/ou 'after' a lista é paginada e o cursor da próxima página vem no header X-Next-Cursor. "
+            + "Com filtros (admissaoDe/admissaoAte, salarioMin/salarioMax, aniversarioMes) devolve só as pessoas "
+            + "dentro dos intervalos, na ordem do primeiro filtro informado, limitadas por 'limit'. "
+            + "A ETag muda a cada alteração na base; com If-None-Match igual a ela a resposta é 304.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de pessoas retornada com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Nenhuma alteração desde a ETag informada"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros de paginação ou filtros inválidos")
+    })
+    public ResponseEntity<List<PersonResponse>> list(@RequestParam(name = "limit", required = false) Integer limit,
+                                                     @RequestParam(name = "after", required = false) String after,
+                                                     @RequestParam(name = "admissaoDe", required = false)
+                                                     @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate admissaoDe,
+                                                     @RequestParam(name = "admissaoAte", required = false)
+                                                     @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate admissaoAte,
+                                                     @RequestParam(name = "salarioMin", required = false) BigDecimal salarioMin,
+                                                     @RequestParam(name = "salarioMax", required = false) BigDecimal salarioMax,
+                                                     @RequestParam(name = "aniversarioMes", required = false) Integer aniversarioMes,
+                                                     @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch) {
+        PersonFilter filter = new PersonFilter(admissaoDe, admissaoAte, salarioMin, salarioMax, aniversarioMes);
+        if (!filter.isEmpty() && after != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'after' não pode ser combinado com filtros.");
+        }
+        // lido antes da consulta: uma escrita concorrente deixa a ETag velha, nunca os dados
+        String etag = ETags.ofCollection(service.dataVersion());
+        if (ETags.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        if (!filter.isEmpty()) {
+            return ResponseEntity.ok().eTag(etag).body(service.filter(filter, limit));
+        }
+        if (limit == null && after == null) {
+            return ResponseEntity.ok().eTag(etag).body(service.list());
+        }
+        PersonPage page = service.page(after, limit == null ? DEFAULT_PAGE_SIZE : limit);
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok().eTag(etag);
+        if (page.getNextCursor() != null) ok.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        return ok.body(page.getItems());
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Exporta todas as pessoas em NDJSON",
+        description = "Envia todas as pessoas, uma por linha, em ordem alfabética por nome. "
+            + "A resposta é gerada em streaming, sem montar a lista inteira em memória.")
+    @ApiResponse(responseCode = "200", description = "Exportação iniciada")
+    public ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = out -> ndjson.write(service.stream(), out);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    @GetMapping(value = "/changes", produces = {MediaType.TEXT_EVENT_STREAM_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Acompanha as alterações em tempo real",
+        description = "Envia cada criação, alteração e remoção (CREATE, UPDATE, DELETE) a partir do cursor 'after' "
+            + "(ou do header Last-Event-ID), ou a partir de agora sem cursor, em SSE ou NDJSON conforme o Accept. "
+            + "Cada evento traz o cursor para retomar depois dele. Se as alterações seguintes ao cursor não estão mais "
+            + "disponíveis o evento é RESYNC: releia a base e continue do cursor recebido. A conexão é encerrada "
+            + "após alguns minutos; reconecte com o último cursor.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Fluxo de alterações iniciado"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido")
+    })
+    public ResponseEntity<StreamingResponseBody> changes(@RequestParam(name = "after", required = false) String after,
+                                                         @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                                         @RequestHeader(name = "Accept", required = false) String accept) {
+        // o navegador reconecta na mesma URL com Last-Event-ID, que é mais recente que 'after'
+        PersonChangeReader reader = service.changes(lastEventId != null ? lastEventId : after);
+        boolean sse = accept == null || !accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        StreamingResponseBody body = out -> changes.write(reader, sse, out);
+        return ResponseEntity.ok()
+            .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+            .header("Cache-Control", "no-cache")
+            .body(body);
+    }
+
+    @GetMapping("/search")
+    @ConcurrencyLimited(Cost.EXPENSIVE)
+    @Operation(summary = "Busca pessoas pelo nome",
+        description = "Busca por prefixo, trecho ou aproximada (n-gramas), ignorando acentos e maiúsculas. "
+            + "Os resultados vêm do mais para o menos relevante, limitados por 'limit' (padrão 20).")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados da busca"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    })
+    public List<PersonResponse> search(@RequestParam(name = "q", required = false) String q,
+                                       @RequestParam(name = "limit", required = false) Integer limit) {
+        return service.search(q, limit);
+    }
+
+    @GetMapping("/stats")
+    @ConcurrencyLimited(Cost.CHEAP)
+    @Operation(summary = "Estatísticas da folha",
+        description = "Total da folha, salário médio e mediano (aproximado, erro de até ~1%), pessoas admitidas por "
+            + "ano e quantidade por faixa de salário em salários mínimos (referência 1320.00). Os valores são "
+            + "mantidos a cada escrita, então a consulta não percorre a base.")
+    @ApiResponse(responseCode = "200", description = "Estatísticas calculadas")
+    public PersonStatsResponse stats() {
+        return service.stats();
     }
 
     @GetMapping("/{id}")
+    @ConcurrencyLimited(Cost.CHEAP)
     @Operation(summary = "Busca uma pessoa pelo ID",
-        description = "Retorna uma pessoa específica com base no ID fornecido.")
+        description = "Retorna uma pessoa específica com base no ID fornecido. A versão vem no header ETag; "
+            + "com If-None-Match igual a ela a resposta é 304, sem corpo. Com Accept: application/cbor "
+            + "o corpo vem em CBOR.")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Pessoa encontrada com sucesso"),
+        @ApiResponse(responseCode = "200", description = "Pessoa encontrada com sucesso",
+            content = @Content(schema = @Schema(implementation = PersonResponse.class))),
+        @ApiResponse(responseCode = "304", description = "A pessoa não mudou desde a ETag informada"),
         @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
     })
-    public PersonResponse get(@PathVariable("id") Long id) {
-        return service.get(id);
+    public ResponseEntity<byte[]> get(@PathVariable("id") Long id,
+                                      @RequestHeader(name = "If-None-Match", required = false) String ifNoneMatch,
+                                      @RequestHeader(name = "Accept", required = false) String accept) {
+        PersonResponse p = service.get(id);
+        String etag = ETags.of(p.getVersion());
+        if (ETags.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        // o corpo já vem em bytes do cache, então a negociação de conteúdo é feita aqui
+        if (MediaTypes.prefersCbor(accept)) {
+            return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_CBOR).body(cbor.get(p));
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(json.get(p));
     }
 
     @PostMapping
+    @ConcurrencyLimited(Cost.EXPENSIVE)
     @Operation(summary = "Cria uma nova pessoa",
         description = "Cria uma nova pessoa. Um ID será atribuído automaticamente caso não seja fornecido.")
     @ApiResponses(value = {
@@ -62,10 +219,47 @@ public class PersonController {
     })
     public ResponseEntity<PersonResponse> create(@Valid @RequestBody PersonCreateRequest req) {
         PersonResponse created = service.create(req);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), created);
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ConcurrencyLimited(Cost.EXPENSIVE)
+    @Operation(summary = "Cria pessoas em lote",
+        description = "Recebe um array JSON de pessoas, valida cada item e grava os válidos em blocos. "
+            + "Retorna o resultado de cada item (CREATED com o ID atribuído, ou INVALID com os erros).")
+    @ApiResponse(responseCode = "200", description = "Lote processado")
+    public PersonBatchResult createBatch(@RequestBody List<PersonCreateRequest> reqs) {
+        return service.createBatch(reqs.iterator());
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @ConcurrencyLimited(Cost.EXPENSIVE)
+    @Operation(summary = "Cria pessoas em lote (NDJSON)",
+        description = "Igual ao lote em JSON, mas lê uma pessoa por linha em streaming. "
+            + "Uma linha malformada interrompe o processamento; os itens anteriores permanecem gravados.")
+    @ApiResponse(responseCode = "200", description = "Lote processado")
+    public PersonBatchResult createBatchNdjson(InputStream body) throws IOException {
+        try (MappingIterator<PersonCreateRequest> it = ndjsonReader.open(body)) {
+            return service.createBatch(PersonNdjsonReader.checked(it));
+        }
+    }
+
+    @PostMapping("/metrics")
+    @ConcurrencyLimited(Cost.EXPENSIVE)
+    @Operation(summary = "Calcula idade e salário de várias pessoas",
+        description = "Recebe uma lista de IDs (ou all=true), o formato da idade (dias | meses | anos) e o "
+            + "salário mínimo (padrão 1320.00) e devolve idade e múltiplo do salário de cada pessoa.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Métricas calculadas"),
+        @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    })
+    public PersonMetricsResponse metrics(@RequestBody PersonMetricsRequest req) {
+        BigDecimal minimo = (req.getValorMinimo() == null) ? DEFAULT_SALARIO_MINIMO : req.getValorMinimo();
+        return service.metrics(req.getIds(), req.isAll(), normalizeOutput(req.getOutput()), minimo);
     }
 
     @DeleteMapping("/{id}")
+    @ConcurrencyLimited(Cost.EXPENSIVE)
     @Operation(summary = "Deleta uma pessoa",
         description = "Deleta uma pessoa da base de dados")
     @ApiResponses(value = {
@@ -74,33 +268,52 @@ public class PersonController {
     })
     public ResponseEntity<Void> delete(@PathVariable("id") Long id) {
         service.delete(id);
+        json.evict(id);
+        cbor.evict(id);
         return ResponseEntity.noContent().build();
     }
 
     @PutMapping("/{id}")
+    @ConcurrencyLimited(Cost.EXPENSIVE)
     @Operation(summary = "Atualiza uma pessoa",
-        description = "Atualiza todos os dados de uma pessoa existente.")
+        description = "Atualiza todos os dados de uma pessoa existente. Com If-Match, só atualiza se a "
+            + "ETag informada for a da versão atual.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pessoa atualizada com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
+        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada"),
+        @ApiResponse(responseCode = "409", description = "Alterações concorrentes demais; tente novamente"),
+        @ApiResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
-    public PersonResponse put(@PathVariable("id") Long id, @Valid @RequestBody PersonUpdateRequest req) {
-        return service.put(id, req);
+    public ResponseEntity<PersonResponse> put(@PathVariable("id") Long id, @Valid @RequestBody PersonUpdateRequest req,
+                                              @RequestHeader(name = "If-Match", required = false) String ifMatch) {
+        PersonResponse updated = service.put(id, req, ETags.ifMatch(ifMatch));
+        json.evict(id);
+        cbor.evict(id);
+        return withETag(ResponseEntity.ok(), updated);
     }
 
     @PatchMapping("/{id}")
+    @ConcurrencyLimited(Cost.EXPENSIVE)
     @Operation(summary = "Atualiza parcialmente uma pessoa",
-        description = "Atualiza apenas os campos fornecidos de uma pessoa existente.")
+        description = "Atualiza apenas os campos fornecidos de uma pessoa existente. Com If-Match, só atualiza "
+            + "se a ETag informada for a da versão atual.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Pessoa atualizada com sucesso"),
-        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
+        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada"),
+        @ApiResponse(responseCode = "409", description = "Alterações concorrentes demais; tente novamente"),
+        @ApiResponse(responseCode = "412", description = "If-Match não corresponde à versão atual")
     })
-    public PersonResponse patch(@PathVariable("id") Long id, @RequestBody PersonPatchRequest req) {
-        return service.patch(id, req);
+    public ResponseEntity<PersonResponse> patch(@PathVariable("id") Long id, @Valid @RequestBody PersonPatchRequest req,
+                                                @RequestHeader(name = "If-Match", required = false) String ifMatch) {
+        PersonResponse updated = service.patch(id, req, ETags.ifMatch(ifMatch));
+        json.evict(id);
+        cbor.evict(id);
+        return withETag(ResponseEntity.ok(), updated);
     }
 
     // /persons/{id}/idade?output=dias|meses|anos
     @GetMapping("/{id}/idade")
+    @ConcurrencyLimited(Cost.CHEAP)
     @Operation(summary = "Calcula a idade de uma pessoa",
         description = "Calcula a idade da pessoa em dias, meses ou anos.")
     @ApiResponses(value = {
@@ -108,51 +321,67 @@ public class PersonController {
         @ApiResponse(responseCode = "400", description = "Formato de saída inválido"),
         @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
     })
-    public Map<String, Object> idade(@PathVariable("id") Long id, @RequestParam String output) {
+    public PersonIdadeResponse idade(@PathVariable("id") Long id, @RequestParam("output") String output) {
         String normalized = normalizeOutput(output);
         if (!("dias".equals(normalized) || "meses".equals(normalized) || "anos".equals(normalized))) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
                 "Parâmetro 'output' inválido. Use: dias | meses | anos.");
         }
 
-        Object valor = service.idade(id, normalized);
+        Number valor = service.idade(id, normalized);
         if (valor == null) {
-            // Evita NPE no Map.of; escolha o status que fizer mais sentido no seu domínio
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                 "Não foi possível calcular a idade.");
         }
 
-        return Map.of(
-            "id", id,
-            "output", normalized,
-            "valor", valor
-        );
+        return new PersonIdadeResponse(id, normalized, valor);
     }
 
-    // /persons/{id}/salario?valorMinimo=1320
+    // /persons/{id}/salario?valorMinimo=1320[&em=15/01/2023]
     @GetMapping("/{id}/salario")
+    @ConcurrencyLimited(Cost.CHEAP)
     @Operation(summary = "Calcula o salário de uma pessoa",
-        description = "Calcula o salário da pessoa com base no tempo de empresa.")
+        description = "Calcula o salário da pessoa com base no tempo de empresa. "
+            + "Com 'em' (dd/MM/yyyy) usa o salário em vigor nesse dia, do histórico de alterações.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Salário calculado com sucesso"),
         @ApiResponse(responseCode = "400", description = "Formato de saída inválido"),
-        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
+        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada ou sem salário na data")
     })
-    public Map<String, Object> salario(@PathVariable("id") Long id,
-                                       @RequestParam(name = "valorMinimo", required = false) BigDecimal valorMinimo) {
+    public PersonSalarioResponse salario(@PathVariable("id") Long id,
+                                         @RequestParam(name = "valorMinimo", required = false) BigDecimal valorMinimo,
+                                         @RequestParam(name = "em", required = false)
+                                         @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate em) {
         BigDecimal minimo = (valorMinimo == null) ? DEFAULT_SALARIO_MINIMO : valorMinimo;
+        if (em != null) {
+            return PersonSalarioResponse.em(id, em, service.salarioEm(id, em, minimo), minimo);
+        }
 
-        Object multiplo = service.salarioMultiplo(id, minimo);
+        BigDecimal multiplo = service.salarioMultiplo(id, minimo);
         if (multiplo == null) {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR,
                 "Não foi possível obter o múltiplo do salário.");
         }
 
-        return Map.of(
-            "id", id,
-            "salarioAtualMultiplo", multiplo,
-            "salarioMinimo", minimo
-        );
+        return PersonSalarioResponse.atual(id, multiplo, minimo);
+    }
+
+    // /persons/{id}/salario/historico
+    @GetMapping("/{id}/salario/historico")
+    @ConcurrencyLimited(Cost.CHEAP)
+    @Operation(summary = "Histórico de salários de uma pessoa",
+        description = "Retorna os salários da pessoa em ordem de data, cada um com o dia a partir do qual vale. "
+            + "Sem alterações registradas, só o salário atual desde a admissão.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Histórico retornado com sucesso"),
+        @ApiResponse(responseCode = "404", description = "Pessoa não encontrada")
+    })
+    public List<PersonSalaryEntry> salarioHistorico(@PathVariable("id") Long id) {
+        return service.salarioHistorico(id);
+    }
+
+    private static ResponseEntity<PersonResponse> withETag(ResponseEntity.BodyBuilder builder, PersonResponse p) {
+        return builder.eTag(ETags.of(p.getVersion())).body(p);
     }
 
     private String normalizeOutput(String output) {
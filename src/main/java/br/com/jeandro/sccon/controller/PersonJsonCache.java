@@ -0,0 +1,60 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.dto.PersonResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JSON já serializado de {@link PersonResponse} (ou CBOR, com um ObjectMapper CBOR), para
+ * GET /persons/{id} responder com uma cópia de bytes em vez de passar pelo Jackson. Tem um número fixo de posições (mapeamento direto:
+ * cada ID ocupa a posição {@code hash(id) & (capacidade - 1)} e desaloja quem estava lá), sem
+ * lock nem LRU. A entrada guarda a versão: uma pessoa alterada nunca é servida do cache, mesmo
+ * antes de {@link #evict}.
+ */
+class PersonJsonCache {
+    private record Entry(long id, long version, byte[] json) {}
+
+    private final ObjectWriter writer;
+    /** null quando o cache está desligado (capacidade 0). */
+    private final AtomicReferenceArray<Entry> slots;
+
+    /** {@code capacity} é arredondada para a próxima potência de 2; 0 desliga o cache. */
+    PersonJsonCache(ObjectMapper mapper, int capacity) {
+        this.writer = mapper.writerFor(PersonResponse.class);
+        this.slots = capacity <= 0 ? null : new AtomicReferenceArray<>(Math.max(1, Integer.highestOneBit(capacity - 1) << 1));
+    }
+
+    byte[] get(PersonResponse p) {
+        if (slots == null) return serialize(p);
+        int i = index(p.getId());
+        Entry e = slots.get(i);
+        if (e != null && e.id() == p.getId() && e.version() == p.getVersion()) return e.json();
+        byte[] json = serialize(p);
+        slots.set(i, new Entry(p.getId(), p.getVersion(), json));
+        return json;
+    }
+
+    void evict(long id) {
+        if (slots == null) return;
+        int i = index(id);
+        Entry e = slots.get(i);
+        if (e != null && e.id() == id) slots.compareAndSet(i, e, null);
+    }
+
+    private int index(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & (slots.length() - 1);
+    }
+
+    private byte[] serialize(PersonResponse p) {
+        try {
+            return writer.writeValueAsBytes(p);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.dto.PersonCreateRequest;
+import br.com.jeandro.sccon.exception.BadRequestException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * Lê um corpo NDJSON item a item, sem carregar a requisição inteira em memória.
+ * Linhas malformadas viram BadRequestException.
+ */
+class PersonNdjsonReader {
+
+    private final ObjectReader reader;
+
+    PersonNdjsonReader(ObjectMapper mapper) {
+        this.reader = mapper.readerFor(PersonCreateRequest.class);
+    }
+
+    MappingIterator<PersonCreateRequest> open(InputStream in) throws IOException {
+        return reader.readValues(in);
+    }
+
+    static Iterator<PersonCreateRequest> checked(MappingIterator<PersonCreateRequest> it) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return it.hasNext();
+                } catch (RuntimeException e) {
+                    throw invalid(it, e);
+                }
+            }
+
+            @Override
+            public PersonCreateRequest next() {
+                try {
+                    return it.next();
+                } catch (RuntimeException e) {
+                    throw invalid(it, e);
+                }
+            }
+        };
+    }
+
+    private static BadRequestException invalid(MappingIterator<?> it, RuntimeException e) {
+        int linha = it.getCurrentLocation() == null ? -1 : it.getCurrentLocation().getLineNr();
+        return new BadRequestException("NDJSON inválido na linha " + linha);
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.jeandro.sccon.controller;
+
+import br.com.jeandro.sccon.dto.PersonResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Escreve pessoas em NDJSON (um JSON por linha) direto no OutputStream,
+ * reaproveitando um único JsonGenerator durante toda a exportação.
+ */
+class PersonNdjsonWriter {
+    private static final int FLUSH_EVERY = 512;
+
+    private final ObjectWriter writer;
+
+    PersonNdjsonWriter(ObjectMapper mapper) {
+        // sem isso o writeValue dá flush a cada pessoa e o FLUSH_EVERY nunca agrupa nada
+        this.writer = mapper.writerFor(PersonResponse.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    long write(Stream<PersonResponse> people, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator gen = writer.getFactory().createGenerator(out);
+             Stream<PersonResponse> s = people) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.setRootValueSeparator(null); // o separador é a quebra de linha escrita abaixo
+            Iterator<PersonResponse> it = s.iterator();
+            while (it.hasNext()) {
+                writer.writeValue(gen, it.next());
+                gen.writeRaw('\n');
+                if (++count % FLUSH_EVERY == 0) gen.flush();
+            }
+            gen.flush();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonBatchItemResult {
+    public static final String CREATED = "CREATED";
+    public static final String INVALID = "INVALID";
+
+    private final int index;
+    private final String status;
+    private Long id;
+    private final Map<String, String> errors;
+
+    private PersonBatchItemResult(int index, String status, Map<String, String> errors) {
+        this.index = index; this.status = status; this.errors = errors;
+    }
+
+    public static PersonBatchItemResult created(int index) { return new PersonBatchItemResult(index, CREATED, null); }
+    public static PersonBatchItemResult invalid(int index, Map<String, String> errors) { return new PersonBatchItemResult(index, INVALID, errors); }
+
+    /** Posição do item no corpo da requisição (base 0). */
+    public int getIndex() { return index; }
+    public String getStatus() { return status; }
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Map<String, String> getErrors() { return errors; }
+}
@@ -0,0 +1,19 @@
+package br.com.jeandro.sccon.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PersonBatchResult {
+    private int created;
+    private int rejected;
+    private final List<PersonBatchItemResult> items = new ArrayList<>();
+
+    public void add(PersonBatchItemResult item) {
+        items.add(item);
+        if (PersonBatchItemResult.CREATED.equals(item.getStatus())) created++; else rejected++;
+    }
+
+    public int getCreated() { return created; }
+    public int getRejected() { return rejected; }
+    public List<PersonBatchItemResult> getItems() { return items; }
+}
@@ -0,0 +1,24 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Evento do feed de alterações: CREATE, UPDATE, DELETE ou RESYNC. {@code cursor} é a posição do
+ * evento no feed (para retomar depois dele); {@code person} só vem em CREATE e UPDATE.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonChange {
+    private final String cursor;
+    private final String type;
+    private final Long id;
+    private final PersonResponse person;
+
+    public PersonChange(String cursor, String type, Long id, PersonResponse person) {
+        this.cursor = cursor; this.type = type; this.id = id; this.person = person;
+    }
+
+    public String getCursor() { return cursor; }
+    public String getType() { return type; }
+    public Long getId() { return id; }
+    public PersonResponse getPerson() { return person; }
+}
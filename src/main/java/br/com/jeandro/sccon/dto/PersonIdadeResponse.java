@@ -0,0 +1,16 @@
+package br.com.jeandro.sccon.dto;
+
+/** Idade da pessoa (GET /persons/{id}/idade): dias e meses inteiros, anos com duas casas. */
+public class PersonIdadeResponse {
+    private final Long id;
+    private final String output;
+    private final Number valor;
+
+    public PersonIdadeResponse(Long id, String output, Number valor) {
+        this.id = id; this.output = output; this.valor = valor;
+    }
+
+    public Long getId() { return id; }
+    public String getOutput() { return output; }
+    public Number getValor() { return valor; }
+}
@@ -0,0 +1,269 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * (De)serializadores escritos à mão para os DTOs de pessoa, no lugar dos beans por reflexão do
+ * Jackson: nomes de campo pré-codificados ({@link SerializedString}), datas {@code dd/MM/yyyy}
+ * escritas e lidas dígito a dígito e requisições lidas campo a campo. A saída é a mesma dos beans
+ * com as anotações dos DTOs, que continuam valendo sem o módulo. Só usam a API de streaming, então
+ * servem igualmente para JSON e CBOR.
+ */
+public class PersonJsonModule extends SimpleModule {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NOME = new SerializedString("nome");
+    private static final SerializableString DATA_NASCIMENTO = new SerializedString("dataNascimento");
+    private static final SerializableString DATA_ADMISSAO = new SerializedString("dataAdmissao");
+    private static final SerializableString SALARIO_ATUAL = new SerializedString("salarioAtual");
+    private static final SerializableString OUTPUT = new SerializedString("output");
+    private static final SerializableString VALOR = new SerializedString("valor");
+    private static final SerializableString EM = new SerializedString("em");
+    private static final SerializableString DESDE = new SerializedString("desde");
+    private static final SerializableString SALARIO = new SerializedString("salario");
+    private static final SerializableString SALARIO_MULTIPLO = new SerializedString("salarioMultiplo");
+    private static final SerializableString SALARIO_ATUAL_MULTIPLO = new SerializedString("salarioAtualMultiplo");
+    private static final SerializableString SALARIO_MINIMO = new SerializedString("salarioMinimo");
+
+    public PersonJsonModule() {
+        super("PersonJsonModule");
+        addSerializer(PersonResponse.class, new PersonResponseSerializer());
+        addSerializer(PersonIdadeResponse.class, new IdadeSerializer());
+        addSerializer(PersonSalarioResponse.class, new SalarioSerializer());
+        addDeserializer(PersonCreateRequest.class, new RequestDeserializer<>(PersonCreateRequest.class, PersonCreateRequest::new,
+            PersonCreateRequest::setNome, PersonCreateRequest::setDataNascimento, PersonCreateRequest::setDataAdmissao,
+            PersonCreateRequest::setSalarioAtual));
+        addDeserializer(PersonUpdateRequest.class, new RequestDeserializer<>(PersonUpdateRequest.class, PersonUpdateRequest::new,
+            PersonUpdateRequest::setNome, PersonUpdateRequest::setDataNascimento, PersonUpdateRequest::setDataAdmissao,
+            PersonUpdateRequest::setSalarioAtual));
+        addDeserializer(PersonPatchRequest.class, new RequestDeserializer<>(PersonPatchRequest.class, PersonPatchRequest::new,
+            PersonPatchRequest::setNome, PersonPatchRequest::setDataNascimento, PersonPatchRequest::setDataAdmissao,
+            PersonPatchRequest::setSalarioAtual));
+    }
+
+    private static final class PersonResponseSerializer extends StdSerializer<PersonResponse> {
+        PersonResponseSerializer() {
+            super(PersonResponse.class);
+        }
+
+        @Override
+        public void serialize(PersonResponse p, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(p);
+            gen.writeFieldName(ID);
+            writeLong(gen, p.getId());
+            gen.writeFieldName(NOME);
+            gen.writeString(p.getNome());
+            gen.writeFieldName(DATA_NASCIMENTO);
+            writeDate(gen, p.getDataNascimento());
+            gen.writeFieldName(DATA_ADMISSAO);
+            writeDate(gen, p.getDataAdmissao());
+            gen.writeFieldName(SALARIO_ATUAL);
+            gen.writeNumber(p.getSalarioAtual());
+            gen.writeEndObject();
+        }
+    }
+
+    private static final class IdadeSerializer extends StdSerializer<PersonIdadeResponse> {
+        IdadeSerializer() {
+            super(PersonIdadeResponse.class);
+        }
+
+        @Override
+        public void serialize(PersonIdadeResponse r, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(r);
+            gen.writeFieldName(ID);
+            writeLong(gen, r.getId());
+            gen.writeFieldName(OUTPUT);
+            gen.writeString(r.getOutput());
+            gen.writeFieldName(VALOR);
+            Number valor = r.getValor();
+            if (valor instanceof Long l) gen.writeNumber(l);
+            else if (valor instanceof BigDecimal d) gen.writeNumber(d);
+            else provider.defaultSerializeValue(valor, gen);
+            gen.writeEndObject();
+        }
+    }
+
+    /** Campos nulos ficam fora, como no {@code @JsonInclude(NON_NULL)} do DTO. */
+    private static final class SalarioSerializer extends StdSerializer<PersonSalarioResponse> {
+        SalarioSerializer() {
+            super(PersonSalarioResponse.class);
+        }
+
+        @Override
+        public void serialize(PersonSalarioResponse r, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject(r);
+            if (r.getId() != null) {
+                gen.writeFieldName(ID);
+                gen.writeNumber(r.getId());
+            }
+            if (r.getEm() != null) {
+                gen.writeFieldName(EM);
+                writeDate(gen, r.getEm());
+            }
+            if (r.getDesde() != null) {
+                gen.writeFieldName(DESDE);
+                writeDate(gen, r.getDesde());
+            }
+            writeDecimal(gen, SALARIO, r.getSalario());
+            writeDecimal(gen, SALARIO_MULTIPLO, r.getSalarioMultiplo());
+            writeDecimal(gen, SALARIO_ATUAL_MULTIPLO, r.getSalarioAtualMultiplo());
+            writeDecimal(gen, SALARIO_MINIMO, r.getSalarioMinimo());
+            gen.writeEndObject();
+        }
+
+        private static void writeDecimal(JsonGenerator gen, SerializableString name, BigDecimal value) throws IOException {
+            if (value == null) return;
+            gen.writeFieldName(name);
+            gen.writeNumber(value);
+        }
+    }
+
+    /**
+     * Lê os quatro campos das requisições de pessoa. Valores que não são o caso comum (string
+     * {@code dd/MM/yyyy}, número, texto) vão para os deserializadores padrão do Jackson, com as
+     * mesmas coerções e mensagens de erro dos beans; campos desconhecidos seguem
+     * {@code FAIL_ON_UNKNOWN_PROPERTIES}.
+     */
+    private static final class RequestDeserializer<T> extends StdDeserializer<T> {
+        private final Supplier<T> factory;
+        private final BiConsumer<T, String> nome;
+        private final BiConsumer<T, LocalDate> dataNascimento;
+        private final BiConsumer<T, LocalDate> dataAdmissao;
+        private final BiConsumer<T, BigDecimal> salarioAtual;
+
+        RequestDeserializer(Class<T> type, Supplier<T> factory, BiConsumer<T, String> nome, BiConsumer<T, LocalDate> dataNascimento,
+                            BiConsumer<T, LocalDate> dataAdmissao, BiConsumer<T, BigDecimal> salarioAtual) {
+            super(type);
+            this.factory = factory;
+            this.nome = nome;
+            this.dataNascimento = dataNascimento;
+            this.dataAdmissao = dataAdmissao;
+            this.salarioAtual = salarioAtual;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken t = p.currentToken();
+            if (t == JsonToken.START_OBJECT) t = p.nextToken();
+            else if (t != JsonToken.FIELD_NAME && t != JsonToken.END_OBJECT) return (T) ctxt.handleUnexpectedToken(handledType(), p);
+            T r = factory.get();
+            for (; t == JsonToken.FIELD_NAME; t = p.nextToken()) {
+                String name = p.currentName();
+                p.nextToken();
+                switch (name) {
+                    case "nome" -> nome.accept(r, readString(p, ctxt));
+                    case "dataNascimento" -> dataNascimento.accept(r, readDate(p, ctxt));
+                    case "dataAdmissao" -> dataAdmissao.accept(r, readDate(p, ctxt));
+                    case "salarioAtual" -> salarioAtual.accept(r, readDecimal(p, ctxt));
+                    default -> ctxt.handleUnknownProperty(p, this, r, name);
+                }
+            }
+            return r;
+        }
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) gen.writeNull();
+        else gen.writeNumber(value.longValue());
+    }
+
+    /** Anos fora de 1..9999 passam pelo DateTimeFormatter, como nas anotações. */
+    private static void writeDate(JsonGenerator gen, LocalDate d) throws IOException {
+        if (d == null) {
+            gen.writeNull();
+            return;
+        }
+        int year = d.getYear();
+        if (year < 1 || year > 9999) {
+            gen.writeString(DATE_FORMAT.format(d));
+            return;
+        }
+        char[] c = new char[10];
+        int day = d.getDayOfMonth();
+        int month = d.getMonthValue();
+        c[0] = (char) ('0' + day / 10);
+        c[1] = (char) ('0' + day % 10);
+        c[2] = '/';
+        c[3] = (char) ('0' + month / 10);
+        c[4] = (char) ('0' + month % 10);
+        c[5] = '/';
+        c[6] = (char) ('0' + year / 1000);
+        c[7] = (char) ('0' + year / 100 % 10);
+        c[8] = (char) ('0' + year / 10 % 10);
+        c[9] = (char) ('0' + year % 10);
+        gen.writeString(c, 0, 10);
+    }
+
+    private static String readString(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_STRING -> p.getText();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, String.class);
+        };
+    }
+
+    private static BigDecimal readDecimal(JsonParser p, DeserializationContext ctxt) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> p.getDecimalValue();
+            case VALUE_NULL -> null;
+            default -> ctxt.readValue(p, BigDecimal.class);
+        };
+    }
+
+    /**
+     * {@code dd/MM/yyyy} lido direto do buffer do parser. Dias acima de 28 vão pelo
+     * DateTimeFormatter, que ajusta dias inválidos para o mês (31/02 vira 28 ou 29/02) como nas
+     * anotações.
+     */
+    private static LocalDate readDate(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken t = p.currentToken();
+        if (t == JsonToken.VALUE_NULL) return null;
+        if (t != JsonToken.VALUE_STRING) return ctxt.readValue(p, LocalDate.class);
+        char[] c = p.getTextCharacters();
+        int o = p.getTextOffset();
+        if (p.getTextLength() == 10 && c[o + 2] == '/' && c[o + 5] == '/') {
+            int day = digits(c, o, 2);
+            int month = digits(c, o + 3, 2);
+            int year = digits(c, o + 6, 4);
+            if (day >= 1 && day <= 28 && month >= 1 && month <= 12 && year >= 1) return LocalDate.of(year, month, day);
+        }
+        String s = p.getText().trim();
+        if (s.isEmpty()) return ctxt.readValue(p, LocalDate.class);
+        try {
+            return LocalDate.parse(s, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            return (LocalDate) ctxt.handleWeirdStringValue(LocalDate.class, s, "use dd/MM/yyyy");
+        }
+    }
+
+    /** Valor dos {@code n} dígitos a partir de {@code from}, ou -1 se algum não for dígito. */
+    private static int digits(char[] c, int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            int d = c[i] - '0';
+            if (d < 0 || d > 9) return -1;
+            v = v * 10 + d;
+        }
+        return v;
+    }
+}
@@ -0,0 +1,17 @@
+package br.com.jeandro.sccon.dto;
+
+import java.math.BigDecimal;
+
+public class PersonMetrics {
+    private final Long id;
+    private final Number idade;
+    private final BigDecimal salarioAtualMultiplo;
+
+    public PersonMetrics(Long id, Number idade, BigDecimal salarioAtualMultiplo) {
+        this.id = id; this.idade = idade; this.salarioAtualMultiplo = salarioAtualMultiplo;
+    }
+
+    public Long getId() { return id; }
+    public Number getIdade() { return idade; }
+    public BigDecimal getSalarioAtualMultiplo() { return salarioAtualMultiplo; }
+}
@@ -0,0 +1,20 @@
+package br.com.jeandro.sccon.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PersonMetricsRequest {
+    private List<Long> ids;
+    private boolean all;
+    private String output;
+    private BigDecimal valorMinimo;
+
+    public List<Long> getIds() { return ids; }
+    public void setIds(List<Long> ids) { this.ids = ids; }
+    public boolean isAll() { return all; }
+    public void setAll(boolean all) { this.all = all; }
+    public String getOutput() { return output; }
+    public void setOutput(String output) { this.output = output; }
+    public BigDecimal getValorMinimo() { return valorMinimo; }
+    public void setValorMinimo(BigDecimal valorMinimo) { this.valorMinimo = valorMinimo; }
+}
@@ -0,0 +1,21 @@
+package br.com.jeandro.sccon.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class PersonMetricsResponse {
+    private final String output;
+    private final BigDecimal salarioMinimo;
+    private final List<PersonMetrics> items;
+    private final List<Long> notFound;
+
+    public PersonMetricsResponse(String output, BigDecimal salarioMinimo, List<PersonMetrics> items, List<Long> notFound) {
+        this.output = output; this.salarioMinimo = salarioMinimo; this.items = items; this.notFound = notFound;
+    }
+
+    public String getOutput() { return output; }
+    public BigDecimal getSalarioMinimo() { return salarioMinimo; }
+    public List<PersonMetrics> getItems() { return items; }
+    /** IDs pedidos que não existem. */
+    public List<Long> getNotFound() { return notFound; }
+}
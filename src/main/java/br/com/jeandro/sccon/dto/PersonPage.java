@@ -0,0 +1,16 @@
+package br.com.jeandro.sccon.dto;
+
+import java.util.List;
+
+public class PersonPage {
+    private final List<PersonResponse> items;
+    private final String nextCursor;
+
+    public PersonPage(List<PersonResponse> items, String nextCursor) {
+        this.items = items; this.nextCursor = nextCursor;
+    }
+
+    public List<PersonResponse> getItems() { return items; }
+    /** Cursor para a próxima página (parâmetro 'after'), ou null se esta for a última. */
+    public String getNextCursor() { return nextCursor; }
+}
@@ -1,6 +1,8 @@
 package br.com.jeandro.sccon.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -10,6 +12,8 @@ public class PersonPatchRequest {
     private LocalDate dataNascimento;
     @JsonFormat(pattern = "dd/MM/yyyy")
     private LocalDate dataAdmissao;
+    @DecimalMin("0.00")
+    @DecimalMax("1000000000.00")
     private BigDecimal salarioAtual;
 
     public String getNome() { return nome; }
@@ -1,6 +1,7 @@
 package br.com.jeandro.sccon.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -12,14 +13,24 @@ public class PersonResponse {
     @JsonFormat(pattern = "dd/MM/yyyy")
     private LocalDate dataAdmissao;
     private BigDecimal salarioAtual;
+    /** Vai no header ETag, não no corpo. */
+    @JsonIgnore
+    private long version;
 
     public PersonResponse(Long id, String nome, LocalDate dataNascimento, LocalDate dataAdmissao, BigDecimal salarioAtual) {
         this.id = id; this.nome = nome; this.dataNascimento = dataNascimento; this.dataAdmissao = dataAdmissao; this.salarioAtual = salarioAtual;
     }
 
+    public PersonResponse(Long id, String nome, LocalDate dataNascimento, LocalDate dataAdmissao, BigDecimal salarioAtual, long version) {
+        this(id, nome, dataNascimento, dataAdmissao, salarioAtual);
+        this.version = version;
+    }
+
     public Long getId() { return id; }
     public String getNome() { return nome; }
     public LocalDate getDataNascimento() { return dataNascimento; }
     public LocalDate getDataAdmissao() { return dataAdmissao; }
     public BigDecimal getSalarioAtual() { return salarioAtual; }
+    @JsonIgnore
+    public long getVersion() { return version; }
 }
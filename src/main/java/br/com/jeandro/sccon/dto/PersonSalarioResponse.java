@@ -0,0 +1,46 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Múltiplo de salários mínimos (GET /persons/{id}/salario): do salário atual, ou do salário em
+ * vigor em {@code em} com o dia em que ele passou a valer. Campos nulos ficam fora do corpo.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonSalarioResponse {
+    private final Long id;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private final LocalDate em;
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private final LocalDate desde;
+    private final BigDecimal salario;
+    private final BigDecimal salarioMultiplo;
+    private final BigDecimal salarioAtualMultiplo;
+    private final BigDecimal salarioMinimo;
+
+    private PersonSalarioResponse(Long id, LocalDate em, LocalDate desde, BigDecimal salario, BigDecimal salarioMultiplo,
+                                  BigDecimal salarioAtualMultiplo, BigDecimal salarioMinimo) {
+        this.id = id; this.em = em; this.desde = desde; this.salario = salario; this.salarioMultiplo = salarioMultiplo;
+        this.salarioAtualMultiplo = salarioAtualMultiplo; this.salarioMinimo = salarioMinimo;
+    }
+
+    public static PersonSalarioResponse atual(Long id, BigDecimal salarioAtualMultiplo, BigDecimal salarioMinimo) {
+        return new PersonSalarioResponse(id, null, null, null, null, salarioAtualMultiplo, salarioMinimo);
+    }
+
+    public static PersonSalarioResponse em(Long id, LocalDate em, PersonSalaryEntry e, BigDecimal salarioMinimo) {
+        return new PersonSalarioResponse(id, em, e.getDesde(), e.getSalario(), e.getSalarioMultiplo(), null, salarioMinimo);
+    }
+
+    public Long getId() { return id; }
+    public LocalDate getEm() { return em; }
+    public LocalDate getDesde() { return desde; }
+    public BigDecimal getSalario() { return salario; }
+    public BigDecimal getSalarioMultiplo() { return salarioMultiplo; }
+    public BigDecimal getSalarioAtualMultiplo() { return salarioAtualMultiplo; }
+    public BigDecimal getSalarioMinimo() { return salarioMinimo; }
+}
@@ -0,0 +1,24 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** Salário em vigor a partir de {@code desde}; o múltiplo só vem na consulta por data. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PersonSalaryEntry {
+    @JsonFormat(pattern = "dd/MM/yyyy")
+    private final LocalDate desde;
+    private final BigDecimal salario;
+    private final BigDecimal salarioMultiplo;
+
+    public PersonSalaryEntry(LocalDate desde, BigDecimal salario, BigDecimal salarioMultiplo) {
+        this.desde = desde; this.salario = salario; this.salarioMultiplo = salarioMultiplo;
+    }
+
+    public LocalDate getDesde() { return desde; }
+    public BigDecimal getSalario() { return salario; }
+    public BigDecimal getSalarioMultiplo() { return salarioMultiplo; }
+}
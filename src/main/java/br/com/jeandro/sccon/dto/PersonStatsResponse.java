@@ -0,0 +1,38 @@
+package br.com.jeandro.sccon.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estatísticas da folha (GET /persons/stats). {@code salarioMediano} é aproximado (erro relativo
+ * de até ~1%); os demais valores são exatos.
+ */
+public class PersonStatsResponse {
+    /** Faixa de salário em múltiplos de {@code salarioMinimo}: ({@code de}, {@code ate}], sem limite quando {@code ate} é nulo. */
+    public record Faixa(int de, Integer ate, long quantidade) {}
+
+    private final long pessoas;
+    private final BigDecimal folhaTotal;
+    private final BigDecimal salarioMedio;
+    private final BigDecimal salarioMediano;
+    private final BigDecimal salarioMinimo;
+    private final List<Faixa> faixasSalarioMinimo;
+    private final Map<Integer, Long> admissoesPorAno;
+
+    public PersonStatsResponse(long pessoas, BigDecimal folhaTotal, BigDecimal salarioMedio, BigDecimal salarioMediano,
+                               BigDecimal salarioMinimo, List<Faixa> faixasSalarioMinimo, Map<Integer, Long> admissoesPorAno) {
+        this.pessoas = pessoas; this.folhaTotal = folhaTotal; this.salarioMedio = salarioMedio;
+        this.salarioMediano = salarioMediano; this.salarioMinimo = salarioMinimo;
+        this.faixasSalarioMinimo = faixasSalarioMinimo; this.admissoesPorAno = admissoesPorAno;
+    }
+
+    public long getPessoas() { return pessoas; }
+    public BigDecimal getFolhaTotal() { return folhaTotal; }
+    public BigDecimal getSalarioMedio() { return salarioMedio; }
+    public BigDecimal getSalarioMediano() { return salarioMediano; }
+    public BigDecimal getSalarioMinimo() { return salarioMinimo; }
+    public List<Faixa> getFaixasSalarioMinimo() { return faixasSalarioMinimo; }
+    /** Pessoas admitidas por ano, em ordem de ano. */
+    public Map<Integer, Long> getAdmissoesPorAno() { return admissoesPorAno; }
+}
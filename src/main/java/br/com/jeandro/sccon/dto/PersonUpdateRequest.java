@@ -1,6 +1,8 @@
 package br.com.jeandro.sccon.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
@@ -16,6 +18,8 @@ public class PersonUpdateRequest {
     @JsonFormat(pattern = "dd/MM/yyyy")
     private LocalDate dataAdmissao;
     @NotNull
+    @DecimalMin("0.00")
+    @DecimalMax("1000000000.00")
     private BigDecimal salarioAtual;
 
     public String getNome() { return nome; }
@@ -0,0 +1,5 @@
+package br.com.jeandro.sccon.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) { super(message); }
+}
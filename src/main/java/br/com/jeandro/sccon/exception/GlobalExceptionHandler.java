@@ -1,5 +1,11 @@
 package br.com.jeandro.sccon.exception;
 
+import br.com.jeandro.sccon.repository.ReplicaStaleException;
+import br.com.jeandro.sccon.repository.ShardUnavailableException;
+import br.com.jeandro.sccon.repository.WriteBehindFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -12,15 +18,59 @@ import java.util.Map;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
+    /**
+     * Contador de erros devolvidos ao cliente, com as tags {@code type} (nome da exceção, ou
+     * {@link #VALIDATION_ERROR} para corpo inválido) e {@code status}.
+     */
+    public static final String ERROR_COUNTER = "sccon.errors";
+    public static final String VALIDATION_ERROR = "Validation";
+
+    private final MeterRegistry registry;
+
+    public GlobalExceptionHandler(MeterRegistry registry) {
+        this.registry = registry;
+    }
 
     @ExceptionHandler(NotFoundException.class)
     public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException ex) {
-        return build(HttpStatus.NOT_FOUND, ex.getMessage());
+        return build(HttpStatus.NOT_FOUND, ex);
     }
 
     @ExceptionHandler(BadRequestException.class)
     public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex) {
-        return build(HttpStatus.BAD_REQUEST, ex.getMessage());
+        return build(HttpStatus.BAD_REQUEST, ex);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleConflict(ConflictException ex) {
+        return build(HttpStatus.CONFLICT, ex);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handlePreconditionFailed(PreconditionFailedException ex) {
+        return build(HttpStatus.PRECONDITION_FAILED, ex);
+    }
+
+    @ExceptionHandler(ShardUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleShardUnavailable(ShardUnavailableException ex) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ex);
+    }
+
+    @ExceptionHandler(ReplicaStaleException.class)
+    public ResponseEntity<Map<String, Object>> handleReplicaStale(ReplicaStaleException ex) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ex);
+    }
+
+    @ExceptionHandler(WriteBehindFullException.class)
+    public ResponseEntity<Map<String, Object>> handleWriteBehindFull(WriteBehindFullException ex) {
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ex);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<Map<String, Object>> handleOverloaded(OverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+            .body(build(HttpStatus.SERVICE_UNAVAILABLE, ex).getBody());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -32,13 +82,23 @@ public class GlobalExceptionHandler {
             errors.put(fe.getField(), fe.getDefaultMessage());
         }
         body.put("errors", errors);
+        count(VALIDATION_ERROR, HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
-    private ResponseEntity<Map<String, Object>> build(HttpStatus status, String message) {
+    private ResponseEntity<Map<String, Object>> build(HttpStatus status, RuntimeException ex) {
+        count(ex.getClass().getSimpleName(), status);
         Map<String, Object> body = new HashMap<>();
         body.put("status", status.value());
-        body.put("message", message);
+        body.put("message", ex.getMessage());
         return new ResponseEntity<>(body, status);
     }
+
+    private void count(String type, HttpStatus status) {
+        Counter.builder(ERROR_COUNTER)
+            .tag("type", type)
+            .tag("status", String.valueOf(status.value()))
+            .register(registry)
+            .increment();
+    }
 }
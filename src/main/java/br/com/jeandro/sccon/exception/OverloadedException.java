@@ -0,0 +1,16 @@
+package br.com.jeandro.sccon.exception;
+
+/**
+ * A requisição foi recusada pelo limite de concorrência (503 com {@code Retry-After}). Sem stack
+ * trace: é lançada a cada requisição excedente e precisa ser barata.
+ */
+public class OverloadedException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public OverloadedException(String message, int retryAfterSeconds) {
+        super(message, null, false, false);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() { return retryAfterSeconds; }
+}
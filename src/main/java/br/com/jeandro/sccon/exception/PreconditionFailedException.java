@@ -0,0 +1,5 @@
+package br.com.jeandro.sccon.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) { super(message); }
+}
@@ -6,9 +6,17 @@ import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * Pessoa. Depois de gravada no repositório a instância é tratada como imutável: alterações criam
+ * uma cópia (ver {@link #withChanges}) gravada com a {@link #getVersion() versão} seguinte por
+ * {@code PersonRepository#replace}, de modo que leitores nunca veem um objeto pela metade.
+ */
 public class Person {
     private Long id;
 
+    /** Versão da pessoa: 1 na criação, incrementada a cada alteração (exposta como ETag). */
+    private long version;
+
     @NotBlank
     private String nome;
 
@@ -33,6 +41,17 @@ public class Person {
         this.salarioAtual = salarioAtual;
     }
 
+    /** Cópia com os campos não nulos informados substituídos; a instância original não é alterada. */
+    public Person withChanges(String nome, LocalDate dataNascimento, LocalDate dataAdmissao, BigDecimal salarioAtual) {
+        Person next = new Person(id,
+            nome != null ? nome : this.nome,
+            dataNascimento != null ? dataNascimento : this.dataNascimento,
+            dataAdmissao != null ? dataAdmissao : this.dataAdmissao,
+            salarioAtual != null ? salarioAtual : this.salarioAtual);
+        next.version = version;
+        return next;
+    }
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getNome() { return nome; }
@@ -43,4 +62,6 @@ public class Person {
     public void setDataAdmissao(LocalDate dataAdmissao) { this.dataAdmissao = dataAdmissao; }
     public BigDecimal getSalarioAtual() { return salarioAtual; }
     public void setSalarioAtual(BigDecimal salarioAtual) { this.salarioAtual = salarioAtual; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
 }
@@ -0,0 +1,738 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.TextUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+
+/**
+ * Repositório compacto em colunas primitivas (struct-of-arrays): cada pessoa ocupa um "slot"
+ * nos arrays de ID, datas (epoch-day), salário (long sem escala + escala), versão e nome
+ * (referência a uma área de bytes com nomes deduplicados). O mapa ID → slot usa endereçamento aberto com
+ * chaves long, sem boxing. Objetos {@link Person} só são criados na leitura.
+ *
+ * <p>A ordem alfabética é um array de slots em blocos de até {@link SlotOrder#BLOCK}, mantido a
+ * cada escrita: busca binária pela chave (nome sem acentos, nome, ID) e deslocamento só dentro do
+ * bloco, então o custo de uma escrita não cresce com a base. Lotes reordenam só as pessoas
+ * gravadas e as intercalam com o resto numa passada. A área de nomes guarda também a forma sem
+ * acentos de cada nome e conta referências: nomes sem pessoas são liberados e a área é
+ * compactada quando metade dela vira lixo.</p>
+ *
+ * <p>Não suporta persistência; salários cujo valor sem escala não cabe em um long são rejeitados.</p>
+ */
+public class CompactPersonRepository implements PersonRepository {
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final byte NULL_SCALE = Byte.MIN_VALUE;
+    private static final int NULL_NAME = -1;
+    private static final long FREE = 0L;
+
+    private final StampedLock lock = new StampedLock();
+    private final AtomicLong seq = new AtomicLong(0);
+
+    // colunas, indexadas por slot; ids[slot] == FREE marca slot livre
+    private long[] ids = new long[16];
+    private int[] nascimento = new int[16];
+    private int[] admissao = new int[16];
+    private long[] salario = new long[16];
+    private byte[] escala = new byte[16];
+    private int[] nome = new int[16];
+    private long[] version = new long[16];
+    private int slotsUsed;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int count;
+    private final PersonChangeFeed changes = new PersonChangeFeed();
+    /** Agregados da folha; o que cada pessoa somava é lido das colunas antes de sobrescrevê-las. */
+    private final PayrollAggregates payroll = new PayrollAggregates();
+
+    private final LongIntMap slotById = new LongIntMap();
+    private final NameArena names = new NameArena();
+
+    /** Slots em ordem alfabética. */
+    private final SlotOrder order = new SlotOrder();
+
+    @Override
+    public List<Person> findAll() {
+        long stamp = lock.readLock();
+        try {
+            List<Person> all = new ArrayList<>(count);
+            order.forEach(null, count, slot -> all.add(materialize(slot)));
+            return all;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Person> findPageByName(PersonNameKey after, int limit) {
+        long stamp = lock.readLock();
+        try {
+            List<Person> page = new ArrayList<>(Math.max(0, Math.min(count, limit)));
+            order.forEach(after, limit, slot -> page.add(materialize(slot)));
+            return page;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Optional<Person> findById(Long id) {
+        if (id == null) return Optional.empty();
+        long stamp = lock.readLock();
+        try {
+            int slot = slotById.get(id);
+            return slot < 0 ? Optional.empty() : Optional.of(materialize(slot));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Person save(Person p) {
+        if (p.getId() == null) p.setId(seq.incrementAndGet());
+        else seq.accumulateAndGet(p.getId(), Math::max);
+        long stamp = lock.writeLock();
+        try {
+            p.setVersion(nextVersion(p.getId()));
+            write(p, null);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return p;
+    }
+
+    /** Confere a versão e grava sob o write lock. */
+    @Override
+    public boolean replace(Person current, Person next) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotById.get(current.getId());
+            if (slot < 0 || version[slot] != current.getVersion()) return false;
+            write(next, null);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public List<Person> saveAll(List<Person> people) {
+        long semId = people.stream().filter(p -> p.getId() == null).count();
+        long next = seq.getAndAdd(semId) + 1;
+        for (Person p : people) {
+            if (p.getId() == null) p.setId(next++);
+            else seq.accumulateAndGet(p.getId(), Math::max);
+        }
+        long stamp = lock.writeLock();
+        try {
+            BitSet moved = new BitSet();
+            try {
+                for (Person p : people) {
+                    p.setVersion(nextVersion(p.getId()));
+                    write(p, moved);
+                }
+            } finally {
+                // mesmo com um item inválido no meio, os já gravados entram na ordem
+                mergeSorted(moved);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return people;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        if (id == null) return false;
+        long stamp = lock.readLock();
+        try {
+            return slotById.get(id) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        if (id == null) return;
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotById.remove(id);
+            if (slot < 0) return;
+            payroll.update(contribution(slot), null);
+            order.remove(slot);
+            count--;
+            if (nome[slot] != NULL_NAME) names.release(nome[slot]);
+            ids[slot] = FREE;
+            if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            freeSlots[freeCount++] = slot;
+            changes.record(PersonChangeFeed.Type.DELETE, id, null);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long count() {
+        long stamp = lock.readLock();
+        try {
+            return count;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public PayrollStats payrollStats() {
+        return payroll.snapshot();
+    }
+
+    @Override
+    public PersonChangeFeed changes() {
+        return changes;
+    }
+
+    @Override
+    public long lastId() {
+        return seq.get();
+    }
+
+    /** Estimativa dos bytes ocupados pelos arrays (colunas, mapa de IDs, nomes e ordenação). */
+    @Override
+    public long estimatedBytes() {
+        long stamp = lock.readLock();
+        try {
+            long columns = (long) ids.length * (8 + 4 + 4 + 8 + 1 + 4 + 8) + 4L * freeSlots.length;
+            return columns + slotById.bytes() + names.bytes() + order.bytes();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // ---- escrita (com write lock) ----
+
+    /**
+     * Grava nas colunas. Com {@code moved} (lotes), a posição na ordem alfabética fica para
+     * {@link #mergeSorted}; sem ele, é ajustada aqui.
+     */
+    private void write(Person p, BitSet moved) {
+        long id = p.getId();
+        if (id == FREE) throw new IllegalArgumentException("ID 0 é reservado");
+        // valida salário e datas antes de alterar qualquer coluna ou a ordem
+        int nasc = epochDay(p.getDataNascimento());
+        int adm = epochDay(p.getDataAdmissao());
+        BigDecimal s = p.getSalarioAtual();
+        long unscaled = 0;
+        byte scale = NULL_SCALE;
+        PayrollStats.checkSalario(s);
+        if (s != null) {
+            if (s.scale() < 0) s = s.setScale(0);
+            if (s.scale() > Byte.MAX_VALUE) throw new IllegalArgumentException("Escala do salário não suportada: " + s.scale());
+            unscaled = s.unscaledValue().longValueExact();
+            scale = (byte) s.scale();
+        }
+        int slot = slotById.get(id);
+        boolean created = slot < 0;
+        PersonChangeFeed.Type type = created ? PersonChangeFeed.Type.CREATE : PersonChangeFeed.Type.UPDATE;
+        payroll.update(created ? null : contribution(slot), PayrollAggregates.Contribution.of(p));
+        // interna antes de liberar o nome antigo: regravar o mesmo nome não o tira da área
+        int name = p.getNome() == null ? NULL_NAME : names.intern(p.getNome());
+        int oldName = created ? NULL_NAME : nome[slot];
+        boolean reorder = created || name != oldName;
+        if (created) {
+            slot = allocateSlot();
+            slotById.put(id, slot);
+        } else if (reorder && moved == null) {
+            order.remove(slot);
+            count--;
+        }
+        ids[slot] = id;
+        nascimento[slot] = nasc;
+        admissao[slot] = adm;
+        salario[slot] = unscaled;
+        escala[slot] = scale;
+        nome[slot] = name;
+        version[slot] = p.getVersion();
+        if (!created && oldName != NULL_NAME) names.release(oldName);
+        if (moved != null) {
+            if (created) count++;
+            if (reorder) moved.set(slot);
+        } else if (reorder) {
+            order.insert(slot);
+            count++;
+        }
+        changes.record(type, id, p);
+    }
+
+    /**
+     * Fecha um lote: tira da ordem os slots marcados (das posições anteriores ao lote), ordena-os
+     * pela nova chave e os intercala com o resto numa passada.
+     */
+    private void mergeSorted(BitSet moved) {
+        if (moved.isEmpty()) return;
+        int[] before = order.toArray();
+        int kept = 0;
+        for (int slot : before) {
+            if (!moved.get(slot)) before[kept++] = slot;
+        }
+        // chaves decodificadas uma vez por slot, não a cada comparação
+        PersonNameKey[] keys = moved.stream()
+            .mapToObj(slot -> new PersonNameKey(folded(nome[slot]), original(nome[slot]), ids[slot]))
+            .sorted()
+            .toArray(PersonNameKey[]::new);
+        int[] merged = new int[count];
+        int i = 0, j = 0, k = 0;
+        while (i < kept && j < keys.length) {
+            int next = slotById.get(keys[j].id());
+            if (compare(nome[next], ids[next], before[i]) < 0) {
+                merged[k++] = next;
+                j++;
+            } else {
+                merged[k++] = before[i++];
+            }
+        }
+        while (i < kept) merged[k++] = before[i++];
+        while (j < keys.length) merged[k++] = slotById.get(keys[j++].id());
+        order.rebuild(merged);
+    }
+
+    /** Compara a chave (nome, id) com a de {@code slot}, na ordem de {@link PersonNameKey}. */
+    private int compare(int name, long id, int slot) {
+        int other = nome[slot];
+        if (name != other) {
+            int c = folded(name).compareTo(folded(other));
+            if (c == 0) c = original(name).compareTo(original(other));
+            if (c != 0) return c;
+        }
+        return Long.compare(id, ids[slot]);
+    }
+
+    private String folded(int name) {
+        return name == NULL_NAME ? "" : names.folded(name);
+    }
+
+    private String original(int name) {
+        return name == NULL_NAME ? "" : names.get(name);
+    }
+
+    private long nextVersion(long id) {
+        int slot = slotById.get(id);
+        return slot < 0 ? 1 : version[slot] + 1;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (slotsUsed == ids.length) {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            nascimento = Arrays.copyOf(nascimento, cap);
+            admissao = Arrays.copyOf(admissao, cap);
+            salario = Arrays.copyOf(salario, cap);
+            escala = Arrays.copyOf(escala, cap);
+            nome = Arrays.copyOf(nome, cap);
+            version = Arrays.copyOf(version, cap);
+        }
+        return slotsUsed++;
+    }
+
+    // ---- leitura (com read lock) ----
+
+    private Person materialize(int slot) {
+        BigDecimal s = escala[slot] == NULL_SCALE ? null : BigDecimal.valueOf(salario[slot], escala[slot]);
+        String n = nome[slot] == NULL_NAME ? null : names.get(nome[slot]);
+        Person p = new Person(ids[slot], n, date(nascimento[slot]), date(admissao[slot]), s);
+        p.setVersion(version[slot]);
+        return p;
+    }
+
+    private PayrollAggregates.Contribution contribution(int slot) {
+        BigDecimal s = escala[slot] == NULL_SCALE ? null : BigDecimal.valueOf(salario[slot], escala[slot]);
+        return new PayrollAggregates.Contribution(s, date(admissao[slot]));
+    }
+
+    private static int epochDay(LocalDate d) {
+        return d == null ? NULL_DATE : Math.toIntExact(d.toEpochDay());
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    /**
+     * Slots em ordem alfabética, em blocos de até {@link #BLOCK} posições. Inserir ou remover
+     * desloca só o próprio bloco; um bloco cheio é dividido ao meio e um vazio sai da lista, e
+     * só aí o array de blocos (base / {@code BLOCK} referências) é deslocado.
+     */
+    private final class SlotOrder {
+        static final int BLOCK = 1024;
+
+        private int[][] blocks = {new int[BLOCK]};
+        private int[] sizes = new int[1];
+        private int blockCount = 1;
+
+        void insert(int slot) {
+            int b = blockOf(nome[slot], ids[slot]);
+            int at = lowerBound(b, nome[slot], ids[slot]);
+            if (sizes[b] == BLOCK) {
+                split(b);
+                if (at > BLOCK / 2) {
+                    b++;
+                    at -= BLOCK / 2;
+                }
+            }
+            int[] block = blocks[b];
+            System.arraycopy(block, at, block, at + 1, sizes[b] - at);
+            block[at] = slot;
+            sizes[b]++;
+        }
+
+        /** Tira {@code slot}, com o nome e o ID ainda nas colunas. */
+        void remove(int slot) {
+            int b = blockOf(nome[slot], ids[slot]);
+            int at = lowerBound(b, nome[slot], ids[slot]);
+            if (at == sizes[b] || blocks[b][at] != slot) throw new IllegalStateException("Ordem alfabética inconsistente");
+            System.arraycopy(blocks[b], at + 1, blocks[b], at, sizes[b] - at - 1);
+            if (--sizes[b] == 0 && blockCount > 1) removeBlock(b);
+        }
+
+        /** Passa a {@code action} até {@code limit} slots, a partir do primeiro com chave maior que {@code after}. */
+        void forEach(PersonNameKey after, int limit, IntConsumer action) {
+            int b = 0, at = 0;
+            if (after != null) {
+                // primeiro bloco cujo último slot passa de after, e a posição dentro dele
+                int lo = 0, hi = blockCount;
+                while (lo < hi) {
+                    int mid = (lo + hi) >>> 1;
+                    if (sizes[mid] > 0 && key(blocks[mid][sizes[mid] - 1]).compareTo(after) <= 0) lo = mid + 1;
+                    else hi = mid;
+                }
+                b = lo;
+                if (b < blockCount) {
+                    lo = 0;
+                    hi = sizes[b];
+                    while (lo < hi) {
+                        int mid = (lo + hi) >>> 1;
+                        if (key(blocks[b][mid]).compareTo(after) <= 0) lo = mid + 1;
+                        else hi = mid;
+                    }
+                    at = lo;
+                }
+            }
+            for (int n = 0; b < blockCount && n < limit; b++, at = 0) {
+                for (; at < sizes[b] && n < limit; at++, n++) action.accept(blocks[b][at]);
+            }
+        }
+
+        int[] toArray() {
+            int[] all = new int[size()];
+            int k = 0;
+            for (int b = 0; b < blockCount; b++) {
+                System.arraycopy(blocks[b], 0, all, k, sizes[b]);
+                k += sizes[b];
+            }
+            return all;
+        }
+
+        /** Troca o conteúdo por {@code slots}, já ordenados, em blocos ¾ cheios (folga para inserções). */
+        void rebuild(int[] slots) {
+            int per = BLOCK * 3 / 4;
+            blockCount = Math.max(1, (slots.length + per - 1) / per);
+            blocks = new int[blockCount][];
+            sizes = new int[blockCount];
+            for (int b = 0; b < blockCount; b++) {
+                int from = b * per;
+                int n = Math.max(0, Math.min(per, slots.length - from));
+                blocks[b] = new int[BLOCK];
+                System.arraycopy(slots, from, blocks[b], 0, n);
+                sizes[b] = n;
+            }
+        }
+
+        long bytes() {
+            return (4L * BLOCK + 16) * blockCount + 12L * blocks.length;
+        }
+
+        private int size() {
+            int n = 0;
+            for (int b = 0; b < blockCount; b++) n += sizes[b];
+            return n;
+        }
+
+        /** Bloco onde a chave (nome, id) está ou entraria: o primeiro cujo último slot não é menor. */
+        private int blockOf(int name, long id) {
+            int lo = 0, hi = blockCount - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(name, id, blocks[mid][sizes[mid] - 1]) > 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        /** Primeira posição do bloco {@code b} cuja chave não é menor que (nome, id). */
+        private int lowerBound(int b, int name, long id) {
+            int lo = 0, hi = sizes[b];
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(name, id, blocks[b][mid]) > 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private void split(int b) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+                sizes = Arrays.copyOf(sizes, blockCount * 2);
+            }
+            System.arraycopy(blocks, b + 1, blocks, b + 2, blockCount - b - 1);
+            System.arraycopy(sizes, b + 1, sizes, b + 2, blockCount - b - 1);
+            int[] upper = new int[BLOCK];
+            System.arraycopy(blocks[b], BLOCK / 2, upper, 0, BLOCK / 2);
+            blocks[b + 1] = upper;
+            sizes[b + 1] = BLOCK / 2;
+            sizes[b] = BLOCK / 2;
+            blockCount++;
+        }
+
+        private void removeBlock(int b) {
+            System.arraycopy(blocks, b + 1, blocks, b, blockCount - b - 1);
+            System.arraycopy(sizes, b + 1, sizes, b, blockCount - b - 1);
+            blocks[--blockCount] = null;
+        }
+
+        private PersonNameKey key(int slot) {
+            return new PersonNameKey(folded(nome[slot]), original(nome[slot]), ids[slot]);
+        }
+    }
+
+    /** Mapa long → int com endereçamento aberto (sondagem linear, remoção por deslocamento). */
+    static final class LongIntMap {
+        private long[] keys = new long[32];
+        private int[] values = new int[32];
+        private int size;
+
+        int get(long key) {
+            int mask = keys.length - 1;
+            for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+                if (keys[i] == FREE) return -1;
+                if (keys[i] == key) return values[i];
+            }
+        }
+
+        void put(long key, int value) {
+            if ((size + 1) * 2 > keys.length) rehash(keys.length * 2);
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != FREE && keys[i] != key) i = (i + 1) & mask;
+            if (keys[i] == FREE) size++;
+            keys[i] = key;
+            values[i] = value;
+        }
+
+        int remove(long key) {
+            int mask = keys.length - 1;
+            int i = hash(key) & mask;
+            while (keys[i] != key) {
+                if (keys[i] == FREE) return -1;
+                i = (i + 1) & mask;
+            }
+            int removed = values[i];
+            // desloca para trás os elementos seguintes do mesmo agrupamento
+            int gap = i;
+            for (int j = (i + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+                int home = hash(keys[j]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    values[gap] = values[j];
+                    gap = j;
+                }
+            }
+            keys[gap] = FREE;
+            size--;
+            return removed;
+        }
+
+        long bytes() {
+            return 12L * keys.length;
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new long[capacity];
+            values = new int[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != FREE) put(oldKeys[i], oldValues[i]);
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    /**
+     * Nomes em UTF-8 numa única área de bytes, deduplicados por hash e com contagem de
+     * referências. Nomes com acentos são seguidos da sua forma sem acentos ({@link TextUtils#fold});
+     * nos só ASCII ela é o próprio nome em minúsculas e não é guardada. IDs de nomes liberados
+     * são reaproveitados.
+     */
+    static final class NameArena {
+        private static final int MIN_BYTES = 1 << 12;
+        /** Nome só ASCII: a forma sem acentos é o nome em minúsculas. */
+        private static final int LOWER = -1;
+
+        private byte[] bytes = new byte[MIN_BYTES];
+        private int used;
+        /** Bytes de nomes liberados ainda na área; com metade da área assim, ela é compactada. */
+        private int garbage;
+        private int[] offsets = new int[64];
+        private int[] lengths = new int[64];
+        /** Bytes da forma sem acentos, logo após o nome, ou {@link #LOWER}. */
+        private int[] foldedLengths = new int[64];
+        private int[] hashes = new int[64];
+        private int[] refs = new int[64];
+        private int names;
+        private int[] freeIds = new int[16];
+        private int freeCount;
+        /** Tabela hash de IDs de nome (+1; 0 = vazio). */
+        private int[] table = new int[128];
+        private int live;
+
+        /** ID do nome, com uma referência a mais; cada chamada pede um {@link #release} depois. */
+        int intern(String s) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            int h = Arrays.hashCode(b);
+            int mask = table.length - 1;
+            int i = h & mask;
+            while (table[i] != 0) {
+                int id = table[i] - 1;
+                if (hashes[id] == h && lengths[id] == b.length
+                    && Arrays.equals(bytes, offsets[id], offsets[id] + b.length, b, 0, b.length)) {
+                    refs[id]++;
+                    return id;
+                }
+                i = (i + 1) & mask;
+            }
+            byte[] fb = b.length == s.length() ? null : TextUtils.fold(s).getBytes(StandardCharsets.UTF_8);
+            int size = b.length + (fb == null ? 0 : fb.length);
+            if (used + size > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, used + size));
+            int id = freeCount > 0 ? freeIds[--freeCount] : newId();
+            System.arraycopy(b, 0, bytes, used, b.length);
+            if (fb != null) System.arraycopy(fb, 0, bytes, used + b.length, fb.length);
+            offsets[id] = used;
+            lengths[id] = b.length;
+            foldedLengths[id] = fb == null ? LOWER : fb.length;
+            hashes[id] = h;
+            refs[id] = 1;
+            used += size;
+            table[i] = id + 1;
+            if (++live * 2 > table.length) rebuildTable(table.length * 2);
+            return id;
+        }
+
+        /** Solta uma referência; sem nenhuma, o nome sai da tabela e seus bytes viram lixo. */
+        void release(int id) {
+            if (--refs[id] > 0) return;
+            removeFromTable(id);
+            live--;
+            garbage += size(id);
+            if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+            freeIds[freeCount++] = id;
+            if (garbage * 2 > used && used > MIN_BYTES) compact();
+        }
+
+        String get(int id) {
+            return new String(bytes, offsets[id], lengths[id], StandardCharsets.UTF_8);
+        }
+
+        /** Forma sem acentos e minúscula, a primeira parte da chave de ordenação. */
+        String folded(int id) {
+            if (foldedLengths[id] == LOWER) return get(id).toLowerCase(Locale.ROOT);
+            return new String(bytes, offsets[id] + lengths[id], foldedLengths[id], StandardCharsets.UTF_8);
+        }
+
+        long bytes() {
+            return bytes.length + 20L * offsets.length + 4L * (table.length + freeIds.length);
+        }
+
+        /** Bytes ocupados pela área (para testes). */
+        int used() {
+            return used;
+        }
+
+        private int newId() {
+            if (names == offsets.length) {
+                int cap = names * 2;
+                offsets = Arrays.copyOf(offsets, cap);
+                lengths = Arrays.copyOf(lengths, cap);
+                foldedLengths = Arrays.copyOf(foldedLengths, cap);
+                hashes = Arrays.copyOf(hashes, cap);
+                refs = Arrays.copyOf(refs, cap);
+            }
+            return names++;
+        }
+
+        private int size(int id) {
+            return lengths[id] + (foldedLengths[id] == LOWER ? 0 : foldedLengths[id]);
+        }
+
+        /** Remoção com deslocamento para trás, como em {@link LongIntMap#remove}. */
+        private void removeFromTable(int id) {
+            int mask = table.length - 1;
+            int i = hashes[id] & mask;
+            while (table[i] != id + 1) i = (i + 1) & mask;
+            int gap = i;
+            for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = hashes[table[j] - 1] & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    table[gap] = table[j];
+                    gap = j;
+                }
+            }
+            table[gap] = 0;
+        }
+
+        /** Copia os nomes vivos para uma área nova, sem os bytes dos liberados. */
+        private void compact() {
+            int liveBytes = used - garbage;
+            byte[] next = new byte[Math.max(MIN_BYTES, liveBytes + liveBytes / 2)];
+            int at = 0;
+            for (int id = 0; id < names; id++) {
+                if (refs[id] == 0) continue;
+                int size = size(id);
+                System.arraycopy(bytes, offsets[id], next, at, size);
+                offsets[id] = at;
+                at += size;
+            }
+            bytes = next;
+            used = at;
+            garbage = 0;
+        }
+
+        private void rebuildTable(int capacity) {
+            table = new int[capacity];
+            int mask = capacity - 1;
+            for (int id = 0; id < names; id++) {
+                if (refs[id] == 0) continue;
+                int i = hashes[id] & mask;
+                while (table[i] != 0) i = (i + 1) & mask;
+                table[i] = id + 1;
+            }
+        }
+    }
+}
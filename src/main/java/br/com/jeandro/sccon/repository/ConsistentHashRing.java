@@ -0,0 +1,58 @@
+package br.com.jeandro.sccon.repository;
+
+import java.util.Arrays;
+
+/**
+ * Anel de hash consistente sobre IDs. Cada nó ocupa {@link #VIRTUAL_NODES} pontos do anel e um ID
+ * pertence ao nó do primeiro ponto igual ou maior que o hash do ID. Com pontos virtuais a carga
+ * fica próxima de 1/N por nó, e acrescentar um nó move só ~1/(N+1) dos IDs.
+ *
+ * <p>Os nós são identificados pela posição na lista de configuração, que precisa ser a mesma em
+ * todos eles. Os pontos ficam em arrays ordenados (busca binária, sem alocação).</p>
+ */
+final class ConsistentHashRing {
+    static final int VIRTUAL_NODES = 128;
+
+    private final long[] points;
+    private final int[] owners;
+
+    ConsistentHashRing(int nodes) {
+        if (nodes < 1) throw new IllegalArgumentException("O anel precisa de ao menos um nó");
+        long[] keys = new long[nodes * VIRTUAL_NODES];
+        for (int node = 0, i = 0; node < nodes; node++) {
+            for (int v = 0; v < VIRTUAL_NODES; v++) keys[i++] = pointKey(node, v);
+        }
+        // ordena pelo ponto, levando o nó junto (o nó fica nos 16 bits baixos da chave)
+        Arrays.sort(keys, 0, keys.length);
+        this.points = new long[keys.length];
+        this.owners = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            points[i] = keys[i] & ~0xFFFFL;
+            owners[i] = (int) (keys[i] & 0xFFFF);
+        }
+    }
+
+    int nodes() {
+        return points.length / VIRTUAL_NODES;
+    }
+
+    /** Nó dono do ID. */
+    int owner(long id) {
+        long h = mix(id) & ~0xFFFFL;
+        int i = Arrays.binarySearch(points, h);
+        if (i < 0) i = -i - 1;
+        return owners[i == points.length ? 0 : i];
+    }
+
+    /** Ponto do anel (48 bits altos) com o nó nos 16 bits baixos; o hash é positivo para ordenar sem sinal. */
+    private static long pointKey(int node, int virtual) {
+        return (mix(((long) node << 32) | virtual) & ~0xFFFFL) | node;
+    }
+
+    /** Finalizador do SplitMix64: espalha IDs sequenciais pelo anel. O bit de sinal é zerado. */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return (z ^ (z >>> 31)) >>> 1;
+    }
+}
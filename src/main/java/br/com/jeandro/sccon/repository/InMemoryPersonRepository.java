@@ -1,34 +1,500 @@
 package br.com.jeandro.sccon.repository;
 
 import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.DateUtils;
+import br.com.jeandro.sccon.util.TextUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
-public class InMemoryPersonRepository {
+public class InMemoryPersonRepository implements PersonRepository {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryPersonRepository.class);
+    private static final int WRITE_STRIPES = 64;
+    /**
+     * Bytes por pessoa medidos no heap com nomes de ~25 caracteres: o objeto e seus campos, as
+     * entradas dos mapas e dos índices ordenados e, a maior parte, o índice de n-gramas.
+     */
+    static final long ESTIMATED_BYTES_PER_PERSON = 2400;
 
     private final Map<Long, Person> store = new ConcurrentHashMap<>();
 
+    /** Índice ordenado por nome, mantido por save/deleteById. */
+    private final ConcurrentSkipListMap<PersonNameKey, Person> byName = new ConcurrentSkipListMap<>();
+
+    /** Chave indexada de cada ID (Person é mutável, então o nome antigo precisa ser lembrado). */
+    private final Map<Long, PersonNameKey> nameKeys = new ConcurrentHashMap<>();
+
+    /** Índices secundários para filtros de intervalo, mantidos junto com o índice por nome. */
+    private final SecondaryIndex<LocalDate> byAdmissao = new SecondaryIndex<>(Person::getDataAdmissao);
+    private final SecondaryIndex<BigDecimal> bySalario = new SecondaryIndex<>(Person::getSalarioAtual);
+    /** Mês e dia de nascimento como {@code mês * 100 + dia}. */
+    private final SecondaryIndex<Integer> byAniversario = new SecondaryIndex<>(p -> p.getDataNascimento() == null
+        ? null : p.getDataNascimento().getMonthValue() * 100 + p.getDataNascimento().getDayOfMonth());
+
+    /** Índice de n-gramas do nome para GET /persons/search. */
+    private final NameSearchIndex nameSearch = new NameSearchIndex();
+
+    /** Agregados da folha para GET /persons/stats; a gravação desfaz a contribuição da pessoa anterior. */
+    private final PayrollAggregates payroll = new PayrollAggregates();
+
+    /**
+     * Salários anteriores, registrados pelas gravações (não pela recarga do snapshot e do log: das
+     * pessoas recarregadas, só se conhece o salário a partir da inicialização).
+     */
+    private final SalaryHistory salaries = new SalaryHistory();
+
     private final AtomicLong seq = new AtomicLong(0);
 
-    public InMemoryPersonRepository() {}
+    /** Alterações recentes; registradas depois de store e índices, com o lock de escrita do ID. */
+    private final PersonChangeFeed changes = new PersonChangeFeed();
+
+    /**
+     * Serializam escritas do mesmo ID, mantendo store, índice e ordem no log coerentes. São
+     * ReentrantLocks e não {@code compute} do mapa porque o lock do compute é um monitor: uma
+     * thread virtual que espera o log dentro dele prende a thread carregadora.
+     */
+    private final ReentrantLock[] writeLocks =
+        Stream.generate(ReentrantLock::new).limit(WRITE_STRIPES).toArray(ReentrantLock[]::new);
+
+    /** Cópia assíncrona para SQL; null quando desligada. */
+    private volatile SqlWriteBehind writeBehind;
+
+    /** Log de persistência; null quando o repositório é só em memória. */
+    private final PersonLog personLog;
+    private final Path snapshotPath;
+    private final ScheduledExecutorService snapshotScheduler;
+    private final LongAdder snapshotFailures = new LongAdder();
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    /**
+     * Escritas em andamento por época. O snapshot troca a época e espera a anterior esvaziar,
+     * garantindo que tudo que já está no log até o ponto de corte esteja visível no mapa.
+     */
+    private final AtomicLong[] inFlight = { new AtomicLong(), new AtomicLong() };
+    private volatile int epoch;
+
+    private StartupReport startup = new StartupReport(0, 0, 0, 0);
+
+    /** Quantidades e tempos da recarga na inicialização. */
+    public record StartupReport(long snapshotRows, long snapshotMillis, long logRecords, long logMillis) {}
+
+    public InMemoryPersonRepository() {
+        this.personLog = null;
+        this.snapshotPath = null;
+        this.snapshotScheduler = null;
+    }
+
+    /** Repositório persistente só com log (sem snapshot). */
+    public InMemoryPersonRepository(Path logPath, long syncIntervalMs, long compactionMinBytes,
+                                    long compactionCheckMs) throws IOException {
+        this(new PersistenceOptions(logPath, syncIntervalMs, compactionMinBytes, compactionCheckMs, null));
+    }
+
+    /**
+     * Repositório persistente: carrega o snapshot (se houver) em paralelo, reaplica o log gravado
+     * depois dele e passa a gravar cada save/deleteById no log. Com snapshot habilitado, o log é
+     * rotacionado por snapshots em vez de compactado, o que limita o tempo de replay na inicialização.
+     */
+    public InMemoryPersonRepository(PersistenceOptions options) throws IOException {
+        this.snapshotPath = options.snapshotPath();
+        long t0 = System.nanoTime();
+        long snapshotRows = 0;
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            PersonSnapshot.Loaded loaded = PersonSnapshot.load(snapshotPath, this::applySave);
+            snapshotRows = loaded.rows();
+            seq.accumulateAndGet(loaded.lastId(), Math::max);
+        }
+        long t1 = System.nanoTime();
+        long[] logRecords = {0};
+        this.personLog = PersonLog.open(options.logPath(), options.syncIntervalMs(), options.compactionMinBytes(),
+            snapshotPath == null ? options.compactionCheckMs() : 0, new PersonLog.Replay() {
+                @Override
+                public void save(Person p) {
+                    applySave(p);
+                    logRecords[0]++;
+                }
+
+                @Override
+                public void delete(long id) {
+                    Person removed = store.remove(id);
+                    if (removed != null) unindex(id, removed);
+                    logRecords[0]++;
+                }
+            });
+        long t2 = System.nanoTime();
+        salaries.loaded(seq.get(), DateUtils.hojeEpochDay());
+        this.startup = new StartupReport(snapshotRows, (t1 - t0) / 1_000_000, logRecords[0], (t2 - t1) / 1_000_000);
+
+        if (snapshotPath != null && options.compactionCheckMs() > 0) {
+            this.snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "person-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            long minBytes = options.compactionMinBytes();
+            snapshotScheduler.scheduleWithFixedDelay(() -> {
+                if (personLog.size() < minBytes) return;
+                try {
+                    snapshot();
+                } catch (IOException | RuntimeException e) {
+                    // o log continua completo e crescendo; nova tentativa no próximo ciclo
+                    snapshotFailures.increment();
+                    log.warn("Falha ao gravar o snapshot em {}; o log segue com {} bytes", snapshotPath, personLog.size(), e);
+                }
+            }, options.compactionCheckMs(), options.compactionCheckMs(), TimeUnit.MILLISECONDS);
+        } else {
+            this.snapshotScheduler = null;
+        }
+    }
 
-    public List<Person> findAll() { return new ArrayList<>(store.values()); }
+    public StartupReport startupReport() { return startup; }
+
+    /** Se grava num log (e, opcionalmente, em snapshots). */
+    public boolean persistent() { return personLog != null; }
+
+    /** Falhas do fsync periódico do log. */
+    public long syncFailures() { return personLog == null ? 0 : personLog.syncFailures(); }
+
+    /** Falhas da compactação automática do log. */
+    public long compactionFailures() { return personLog == null ? 0 : personLog.compactionFailures(); }
+
+    /** Falhas dos snapshots automáticos. */
+    public long snapshotFailures() { return snapshotFailures.sum(); }
+
+    /**
+     * Grava um snapshot colunar do estado atual sem bloquear escritas e descarta do log
+     * o que ele já cobre. Retorna o número de pessoas gravadas.
+     */
+    public long snapshot() throws IOException {
+        if (personLog == null || snapshotPath == null) throw new IllegalStateException("Snapshot requer persistência com snapshot-path");
+        snapshotLock.lock();
+        try {
+            long cut = personLog.position();
+            drainWriters();
+            Path tmp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            // registros após 'cut' podem ou não estar no snapshot; reaplicá-los é idempotente
+            long rows = PersonSnapshot.write(tmp, store.values().iterator(), seq.get());
+            Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            personLog.truncateBefore(cut);
+            return rows;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /** Todas as pessoas, em ordem alfabética por nome. */
+    @Override
+    public List<Person> findAll() { return new ArrayList<>(byName.values()); }
+
+    /**
+     * Percorre o índice por nome sob demanda (iterador fracamente consistente), sem copiar a base.
+     */
+    @Override
+    public Stream<Person> streamAll() { return byName.values().stream(); }
+
+    /**
+     * Até {@code limit} pessoas em ordem alfabética, começando logo após {@code after}
+     * (ou do início, se nulo). Custa O(log n + limit).
+     */
+    @Override
+    public List<Person> findPageByName(PersonNameKey after, int limit) {
+        NavigableMap<PersonNameKey, Person> tail = (after == null) ? byName : byName.tailMap(after, false);
+        List<Person> page = new ArrayList<>(Math.min(limit, 256));
+        for (Person p : tail.values()) {
+            if (page.size() == limit) break;
+            page.add(p);
+        }
+        return page;
+    }
+
+    /**
+     * Usa o índice do primeiro filtro informado (admissão, salário, mês de aniversário), em
+     * O(log n + k), e aplica os demais filtros aos itens do intervalo. O resultado vem na ordem
+     * desse índice.
+     */
+    @Override
+    public Stream<Person> findByFilter(PersonFilter filter) {
+        Stream<Person> candidates;
+        if (filter.hasAdmissao()) {
+            candidates = byAdmissao.range(filter.admissaoDe(), filter.admissaoAte());
+        } else if (filter.hasSalario()) {
+            candidates = bySalario.range(filter.salarioMin(), filter.salarioMax());
+        } else if (filter.aniversarioMes() != null) {
+            int mes = filter.aniversarioMes();
+            candidates = byAniversario.range(mes * 100 + 1, mes * 100 + 31);
+        } else {
+            return streamAll();
+        }
+        // a Person indexada pode ter sido alterada depois da indexação; o filtro confere o valor atual
+        return candidates.filter(filter::matches);
+    }
+
+    /** Pontua só os candidatos que compartilham n-gramas com a busca, sem varrer a base. */
+    @Override
+    public List<Person> searchByName(String query, int limit) {
+        NameSearchIndex.Query q = NameSearchIndex.Query.of(query);
+        if (q.isEmpty()) return List.of();
+        List<Person> candidates = new ArrayList<>();
+        for (Long id : nameSearch.candidates(q)) {
+            Person p = store.get(id);
+            if (p != null) candidates.add(p);
+        }
+        return NameSearchIndex.rank(candidates, q, limit, p -> {
+            PersonNameKey key = nameKeys.get(p.getId());
+            return key != null ? key.sortKey() : TextUtils.fold(p.getNome());
+        });
+    }
+
+    @Override
     public Optional<Person> findById(Long id) { return Optional.ofNullable(store.get(id)); }
+    @Override
     public Person save(Person p) {
-        if (p.getId() == null) p.setId(seq.incrementAndGet());
-        store.put(p.getId(), p);
+        awaitDurable(put(p, false));
         return p;
     }
+
+    /**
+     * Grava várias pessoas reservando, de uma só vez, uma faixa contígua de IDs
+     * para as que ainda não têm ID.
+     */
+    @Override
+    public List<Person> saveAll(List<Person> people) {
+        long semId = people.stream().filter(p -> p.getId() == null).count();
+        long next = seq.getAndAdd(semId) + 1;
+        long logPosition = -1;
+        for (Person p : people) {
+            if (p.getId() == null) p.setId(next++);
+            logPosition = put(p, false);
+        }
+        awaitDurable(logPosition); // um único fsync para o bloco inteiro
+        return people;
+    }
+
+    /**
+     * Confere a versão e troca a pessoa sob o lock de escrita do ID, na mesma seção crítica que
+     * atualiza os índices e o log. Leitores não passam pelo lock: veem a instância anterior ou a
+     * nova, nunca uma alteração pela metade.
+     */
+    @Override
+    public boolean replace(Person current, Person next) {
+        long id = current.getId();
+        PayrollStats.checkSalario(next.getSalarioAtual());
+        long logPosition = -1;
+        SqlWriteBehind wb = admitWrite();
+        ReentrantLock lock = writeLock(id);
+        int e = beginWrite();
+        lock.lock();
+        try {
+            Person stored = store.get(id);
+            if (stored == null || stored.getVersion() != current.getVersion()) return false;
+            requireCopy(stored, next);
+            store.put(id, next);
+            salaries.changed(id, reindex(id, stored, next), next, DateUtils.hojeEpochDay());
+            changes.record(PersonChangeFeed.Type.UPDATE, id, next);
+            if (wb != null) wb.enqueue(id, next);
+            if (personLog != null) logPosition = personLog.appendSave(next);
+        } finally {
+            lock.unlock();
+            inFlight[e].decrementAndGet();
+        }
+        awaitDurable(logPosition);
+        return true;
+    }
+
+    /**
+     * Grava a pessoa com a versão que ela já traz, sem conferir a gravada: alterações que uma
+     * réplica recebe do líder, aplicadas na ordem do líder.
+     */
+    void install(Person p) {
+        awaitDurable(put(p, true));
+    }
+
+    @Override
     public boolean existsById(Long id) { return store.containsKey(id); }
-    public void deleteById(Long id) { store.remove(id); }
+    @Override
+    public void deleteById(Long id) {
+        long logPosition = -1;
+        SqlWriteBehind wb = admitWrite();
+        ReentrantLock lock = writeLock(id);
+        int e = beginWrite();
+        lock.lock();
+        try {
+            Person removed = store.remove(id);
+            if (removed != null) {
+                unindex(id, removed);
+                changes.record(PersonChangeFeed.Type.DELETE, id, null);
+                if (wb != null) wb.enqueue(id, null);
+                if (personLog != null) logPosition = personLog.appendDelete(id);
+            }
+        } finally {
+            lock.unlock();
+            inFlight[e].decrementAndGet();
+        }
+        awaitDurable(logPosition);
+    }
+
+    @Override
+    public long count() { return store.size(); }
+
+    @Override
+    public long lastId() { return seq.get(); }
+
+    /**
+     * Estimativa por pessoa ({@link #ESTIMATED_BYTES_PER_PERSON}): percorrer o mapa a cada
+     * consulta custaria caro numa base grande.
+     */
+    @Override
+    public long estimatedBytes() { return store.size() * ESTIMATED_BYTES_PER_PERSON; }
+
+    /** Lidas dos agregados mantidos por save/deleteById, sem percorrer a base. */
+    @Override
+    public PayrollStats payrollStats() { return payroll.snapshot(); }
 
-    public void seed(List<Person> initial) {
-        initial.forEach(p -> {
-            if (p.getId() == null) p.setId(seq.incrementAndGet());
+    @Override
+    public List<SalaryHistory.Entry> salaryHistory(long id) {
+        Person p = store.get(id);
+        return p == null ? List.of() : salaries.history(p);
+    }
+
+    /** Busca binária na linha do tempo da pessoa, sem montar a lista. */
+    @Override
+    public Optional<SalaryHistory.Entry> salaryAt(long id, LocalDate dia) {
+        Person p = store.get(id);
+        return p == null ? Optional.empty() : salaries.at(p, dia);
+    }
+
+    @Override
+    public PersonChangeFeed changes() { return changes; }
+
+    @Override
+    public void close() throws IOException {
+        SqlWriteBehind wb = writeBehind;
+        if (wb != null) wb.close();
+        if (snapshotScheduler != null) snapshotScheduler.shutdownNow();
+        if (personLog != null) personLog.close();
+    }
+
+    /**
+     * Grava em memória (e no log, se houver) e retorna a posição do registro no log, ou -1. Com
+     * {@code keepVersion} a versão de {@code p} é mantida em vez de ser a seguinte à gravada.
+     */
+    private long put(Person p, boolean keepVersion) {
+        PayrollStats.checkSalario(p.getSalarioAtual());
+        SqlWriteBehind wb = admitWrite();
+        if (p.getId() == null) p.setId(seq.incrementAndGet());
+        else if (keepVersion) seq.accumulateAndGet(p.getId(), Math::max);
+        long logPosition = -1;
+        ReentrantLock lock = writeLock(p.getId());
+        int e = beginWrite();
+        lock.lock();
+        try {
+            Person previous = store.get(p.getId());
+            requireCopy(previous, p);
+            if (!keepVersion) p.setVersion(previous == null ? 1 : previous.getVersion() + 1);
             store.put(p.getId(), p);
-        });
+            salaries.changed(p.getId(), reindex(p.getId(), previous, p), p, DateUtils.hojeEpochDay());
+            changes.record(previous == null ? PersonChangeFeed.Type.CREATE : PersonChangeFeed.Type.UPDATE, p.getId(), p);
+            if (wb != null) wb.enqueue(p.getId(), p);
+            if (personLog != null) logPosition = personLog.appendSave(p);
+        } finally {
+            lock.unlock();
+            inFlight[e].decrementAndGet();
+        }
+        return logPosition;
+    }
+
+    void writeBehind(SqlWriteBehind wb) {
+        this.writeBehind = wb;
+    }
+
+    /**
+     * Com a cópia para SQL ligada, espera espaço na fila dela antes da escrita, fora do lock de
+     * escrita (pode lançar {@link WriteBehindFullException}).
+     */
+    private SqlWriteBehind admitWrite() {
+        SqlWriteBehind wb = writeBehind;
+        if (wb != null) wb.admit();
+        return wb;
+    }
+
+    /** O fsync é esperado fora do lock de escrita para não bloquear outras escritas do mesmo stripe. */
+    private void awaitDurable(long logPosition) {
+        if (personLog != null && logPosition >= 0) personLog.awaitDurable(logPosition);
+    }
+
+    private ReentrantLock writeLock(long id) {
+        return writeLocks[Long.hashCode(id) & (WRITE_STRIPES - 1)];
+    }
+
+    private int beginWrite() {
+        int e = epoch;
+        inFlight[e].incrementAndGet();
+        return e;
+    }
+
+    private void drainWriters() {
+        int old = epoch;
+        epoch = old ^ 1;
+        while (inFlight[old].get() != 0) Thread.onSpinWait();
+    }
+
+    /** Reaplica um registro do snapshot ou do log, com a versão gravada nele. */
+    private void applySave(Person p) {
+        reindex(p.getId(), store.put(p.getId(), p), p);
+        seq.accumulateAndGet(p.getId(), Math::max);
+    }
+
+    /**
+     * A instância gravada é imutável (ver {@link Person}): os índices e os agregados desfazem a
+     * contribuição dela, então alterá-la no lugar e gravá-la de novo os deixaria inconsistentes.
+     */
+    private static void requireCopy(Person stored, Person p) {
+        if (stored == p) throw new IllegalArgumentException("Pessoa " + p.getId() + " alterada no lugar: grave uma cópia (withChanges)");
+    }
+
+    /** Troca {@code previous} (nulo se é nova) por {@code p}; retorna o que ela somava aos agregados antes. */
+    private PayrollAggregates.Contribution reindex(Long id, Person previous, Person p) {
+        PersonNameKey key = PersonNameKey.of(p);
+        PersonNameKey previousKey = nameKeys.put(id, key);
+        if (previousKey != null && !previousKey.equals(key)) byName.remove(previousKey);
+        byName.put(key, p);
+        if (previousKey == null || !previousKey.sortKey().equals(key.sortKey())) {
+            nameSearch.update(id, previousKey == null ? null : previousKey.sortKey(), key.sortKey());
+        }
+        byAdmissao.put(id, p);
+        bySalario.put(id, p);
+        byAniversario.put(id, p);
+        PayrollAggregates.Contribution before = previous == null ? null : PayrollAggregates.Contribution.of(previous);
+        payroll.update(before, PayrollAggregates.Contribution.of(p));
+        return before;
+    }
+
+    private void unindex(Long id, Person removed) {
+        PersonNameKey key = nameKeys.remove(id);
+        if (key != null) {
+            byName.remove(key);
+            nameSearch.remove(id, key.sortKey());
+        }
+        byAdmissao.remove(id);
+        bySalario.remove(id);
+        byAniversario.remove(id);
+        payroll.update(PayrollAggregates.Contribution.of(removed), null);
+        salaries.remove(id);
     }
 }
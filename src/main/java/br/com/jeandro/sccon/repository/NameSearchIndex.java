@@ -0,0 +1,161 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.TextUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Índice de n-gramas sobre o nome sem acentos (ver {@link TextUtils#fold}). Cada palavra vira
+ * {@code "$" + palavra} e é quebrada no bigrama inicial e em trigramas ({@code "$s", "$si", "sil",
+ * "ilv", "lva"}). O marcador {@code $} faz o início da palavra contar, o que favorece buscas por
+ * prefixo e permite buscar por uma ou duas letras.
+ *
+ * <p>As listas de IDs por n-grama são conjuntos concorrentes, alterados só dentro do
+ * {@code compute} do próprio n-grama: não há lock global. As escritas de um mesmo ID devem ser
+ * serializadas pelo chamador.</p>
+ */
+final class NameSearchIndex {
+
+    /** Percentual mínimo dos n-gramas da busca que o nome precisa conter para aparecer no resultado. */
+    static final int MIN_SHARED_PERCENT = 30;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    /** Busca já normalizada: texto sem acentos, palavras e n-gramas. */
+    record Query(String folded, List<String> tokens, Set<String> grams) {
+        static Query of(String raw) {
+            List<String> tokens = words(TextUtils.fold(raw));
+            Set<String> grams = new HashSet<>();
+            // o bigrama inicial só entra em buscas de uma letra; nas demais ele casaria qualquer
+            // palavra com a mesma inicial
+            for (String t : tokens) {
+                if (t.length() == 1) grams.add("$" + t);
+                else trigrams(t, grams);
+            }
+            return new Query(String.join(" ", tokens), tokens, grams);
+        }
+
+        boolean isEmpty() { return tokens.isEmpty(); }
+    }
+
+    /** Troca os n-gramas de {@code id} de {@code oldFolded} (nulo = novo) para {@code newFolded}. */
+    void update(long id, String oldFolded, String newFolded) {
+        Set<String> old = oldFolded == null ? Set.of() : grams(words(oldFolded));
+        Set<String> now = grams(words(newFolded));
+        for (String g : old) if (!now.contains(g)) removePosting(g, id);
+        for (String g : now) if (!old.contains(g)) addPosting(g, id);
+    }
+
+    void remove(long id, String folded) {
+        for (String g : grams(words(folded))) removePosting(g, id);
+    }
+
+    /**
+     * IDs que compartilham ao menos {@link #MIN_SHARED_PERCENT}% dos n-gramas da busca, a mesma
+     * condição exigida por {@link #score}; a pontuação final é feita por {@link #rank}.
+     */
+    Set<Long> candidates(Query q) {
+        int minShared = Math.max(1, (MIN_SHARED_PERCENT * q.grams().size() + 99) / 100);
+        Map<Long, int[]> shared = new HashMap<>();
+        for (String g : q.grams()) {
+            Set<Long> ids = postings.get(g);
+            if (ids == null) continue;
+            for (Long id : ids) shared.computeIfAbsent(id, k -> new int[1])[0]++;
+        }
+        Set<Long> result = new HashSet<>();
+        shared.forEach((id, n) -> { if (n[0] >= minShared) result.add(id); });
+        return result;
+    }
+
+    /**
+     * As {@code limit} pessoas de maior pontuação (ver {@link #score}), empatando pelo nome sem
+     * acentos e depois pelo ID. {@code folded} devolve o nome já normalizado de cada pessoa.
+     */
+    static List<Person> rank(Iterable<Person> people, Query q, int limit, Function<Person, String> folded) {
+        record Scored(Person person, String name, double score) {}
+        Comparator<Scored> best = Comparator.comparingDouble(Scored::score).reversed()
+            .thenComparing(Scored::name)
+            .thenComparing(s -> s.person().getId());
+        PriorityQueue<Scored> top = new PriorityQueue<>(best.reversed()); // o pior fica no topo
+        for (Person p : people) {
+            String name = folded.apply(p);
+            double score = score(q, name);
+            if (score < 0) continue;
+            top.add(new Scored(p, name, score));
+            if (top.size() > limit) top.poll();
+        }
+        List<Scored> sorted = new ArrayList<>(top);
+        sorted.sort(best);
+        List<Person> result = new ArrayList<>(sorted.size());
+        for (Scored s : sorted) result.add(s.person());
+        return result;
+    }
+
+    /**
+     * Pontuação de um nome: a fração dos n-gramas da busca presentes no nome (no mínimo
+     * {@link #MIN_SHARED_PERCENT}%, senão -1 = descartar), mais 3 se o nome começa com a busca
+     * inteira, 2 se cada palavra da busca é prefixo de uma palavra do nome ou 1 se o nome
+     * contém cada palavra da busca.
+     */
+    static double score(Query q, String name) {
+        List<String> words = words(name);
+        Set<String> nameGrams = grams(words);
+        int shared = 0;
+        for (String g : q.grams()) if (nameGrams.contains(g)) shared++;
+        if (shared * 100 < MIN_SHARED_PERCENT * q.grams().size()) return -1;
+
+        double bonus;
+        if (String.join(" ", words).startsWith(q.folded())) bonus = 3;
+        else if (q.tokens().stream().allMatch(t -> words.stream().anyMatch(w -> w.startsWith(t)))) bonus = 2;
+        else if (q.tokens().stream().allMatch(name::contains)) bonus = 1;
+        else bonus = 0;
+        return bonus + (double) shared / q.grams().size();
+    }
+
+    private void addPosting(String gram, long id) {
+        postings.compute(gram, (g, ids) -> {
+            if (ids == null) ids = ConcurrentHashMap.newKeySet();
+            ids.add(id);
+            return ids;
+        });
+    }
+
+    private void removePosting(String gram, long id) {
+        postings.computeIfPresent(gram, (g, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /** Palavras (sequências de letras/dígitos) de um texto já normalizado. */
+    static List<String> words(String folded) {
+        List<String> words = new ArrayList<>(4);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) start = i;
+            else if (!letter && start >= 0) {
+                words.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    static Set<String> grams(List<String> words) {
+        Set<String> grams = new HashSet<>();
+        for (String w : words) {
+            grams.add("$" + w.charAt(0));
+            trigrams(w, grams);
+        }
+        return grams;
+    }
+
+    private static void trigrams(String word, Set<String> out) {
+        String marked = "$" + word;
+        for (int i = 0; i + 3 <= marked.length(); i++) out.add(marked.substring(i, i + 3));
+    }
+}
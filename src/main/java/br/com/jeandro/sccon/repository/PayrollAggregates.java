@@ -0,0 +1,71 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Agregados da folha mantidos a cada escrita: contadores {@link LongAdder} (com células por
+ * thread, sem disputa entre escritas concorrentes) para pessoas, soma dos salários, admissões
+ * por ano, faixas de salário e o sketch de quantis do {@link PayrollStats}. Uma leitura custa o
+ * número de faixas, não o de pessoas.
+ *
+ * <p>O chamador informa o que a pessoa somava antes ({@link #update}) e serializa as escritas de
+ * um mesmo ID. Uma leitura com escritas em andamento pode ver uma escrita em parte dos
+ * contadores; contagens momentaneamente negativas por isso são lidas como zero.</p>
+ */
+final class PayrollAggregates {
+
+    /** O que uma pessoa soma aos agregados (valores imutáveis, podem ser guardados por ID). */
+    record Contribution(BigDecimal salario, LocalDate admissao) {
+        static Contribution of(Person p) {
+            return new Contribution(p.getSalarioAtual(), p.getDataAdmissao());
+        }
+    }
+
+    private final LongAdder pessoas = new LongAdder();
+    private final LongAdder folhaCentavos = new LongAdder();
+    private final Map<Integer, LongAdder> admissoes = new ConcurrentHashMap<>();
+    private final LongAdder[] bands = Stream.generate(LongAdder::new).limit(PayrollStats.BANDS).toArray(LongAdder[]::new);
+    private final LongAdder[] sketch = Stream.generate(LongAdder::new).limit(PayrollStats.BUCKETS).toArray(LongAdder[]::new);
+
+    /** Troca a contribuição {@code previous} por {@code next} (nulos = pessoa inexistente / removida). */
+    void update(Contribution previous, Contribution next) {
+        if (previous != null && previous.equals(next)) return;
+        if (previous != null) add(previous, -1);
+        if (next != null) add(next, 1);
+    }
+
+    PayrollStats snapshot() {
+        SortedMap<Integer, Long> years = new TreeMap<>();
+        admissoes.forEach((year, n) -> {
+            long v = n.sum();
+            if (v > 0) years.put(year, v);
+        });
+        long[] b = new long[bands.length];
+        for (int i = 0; i < b.length; i++) b[i] = Math.max(0, bands[i].sum());
+        long[] s = new long[sketch.length];
+        for (int i = 0; i < s.length; i++) s[i] = Math.max(0, sketch[i].sum());
+        return new PayrollStats(Math.max(0, pessoas.sum()), folhaCentavos.sum(), years, b, s);
+    }
+
+    private void add(Contribution c, int sign) {
+        pessoas.add(sign);
+        if (c.admissao() != null) {
+            admissoes.computeIfAbsent(c.admissao().getYear(), y -> new LongAdder()).add(sign);
+        }
+        if (c.salario() != null) {
+            long cents = PayrollStats.cents(c.salario());
+            folhaCentavos.add(sign * cents);
+            bands[PayrollStats.band(cents)].add(sign);
+            sketch[PayrollStats.bucket(cents)].add(sign);
+        }
+    }
+}
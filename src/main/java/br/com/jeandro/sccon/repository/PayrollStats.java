@@ -0,0 +1,192 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Estatísticas da folha num instante: pessoas, soma dos salários, admissões por ano, quantidade
+ * por faixa de salário (em salários mínimos de referência) e um sketch de quantis dos salários.
+ * Os valores são contagens e somas, então {@link #merge} junta as estatísticas de várias
+ * partições sem perda, inclusive os quantis.
+ *
+ * <p>O sketch conta os salários em faixas logarítmicas dos centavos, cada uma {@link #GAMMA}
+ * vezes a anterior. Um quantil é o valor central da faixa em que ele cai, com erro relativo de até
+ * ~1% qualquer que seja o tamanho da base.</p>
+ */
+public final class PayrollStats {
+    /** Salário mínimo de referência das faixas (o padrão dos demais endpoints). */
+    public static final BigDecimal SALARIO_MINIMO = new BigDecimal("1320.00");
+    /** Limite superior (inclusive) de cada faixa, em salários mínimos; a última é "acima de 20". */
+    private static final int[] FAIXAS = { 1, 2, 3, 5, 10, 20 };
+    static final int BANDS = FAIXAS.length + 1;
+
+    static final double GAMMA = 1.02;
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    /**
+     * Maior salário aceito pelos agregados, R$ 1 bilhão (o mesmo {@code @DecimalMax} dos DTOs de
+     * escrita). Com ele a soma em centavos só estoura {@code long} acima de 92 milhões de pessoas
+     * no teto.
+     */
+    static final long MAX_CENTS = 100_000_000_000L;
+    /** Faixa 0: salários até zero; faixa k: centavos em (GAMMA^(k-2), GAMMA^(k-1)]. */
+    static final int BUCKETS = bucket(MAX_CENTS) + 1;
+
+    private static final long MINIMO_CENTS = SALARIO_MINIMO.movePointRight(2).longValueExact();
+
+    /** Faixa de salário: {@code ate} nulo na última (sem limite). */
+    public record Faixa(int de, Integer ate, long quantidade) {}
+
+    private final long pessoas;
+    private final long folhaCentavos;
+    private final SortedMap<Integer, Long> admissoesPorAno;
+    private final long[] bands;
+    private final long[] sketch;
+    private final long comSalario;
+
+    PayrollStats(long pessoas, long folhaCentavos, SortedMap<Integer, Long> admissoesPorAno, long[] bands, long[] sketch) {
+        this.pessoas = pessoas;
+        this.folhaCentavos = folhaCentavos;
+        this.admissoesPorAno = Collections.unmodifiableSortedMap(admissoesPorAno);
+        this.bands = bands;
+        this.sketch = sketch;
+        long n = 0;
+        for (long c : sketch) n += c;
+        this.comSalario = n;
+    }
+
+    /** Percorre {@code people} inteiro: para repositórios que não mantêm os agregados. */
+    public static PayrollStats of(Stream<Person> people) {
+        PayrollAggregates aggregates = new PayrollAggregates();
+        try (people) {
+            people.forEach(p -> aggregates.update(null, PayrollAggregates.Contribution.of(p)));
+        }
+        return aggregates.snapshot();
+    }
+
+    /** Soma das duas estatísticas (partições diferentes da base). */
+    public PayrollStats merge(PayrollStats other) {
+        SortedMap<Integer, Long> years = new TreeMap<>(admissoesPorAno);
+        other.admissoesPorAno.forEach((year, n) -> years.merge(year, n, Long::sum));
+        long[] b = bands.clone();
+        for (int i = 0; i < b.length; i++) b[i] += other.bands[i];
+        long[] s = sketch.clone();
+        for (int i = 0; i < s.length; i++) s[i] += other.sketch[i];
+        return new PayrollStats(pessoas + other.pessoas, folhaCentavos + other.folhaCentavos, years, b, s);
+    }
+
+    public long pessoas() {
+        return pessoas;
+    }
+
+    /** Soma dos salários. */
+    public BigDecimal folha() {
+        return BigDecimal.valueOf(folhaCentavos, 2);
+    }
+
+    /** Média dos salários informados, ou null sem nenhum. */
+    public BigDecimal salarioMedio() {
+        if (comSalario == 0) return null;
+        return BigDecimal.valueOf(folhaCentavos, 2).divide(BigDecimal.valueOf(comSalario), 2, RoundingMode.HALF_UP);
+    }
+
+    /** Quantil {@code q} (0 a 1) dos salários, aproximado (ver a classe), ou null sem nenhum. */
+    public BigDecimal quantil(double q) {
+        if (q < 0 || q > 1) throw new IllegalArgumentException("Quantil fora de [0, 1]: " + q);
+        if (comSalario == 0) return null;
+        long rank = (long) (q * (comSalario - 1));
+        long seen = 0;
+        int k = 0;
+        while (k < sketch.length - 1 && (seen += sketch[k]) <= rank) k++;
+        return k == 0 ? BigDecimal.ZERO.setScale(2) : BigDecimal.valueOf(2 * Math.pow(GAMMA, k - 1) / (GAMMA + 1))
+            .movePointLeft(2).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /** Pessoas admitidas em cada ano, em ordem de ano. */
+    public Map<Integer, Long> admissoesPorAno() {
+        return admissoesPorAno;
+    }
+
+    /** Quantidade de pessoas por faixa de salário, em múltiplos de {@link #SALARIO_MINIMO}. */
+    public List<Faixa> faixas() {
+        List<Faixa> faixas = new ArrayList<>(BANDS);
+        for (int i = 0; i < BANDS; i++) {
+            faixas.add(new Faixa(i == 0 ? 0 : FAIXAS[i - 1], i < FAIXAS.length ? FAIXAS[i] : null, bands[i]));
+        }
+        return faixas;
+    }
+
+    /** Faixa de salário de um valor em centavos. */
+    static int band(long cents) {
+        for (int i = 0; i < FAIXAS.length; i++) {
+            if (cents <= FAIXAS[i] * MINIMO_CENTS) return i;
+        }
+        return FAIXAS.length;
+    }
+
+    /** Faixa do sketch de um valor em centavos (até {@link #MAX_CENTS}). */
+    static int bucket(long cents) {
+        if (cents <= 0) return 0;
+        return 1 + (int) Math.ceil(Math.log(cents) / LOG_GAMMA);
+    }
+
+    /** Centavos do salário, arredondados; IllegalArgumentException fora de ±{@link #MAX_CENTS}. */
+    static long cents(BigDecimal salario) {
+        BigDecimal c = salario.movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        if (c.abs().compareTo(BigDecimal.valueOf(MAX_CENTS)) > 0) {
+            throw new IllegalArgumentException("Salário fora do limite de ±" + BigDecimal.valueOf(MAX_CENTS, 2).toPlainString() + ": " + salario);
+        }
+        return c.longValueExact();
+    }
+
+    /** Confere o salário antes de uma gravação alterar qualquer estrutura (ver {@link #cents}). */
+    static void checkSalario(BigDecimal salario) {
+        if (salario != null) cents(salario);
+    }
+
+    /** Formato do {@link ShardProtocol}; o sketch vai esparso (só faixas com pessoas). */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(pessoas);
+        out.writeLong(folhaCentavos);
+        out.writeInt(admissoesPorAno.size());
+        for (Map.Entry<Integer, Long> e : admissoesPorAno.entrySet()) {
+            out.writeInt(e.getKey());
+            out.writeLong(e.getValue());
+        }
+        for (long b : bands) out.writeLong(b);
+        int used = 0;
+        for (long c : sketch) if (c != 0) used++;
+        out.writeInt(used);
+        for (int k = 0; k < sketch.length; k++) {
+            if (sketch[k] == 0) continue;
+            out.writeInt(k);
+            out.writeLong(sketch[k]);
+        }
+    }
+
+    static PayrollStats readFrom(DataInputStream in) throws IOException {
+        long pessoas = in.readLong();
+        long folha = in.readLong();
+        SortedMap<Integer, Long> years = new TreeMap<>();
+        for (int n = in.readInt(); n > 0; n--) years.put(in.readInt(), in.readLong());
+        long[] bands = new long[BANDS];
+        for (int i = 0; i < BANDS; i++) bands[i] = in.readLong();
+        long[] sketch = new long[BUCKETS];
+        for (int n = in.readInt(); n > 0; n--) {
+            int k = in.readInt();
+            sketch[k] = in.readLong();
+        }
+        return new PayrollStats(pessoas, folha, years, bands, sketch);
+    }
+}
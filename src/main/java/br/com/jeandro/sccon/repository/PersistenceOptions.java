@@ -0,0 +1,16 @@
+package br.com.jeandro.sccon.repository;
+
+import java.nio.file.Path;
+
+/**
+ * Configuração do modo persistente do repositório.
+ *
+ * @param logPath            arquivo do log append-only
+ * @param syncIntervalMs     0 = cada escrita espera o fsync (group commit); &gt; 0 = fsync periódico
+ * @param compactionMinBytes tamanho do log a partir do qual ele é compactado (ou, com snapshot, rotacionado)
+ * @param compactionCheckMs  intervalo de verificação da compactação/snapshot (0 = desligado)
+ * @param snapshotPath       arquivo do snapshot colunar; null = sem snapshot, só compactação do log
+ */
+public record PersistenceOptions(Path logPath, long syncIntervalMs, long compactionMinBytes,
+                                 long compactionCheckMs, Path snapshotPath) {
+}
@@ -0,0 +1,113 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Alterações recentes do repositório (criação, alteração, remoção) num buffer circular de
+ * tamanho fixo. Cada alteração recebe a sequência seguinte, que também é o contador de
+ * alterações do repositório ({@link PersonRepository#modificationCount()}).
+ *
+ * <p>Quem grava nunca espera por leitores: a alteração sobrescreve a posição de uma alteração
+ * {@code capacidade} sequências mais antiga. Um leitor que ficou para trás percebe a
+ * sobrescrita e precisa se ressincronizar (reler a base e continuar da sequência atual).
+ * Leitores em dia esperam estacionados e são acordados por {@link LockSupport#unpark}.</p>
+ */
+public final class PersonChangeFeed {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    public enum Type { CREATE, UPDATE, DELETE }
+
+    /** Uma alteração; {@code person} é a pessoa gravada (imutável) ou null na remoção. */
+    public record Change(long seq, Type type, long id, Person person) {}
+
+    private final AtomicReferenceArray<Change> ring;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Set<Thread> waiting = ConcurrentHashMap.newKeySet();
+
+    public PersonChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** {@code capacity} é arredondada para a próxima potência de 2. */
+    public PersonChangeFeed(int capacity) {
+        int size = Math.max(1, Integer.highestOneBit(Math.max(1, capacity) - 1) << 1);
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /** Sequência da última alteração registrada (0 = nenhuma). */
+    public long lastSequence() {
+        return sequence.get();
+    }
+
+    public int capacity() {
+        return ring.length();
+    }
+
+    /**
+     * Registra uma alteração já visível nas leituras do repositório. Alterações do mesmo ID devem
+     * ser registradas pelo chamador na ordem em que foram aplicadas (com o lock de escrita do ID).
+     */
+    void record(Type type, long id, Person person) {
+        long seq = sequence.incrementAndGet();
+        ring.set(index(seq), new Change(seq, type, id, person));
+        if (!waiting.isEmpty()) {
+            for (Thread t : waiting) LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * Copia para {@code out}, em ordem, até {@code max} alterações com sequência maior que
+     * {@code after}, esperando até {@code timeoutNanos} se ainda não houver nenhuma. Retorna false
+     * se alguma delas já foi sobrescrita ou se {@code after} não é uma sequência deste feed: o
+     * leitor precisa se ressincronizar.
+     */
+    public boolean poll(long after, int max, long timeoutNanos, List<Change> out) {
+        if (after < 0 || after > sequence.get()) return false;
+        long deadline = System.nanoTime() + timeoutNanos;
+        long next = after + 1;
+        int found = 0;
+        while (true) {
+            while (found < max) {
+                Change c = ring.get(index(next));
+                if (c != null && c.seq() == next) {
+                    out.add(c);
+                    found++;
+                    next++;
+                } else if (c != null && c.seq() > next) {
+                    return false; // sobrescrita: o leitor ficou mais de uma volta para trás
+                } else if (next <= sequence.get()) {
+                    Thread.onSpinWait(); // sequência reservada, publicação em andamento
+                } else {
+                    break; // em dia
+                }
+            }
+            long remaining = deadline - System.nanoTime();
+            if (found > 0 || max == 0 || remaining <= 0) return true;
+            Thread self = Thread.currentThread();
+            waiting.add(self);
+            try {
+                // confere de novo depois de se registrar para não perder um unpark
+                if (next > sequence.get()) LockSupport.parkNanos(this, remaining);
+            } finally {
+                waiting.remove(self);
+            }
+            if (Thread.interrupted()) {
+                self.interrupt();
+                return true;
+            }
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq & mask);
+    }
+}
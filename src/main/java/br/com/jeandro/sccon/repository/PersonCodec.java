@@ -0,0 +1,94 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Codificação binária compacta de uma operação sobre Person:
+ * <pre>
+ * SAVE:   op(1) id(8) nascimento(4, epoch-day) admissao(4, epoch-day) escala(4) tamUnscaled(4) unscaled(n) tamNome(4) nome(UTF-8) versão(8)
+ * DELETE: op(1) id(8)
+ * </pre>
+ * Campos nulos usam sentinelas (Integer.MIN_VALUE para datas, tamanho -1 para salário/nome e id 0
+ * para pessoa ainda sem ID). A versão é obrigatória: um SAVE que termina no nome é recusado.
+ */
+final class PersonCodec {
+    static final byte OP_SAVE = 1;
+    static final byte OP_DELETE = 2;
+
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+
+    private PersonCodec() {}
+
+    static byte[] encodeSave(Person p) {
+        byte[] nome = p.getNome() == null ? null : p.getNome().getBytes(StandardCharsets.UTF_8);
+        byte[] unscaled = p.getSalarioAtual() == null ? null : p.getSalarioAtual().unscaledValue().toByteArray();
+        int size = 1 + 8 + 4 + 4 + 4 + 4 + (unscaled == null ? 0 : unscaled.length) + 4 + (nome == null ? 0 : nome.length) + 8;
+        ByteBuffer b = ByteBuffer.allocate(size);
+        b.put(OP_SAVE).putLong(p.getId() == null ? 0 : p.getId());
+        b.putInt(epochDay(p.getDataNascimento())).putInt(epochDay(p.getDataAdmissao()));
+        b.putInt(p.getSalarioAtual() == null ? 0 : p.getSalarioAtual().scale());
+        putBytes(b, unscaled);
+        putBytes(b, nome);
+        b.putLong(p.getVersion());
+        return b.array();
+    }
+
+    static byte[] encodeDelete(long id) {
+        return ByteBuffer.allocate(1 + 8).put(OP_DELETE).putLong(id).array();
+    }
+
+    static byte op(ByteBuffer payload) {
+        return payload.get(payload.position());
+    }
+
+    static long id(ByteBuffer payload) {
+        return payload.getLong(payload.position() + 1);
+    }
+
+    /** Lê um payload SAVE (a posição do buffer avança até o fim do registro). */
+    static Person decodeSave(ByteBuffer b) {
+        b.get();
+        long id = b.getLong();
+        LocalDate nascimento = date(b.getInt());
+        LocalDate admissao = date(b.getInt());
+        int scale = b.getInt();
+        byte[] unscaled = getBytes(b);
+        byte[] nome = getBytes(b);
+        if (b.remaining() < 8) throw new IllegalArgumentException("Registro SAVE do ID " + id + " sem versão");
+        long version = b.getLong();
+        BigDecimal salario = unscaled == null ? null : new BigDecimal(new BigInteger(unscaled), scale);
+        Person p = new Person(id, nome == null ? null : new String(nome, StandardCharsets.UTF_8), nascimento, admissao, salario);
+        p.setVersion(version);
+        return p;
+    }
+
+    private static int epochDay(LocalDate d) {
+        return d == null ? NULL_DATE : Math.toIntExact(d.toEpochDay());
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static void putBytes(ByteBuffer b, byte[] bytes) {
+        if (bytes == null) {
+            b.putInt(-1);
+        } else {
+            b.putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static byte[] getBytes(ByteBuffer b) {
+        int len = b.getInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        b.get(bytes);
+        return bytes;
+    }
+}
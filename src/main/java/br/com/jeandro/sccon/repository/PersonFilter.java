@@ -0,0 +1,42 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtros de intervalo sobre pessoas. Campos nulos não filtram; os limites são inclusivos.
+ * {@code aniversarioMes} é o mês de nascimento (1 a 12).
+ */
+public record PersonFilter(LocalDate admissaoDe, LocalDate admissaoAte,
+                           BigDecimal salarioMin, BigDecimal salarioMax,
+                           Integer aniversarioMes) {
+
+    public boolean isEmpty() {
+        return admissaoDe == null && admissaoAte == null && salarioMin == null && salarioMax == null
+            && aniversarioMes == null;
+    }
+
+    public boolean hasAdmissao() { return admissaoDe != null || admissaoAte != null; }
+
+    public boolean hasSalario() { return salarioMin != null || salarioMax != null; }
+
+    public boolean matches(Person p) {
+        if (hasAdmissao()) {
+            LocalDate d = p.getDataAdmissao();
+            if (d == null || (admissaoDe != null && d.isBefore(admissaoDe)) || (admissaoAte != null && d.isAfter(admissaoAte)))
+                return false;
+        }
+        if (hasSalario()) {
+            BigDecimal s = p.getSalarioAtual();
+            if (s == null || (salarioMin != null && s.compareTo(salarioMin) < 0) || (salarioMax != null && s.compareTo(salarioMax) > 0))
+                return false;
+        }
+        if (aniversarioMes != null) {
+            LocalDate n = p.getDataNascimento();
+            if (n == null || n.getMonthValue() != aniversarioMes) return false;
+        }
+        return true;
+    }
+}
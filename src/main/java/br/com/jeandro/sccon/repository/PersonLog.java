@@ -0,0 +1,380 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Log append-only das operações do repositório, escrito através de um {@link MappedByteBuffer}.
+ *
+ * <p>Cada registro é {@code tamanho(4) crc32c(4) payload}, com o payload definido em {@link PersonCodec}.
+ * Na abertura o log é relido até o último registro íntegro (um registro truncado ou com CRC
+ * inválido encerra a leitura).</p>
+ *
+ * <p>Durabilidade: com {@code syncIntervalMs = 0} cada escrita espera o fsync, mas escritas
+ * concorrentes compartilham o mesmo fsync (group commit). Com {@code syncIntervalMs > 0} o fsync
+ * é feito periodicamente em segundo plano e a escrita não espera.</p>
+ *
+ * <p>Compactação: quando o arquivo passa de {@code compactionMinBytes} e dobrou de tamanho desde a
+ * última compactação, ele é reescrito só com o último registro de cada ID vivo.</p>
+ */
+public class PersonLog implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(PersonLog.class);
+    private static final int HEADER_SIZE = 8;
+    private static final long REGION_SIZE = 64L << 20;
+
+    private final Path path;
+    private final long syncIntervalMs;
+    private final long compactionMinBytes;
+
+    /** Protege canal, região mapeada e posição de escrita. */
+    private final ReentrantLock appendLock = new ReentrantLock();
+    /**
+     * Garante um único fsync em andamento; quem espera aproveita o fsync do líder. A troca do
+     * arquivo também o segura, para um fsync do arquivo antigo não gravar a sua posição no novo.
+     * Ordem: compactLock, syncLock, appendLock.
+     */
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ReentrantLock compactLock = new ReentrantLock();
+    private final LongAdder syncFailures = new LongAdder();
+    private final LongAdder compactionFailures = new LongAdder();
+
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private volatile long writePosition;
+    private volatile long durablePosition;
+    private long sizeAfterCompaction;
+    private final ScheduledExecutorService scheduler;
+
+    public interface Replay {
+        void save(Person p);
+        void delete(long id);
+    }
+
+    private PersonLog(Path path, long syncIntervalMs, long compactionMinBytes) throws IOException {
+        this.path = path;
+        this.syncIntervalMs = syncIntervalMs;
+        this.compactionMinBytes = compactionMinBytes;
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "person-log");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Abre (ou cria) o log, reaplica os registros existentes em {@code replay} e agenda
+     * o fsync periódico (se configurado) e a verificação de compactação.
+     */
+    public static PersonLog open(Path path, long syncIntervalMs, long compactionMinBytes, long compactionCheckMs,
+                                 Replay replay) throws IOException {
+        PersonLog log = new PersonLog(path, syncIntervalMs, compactionMinBytes);
+        long end = scan(log.channel, 0, log.channel.size(), payload -> {
+            if (PersonCodec.op(payload) == PersonCodec.OP_SAVE) replay.save(PersonCodec.decodeSave(payload));
+            else replay.delete(PersonCodec.id(payload));
+        }, null);
+        log.writePosition = end;
+        log.durablePosition = end;
+        log.sizeAfterCompaction = end;
+        log.mapRegion(end, REGION_SIZE);
+        if (syncIntervalMs > 0) {
+            log.scheduler.scheduleWithFixedDelay(log::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        if (compactionCheckMs > 0) {
+            log.scheduler.scheduleWithFixedDelay(log::compactIfNeeded, compactionCheckMs, compactionCheckMs, TimeUnit.MILLISECONDS);
+        }
+        return log;
+    }
+
+    /** Acrescenta um SAVE e retorna a posição final do registro (usada em {@link #awaitDurable}). */
+    public long appendSave(Person p) {
+        return append(PersonCodec.encodeSave(p));
+    }
+
+    public long appendDelete(long id) {
+        return append(PersonCodec.encodeDelete(id));
+    }
+
+    /**
+     * Espera até que o registro terminado em {@code position} esteja em disco.
+     * No modo periódico não espera: o fsync acontece em segundo plano.
+     */
+    public void awaitDurable(long position) {
+        if (syncIntervalMs > 0 || position <= durablePosition) return;
+        try {
+            sync(position);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao sincronizar o log de pessoas", e);
+        }
+    }
+
+    /** Tamanho atual do log em bytes. */
+    public long size() {
+        return writePosition;
+    }
+
+    /** Bytes gravados ainda sem fsync (nunca negativo: o fsync não passa do fim do arquivo atual). */
+    long unsyncedBytes() {
+        appendLock.lock();
+        try {
+            return writePosition - durablePosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /** fsyncs periódicos que falharam (no modo {@code syncIntervalMs > 0}). */
+    public long syncFailures() {
+        return syncFailures.sum();
+    }
+
+    /** Compactações automáticas que falharam. */
+    public long compactionFailures() {
+        return compactionFailures.sum();
+    }
+
+    /**
+     * Reescreve o log com apenas o último registro de cada ID vivo. As escritas continuam
+     * durante a reescrita; só a cópia final dos registros novos e a troca do arquivo bloqueiam.
+     */
+    public void compact() throws IOException {
+        compactLock.lock();
+        try {
+            long upTo = writePosition;
+            Map<Long, byte[]> live = new LinkedHashMap<>();
+            scan(channel, 0, upTo, null, (payload, record) -> {
+                long id = PersonCodec.id(payload);
+                live.remove(id);
+                if (PersonCodec.op(payload) == PersonCodec.OP_SAVE) live.put(id, record);
+            });
+            rewrite(live.values(), upTo);
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    /**
+     * Descarta os registros anteriores a {@code position} (já cobertos por um snapshot),
+     * mantendo apenas a cauda do log.
+     */
+    public void truncateBefore(long position) throws IOException {
+        compactLock.lock();
+        try {
+            rewrite(List.of(), position);
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    /** Posição atual do fim do log, para marcar o ponto de corte de um snapshot. */
+    public long position() {
+        appendLock.lock();
+        try {
+            return writePosition;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Grava um arquivo novo com {@code head} seguido dos registros a partir de {@code tailFrom}
+     * e o troca atomicamente pelo log atual. Deve ser chamado com {@code compactLock}. A troca
+     * segura {@code syncLock}: um fsync em andamento termina antes dela, e os seguintes já veem o
+     * arquivo novo.
+     */
+    private void rewrite(Collection<byte[]> head, long tailFrom) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean swapped = false;
+        try {
+            for (byte[] record : head) writeFully(out, ByteBuffer.wrap(record));
+            syncLock.lock();
+            appendLock.lock();
+            try {
+                // registros gravados enquanto o arquivo novo era preparado
+                for (long pos = tailFrom; pos < writePosition; ) {
+                    pos += channel.transferTo(pos, writePosition - pos, out);
+                }
+                out.force(true);
+                long newEnd = out.position();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                channel = out;
+                swapped = true;
+                writePosition = newEnd;
+                // tudo que existia foi forçado acima, inclusive a cauda ainda não sincronizada
+                durablePosition = newEnd;
+                sizeAfterCompaction = newEnd;
+                mapRegion(newEnd, REGION_SIZE);
+            } finally {
+                appendLock.unlock();
+                syncLock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!swapped) {
+                out.close();
+                Files.deleteIfExists(tmp);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        compactLock.lock();
+        appendLock.lock();
+        try {
+            region.force();
+            channel.truncate(writePosition);
+            channel.force(true);
+            channel.close();
+        } finally {
+            appendLock.unlock();
+            compactLock.unlock();
+        }
+    }
+
+    private long append(byte[] payload) {
+        int size = HEADER_SIZE + payload.length;
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        appendLock.lock();
+        try {
+            if (region.remaining() < size) {
+                region.force();
+                mapRegion(writePosition, Math.max(REGION_SIZE, size));
+            }
+            region.putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+            writePosition += size;
+            return writePosition;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no log de pessoas", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private void sync(long position) throws IOException {
+        syncLock.lock();
+        try {
+            if (position <= durablePosition) return; // outro líder já cobriu esta posição
+            MappedByteBuffer r;
+            long start;
+            long target;
+            appendLock.lock();
+            try {
+                r = region;
+                start = regionStart;
+                target = writePosition;
+            } finally {
+                appendLock.unlock();
+            }
+            // regiões anteriores são forçadas ao serem trocadas em append()
+            long from = Math.max(durablePosition, start);
+            if (target > from) r.force((int) (from - start), (int) (target - from));
+            durablePosition = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync(writePosition);
+        } catch (IOException | RuntimeException e) {
+            // as escritas não esperam o fsync neste modo: este aviso é o único sinal da falha
+            syncFailures.increment();
+            log.warn("Falha no fsync periódico de {}; nova tentativa em {} ms", path, syncIntervalMs, e);
+        }
+    }
+
+    private void compactIfNeeded() {
+        long size = writePosition;
+        if (size < compactionMinBytes || size < 2 * sizeAfterCompaction) return;
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            // o log atual continua válido; nova tentativa no próximo ciclo
+            compactionFailures.increment();
+            log.warn("Falha ao compactar {} ({} bytes)", path, size, e);
+        }
+    }
+
+    private void mapRegion(long start, long size) throws IOException {
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, size);
+        regionStart = start;
+    }
+
+    interface RecordVisitor {
+        void visit(ByteBuffer payload, byte[] record);
+    }
+
+    /**
+     * Percorre os registros íntegros em [from, to) e retorna a posição logo após o último.
+     * {@code onPayload} recebe só o payload; {@code onRecord} também recebe o registro completo.
+     */
+    static long scan(FileChannel ch, long from, long to, Consumer<ByteBuffer> onPayload, RecordVisitor onRecord)
+        throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        long pos = from;
+        CRC32C crc = new CRC32C();
+        while (pos + HEADER_SIZE <= to) {
+            header.clear();
+            if (readFully(ch, header, pos) < HEADER_SIZE) break;
+            int len = header.getInt(0);
+            if (len <= 0 || pos + HEADER_SIZE + len > to) break;
+            byte[] record = new byte[HEADER_SIZE + len];
+            ByteBuffer rec = ByteBuffer.wrap(record);
+            if (readFully(ch, rec, pos) < record.length) break;
+            crc.reset();
+            crc.update(record, HEADER_SIZE, len);
+            if ((int) crc.getValue() != header.getInt(4)) break;
+            ByteBuffer payload = ByteBuffer.wrap(record, HEADER_SIZE, len).slice();
+            if (onPayload != null) onPayload.accept(payload);
+            if (onRecord != null) onRecord.visit(payload, record);
+            pos += record.length;
+        }
+        return pos;
+    }
+
+    private static int readFully(FileChannel ch, ByteBuffer dst, long position) throws IOException {
+        int total = 0;
+        while (dst.hasRemaining()) {
+            int n = ch.read(dst, position + total);
+            if (n < 0) break;
+            total += n;
+        }
+        return total;
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) ch.write(src);
+    }
+}
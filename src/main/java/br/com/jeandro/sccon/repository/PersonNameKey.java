@@ -0,0 +1,44 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.TextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Chave do índice por nome: ordena pelo nome sem acentos/maiúsculas, depois pelo nome original
+ * e, por fim, pelo ID (desempate entre homônimos).
+ */
+public record PersonNameKey(String sortKey, String nome, long id) implements Comparable<PersonNameKey> {
+
+    public static PersonNameKey of(Person p) {
+        return of(p.getNome(), p.getId());
+    }
+
+    public static PersonNameKey of(String nome, long id) {
+        String n = nome == null ? "" : nome;
+        return new PersonNameKey(TextUtils.fold(n), n, id);
+    }
+
+    @Override
+    public int compareTo(PersonNameKey o) {
+        int c = sortKey.compareTo(o.sortKey);
+        if (c == 0) c = nome.compareTo(o.nome);
+        return c != 0 ? c : Long.compare(id, o.id);
+    }
+
+    /** Cursor opaco (Base64 URL) usado na paginação de GET /persons. */
+    public String toCursor() {
+        String raw = id + ":" + nome;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Decodifica um cursor gerado por {@link #toCursor()}; lança IllegalArgumentException se inválido. */
+    public static PersonNameKey fromCursor(String cursor) {
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int sep = raw.indexOf(':');
+        if (sep <= 0) throw new IllegalArgumentException("cursor inválido");
+        return of(raw.substring(sep + 1), Long.parseLong(raw.substring(0, sep)));
+    }
+}
@@ -0,0 +1,169 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.BootId;
+import br.com.jeandro.sccon.util.TextUtils;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Armazenamento de pessoas. Implementações: {@link InMemoryPersonRepository} (mapa de objetos,
+ * com persistência opcional) e {@link CompactPersonRepository} (colunas primitivas).
+ */
+public interface PersonRepository {
+
+    /** Todas as pessoas, em ordem alfabética por nome. */
+    List<Person> findAll();
+
+    /**
+     * Até {@code limit} pessoas em ordem alfabética, começando logo após {@code after}
+     * (ou do início, se nulo).
+     */
+    List<Person> findPageByName(PersonNameKey after, int limit);
+
+    /**
+     * Percorre todas as pessoas em ordem alfabética sob demanda. A implementação padrão
+     * busca páginas de {@code 1000} pelo índice por nome.
+     */
+    default Stream<Person> streamAll() {
+        Spliterator<Person> pages = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private List<Person> page = List.of();
+            private int next;
+            private PersonNameKey after;
+            private boolean done;
+
+            @Override
+            public boolean tryAdvance(java.util.function.Consumer<? super Person> action) {
+                if (next == page.size()) {
+                    if (done) return false;
+                    page = findPageByName(after, 1000);
+                    next = 0;
+                    if (page.size() < 1000) done = true;
+                    if (page.isEmpty()) return false;
+                    after = PersonNameKey.of(page.get(page.size() - 1));
+                }
+                action.accept(page.get(next++));
+                return true;
+            }
+        };
+        return StreamSupport.stream(pages, false);
+    }
+
+    /**
+     * Pessoas que atendem a {@code filter}. A implementação padrão percorre a base inteira;
+     * implementações com índices secundários devem sobrescrever.
+     */
+    default Stream<Person> findByFilter(PersonFilter filter) {
+        return streamAll().filter(filter::matches);
+    }
+
+    /**
+     * Até {@code limit} pessoas cujo nome corresponde a {@code query} (prefixo, trecho ou n-gramas
+     * em comum, sem acentos), da mais para a menos relevante. A implementação padrão pontua a base
+     * inteira.
+     */
+    default List<Person> searchByName(String query, int limit) {
+        NameSearchIndex.Query q = NameSearchIndex.Query.of(query);
+        if (q.isEmpty()) return List.of();
+        return NameSearchIndex.rank(streamAll()::iterator, q, limit, p -> TextUtils.fold(p.getNome()));
+    }
+
+    Optional<Person> findById(Long id);
+
+    /**
+     * Pessoas de vários IDs numa só chamada (IDs inexistentes ficam de fora do mapa). A
+     * implementação padrão busca um a um; repositórios remotos devem agrupar por nó.
+     */
+    default Map<Long, Person> findAllById(Collection<Long> ids) {
+        Map<Long, Person> found = new HashMap<>(Math.max(4, ids.size() * 2));
+        for (Long id : ids) findById(id).ifPresent(p -> found.put(id, p));
+        return found;
+    }
+
+    /**
+     * Insere ou substitui; atribui um ID novo quando {@code p.getId()} é nulo e a versão seguinte
+     * à gravada (1 para pessoas novas).
+     */
+    Person save(Person p);
+
+    /**
+     * Compare-and-set: grava {@code next} (com ID e versão já definidos) somente se a versão
+     * gravada ainda for a de {@code current}. Retorna false se a pessoa foi alterada ou removida
+     * nesse meio tempo; o chamador relê e tenta de novo.
+     */
+    boolean replace(Person current, Person next);
+
+    /** Grava várias pessoas reservando de uma só vez os IDs das que ainda não têm. */
+    List<Person> saveAll(List<Person> people);
+
+    boolean existsById(Long id);
+
+    void deleteById(Long id);
+
+    long count();
+
+    /** Último ID atribuído pela sequência (0 = nenhum). */
+    long lastId();
+
+    /** Estimativa da memória ocupada pelas pessoas e pelos índices, em bytes. */
+    long estimatedBytes();
+
+    /**
+     * Estatísticas da folha (GET /persons/stats). A implementação padrão percorre a base inteira;
+     * implementações que mantêm os agregados a cada escrita devem sobrescrever.
+     */
+    default PayrollStats payrollStats() {
+        return PayrollStats.of(streamAll());
+    }
+
+    /**
+     * Salários da pessoa em ordem de data ({@link SalaryHistory}); vazio se ela não existe. A
+     * implementação padrão não guarda histórico: só o salário atual, desde a admissão.
+     */
+    default List<SalaryHistory.Entry> salaryHistory(long id) {
+        return findById(id).flatMap(SalaryHistory::since).map(List::of).orElse(List.of());
+    }
+
+    /** Salário em vigor no dia {@code dia}; vazio se a pessoa não existe ou ainda não tinha salário. */
+    default Optional<SalaryHistory.Entry> salaryAt(long id, LocalDate dia) {
+        return SalaryHistory.at(salaryHistory(id), dia);
+    }
+
+    /**
+     * Contador de alterações do repositório inteiro: cresce a cada gravação ou remoção e só depois
+     * que a alteração está visível nas leituras. Lido antes de uma consulta, identifica a versão
+     * dos dados usada nela (ETag de coleção). Dados recarregados na inicialização não contam.
+     */
+    default long modificationCount() {
+        return changes().lastSequence();
+    }
+
+    /**
+     * Versão dos dados para a ETag de coleção: {@link BootId} e {@link #modificationCount()}
+     * ({@code "lx3k9q-42"}). O contador recomeça a cada inicialização; o prefixo impede que uma
+     * versão de antes do reinício volte a valer.
+     */
+    default String dataVersion() {
+        return BootId.VALUE + "-" + modificationCount();
+    }
+
+    /** Feed das alterações recentes; a sequência de cada uma é o {@link #modificationCount()}. */
+    PersonChangeFeed changes();
+
+    /** Grava os dados iniciais se o repositório estiver vazio (ex.: sem log persistente). */
+    default void seed(List<Person> initial) {
+        if (count() == 0) initial.forEach(this::save);
+    }
+
+    default void close() throws IOException {}
+}
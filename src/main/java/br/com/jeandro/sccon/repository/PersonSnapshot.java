@@ -0,0 +1,243 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshot binário e colunar do repositório.
+ * <pre>
+ * cabeçalho: magic(4) versão(4) linhas(8) últimoId(8) bytesNomes(8) bytesSalariosGrandes(8)
+ * colunas:   ids(8n) nascimento(4n, epoch-day) admissao(4n, epoch-day) salarioUnscaled(8n)
+ *            versões(8n) offsetsNomes(4(n+1)) escalaSalario(1n) nomes(UTF-8)
+ *            salariosGrandes(escala(4) tamanho(4) unscaled(complemento de 2) por salário)
+ * trailer:   crc32c(8) do que vem depois do cabeçalho
+ * </pre>
+ * Salários cujo valor sem escala não cabe em um long, ou cuja escala não cabe em um byte, vão para
+ * a área de salários grandes, como no log; a coluna sem escala guarda o offset deles nessa área.
+ * O arquivo é limitado a 2 GB; snapshots de outro formato são recusados.
+ */
+final class PersonSnapshot {
+    private static final int MAGIC = 0x50534E50; // "PSNP"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 8 + 8;
+    private static final int CHUNK_ROWS = 65_536;
+    private static final int NULL_DATE = Integer.MIN_VALUE;
+    private static final byte NULL_SALARIO = Byte.MIN_VALUE;
+    private static final byte SALARIO_GRANDE = Byte.MIN_VALUE + 1;
+    private static final int NULL_NOME = -1;
+
+    private PersonSnapshot() {}
+
+    /** Resultado da leitura de um snapshot. */
+    record Loaded(long rows, long lastId) {}
+
+    /**
+     * Grava {@code people} em {@code file} (com fsync) e retorna o número de linhas.
+     * A iteração é feita uma única vez, acumulando as colunas em arrays primitivos.
+     */
+    static long write(Path file, Iterator<Person> people, long lastId) throws IOException {
+        Columns c = new Columns();
+        while (people.hasNext()) c.add(people.next());
+
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(c.size);
+            out.writeLong(lastId);
+            out.writeLong(c.namesSize);
+            out.writeLong(c.big.size());
+
+            CRC32C crc = new CRC32C();
+            DataOutputStream body = new DataOutputStream(new CheckedOutputStream(out, crc));
+            for (int i = 0; i < c.size; i++) body.writeLong(c.ids[i]);
+            for (int i = 0; i < c.size; i++) body.writeInt(c.nascimento[i]);
+            for (int i = 0; i < c.size; i++) body.writeInt(c.admissao[i]);
+            for (int i = 0; i < c.size; i++) body.writeLong(c.unscaled[i]);
+            for (int i = 0; i < c.size; i++) body.writeLong(c.versions[i]);
+            for (int i = 0; i <= c.size; i++) body.writeInt(c.nameOffsets[i]);
+            body.write(c.scales, 0, c.size);
+            body.write(c.names, 0, c.namesSize);
+            c.big.writeTo(body);
+            body.flush();
+            out.writeLong(crc.getValue());
+            out.flush();
+            ch.force(true);
+        }
+        return c.size;
+    }
+
+    /**
+     * Lê o snapshot dividindo as linhas em blocos decodificados em paralelo.
+     * {@code sink} é chamado concorrentemente e deve ser thread-safe.
+     */
+    static Loaded load(Path file, Consumer<Person> sink) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = ch.size();
+            if (fileSize > Integer.MAX_VALUE) throw new IOException("Snapshot maior que 2 GB: " + file);
+            if (fileSize < 8) throw new IOException("Snapshot truncado: " + file);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            if (buf.getInt(0) != MAGIC || buf.getInt(4) != VERSION) throw new IOException("Snapshot inválido: " + file);
+            if (fileSize < HEADER_SIZE + 8) throw new IOException("Snapshot truncado: " + file);
+            int n = Math.toIntExact(buf.getLong(8));
+            long lastId = buf.getLong(16);
+            int namesSize = Math.toIntExact(buf.getLong(24));
+            int bigSize = Math.toIntExact(buf.getLong(32));
+
+            Layout l = new Layout(n, namesSize);
+            if (l.big + bigSize + 8L != fileSize) throw new IOException("Snapshot truncado: " + file);
+            CRC32C crc = new CRC32C();
+            crc.update(buf.slice(HEADER_SIZE, l.big + bigSize - HEADER_SIZE));
+            if (crc.getValue() != buf.getLong(l.big + bigSize)) throw new IOException("CRC do snapshot não confere: " + file);
+
+            int chunks = (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                ByteBuffer b = buf.duplicate();
+                int from = chunk * CHUNK_ROWS;
+                int to = Math.min(n, from + CHUNK_ROWS);
+                for (int i = from; i < to; i++) sink.accept(l.read(b, i));
+            });
+            return new Loaded(n, lastId);
+        }
+    }
+
+    /** Posições (em bytes) de cada coluna para n linhas. */
+    private static final class Layout {
+        final int ids, nascimento, admissao, unscaled, versions, nameOffsets, scales, names, big;
+
+        Layout(int n, int namesSize) {
+            ids = HEADER_SIZE;
+            nascimento = Math.toIntExact(ids + 8L * n);
+            admissao = Math.toIntExact(nascimento + 4L * n);
+            unscaled = Math.toIntExact(admissao + 4L * n);
+            versions = Math.toIntExact(unscaled + 8L * n);
+            nameOffsets = Math.toIntExact(versions + 8L * n);
+            scales = Math.toIntExact(nameOffsets + 4L * (n + 1));
+            names = Math.toIntExact(scales + (long) n);
+            big = Math.toIntExact(names + (long) namesSize);
+        }
+
+        Person read(ByteBuffer b, int i) {
+            long id = b.getLong(ids + 8 * i);
+            byte scale = b.get(scales + i);
+            BigDecimal salario = scale == NULL_SALARIO ? null
+                : scale == SALARIO_GRANDE ? bigSalario(b, Math.toIntExact(b.getLong(unscaled + 8 * i)))
+                : BigDecimal.valueOf(b.getLong(unscaled + 8 * i), scale);
+            int start = b.getInt(nameOffsets + 4 * i);
+            String nome = null;
+            if (start != NULL_NOME) {
+                int end = nextNameOffset(b, i);
+                byte[] bytes = new byte[end - start];
+                b.get(names + start, bytes);
+                nome = new String(bytes, StandardCharsets.UTF_8);
+            }
+            Person p = new Person(id, nome, date(b.getInt(nascimento + 4 * i)), date(b.getInt(admissao + 4 * i)), salario);
+            p.setVersion(b.getLong(versions + 8 * i));
+            return p;
+        }
+
+        private BigDecimal bigSalario(ByteBuffer b, int offset) {
+            int scale = b.getInt(big + offset);
+            byte[] bytes = new byte[b.getInt(big + offset + 4)];
+            b.get(big + offset + 8, bytes);
+            return new BigDecimal(new BigInteger(bytes), scale);
+        }
+
+        /** Início do próximo nome não nulo (nomes nulos guardam NULL_NOME no offset). */
+        private int nextNameOffset(ByteBuffer b, int i) {
+            int j = i + 1;
+            int off;
+            while ((off = b.getInt(nameOffsets + 4 * j)) == NULL_NOME) j++;
+            return off;
+        }
+    }
+
+    /** Colunas acumuladas durante a escrita. */
+    private static final class Columns {
+        int size;
+        long[] ids = new long[1024];
+        int[] nascimento = new int[1024];
+        int[] admissao = new int[1024];
+        long[] unscaled = new long[1024];
+        long[] versions = new long[1024];
+        byte[] scales = new byte[1024];
+        int[] nameOffsets = new int[1025];
+        byte[] names = new byte[1 << 16];
+        int namesSize;
+        final ByteArrayOutputStream big = new ByteArrayOutputStream(0);
+
+        void add(Person p) {
+            if (size + 1 == ids.length) grow();
+            ids[size] = p.getId();
+            nascimento[size] = epochDay(p.getDataNascimento());
+            admissao[size] = epochDay(p.getDataAdmissao());
+            versions[size] = p.getVersion();
+            BigDecimal s = p.getSalarioAtual();
+            if (s == null) {
+                scales[size] = NULL_SALARIO;
+            } else if (s.scale() <= SALARIO_GRANDE || s.scale() > Byte.MAX_VALUE || s.unscaledValue().bitLength() > 63) {
+                unscaled[size] = big.size();
+                scales[size] = SALARIO_GRANDE;
+                byte[] bytes = s.unscaledValue().toByteArray();
+                ByteBuffer entry = ByteBuffer.allocate(8 + bytes.length).putInt(s.scale()).putInt(bytes.length).put(bytes);
+                big.write(entry.array(), 0, entry.capacity());
+            } else {
+                unscaled[size] = s.unscaledValue().longValue();
+                scales[size] = (byte) s.scale();
+            }
+            if (p.getNome() == null) {
+                nameOffsets[size] = NULL_NOME;
+            } else {
+                byte[] bytes = p.getNome().getBytes(StandardCharsets.UTF_8);
+                if (namesSize + bytes.length > names.length) {
+                    names = Arrays.copyOf(names, Math.max(names.length * 2, namesSize + bytes.length));
+                }
+                nameOffsets[size] = namesSize;
+                System.arraycopy(bytes, 0, names, namesSize, bytes.length);
+                namesSize += bytes.length;
+            }
+            size++;
+            nameOffsets[size] = namesSize; // sentinela: fim do último nome
+        }
+
+        private void grow() {
+            int cap = ids.length * 2;
+            ids = Arrays.copyOf(ids, cap);
+            nascimento = Arrays.copyOf(nascimento, cap);
+            admissao = Arrays.copyOf(admissao, cap);
+            unscaled = Arrays.copyOf(unscaled, cap);
+            versions = Arrays.copyOf(versions, cap);
+            scales = Arrays.copyOf(scales, cap);
+            nameOffsets = Arrays.copyOf(nameOffsets, cap + 1);
+        }
+
+        private static int epochDay(LocalDate d) {
+            return d == null ? NULL_DATE : Math.toIntExact(d.toEpochDay());
+        }
+    }
+
+    private static LocalDate date(int epochDay) {
+        return epochDay == NULL_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
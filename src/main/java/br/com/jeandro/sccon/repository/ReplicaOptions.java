@@ -0,0 +1,22 @@
+package br.com.jeandro.sccon.repository;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Configuração de uma réplica de leitura.
+ *
+ * @param leader       endereço do {@link ReplicationServer} do líder
+ * @param leaderWrites endereço do {@link ShardServer} do líder, que recebe as escritas encaminhadas
+ * @param heartbeat    intervalo de heartbeat do líder; sem nada do líder por 3 intervalos, a réplica reconecta
+ * @param maxStaleness tempo máximo desde a última vez em dia com o líder para ainda atender leituras
+ * @param timeout      conexão ao líder, escritas encaminhadas e espera por elas voltarem pelo stream
+ * @param secret       segredo compartilhado com o líder, exigido pelas duas portas dele
+ */
+public record ReplicaOptions(InetSocketAddress leader, URI leaderWrites, Duration heartbeat,
+                             Duration maxStaleness, Duration timeout, String secret) {
+    public ReplicaOptions {
+        ShardProtocol.requireSecret(secret);
+    }
+}
@@ -0,0 +1,335 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Réplica de leitura de um líder. Uma thread virtual mantém a conexão com o
+ * {@link ReplicationServer} do líder e aplica num {@link InMemoryPersonRepository} local, na ordem
+ * do líder e com as mesmas versões, as alterações recebidas. As leituras são atendidas pela cópia
+ * local; escritas são encaminhadas ao líder (pelo {@link ShardServer} dele) e só retornam depois
+ * de voltarem pelo stream, para quem gravou ler o que gravou nesta réplica.
+ *
+ * <p>O atraso é limitado: a réplica sabe quando esteve em dia com o líder pela última vez (cada
+ * HEARTBEAT) e, passado {@link ReplicaOptions#maxStaleness()} sem isso, as leituras falham com
+ * {@link ReplicaStaleException} (503) até ela se reconectar. Ao reconectar, continua da última
+ * sequência aplicada, ou recebe a base inteira e descarta o que o líder não tem mais.</p>
+ *
+ * <p>O feed de alterações ({@link #changes()}) é o da cópia local, então GET /persons/changes
+ * funciona também nas réplicas.</p>
+ */
+public class ReplicaPersonRepository implements PersonRepository {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaPersonRepository.class);
+
+    private final InMemoryPersonRepository local;
+    private final ReplicaOptions options;
+    private final HttpClient http;
+    private final ShardClient leader;
+    private final Thread follower;
+    private volatile Socket socket;
+    private volatile boolean closed;
+
+    /** Época do feed do líder e última sequência dele aplicada aqui (escritos só pela thread da réplica). */
+    private volatile long epoch;
+    private volatile long applied;
+    /** Última vez (System.nanoTime) em que a réplica estava em dia com o líder. */
+    private volatile long caughtUpNanos;
+
+    private ReplicaPersonRepository(InMemoryPersonRepository local, ReplicaOptions options) {
+        this.local = local;
+        this.options = options;
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(options.timeout())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.leader = new ShardClient(options.leaderWrites(), http, options.timeout(), options.secret());
+        // ainda não sincronizou: fora do atraso aceito desde já
+        this.caughtUpNanos = System.nanoTime() - options.maxStaleness().toNanos() - 1;
+        this.follower = Thread.ofVirtual().name("replica-follower").unstarted(this::follow);
+    }
+
+    /** Cria a réplica sobre {@code local} (vazio) e começa a seguir o líder em segundo plano. */
+    public static ReplicaPersonRepository start(InMemoryPersonRepository local, ReplicaOptions options) {
+        ReplicaPersonRepository replica = new ReplicaPersonRepository(local, options);
+        replica.follower.start();
+        return replica;
+    }
+
+    /** Última sequência do feed do líder aplicada nesta réplica. */
+    public long appliedSequence() {
+        return applied;
+    }
+
+    /** Tempo desde a última vez em que a réplica estava em dia com o líder. */
+    public long stalenessMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - caughtUpNanos);
+    }
+
+    @Override
+    public List<Person> findAll() {
+        return fresh().findAll();
+    }
+
+    @Override
+    public List<Person> findPageByName(PersonNameKey after, int limit) {
+        return fresh().findPageByName(after, limit);
+    }
+
+    @Override
+    public Stream<Person> streamAll() {
+        return fresh().streamAll();
+    }
+
+    @Override
+    public Stream<Person> findByFilter(PersonFilter filter) {
+        return fresh().findByFilter(filter);
+    }
+
+    @Override
+    public List<Person> searchByName(String query, int limit) {
+        return fresh().searchByName(query, limit);
+    }
+
+    @Override
+    public Optional<Person> findById(Long id) {
+        return fresh().findById(id);
+    }
+
+    /**
+     * Lido no líder: a cópia local só vê as alterações a partir da última vez que recebeu a base
+     * inteira. {@link #salaryAt} busca na lista trazida (implementação padrão).
+     */
+    @Override
+    public List<SalaryHistory.Entry> salaryHistory(long id) {
+        return leader.salaries(id);
+    }
+
+    @Override
+    public Map<Long, Person> findAllById(Collection<Long> ids) {
+        return fresh().findAllById(ids);
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        return fresh().existsById(id);
+    }
+
+    @Override
+    public long count() {
+        return fresh().count();
+    }
+
+    @Override
+    public Person save(Person p) {
+        Person saved = leader.save(p);
+        p.setId(saved.getId());
+        p.setVersion(saved.getVersion());
+        awaitApplied(p.getId(), p.getVersion());
+        return p;
+    }
+
+    /** O líder grava o lote na ordem da lista, então basta esperar a última pessoa voltar. */
+    @Override
+    public List<Person> saveAll(List<Person> people) {
+        if (people.isEmpty()) return people;
+        List<Person> saved = leader.saveAll(people);
+        for (int i = 0; i < people.size(); i++) {
+            people.get(i).setId(saved.get(i).getId());
+            people.get(i).setVersion(saved.get(i).getVersion());
+        }
+        Person last = people.get(people.size() - 1);
+        awaitApplied(last.getId(), last.getVersion());
+        return people;
+    }
+
+    /**
+     * Compare-and-set no líder. Se falhar, espera a versão atual do líder chegar aqui antes de
+     * retornar: o chamador relê desta réplica e tenta de novo, e sem a espera releria a mesma
+     * versão velha.
+     */
+    @Override
+    public boolean replace(Person current, Person next) {
+        if (leader.replace(current.getVersion(), next)) {
+            awaitApplied(next.getId(), next.getVersion());
+            return true;
+        }
+        awaitApplied(current.getId(), leader.findById(current.getId()).map(Person::getVersion).orElse(0L));
+        return false;
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        leader.delete(id);
+        awaitApplied(id, 0);
+    }
+
+    @Override
+    public PayrollStats payrollStats() {
+        return fresh().payrollStats();
+    }
+
+    @Override
+    public long lastId() {
+        return local.lastId();
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return local.estimatedBytes();
+    }
+
+    @Override
+    public PersonChangeFeed changes() {
+        return local.changes();
+    }
+
+    /** Os dados iniciais são carregados pelo líder e chegam pela replicação. */
+    @Override
+    public void seed(List<Person> initial) {
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        follower.interrupt();
+        Socket s = socket;
+        if (s != null) s.close();
+        http.close();
+        local.close();
+    }
+
+    private InMemoryPersonRepository fresh() {
+        long staleness = stalenessMillis();
+        if (staleness > options.maxStaleness().toMillis()) {
+            throw new ReplicaStaleException("Réplica sem sincronizar com o líder há " + staleness + " ms");
+        }
+        return local;
+    }
+
+    /**
+     * Espera (até o timeout) a pessoa chegar aqui na {@code version} ou numa posterior; versão 0 =
+     * removida. Acorda a cada alteração aplicada, pelo feed local.
+     */
+    private void awaitApplied(long id, long version) {
+        PersonChangeFeed feed = local.changes();
+        List<PersonChangeFeed.Change> scratch = new ArrayList<>(1);
+        long deadline = System.nanoTime() + options.timeout().toNanos();
+        while (true) {
+            long seen = feed.lastSequence();
+            Person p = local.findById(id).orElse(null);
+            if (version == 0 ? p == null : p != null && p.getVersion() >= version) return;
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return; // gravado no líder; a leitura daqui pode vir atrasada
+            scratch.clear();
+            feed.poll(seen, 1, remaining, scratch);
+        }
+    }
+
+    private void follow() {
+        long heartbeatMillis = options.heartbeat().toMillis();
+        while (!closed) {
+            try (Socket s = new Socket()) {
+                socket = s;
+                s.connect(options.leader(), (int) options.timeout().toMillis());
+                s.setSoTimeout((int) (3 * heartbeatMillis));
+                s.setTcpNoDelay(true);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+                out.writeInt(ReplicationProtocol.MAGIC);
+                out.writeUTF(options.secret());
+                out.writeLong(epoch);
+                out.writeLong(applied);
+                out.flush();
+                DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 64 * 1024));
+                while (!closed) apply(in);
+            } catch (IOException | RuntimeException e) {
+                if (closed) return;
+                log.warn("Replicação do líder {} interrompida: {}", options.leader(), e.toString());
+            }
+            try {
+                Thread.sleep(heartbeatMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        byte frame = in.readByte();
+        switch (frame) {
+            case ReplicationProtocol.SAVE -> {
+                long seq = in.readLong();
+                install(ShardProtocol.readPerson(in));
+                applied = seq;
+            }
+            case ReplicationProtocol.DELETE -> {
+                long seq = in.readLong();
+                local.deleteById(in.readLong());
+                applied = seq;
+            }
+            case ReplicationProtocol.SNAPSHOT -> {
+                long leaderEpoch = in.readLong();
+                long seq = in.readLong();
+                long rows = loadSnapshot(in);
+                // só depois da base inteira: se a conexão cair no meio, a próxima recomeça do zero
+                epoch = leaderEpoch;
+                applied = seq;
+                log.info("Réplica ressincronizada com o líder: {} pessoas, sequência {}", rows, seq);
+            }
+            case ReplicationProtocol.HEARTBEAT -> caughtUpNanos = System.nanoTime();
+            default -> throw new IOException("Quadro de replicação desconhecido: " + frame);
+        }
+    }
+
+    /**
+     * Aplica a base do líder sobre a cópia local e remove o que o líder não tem mais. Pessoas
+     * iguais às locais não são regravadas, então o feed local só registra diferenças.
+     */
+    private long loadSnapshot(DataInputStream in) throws IOException {
+        Set<Long> ids = new HashSet<>();
+        for (Person p; (p = ShardProtocol.readPerson(in)) != null; ) {
+            ids.add(p.getId());
+            install(p);
+        }
+        List<Long> gone;
+        try (Stream<Person> all = local.streamAll()) {
+            gone = all.map(Person::getId).filter(id -> !ids.contains(id)).toList();
+        }
+        gone.forEach(local::deleteById);
+        return ids.size();
+    }
+
+    private void install(Person p) {
+        Person stored = local.findById(p.getId()).orElse(null);
+        if (stored != null && same(stored, p)) return;
+        local.install(p);
+    }
+
+    private static boolean same(Person a, Person b) {
+        return a.getVersion() == b.getVersion()
+            && Objects.equals(a.getNome(), b.getNome())
+            && Objects.equals(a.getDataNascimento(), b.getDataNascimento())
+            && Objects.equals(a.getDataAdmissao(), b.getDataAdmissao())
+            && Objects.equals(a.getSalarioAtual(), b.getSalarioAtual());
+    }
+}
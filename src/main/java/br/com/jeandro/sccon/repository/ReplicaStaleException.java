@@ -0,0 +1,6 @@
+package br.com.jeandro.sccon.repository;
+
+/** A réplica está sem contato com o líder há mais tempo que o atraso máximo aceito para leituras. */
+public class ReplicaStaleException extends RuntimeException {
+    public ReplicaStaleException(String message) { super(message); }
+}
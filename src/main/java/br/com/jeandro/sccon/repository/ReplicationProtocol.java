@@ -0,0 +1,63 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Protocolo do stream de replicação líder → réplica, sobre uma conexão TCP (big-endian). Pessoas
+ * usam o mesmo registro do {@link ShardProtocol} (tamanho + registro SAVE do {@link PersonCodec}).
+ * <pre>
+ * réplica -> líder: MAGIC(4) segredo(UTF) época(8) sequência aplicada(8)
+ * líder -> réplica, quadros:
+ *   SAVE      seq(8) pessoa
+ *   DELETE    seq(8) id(8)
+ *   SNAPSHOT  época(8) seq(8) pessoa... fim(-1)   base inteira; depois dela, alterações após seq
+ *   HEARTBEAT                                    a réplica está em dia com o líder
+ * </pre>
+ * A época identifica o feed de alterações do líder: se a réplica chega com outra época (líder
+ * reiniciado) ou com uma sequência que o feed já descartou, recebe um SNAPSHOT. Com um segredo
+ * diferente do configurado no líder, a conexão é fechada sem resposta. Nada é cifrado: a porta
+ * fica só na rede privada entre líder e réplicas.
+ */
+final class ReplicationProtocol {
+    static final int MAGIC = 0x5343_5231; // "SCR1"
+
+    static final byte SAVE = 1;
+    static final byte DELETE = 2;
+    static final byte SNAPSHOT = 3;
+    static final byte HEARTBEAT = 4;
+
+    private ReplicationProtocol() {}
+
+    static void writeChange(DataOutputStream out, PersonChangeFeed.Change c) throws IOException {
+        if (c.type() == PersonChangeFeed.Type.DELETE) {
+            out.writeByte(DELETE);
+            out.writeLong(c.seq());
+            out.writeLong(c.id());
+        } else {
+            out.writeByte(SAVE);
+            out.writeLong(c.seq());
+            ShardProtocol.writePerson(out, c.person());
+        }
+    }
+
+    static void writeSnapshotStart(DataOutputStream out, long epoch, long seq) throws IOException {
+        out.writeByte(SNAPSHOT);
+        out.writeLong(epoch);
+        out.writeLong(seq);
+    }
+
+    static void writeSnapshotRow(DataOutputStream out, Person p) throws IOException {
+        ShardProtocol.writePerson(out, p);
+    }
+
+    static void writeSnapshotEnd(DataOutputStream out) throws IOException {
+        ShardProtocol.writeEnd(out);
+    }
+
+    static void writeHeartbeat(DataOutputStream out) throws IOException {
+        out.writeByte(HEARTBEAT);
+    }
+}
@@ -0,0 +1,149 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * Lado do líder na replicação: envia a cada réplica conectada, em ordem, as alterações do
+ * {@link PersonChangeFeed} do repositório ({@link ReplicationProtocol}). A réplica informa a
+ * última sequência aplicada e continua dali (catch-up); se o feed já descartou essa sequência ou
+ * a réplica veio de outra execução do líder, recebe antes a base inteira (resync).
+ *
+ * <p>Cada réplica tem a sua thread virtual, que fica estacionada no feed enquanto não há
+ * alterações; sem alterações por {@code heartbeat}, envia um HEARTBEAT. Quem grava nunca espera
+ * pelas réplicas.</p>
+ *
+ * <p>Só atende réplicas que enviam o segredo compartilhado; o stream não é cifrado, então a porta
+ * deve ficar num endereço da rede privada, nunca exposto.</p>
+ */
+public final class ReplicationServer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ReplicationServer.class);
+    /** Alterações por leitura do feed (e por flush na conexão). */
+    static final int BATCH = 512;
+
+    private final ServerSocket socket;
+    private final PersonRepository source;
+    private final long heartbeatNanos;
+    private final String secret;
+    /** Muda a cada execução: o feed de alterações recomeça do zero quando o líder reinicia. */
+    private final long epoch = ThreadLocalRandom.current().nextLong();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private volatile boolean closed;
+
+    private ReplicationServer(ServerSocket socket, PersonRepository source, Duration heartbeat, String secret) {
+        this.socket = socket;
+        this.source = source;
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.secret = secret;
+    }
+
+    /** Aceita réplicas em {@code address} (porta 0 = qualquer porta livre) que enviem {@code secret}. */
+    public static ReplicationServer start(InetSocketAddress address, PersonRepository source, Duration heartbeat,
+                                          String secret) throws IOException {
+        ShardProtocol.requireSecret(secret);
+        ServerSocket socket = new ServerSocket();
+        socket.bind(address);
+        ReplicationServer s = new ReplicationServer(socket, source, heartbeat, secret);
+        s.executor.execute(s::accept);
+        return s;
+    }
+
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+        executor.shutdownNow();
+    }
+
+    private void accept() {
+        while (!closed) {
+            try {
+                Socket replica = socket.accept();
+                executor.execute(() -> serve(replica));
+            } catch (IOException e) {
+                if (!closed) log.warn("Falha ao aceitar réplica", e);
+            }
+        }
+    }
+
+    private void serve(Socket replica) {
+        try (replica) {
+            replica.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(replica.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(replica.getOutputStream(), 64 * 1024));
+            if (in.readInt() != ReplicationProtocol.MAGIC) return;
+            if (!ShardProtocol.secretMatches(secret, in.readUTF())) {
+                log.warn("Réplica {} recusada: segredo diferente do líder", replica.getRemoteSocketAddress());
+                return;
+            }
+            long replicaEpoch = in.readLong();
+            long after = in.readLong();
+            log.info("Réplica {} conectada a partir da sequência {}", replica.getRemoteSocketAddress(), after);
+            stream(out, replicaEpoch == epoch, after);
+        } catch (IOException e) {
+            if (!closed) log.info("Réplica {} desconectada: {}", replica.getRemoteSocketAddress(), e.toString());
+        }
+    }
+
+    private void stream(DataOutputStream out, boolean sameEpoch, long after) throws IOException {
+        PersonChangeFeed feed = source.changes();
+        List<PersonChangeFeed.Change> batch = new ArrayList<>(BATCH);
+        boolean resync = !sameEpoch;
+        while (!closed && !Thread.currentThread().isInterrupted()) {
+            if (resync) {
+                after = sendSnapshot(out);
+                resync = false;
+            }
+            batch.clear();
+            if (!feed.poll(after, BATCH, heartbeatNanos, batch)) {
+                resync = true; // a réplica ficou mais de uma volta do buffer para trás
+                continue;
+            }
+            for (PersonChangeFeed.Change c : batch) {
+                ReplicationProtocol.writeChange(out, c);
+                after = c.seq();
+            }
+            // lote incompleto: não havia mais alterações, a réplica fica em dia ao aplicar este
+            if (batch.size() < BATCH) ReplicationProtocol.writeHeartbeat(out);
+            out.flush();
+        }
+    }
+
+    /**
+     * Envia a base inteira e retorna a sequência do feed lida antes de percorrê-la. Alterações
+     * feitas durante o envio podem ou não estar na base; reenviá-las depois é idempotente.
+     */
+    private long sendSnapshot(DataOutputStream out) throws IOException {
+        long seq = source.changes().lastSequence();
+        ReplicationProtocol.writeSnapshotStart(out, epoch, seq);
+        try (Stream<Person> all = source.streamAll()) {
+            Iterator<Person> it = all.iterator();
+            while (it.hasNext()) ReplicationProtocol.writeSnapshotRow(out, it.next());
+        }
+        ReplicationProtocol.writeSnapshotEnd(out);
+        return seq;
+    }
+}
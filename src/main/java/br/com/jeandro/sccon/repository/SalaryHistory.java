@@ -0,0 +1,222 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Histórico de salários: cada entrada diz a partir de que dia um salário vale. A linha do tempo de
+ * cada pessoa fica em arrays primitivos, codificada em relação à primeira entrada: dias desde ela
+ * em {@code char} e diferença em centavos em {@code int}, 6 bytes por entrada. Uma entrada que não
+ * cabe (179 anos depois, ou diferença acima de R$ 21 milhões) passa a linha do tempo para
+ * {@code int} e {@code long}. A consulta por data é uma busca binária nos dias.
+ *
+ * <p>Só pessoas cujo salário mudou têm linha do tempo; as demais têm o salário atual desde a
+ * admissão ({@link #since}). Uma alteração vale a partir do dia em que foi gravada, e duas no
+ * mesmo dia ficam numa entrada só, com o último valor. O histórico fica em memória e não vai para
+ * o log: de quem foi recarregado do disco ({@link #loaded}) só se conhece o salário a partir do
+ * dia da recarga, e a primeira entrada começa nesse dia. As escritas de um mesmo ID devem ser
+ * serializadas pelo chamador.</p>
+ */
+public final class SalaryHistory {
+
+    /** Salário em vigor a partir de {@code desde} (nulo = sem data de início conhecida). */
+    public record Entry(LocalDate desde, BigDecimal salario) {}
+
+    private final Map<Long, Timeline> timelines = new ConcurrentHashMap<>();
+    /** IDs até este vieram do disco; o salário deles só é conhecido desde {@link #loadedDay}. */
+    private long loadedLastId;
+    private long loadedDay;
+
+    /** O salário atual desde a admissão: o histórico de quem não tem linha do tempo. */
+    public static Optional<Entry> since(Person p) {
+        if (p.getSalarioAtual() == null) return Optional.empty();
+        return Optional.of(new Entry(p.getDataAdmissao(), p.getSalarioAtual()));
+    }
+
+    /** A entrada em vigor em {@code dia} numa lista em ordem de data (busca binária). */
+    public static Optional<Entry> at(List<Entry> history, LocalDate dia) {
+        int lo = 0;
+        int hi = history.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            LocalDate desde = history.get(mid).desde();
+            if (desde == null || !desde.isAfter(dia)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo == 0 ? Optional.empty() : Optional.of(history.get(lo - 1));
+    }
+
+    /**
+     * Marca os IDs até {@code lastId} como recarregados do disco no dia {@code day}. Chamado uma
+     * vez, na construção do repositório, antes de qualquer gravação.
+     */
+    void loaded(long lastId, long day) {
+        this.loadedLastId = lastId;
+        this.loadedDay = day;
+    }
+
+    /**
+     * Registra a gravação de {@code after} no dia {@code today}, sobre o que a pessoa tinha antes
+     * ({@code before}, nulo para pessoa nova). Só muda algo quando o salário muda.
+     */
+    void changed(long id, PayrollAggregates.Contribution before, Person after, long today) {
+        if (before == null || after.getSalarioAtual() == null) return;
+        long cents = PayrollStats.cents(after.getSalarioAtual());
+        Timeline t = timelines.get(id);
+        if (t == null) {
+            if (before.salario() != null && PayrollStats.cents(before.salario()) == cents) return;
+            // a primeira alteração guarda também o salário anterior, desde quando ele é conhecido
+            LocalDate desde = knownFrom(id, before.admissao());
+            t = before.salario() == null ? new Timeline(today, cents)
+                : new Timeline(desde == null ? today : Math.min(desde.toEpochDay(), today), PayrollStats.cents(before.salario()));
+            timelines.put(id, t);
+        }
+        t.append(today, cents);
+    }
+
+    void remove(long id) {
+        timelines.remove(id);
+    }
+
+    /** Entrada em vigor em {@code dia} para a pessoa {@code current}. */
+    Optional<Entry> at(Person current, LocalDate dia) {
+        Timeline t = timelines.get(current.getId());
+        if (t == null) return current(current).filter(e -> e.desde() == null || !e.desde().isAfter(dia));
+        return t.at(dia.toEpochDay());
+    }
+
+    /** Entradas de {@code current} em ordem de data. */
+    List<Entry> history(Person current) {
+        Timeline t = timelines.get(current.getId());
+        if (t == null) return current(current).map(List::of).orElse(List.of());
+        return t.entries();
+    }
+
+    /** O salário atual de quem não tem linha do tempo, desde quando ele é conhecido. */
+    private Optional<Entry> current(Person p) {
+        if (p.getSalarioAtual() == null) return Optional.empty();
+        return Optional.of(new Entry(knownFrom(p.getId(), p.getDataAdmissao()), p.getSalarioAtual()));
+    }
+
+    /** A admissão ou, para quem veio do disco, o dia da recarga se for depois dela. */
+    private LocalDate knownFrom(long id, LocalDate admissao) {
+        if (id > loadedLastId) return admissao;
+        LocalDate recarga = LocalDate.ofEpochDay(loadedDay);
+        return admissao == null || admissao.isBefore(recarga) ? recarga : admissao;
+    }
+
+    /**
+     * Linha do tempo de uma pessoa. A escrita, já serializada pelo lock do ID, publica uma nova
+     * {@link Entries} num campo volátil; as leituras não pegam lock (nem prendem a thread
+     * carregadora de uma thread virtual) e veem sempre uma versão completa.
+     */
+    private static final class Timeline {
+        private final long inicio;
+        private final long inicial;
+        private volatile Entries entries;
+
+        Timeline(long inicio, long inicial) {
+            this.inicio = inicio;
+            this.inicial = inicial;
+            this.entries = new Entries(new char[2], new int[2], null, null, 0).with(0, 0, 0, false);
+        }
+
+        void append(long dia, long cents) {
+            Entries e = entries;
+            int last = e.size - 1;
+            long ultimo = inicio + e.day(last);
+            if (dia <= ultimo) {
+                if (cents != inicial + e.cents(last)) entries = e.with(last, ultimo - inicio, cents - inicial, true);
+            } else if (cents != inicial + e.cents(last)) {
+                entries = e.with(e.size, dia - inicio, cents - inicial, false);
+            }
+        }
+
+        Optional<Entry> at(long dia) {
+            Entries e = entries;
+            int lo = 0;
+            int hi = e.size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (inicio + e.day(mid) <= dia) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo == 0 ? Optional.empty() : Optional.of(entry(e, lo - 1));
+        }
+
+        List<Entry> entries() {
+            Entries e = entries;
+            List<Entry> list = new ArrayList<>(e.size);
+            for (int i = 0; i < e.size; i++) list.add(entry(e, i));
+            return list;
+        }
+
+        private Entry entry(Entries e, int i) {
+            return new Entry(LocalDate.ofEpochDay(inicio + e.day(i)), BigDecimal.valueOf(inicial + e.cents(i), 2));
+        }
+    }
+
+    /**
+     * Entradas publicadas de uma linha do tempo, relativas à primeira. As posições abaixo de
+     * {@code size} nunca mudam: acrescentar usa a capacidade livre dos arrays, e regravar a última
+     * entrada ou alargar os tipos copia.
+     */
+    private static final class Entries {
+        private final char[] dias;
+        private final int[] centavos;
+        /** Usados no lugar de dias/centavos depois que uma entrada não coube neles. */
+        private final int[] diasLargos;
+        private final long[] centavosLargos;
+        private final int size;
+
+        Entries(char[] dias, int[] centavos, int[] diasLargos, long[] centavosLargos, int size) {
+            this.dias = dias;
+            this.centavos = centavos;
+            this.diasLargos = diasLargos;
+            this.centavosLargos = centavosLargos;
+            this.size = size;
+        }
+
+        long day(int i) {
+            return diasLargos == null ? dias[i] : diasLargos[i];
+        }
+
+        long cents(int i) {
+            return centavosLargos == null ? centavos[i] : centavosLargos[i];
+        }
+
+        /** Cópia com a entrada {@code i} (a última ou a seguinte) valendo {@code d}/{@code c}. */
+        Entries with(int i, long d, long c, boolean overwrite) {
+            boolean largo = diasLargos != null || d > Character.MAX_VALUE || c != (int) c;
+            int capacity = diasLargos == null ? dias.length : diasLargos.length;
+            int n = i < capacity ? capacity : capacity + (capacity >> 1) + 1;
+            boolean copy = overwrite || i == capacity || largo != (diasLargos != null);
+            if (largo) {
+                int[] ds = copy ? new int[n] : diasLargos;
+                long[] cs = copy ? new long[n] : centavosLargos;
+                if (copy) {
+                    for (int j = 0; j < size; j++) {
+                        ds[j] = (int) day(j);
+                        cs[j] = cents(j);
+                    }
+                }
+                ds[i] = Math.toIntExact(d);
+                cs[i] = c;
+                return new Entries(null, null, ds, cs, Math.max(size, i + 1));
+            }
+            char[] ds = copy ? Arrays.copyOf(dias, n) : dias;
+            int[] cs = copy ? Arrays.copyOf(centavos, n) : centavos;
+            ds[i] = (char) d;
+            cs[i] = (int) c;
+            return new Entries(ds, cs, null, null, Math.max(size, i + 1));
+        }
+    }
+}
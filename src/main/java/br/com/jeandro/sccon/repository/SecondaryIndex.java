@@ -0,0 +1,64 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Índice ordenado por um atributo de {@link Person}, com o ID como desempate. Como Person é
+ * mutável, a chave indexada de cada ID é guardada à parte para que a entrada antiga possa ser
+ * removida. Pessoas com o atributo nulo não são indexadas. As escritas de um mesmo ID devem
+ * ser serializadas pelo chamador.
+ */
+final class SecondaryIndex<V extends Comparable<? super V>> {
+
+    private record Key<V extends Comparable<? super V>>(V value, long id) implements Comparable<Key<V>> {
+        @Override
+        public int compareTo(Key<V> o) {
+            int c = value.compareTo(o.value);
+            return c != 0 ? c : Long.compare(id, o.id);
+        }
+    }
+
+    private final Function<Person, V> extractor;
+    private final ConcurrentSkipListMap<Key<V>, Person> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, Key<V>> keys = new ConcurrentHashMap<>();
+
+    SecondaryIndex(Function<Person, V> extractor) {
+        this.extractor = extractor;
+    }
+
+    void put(long id, Person p) {
+        V value = extractor.apply(p);
+        Key<V> key = value == null ? null : new Key<>(value, id);
+        Key<V> previous = key == null ? keys.remove(id) : keys.put(id, key);
+        if (previous != null && !previous.equals(key)) entries.remove(previous);
+        if (key != null) entries.put(key, p);
+    }
+
+    void remove(long id) {
+        Key<V> previous = keys.remove(id);
+        if (previous != null) entries.remove(previous);
+    }
+
+    /**
+     * Pessoas com o atributo em [{@code from}, {@code to}] (limites nulos = aberto), em ordem do
+     * atributo. Custa O(log n) para posicionar mais O(1) por item consumido.
+     */
+    Stream<Person> range(V from, V to) {
+        NavigableMap<Key<V>, Person> view = entries;
+        if (from != null && to != null) {
+            view = entries.subMap(new Key<>(from, Long.MIN_VALUE), true, new Key<>(to, Long.MAX_VALUE), true);
+        } else if (from != null) {
+            view = entries.tailMap(new Key<>(from, Long.MIN_VALUE), true);
+        } else if (to != null) {
+            view = entries.headMap(new Key<>(to, Long.MAX_VALUE), true);
+        }
+        return view.values().stream();
+    }
+}
@@ -0,0 +1,246 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Cliente do {@link ShardProtocol} para um nó. As operações sobre um ID são síncronas; as de
+ * scatter-gather devolvem futures para que o chamador consulte todos os nós ao mesmo tempo.
+ * Falhas de rede, timeout e status inesperados viram {@link ShardUnavailableException}.
+ */
+final class ShardClient {
+    private final URI base;
+    private final HttpClient http;
+    private final Duration timeout;
+    private final String secret;
+
+    ShardClient(URI base, HttpClient http, Duration timeout, String secret) {
+        this.base = base;
+        this.http = http;
+        this.timeout = timeout;
+        this.secret = secret;
+    }
+
+    Optional<Person> findById(long id) {
+        HttpResponse<byte[]> r = await(send(get(ShardProtocol.PERSONS + "/" + id)));
+        if (r.statusCode() == 404) return Optional.empty();
+        return Optional.of(readList(ok(r)).get(0));
+    }
+
+    /** Grava e devolve a pessoa com a versão atribuída pelo nó dono. */
+    Person save(Person p) {
+        return readList(ok(await(send(request(ShardProtocol.PERSONS).PUT(body(List.of(p), false)))))).get(0);
+    }
+
+    List<Person> saveAll(List<Person> people) {
+        return readList(ok(await(send(request(ShardProtocol.BATCH).POST(body(people, true))))));
+    }
+
+    boolean replace(long expectedVersion, Person next) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(expectedVersion);
+            ShardProtocol.writePerson(out, next);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest.Builder req = request(ShardProtocol.REPLACE).POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray()));
+        return ok(await(send(req)))[0] == 1;
+    }
+
+    void delete(long id) {
+        HttpResponse<byte[]> r = await(send(request(ShardProtocol.PERSONS + "/" + id).DELETE()));
+        if (r.statusCode() != 204) throw failure("respondeu " + r.statusCode(), null);
+    }
+
+    /** As pessoas encontradas entre {@code ids}, numa só requisição. */
+    CompletableFuture<List<Person>> lookup(Collection<Long> ids) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4 + 8 * ids.size());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(ids.size());
+            for (long id : ids) out.writeLong(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return send(request(ShardProtocol.LOOKUP).POST(HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray())))
+            .thenApply(r -> readList(ok(r)));
+    }
+
+    CompletableFuture<List<Person>> page(PersonNameKey after, int limit) {
+        String q = "?limit=" + limit + (after == null ? "" : "&after=" + ShardProtocol.encode(after.toCursor()));
+        return send(get(ShardProtocol.PAGE + q)).thenApply(r -> readList(ok(r)));
+    }
+
+    CompletableFuture<List<Person>> search(String query, int limit) {
+        return send(get(ShardProtocol.SEARCH + "?q=" + ShardProtocol.encode(query) + "&limit=" + limit))
+            .thenApply(r -> readList(ok(r)));
+    }
+
+    /** Pessoas do filtro lidas da resposta conforme o consumo; fechar o stream fecha a conexão. */
+    CompletableFuture<Stream<Person>> filter(PersonFilter filter) {
+        return http.sendAsync(get(ShardProtocol.FILTER + ShardProtocol.filterQuery(filter)).build(),
+                HttpResponse.BodyHandlers.ofInputStream())
+            .handle((r, e) -> {
+                if (e != null) throw failure("indisponível", e);
+                if (r.statusCode() != 200) {
+                    close(r.body());
+                    throw failure("respondeu " + r.statusCode(), null);
+                }
+                return stream(r.body());
+            });
+    }
+
+    /** Contadores e versão dos dados do nó. */
+    CompletableFuture<ShardProtocol.Stats> stats() {
+        return send(get(ShardProtocol.STATS)).thenApply(r -> {
+            try {
+                return ShardProtocol.Stats.readFrom(new DataInputStream(new ByteArrayInputStream(ok(r))));
+            } catch (IOException e) {
+                throw failure("enviou estatísticas incompletas", e);
+            }
+        });
+    }
+
+    /** Estatísticas da folha da partição do nó. */
+    CompletableFuture<PayrollStats> payroll() {
+        return send(get(ShardProtocol.PAYROLL)).thenApply(r -> {
+            try {
+                return PayrollStats.readFrom(new DataInputStream(new ByteArrayInputStream(ok(r))));
+            } catch (IOException e) {
+                throw failure("enviou estatísticas incompletas", e);
+            }
+        });
+    }
+
+    /** Histórico de salários de um ID deste nó (vazio se a pessoa não existe). */
+    List<SalaryHistory.Entry> salaries(long id) {
+        byte[] body = ok(await(send(get(ShardProtocol.SALARIES + "?id=" + id))));
+        try {
+            return ShardProtocol.readSalaries(new DataInputStream(new ByteArrayInputStream(body)));
+        } catch (IOException e) {
+            throw failure("enviou um histórico incompleto", e);
+        }
+    }
+
+    /** Espera um future de scatter-gather, devolvendo a ShardUnavailableException original. */
+    static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            throw e;
+        }
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> send(HttpRequest.Builder req) {
+        return http.sendAsync(req.build(), HttpResponse.BodyHandlers.ofByteArray())
+            .exceptionally(e -> { throw failure("indisponível", e); });
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(timeout).header(ShardProtocol.SECRET_HEADER, secret);
+    }
+
+    private HttpRequest.Builder get(String pathAndQuery) {
+        return request(pathAndQuery).GET();
+    }
+
+    private byte[] ok(HttpResponse<byte[]> r) {
+        if (r.statusCode() == 401) throw failure("recusou o segredo compartilhado", null);
+        if (r.statusCode() != 200) throw failure("respondeu " + r.statusCode(), null);
+        return r.body();
+    }
+
+    private ShardUnavailableException failure(String what, Throwable cause) {
+        Throwable c = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        if (c instanceof ShardUnavailableException s) return s;
+        IOException io = c instanceof IOException e ? e : new IOException(what, c);
+        return new ShardUnavailableException("Nó " + base + " " + what, io);
+    }
+
+    private static HttpRequest.BodyPublisher body(List<Person> people, boolean list) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Person p : people) ShardProtocol.writePerson(out, p);
+            if (list) ShardProtocol.writeEnd(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HttpRequest.BodyPublishers.ofByteArray(bytes.toByteArray());
+    }
+
+    private List<Person> readList(byte[] body) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        List<Person> people = new ArrayList<>();
+        try {
+            for (Person p; (p = ShardProtocol.readPerson(in)) != null; ) people.add(p);
+        } catch (IOException e) {
+            throw failure("enviou uma lista incompleta", e);
+        }
+        return people;
+    }
+
+    private Stream<Person> stream(InputStream body) {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(body, 16 * 1024));
+        Iterator<Person> it = new Iterator<>() {
+            private Person next;
+            private boolean done;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null && !done) {
+                    try {
+                        next = ShardProtocol.readPerson(in);
+                    } catch (IOException e) {
+                        throw failure("enviou uma lista incompleta", e);
+                    }
+                    done = next == null;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Person next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                Person p = next;
+                next = null;
+                return p;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> close(in));
+    }
+
+    private static void close(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // a conexão é descartada de qualquer forma
+        }
+    }
+}
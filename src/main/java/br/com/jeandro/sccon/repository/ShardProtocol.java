@@ -0,0 +1,164 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Protocolo HTTP interno entre os nós do repositório particionado. Os corpos são binários: cada
+ * pessoa é um registro SAVE do {@link PersonCodec} precedido do tamanho, e listas terminam com o
+ * tamanho -1 (uma resposta cortada no meio é detectada). Pessoas sem ID vão com ID 0 e recebem
+ * um ID do nó que grava (escritas encaminhadas por uma réplica ao líder). Toda requisição leva o
+ * segredo compartilhado do cluster em {@link #SECRET_HEADER}; sem ele o nó responde 401. O
+ * segredo vai em texto puro: as portas internas ficam só na rede privada dos nós.
+ * <pre>
+ * GET    /shard/persons/{id}           -> registro | 404
+ * POST   /shard/persons/lookup         quantidade(4) + ids(8 cada) -> lista das encontradas
+ * PUT    /shard/persons                registro -> registro gravado (com a versão)
+ * POST   /shard/persons/batch          lista -> lista gravada
+ * POST   /shard/persons/replace        versão esperada(8) + registro -> 1 | 0
+ * DELETE /shard/persons/{id}           -> 204
+ * GET    /shard/page?after=&amp;limit=     -> lista em ordem de nome
+ * GET    /shard/search?q=&amp;limit=       -> lista (as melhores deste nó)
+ * GET    /shard/filter?ad=&amp;aa=&amp;smin=&amp;smax=&amp;mes= -> lista na ordem do índice (streaming)
+ * GET    /shard/stats                  -> count(8) modificationCount(8) dataVersion(UTF)
+ * GET    /shard/payroll                -> estatísticas da folha ({@link PayrollStats#writeTo})
+ * GET    /shard/salaries?id=           -> quantidade(4) + (epoch-day(8) + salário(UTF)) por entrada
+ * </pre>
+ */
+final class ShardProtocol {
+    static final String PERSONS = "/shard/persons";
+    static final String BATCH = "/shard/persons/batch";
+    static final String REPLACE = "/shard/persons/replace";
+    static final String LOOKUP = "/shard/persons/lookup";
+    static final String PAGE = "/shard/page";
+    static final String SEARCH = "/shard/search";
+    static final String FILTER = "/shard/filter";
+    static final String STATS = "/shard/stats";
+    static final String PAYROLL = "/shard/payroll";
+    static final String SALARIES = "/shard/salaries";
+    static final String SECRET_HEADER = "X-Sccon-Secret";
+
+    private static final int END = -1;
+
+    /** Resposta de {@link #STATS}; {@code dataVersion} é a {@link PersonRepository#dataVersion()} do nó. */
+    record Stats(long count, long modificationCount, String dataVersion) {
+        static Stats of(PersonRepository repo) {
+            return new Stats(repo.count(), repo.modificationCount(), repo.dataVersion());
+        }
+
+        void writeTo(DataOutputStream out) throws IOException {
+            out.writeLong(count);
+            out.writeLong(modificationCount);
+            out.writeUTF(dataVersion);
+        }
+
+        static Stats readFrom(DataInputStream in) throws IOException {
+            return new Stats(in.readLong(), in.readLong(), in.readUTF());
+        }
+    }
+
+    private ShardProtocol() {}
+
+    /** Compara o segredo recebido em tempo constante. */
+    static boolean secretMatches(String expected, String received) {
+        return received != null && MessageDigest.isEqual(
+            expected.getBytes(StandardCharsets.UTF_8), received.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String requireSecret(String secret) {
+        if (secret == null || secret.isBlank()) throw new IllegalArgumentException("O segredo compartilhado é obrigatório");
+        return secret;
+    }
+
+    static void writePerson(DataOutputStream out, Person p) throws IOException {
+        byte[] record = PersonCodec.encodeSave(p);
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    static void writeEnd(DataOutputStream out) throws IOException {
+        out.writeInt(END);
+    }
+
+    /** Histórico de salários; {@code desde} nulo vai como {@link Long#MIN_VALUE}. */
+    static void writeSalaries(DataOutputStream out, List<SalaryHistory.Entry> entries) throws IOException {
+        out.writeInt(entries.size());
+        for (SalaryHistory.Entry e : entries) {
+            out.writeLong(e.desde() == null ? Long.MIN_VALUE : e.desde().toEpochDay());
+            out.writeUTF(e.salario().toPlainString());
+        }
+    }
+
+    static List<SalaryHistory.Entry> readSalaries(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        List<SalaryHistory.Entry> entries = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            long day = in.readLong();
+            entries.add(new SalaryHistory.Entry(day == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(day), new BigDecimal(in.readUTF())));
+        }
+        return entries;
+    }
+
+    /** Próxima pessoa da lista, ou null no fim. */
+    static Person readPerson(DataInputStream in) throws IOException {
+        int len = in.readInt();
+        if (len == END) return null;
+        byte[] record = new byte[len];
+        in.readFully(record);
+        Person p = PersonCodec.decodeSave(ByteBuffer.wrap(record));
+        if (p.getId() == 0) p.setId(null);
+        return p;
+    }
+
+    static String filterQuery(PersonFilter f) {
+        StringBuilder q = new StringBuilder();
+        param(q, "ad", f.admissaoDe() == null ? null : f.admissaoDe().toEpochDay());
+        param(q, "aa", f.admissaoAte() == null ? null : f.admissaoAte().toEpochDay());
+        param(q, "smin", f.salarioMin());
+        param(q, "smax", f.salarioMax());
+        param(q, "mes", f.aniversarioMes());
+        return q.toString();
+    }
+
+    static PersonFilter parseFilter(Map<String, String> q) {
+        return new PersonFilter(
+            q.containsKey("ad") ? LocalDate.ofEpochDay(Long.parseLong(q.get("ad"))) : null,
+            q.containsKey("aa") ? LocalDate.ofEpochDay(Long.parseLong(q.get("aa"))) : null,
+            q.containsKey("smin") ? new BigDecimal(q.get("smin")) : null,
+            q.containsKey("smax") ? new BigDecimal(q.get("smax")) : null,
+            q.containsKey("mes") ? Integer.valueOf(q.get("mes")) : null);
+    }
+
+    static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parseQuery(String raw) {
+        Map<String, String> params = new HashMap<>();
+        if (raw == null || raw.isEmpty()) return params;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static void param(StringBuilder q, String name, Object value) {
+        if (value == null) return;
+        q.append(q.isEmpty() ? '?' : '&').append(name).append('=').append(encode(value.toString()));
+    }
+}
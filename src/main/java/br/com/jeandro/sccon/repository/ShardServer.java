@@ -0,0 +1,198 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+/**
+ * Servidor do {@link ShardProtocol}: expõe o repositório local (só a partição deste nó, sem
+ * encaminhar nada) para os outros nós, numa porta separada da API pública. Também recebe, no
+ * líder da replicação, as escritas encaminhadas pelas réplicas. Cada requisição roda
+ * numa thread virtual.
+ *
+ * <p>Só atende requisições com o segredo compartilhado ({@link ShardProtocol#SECRET_HEADER}). O
+ * tráfego não é cifrado: suba o servidor num endereço da rede privada dos nós, nunca exposto.</p>
+ */
+public final class ShardServer implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(ShardServer.class);
+
+    static {
+        // O HttpServer do JDK escreve cabeçalhos e corpo separados e não liga TCP_NODELAY: com o
+        // ACK atrasado do cliente, cada resposta pequena esperava ~40 ms. Lido na criação do
+        // primeiro servidor; uma configuração explícita (-D) prevalece.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PersonRepository local;
+    private final String secret;
+
+    private ShardServer(HttpServer server, PersonRepository local, String secret) {
+        this.server = server;
+        this.local = local;
+        this.secret = secret;
+    }
+
+    /** Sobe o servidor em {@code address} (porta 0 = qualquer porta livre), exigindo {@code secret}. */
+    public static ShardServer start(InetSocketAddress address, PersonRepository local, String secret) throws IOException {
+        ShardProtocol.requireSecret(secret);
+        ShardServer s = new ShardServer(HttpServer.create(address, 0), local, secret);
+        s.server.setExecutor(s.executor);
+        s.server.createContext("/shard/", s::handle);
+        s.server.start();
+        return s;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!ShardProtocol.secretMatches(secret, ex.getRequestHeaders().getFirst(ShardProtocol.SECRET_HEADER))) {
+                log.warn("Requisição sem o segredo do cluster recusada: {} {} de {}",
+                    ex.getRequestMethod(), ex.getRequestURI().getPath(), ex.getRemoteAddress());
+                ex.sendResponseHeaders(401, -1);
+                return;
+            }
+            try {
+                dispatch(ex);
+            } catch (IllegalArgumentException e) {
+                // inclui NumberFormatException e cursor inválido
+                ex.sendResponseHeaders(400, -1);
+            } catch (RuntimeException e) {
+                log.warn("Falha em {} {}", ex.getRequestMethod(), ex.getRequestURI(), e);
+                ex.sendResponseHeaders(500, -1);
+            }
+        }
+    }
+
+    private void dispatch(HttpExchange ex) throws IOException {
+        String path = ex.getRequestURI().getPath();
+        Map<String, String> q = ShardProtocol.parseQuery(ex.getRequestURI().getRawQuery());
+        String method = ex.getRequestMethod();
+        switch (path) {
+            case ShardProtocol.PERSONS -> {
+                if (!"PUT".equals(method)) {
+                    ex.sendResponseHeaders(405, -1);
+                    return;
+                }
+                Person p = ShardProtocol.readPerson(new DataInputStream(ex.getRequestBody()));
+                sendList(ex, Stream.of(local.save(p)));
+            }
+            case ShardProtocol.BATCH -> sendList(ex, local.saveAll(readList(ex.getRequestBody())).stream());
+            case ShardProtocol.REPLACE -> {
+                DataInputStream in = new DataInputStream(ex.getRequestBody());
+                long expected = in.readLong();
+                Person next = ShardProtocol.readPerson(in);
+                Person current = new Person(next.getId(), null, null, null, null);
+                current.setVersion(expected);
+                send(ex, new byte[] { (byte) (local.replace(current, next) ? 1 : 0) });
+            }
+            case ShardProtocol.LOOKUP -> {
+                DataInputStream in = new DataInputStream(ex.getRequestBody());
+                List<Long> ids = new ArrayList<>();
+                for (int n = in.readInt(); n > 0; n--) ids.add(in.readLong());
+                sendList(ex, local.findAllById(ids).values().stream());
+            }
+            case ShardProtocol.PAGE -> {
+                PersonNameKey after = q.containsKey("after") ? PersonNameKey.fromCursor(q.get("after")) : null;
+                sendList(ex, local.findPageByName(after, Integer.parseInt(q.get("limit"))).stream());
+            }
+            case ShardProtocol.SEARCH ->
+                sendList(ex, local.searchByName(q.get("q"), Integer.parseInt(q.get("limit"))).stream());
+            case ShardProtocol.FILTER -> sendList(ex, local.findByFilter(ShardProtocol.parseFilter(q)));
+            case ShardProtocol.STATS -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    ShardProtocol.Stats.of(local).writeTo(out);
+                }
+                send(ex, bytes.toByteArray());
+            }
+            case ShardProtocol.PAYROLL -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    local.payrollStats().writeTo(out);
+                }
+                send(ex, bytes.toByteArray());
+            }
+            case ShardProtocol.SALARIES -> {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (DataOutputStream out = new DataOutputStream(bytes)) {
+                    ShardProtocol.writeSalaries(out, local.salaryHistory(Long.parseLong(q.get("id"))));
+                }
+                send(ex, bytes.toByteArray());
+            }
+            default -> {
+                // /shard/persons/{id}
+                if (!path.startsWith(ShardProtocol.PERSONS + "/")) {
+                    ex.sendResponseHeaders(404, -1);
+                    return;
+                }
+                long id = Long.parseLong(path.substring(ShardProtocol.PERSONS.length() + 1));
+                if ("DELETE".equals(method)) {
+                    local.deleteById(id);
+                    ex.sendResponseHeaders(204, -1);
+                    return;
+                }
+                Optional<Person> p = local.findById(id);
+                if (p.isEmpty()) ex.sendResponseHeaders(404, -1);
+                else sendList(ex, Stream.of(p.get()));
+            }
+        }
+    }
+
+    private static List<Person> readList(InputStream body) throws IOException {
+        DataInputStream in = new DataInputStream(body);
+        List<Person> people = new ArrayList<>();
+        for (Person p; (p = ShardProtocol.readPerson(in)) != null; ) people.add(p);
+        return people;
+    }
+
+    /** Envia a lista em streaming (chunked), fechando {@code people} ao final. */
+    private static void sendList(HttpExchange ex, Stream<Person> people) throws IOException {
+        ex.sendResponseHeaders(200, 0);
+        try (Stream<Person> s = people;
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(ex.getResponseBody(), 16 * 1024))) {
+            Iterator<Person> it = s.iterator();
+            while (it.hasNext()) ShardProtocol.writePerson(out, it.next());
+            ShardProtocol.writeEnd(out);
+        }
+    }
+
+    private static void send(HttpExchange ex, byte[] body) throws IOException {
+        ex.sendResponseHeaders(200, body.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.jeandro.sccon.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/** Outro nó do repositório particionado não respondeu (ou respondeu com erro). */
+public class ShardUnavailableException extends UncheckedIOException {
+    public ShardUnavailableException(String message, IOException cause) { super(message, cause); }
+}
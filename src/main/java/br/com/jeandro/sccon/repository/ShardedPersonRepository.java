@@ -0,0 +1,369 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.util.TextUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Repositório particionado entre vários nós (processos) por {@link ConsistentHashRing hash
+ * consistente} do ID. Cada nó guarda a sua partição num repositório local e a expõe aos outros
+ * pelo {@link ShardServer}; operações sobre um ID de outro nó são encaminhadas a ele, e
+ * listagens, filtros e buscas consultam todos os nós ao mesmo tempo e intercalam os resultados
+ * já ordenados de cada um.
+ *
+ * <p>IDs novos são gerados por nó, sem coordenação: {@code sequência << NODE_BITS | nó}, pulando os
+ * valores que o anel não atribui a este nó. Assim o ID é único no cluster e toda criação grava
+ * localmente, sem ida à rede.</p>
+ *
+ * <p>O feed de alterações ({@link #changes()}) é o da partição local; o contador de alterações
+ * ({@link #modificationCount()}) e {@link #count()} somam todos os nós, e a versão dos dados
+ * ({@link #dataVersion()}) combina a de cada nó. Sem réplicas: se um nó cai,
+ * os IDs dele ficam indisponíveis ({@link ShardUnavailableException}, 503) e listagens falham.</p>
+ */
+public class ShardedPersonRepository implements PersonRepository {
+    /** Bits baixos do ID com o índice do nó que o gerou. */
+    static final int NODE_BITS = 8;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+
+    private final int self;
+    private final PersonRepository local;
+    private final ConsistentHashRing ring;
+    /** Clientes dos outros nós; a posição {@code self} é nula. */
+    private final ShardClient[] remotes;
+    private final HttpClient http;
+    private final AtomicLong seq;
+    /** Servidor desta partição, quando criado por {@link #start}. */
+    private ShardServer server;
+
+    /**
+     * @param self  posição deste nó em {@code nodes}
+     * @param nodes endereço do {@link ShardServer} de cada nó, na mesma ordem em todos os nós
+     * @param local partição deste nó (já carregada, se persistente)
+     * @param secret segredo compartilhado enviado aos outros nós ({@link ShardProtocol#SECRET_HEADER})
+     */
+    public ShardedPersonRepository(int self, List<URI> nodes, PersonRepository local, Duration timeout, String secret) {
+        if (nodes.isEmpty() || nodes.size() > MAX_NODES)
+            throw new IllegalArgumentException("O cluster precisa ter de 1 a " + MAX_NODES + " nós");
+        if (self < 0 || self >= nodes.size())
+            throw new IllegalArgumentException("Nó " + self + " fora da lista de " + nodes.size() + " nós");
+        this.self = self;
+        this.local = local;
+        this.ring = new ConsistentHashRing(nodes.size());
+        this.http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        this.remotes = new ShardClient[nodes.size()];
+        for (int i = 0; i < nodes.size(); i++) {
+            if (i != self) remotes[i] = new ShardClient(nodes.get(i), http, timeout, ShardProtocol.requireSecret(secret));
+        }
+        // continua depois do maior ID já gerado por este nó (partição recarregada do log)
+        this.seq = new AtomicLong(local.lastId() >>> NODE_BITS);
+    }
+
+    /**
+     * Sobe o {@link ShardServer} da partição local em {@code bind}, na porta do endereço deste nó,
+     * e cria o repositório; {@link #close()} para os dois.
+     */
+    public static ShardedPersonRepository start(int self, List<URI> nodes, PersonRepository local, Duration timeout,
+                                                InetAddress bind, String secret) throws IOException {
+        ShardedPersonRepository repo = new ShardedPersonRepository(self, nodes, local, timeout, secret);
+        repo.server = ShardServer.start(new InetSocketAddress(bind, nodes.get(self).getPort()), local, secret);
+        return repo;
+    }
+
+    /** Nó dono do ID. */
+    public int owner(long id) {
+        return ring.owner(id);
+    }
+
+    public int self() {
+        return self;
+    }
+
+    @Override
+    public List<Person> findAll() {
+        try (Stream<Person> all = streamAll()) {
+            return all.toList();
+        }
+    }
+
+    /** Pede {@code limit} pessoas a cada nó e fica com as {@code limit} primeiras da intercalação. */
+    @Override
+    public List<Person> findPageByName(PersonNameKey after, int limit) {
+        List<List<Person>> pages = gather(c -> c.page(after, limit), () -> local.findPageByName(after, limit));
+        List<Person> merged = new ArrayList<>(limit);
+        Iterator<Person> it = merge(pages.stream().map(List::iterator).toList(), Comparator.comparing(PersonNameKey::of));
+        while (merged.size() < limit && it.hasNext()) merged.add(it.next());
+        return merged;
+    }
+
+    /** Intercala os resultados de cada nó, já na ordem do índice usado por eles (ver {@link #filterOrder}). */
+    @Override
+    public Stream<Person> findByFilter(PersonFilter filter) {
+        List<Stream<Person>> parts = gather(c -> c.filter(filter), () -> local.findByFilter(filter));
+        Iterator<Person> merged = merge(parts.stream().map(Stream::iterator).toList(), filterOrder(filter));
+        Stream<Person> result = StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false);
+        for (Stream<Person> part : parts) result = result.onClose(part::close);
+        return result;
+    }
+
+    /**
+     * As melhores de cada nó bastam: a pontuação de um nome não depende dos outros, então as
+     * {@code limit} melhores do cluster estão entre as {@code limit} melhores de algum nó.
+     */
+    @Override
+    public List<Person> searchByName(String query, int limit) {
+        NameSearchIndex.Query q = NameSearchIndex.Query.of(query);
+        if (q.isEmpty()) return List.of();
+        List<Person> candidates = new ArrayList<>();
+        for (List<Person> part : gather(c -> c.search(query, limit), () -> local.searchByName(query, limit))) {
+            candidates.addAll(part);
+        }
+        return NameSearchIndex.rank(candidates, q, limit, p -> TextUtils.fold(p.getNome()));
+    }
+
+    @Override
+    public Optional<Person> findById(Long id) {
+        int node = ring.owner(id);
+        return node == self ? local.findById(id) : remotes[node].findById(id);
+    }
+
+    /** Uma requisição por nó com IDs pedidos, todas ao mesmo tempo. */
+    @Override
+    public Map<Long, Person> findAllById(Collection<Long> ids) {
+        List<List<Long>> byNode = new ArrayList<>(remotes.length);
+        for (int i = 0; i < remotes.length; i++) byNode.add(new ArrayList<>());
+        for (Long id : ids) byNode.get(ring.owner(id)).add(id);
+        List<CompletableFuture<List<Person>>> pending = new ArrayList<>(remotes.length);
+        for (int node = 0; node < remotes.length; node++) {
+            List<Long> part = byNode.get(node);
+            pending.add(node == self || part.isEmpty() ? null : remotes[node].lookup(part));
+        }
+        Map<Long, Person> found = new HashMap<>(local.findAllById(byNode.get(self)));
+        for (CompletableFuture<List<Person>> f : pending) {
+            if (f != null) for (Person p : ShardClient.await(f)) found.put(p.getId(), p);
+        }
+        return found;
+    }
+
+    @Override
+    public Person save(Person p) {
+        if (p.getId() == null) p.setId(nextId());
+        int node = ring.owner(p.getId());
+        if (node == self) return local.save(p);
+        p.setVersion(remotes[node].save(p).getVersion());
+        return p;
+    }
+
+    @Override
+    public boolean replace(Person current, Person next) {
+        int node = ring.owner(current.getId());
+        return node == self ? local.replace(current, next) : remotes[node].replace(current.getVersion(), next);
+    }
+
+    /** IDs novos são deste nó, então só pessoas com ID de outro nó geram envio. */
+    @Override
+    public List<Person> saveAll(List<Person> people) {
+        List<List<Person>> byNode = new ArrayList<>(remotes.length);
+        for (int i = 0; i < remotes.length; i++) byNode.add(new ArrayList<>());
+        for (Person p : people) {
+            if (p.getId() == null) p.setId(nextId());
+            byNode.get(ring.owner(p.getId())).add(p);
+        }
+        for (int node = 0; node < remotes.length; node++) {
+            List<Person> part = byNode.get(node);
+            if (part.isEmpty()) continue;
+            if (node == self) {
+                local.saveAll(part);
+            } else {
+                List<Person> saved = remotes[node].saveAll(part);
+                for (int i = 0; i < part.size(); i++) part.get(i).setVersion(saved.get(i).getVersion());
+            }
+        }
+        return people;
+    }
+
+    @Override
+    public boolean existsById(Long id) {
+        int node = ring.owner(id);
+        return node == self ? local.existsById(id) : remotes[node].findById(id).isPresent();
+    }
+
+    @Override
+    public void deleteById(Long id) {
+        int node = ring.owner(id);
+        if (node == self) local.deleteById(id);
+        else remotes[node].delete(id);
+    }
+
+    @Override
+    public long count() {
+        return stats().stream().mapToLong(ShardProtocol.Stats::count).sum();
+    }
+
+    /** Soma dos contadores de todos os nós: muda quando qualquer partição muda. */
+    @Override
+    public long modificationCount() {
+        return stats().stream().mapToLong(ShardProtocol.Stats::modificationCount).sum();
+    }
+
+    /**
+     * Hash das versões de todos os nós, na ordem dos nós. Não usa a soma dos contadores: um nó
+     * que reinicia recomeça o seu do zero e a soma poderia repetir uma ETag de antes.
+     */
+    @Override
+    public String dataVersion() {
+        MessageDigest sha;
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (ShardProtocol.Stats s : stats()) {
+            sha.update(s.dataVersion().getBytes(StandardCharsets.UTF_8));
+            sha.update((byte) 0);
+        }
+        return HexFormat.of().formatHex(sha.digest(), 0, 12);
+    }
+
+    /** Os agregados de cada nó, somados ({@link PayrollStats#merge}). */
+    @Override
+    public PayrollStats payrollStats() {
+        return gather(ShardClient::payroll, local::payrollStats).stream().reduce(PayrollStats::merge).orElseThrow();
+    }
+
+    /** No nó dono; {@link #salaryAt} busca na lista trazida (implementação padrão). */
+    @Override
+    public List<SalaryHistory.Entry> salaryHistory(long id) {
+        int node = ring.owner(id);
+        return node == self ? local.salaryHistory(id) : remotes[node].salaries(id);
+    }
+
+    /** Último ID gerado por este nó. */
+    @Override
+    public long lastId() {
+        long s = seq.get();
+        return s == 0 ? 0 : s << NODE_BITS | self;
+    }
+
+    /** Só a partição deste nó (métrica por processo). */
+    @Override
+    public long estimatedBytes() {
+        return local.estimatedBytes();
+    }
+
+    /** Alterações da partição deste nó. */
+    @Override
+    public PersonChangeFeed changes() {
+        return local.changes();
+    }
+
+    /** Só o nó 0 carrega os dados iniciais, e só se a partição dele estiver vazia. */
+    @Override
+    public void seed(List<Person> initial) {
+        if (self == 0 && local.count() == 0) initial.forEach(this::save);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (server != null) server.close();
+        http.close();
+        local.close();
+    }
+
+    /** Próximo ID gerado por este nó que o anel atribui a este nó (em média N tentativas). */
+    private long nextId() {
+        while (true) {
+            long id = seq.incrementAndGet() << NODE_BITS | self;
+            if (ring.owner(id) == self) return id;
+        }
+    }
+
+    private List<ShardProtocol.Stats> stats() {
+        return gather(ShardClient::stats, () -> ShardProtocol.Stats.of(local));
+    }
+
+    /**
+     * Dispara a consulta em todos os outros nós, executa a local enquanto isso e espera as
+     * respostas. Resultado na ordem dos nós.
+     */
+    private <T> List<T> gather(Function<ShardClient, CompletableFuture<T>> remote, Supplier<T> localCall) {
+        List<CompletableFuture<T>> pending = new ArrayList<>(remotes.length);
+        for (ShardClient c : remotes) pending.add(c == null ? null : remote.apply(c));
+        T mine = localCall.get();
+        List<T> results = new ArrayList<>(remotes.length);
+        for (CompletableFuture<T> f : pending) results.add(f == null ? mine : ShardClient.await(f));
+        return results;
+    }
+
+    /**
+     * Ordem de {@link #findByFilter}: a do índice secundário escolhido pelo
+     * {@link InMemoryPersonRepository} (primeiro filtro informado, desempate pelo ID) ou, sem
+     * filtro, a ordem por nome.
+     */
+    static Comparator<Person> filterOrder(PersonFilter filter) {
+        Comparator<Person> byId = Comparator.comparing(Person::getId);
+        if (filter.hasAdmissao()) return Comparator.comparing(Person::getDataAdmissao, Comparator.<LocalDate>naturalOrder()).thenComparing(byId);
+        if (filter.hasSalario()) return Comparator.comparing(Person::getSalarioAtual, Comparator.<BigDecimal>naturalOrder()).thenComparing(byId);
+        if (filter.aniversarioMes() != null) {
+            return Comparator.<Person>comparingInt(p -> p.getDataNascimento().getMonthValue() * 100 + p.getDataNascimento().getDayOfMonth())
+                .thenComparing(byId);
+        }
+        return Comparator.comparing(PersonNameKey::of);
+    }
+
+    /** Intercalação (k-way merge) de sequências já ordenadas por {@code order}. */
+    static Iterator<Person> merge(List<Iterator<Person>> sources, Comparator<Person> order) {
+        record Head(Person person, Iterator<Person> rest) {}
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()), Comparator.comparing(Head::person, order));
+        for (Iterator<Person> it : sources) if (it.hasNext()) heads.add(new Head(it.next(), it));
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public Person next() {
+                Head h = heads.poll();
+                if (h == null) throw new NoSuchElementException();
+                if (h.rest().hasNext()) heads.add(new Head(h.rest().next(), h.rest()));
+                return h.person();
+            }
+        };
+    }
+}
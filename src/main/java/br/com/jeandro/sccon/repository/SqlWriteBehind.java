@@ -0,0 +1,351 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cópia assíncrona (write-behind) das gravações do {@link InMemoryPersonRepository} numa tabela
+ * SQL {@code person}, para relatórios. A escrita é confirmada pela memória (e pelo log, se houver)
+ * e só põe o ID numa fila sem lock; uma thread grava a fila em lotes JDBC, uma transação por lote.
+ *
+ * <p>Alterações do mesmo ID feitas antes da gravação se juntam: o lote leva só o estado mais
+ * recente (upsert ou remoção). A fila guarda no máximo {@code capacity} IDs distintos; cheia, as
+ * escritas esperam até {@code maxWait} antes de serem aplicadas e depois são recusadas com
+ * {@link WriteBehindFullException}. Se o banco falha, o lote volta para a frente da fila e é
+ * tentado de novo no intervalo seguinte.</p>
+ *
+ * <p>Ao ser ligada, a cópia troca o conteúdo da tabela pelo do repositório. Assim, alterações que
+ * ainda estavam na fila quando o processo parou chegam ao banco na inicialização seguinte (desde
+ * que estejam no log). O SQL é o do H2.</p>
+ */
+public final class SqlWriteBehind implements Closeable {
+    private static final Logger log = LoggerFactory.getLogger(SqlWriteBehind.class);
+
+    static final String CREATE_TABLE = """
+        CREATE TABLE IF NOT EXISTS person (
+            id BIGINT PRIMARY KEY,
+            nome VARCHAR(1000),
+            data_nascimento DATE,
+            data_admissao DATE,
+            salario_atual DECIMAL(19, 2),
+            version BIGINT NOT NULL
+        )""";
+    private static final String UPSERT = "MERGE INTO person (id, nome, data_nascimento, data_admissao, salario_atual, version)"
+        + " KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE = "DELETE FROM person WHERE id = ?";
+
+    /** Estado na fila de um ID removido. */
+    private static final Person DELETED = new Person(null, null, null, null, null);
+
+    /** Um ID na fila e desde quando (System.nanoTime) ele espera. */
+    private record Queued(long id, long sinceNanos) {}
+
+    private final WriteBehindOptions options;
+    /** Estado mais recente de cada ID na fila ({@link #DELETED} = removido). */
+    private final Map<Long, Person> pending = new ConcurrentHashMap<>();
+    private final Queue<Queued> queue = new ConcurrentLinkedQueue<>();
+    /** IDs em {@link #pending}: a fila não tem tamanho O(1) e o do mapa é aproximado. */
+    private final AtomicInteger size = new AtomicInteger();
+    private final Set<Thread> waiting = ConcurrentHashMap.newKeySet();
+    private final Thread flusher;
+    private volatile boolean closed;
+    private PersonRepository source;
+
+    /**
+     * Só da thread de gravação: lote que o banco recusou e IDs alterados durante a gravação. Vão
+     * antes da fila na próxima gravação.
+     */
+    private final ArrayDeque<Queued> retry = new ArrayDeque<>();
+    private Connection connection;
+    private boolean loaded;
+    /** Espera mais antiga entre o lote em gravação e {@link #retry} (Long.MAX_VALUE = nenhuma). */
+    private volatile long oldestTaken = Long.MAX_VALUE;
+
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public SqlWriteBehind(WriteBehindOptions options) {
+        this.options = options;
+        this.flusher = new Thread(this::run, "sql-write-behind");
+        flusher.setDaemon(true);
+    }
+
+    /**
+     * Passa a copiar as gravações de {@code repo}; em segundo plano, a tabela é recarregada com o
+     * conteúdo atual dele antes da primeira gravação da fila.
+     */
+    public void attach(InMemoryPersonRepository repo) {
+        if (source != null) throw new IllegalStateException("A cópia para SQL já está ligada a um repositório");
+        source = repo;
+        repo.writeBehind(this);
+        flusher.start();
+    }
+
+    /** IDs aguardando gravação. */
+    public int pending() {
+        return size.get();
+    }
+
+    /** Há quanto tempo espera a alteração mais antiga ainda não gravada (0 = nenhuma). */
+    public long lagMillis() {
+        long oldest = oldestTaken;
+        Queued head = queue.peek();
+        if (head != null && (oldest == Long.MAX_VALUE || head.sinceNanos() - oldest < 0)) oldest = head.sinceNanos();
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(0, (System.nanoTime() - oldest) / 1_000_000);
+    }
+
+    /** Linhas gravadas ou removidas no banco (sem contar a recarga). */
+    public long rowsWritten() { return rows.sum(); }
+
+    /** Lotes confirmados no banco. */
+    public long batchesWritten() { return batches.sum(); }
+
+    /** Lotes (ou recargas) que o banco recusou. */
+    public long failures() { return failures.sum(); }
+
+    /** Escritas recusadas por fila cheia. */
+    public long rejected() { return rejected.sum(); }
+
+    /**
+     * Chamada antes de aplicar uma escrita: com a fila cheia, espera a gravação abrir espaço por até
+     * {@code maxWait}. A checagem não é atômica com o {@link #enqueue}, então escritas simultâneas
+     * podem passar da capacidade em até uma por thread.
+     */
+    void admit() {
+        if (size.get() < options.capacity() || closed) return;
+        long deadline = System.nanoTime() + options.maxWait().toNanos();
+        Thread self = Thread.currentThread();
+        waiting.add(self);
+        try {
+            LockSupport.unpark(flusher);
+            while (size.get() >= options.capacity() && !closed) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    rejected.increment();
+                    throw new WriteBehindFullException("Fila da cópia para SQL cheia: " + size.get() + " IDs aguardando gravação");
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiting.remove(self);
+        }
+    }
+
+    /** Registra uma escrita já aplicada ({@code p} nulo = remoção), com o lock de escrita do ID. */
+    void enqueue(long id, Person p) {
+        if (pending.put(id, p == null ? DELETED : p) != null) return; // já na fila: junta com a anterior
+        queue.add(new Queued(id, System.nanoTime()));
+        if (size.incrementAndGet() == options.batchSize()) LockSupport.unpark(flusher);
+    }
+
+    /** Grava o que ainda está na fila (uma tentativa) e para a thread de gravação. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (Thread t : waiting) LockSupport.unpark(t);
+        if (!flusher.isAlive()) return;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean failing = !reload();
+        long next = System.nanoTime() + options.flushInterval().toNanos();
+        while (!closed) {
+            long wait = next - System.nanoTime();
+            // fila com um lote ou escritas esperando adiantam a gravação, mas não o retry de uma falha
+            boolean early = !failing && (size.get() >= options.batchSize() || !waiting.isEmpty());
+            if (wait > 0 && !early) {
+                LockSupport.parkNanos(this, wait);
+                continue;
+            }
+            failing = !flush();
+            next = System.nanoTime() + options.flushInterval().toNanos();
+        }
+        if (!flush()) log.error("Cópia para SQL encerrada com {} IDs sem gravar no banco", size.get());
+        closeConnection();
+    }
+
+    private boolean flush() {
+        return (loaded || reload()) && drain();
+    }
+
+    /** Troca o conteúdo da tabela pelo do repositório, numa transação. */
+    private boolean reload() {
+        long t0 = System.nanoTime();
+        long count = 0;
+        try {
+            Connection c = connection();
+            try (Statement st = c.createStatement()) {
+                st.execute(CREATE_TABLE);
+                st.executeUpdate("DELETE FROM person");
+            } catch (SQLException e) {
+                rollbackQuietly(c);
+                throw e;
+            }
+            // o H2 confere a tabela já no prepare: só depois do CREATE TABLE
+            try (PreparedStatement upsert = c.prepareStatement(UPSERT)) {
+                Iterator<Person> people = source.streamAll().iterator();
+                while (people.hasNext()) {
+                    bind(upsert, people.next());
+                    upsert.addBatch();
+                    if (++count % options.batchSize() == 0) upsert.executeBatch();
+                }
+                if (count % options.batchSize() != 0) upsert.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                rollbackQuietly(c);
+                throw e;
+            }
+        } catch (SQLException e) {
+            failures.increment();
+            log.warn("Falha ao recarregar a tabela person; nova tentativa em {} ms: {}", options.flushInterval().toMillis(), e.toString());
+            closeConnection();
+            return false;
+        }
+        loaded = true;
+        log.info("Tabela person recarregada com {} pessoas em {} ms", count, (System.nanoTime() - t0) / 1_000_000);
+        return true;
+    }
+
+    /** Grava a fila em lotes até esvaziá-la; false se o banco falhou (o lote volta para {@link #retry}). */
+    private boolean drain() {
+        List<Queued> batch = new ArrayList<>(options.batchSize());
+        Person[] values = new Person[options.batchSize()];
+        while (true) {
+            batch.clear();
+            while (batch.size() < options.batchSize()) {
+                Queued q = retry.pollFirst();
+                if (q == null) q = queue.poll();
+                if (q == null) break;
+                values[batch.size()] = pending.get(q.id());
+                batch.add(q);
+            }
+            if (batch.isEmpty()) {
+                oldestTaken = Long.MAX_VALUE;
+                return true;
+            }
+            oldestTaken = oldest(batch, oldest(retry, Long.MAX_VALUE));
+            long start = System.nanoTime();
+            try {
+                write(batch, values);
+            } catch (SQLException e) {
+                failures.increment();
+                for (int i = batch.size() - 1; i >= 0; i--) retry.addFirst(batch.get(i));
+                log.warn("Falha ao gravar {} IDs no banco; nova tentativa em {} ms: {}",
+                    batch.size(), options.flushInterval().toMillis(), e.toString());
+                closeConnection();
+                return false;
+            }
+            rows.add(batch.size());
+            batches.increment();
+            int removed = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                long id = batch.get(i).id();
+                if (pending.remove(id, values[i])) removed++;
+                else retry.addLast(new Queued(id, start)); // alterado durante a gravação: o valor novo ainda falta
+                values[i] = null;
+            }
+            size.addAndGet(-removed);
+            for (Thread t : waiting) LockSupport.unpark(t);
+            oldestTaken = oldest(retry, Long.MAX_VALUE);
+        }
+    }
+
+    private void write(List<Queued> batch, Person[] values) throws SQLException {
+        Connection c = connection();
+        try (PreparedStatement upsert = c.prepareStatement(UPSERT); PreparedStatement delete = c.prepareStatement(DELETE)) {
+            int upserts = 0;
+            int deletes = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                Person p = values[i];
+                if (p == null) continue;
+                if (p == DELETED) {
+                    delete.setLong(1, batch.get(i).id());
+                    delete.addBatch();
+                    deletes++;
+                } else {
+                    bind(upsert, p);
+                    upsert.addBatch();
+                    upserts++;
+                }
+            }
+            if (upserts > 0) upsert.executeBatch();
+            if (deletes > 0) delete.executeBatch();
+            c.commit();
+        } catch (SQLException e) {
+            rollbackQuietly(c);
+            throw e;
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Person p) throws SQLException {
+        ps.setLong(1, p.getId());
+        ps.setString(2, p.getNome());
+        ps.setObject(3, p.getDataNascimento(), Types.DATE);
+        ps.setObject(4, p.getDataAdmissao(), Types.DATE);
+        ps.setBigDecimal(5, p.getSalarioAtual());
+        ps.setLong(6, p.getVersion());
+    }
+
+    private static long oldest(Iterable<Queued> entries, long oldest) {
+        for (Queued q : entries) {
+            if (oldest == Long.MAX_VALUE || q.sinceNanos() - oldest < 0) oldest = q.sinceNanos();
+        }
+        return oldest;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null) {
+            connection = DriverManager.getConnection(options.url(), options.user(), options.password());
+            connection.setAutoCommit(false);
+        }
+        return connection;
+    }
+
+    private static void rollbackQuietly(Connection c) {
+        try {
+            c.rollback();
+        } catch (SQLException ignored) {
+            // a conexão é descartada em seguida
+        }
+    }
+
+    private void closeConnection() {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Falha ao fechar a conexão com o banco", e);
+        }
+        connection = null;
+    }
+}
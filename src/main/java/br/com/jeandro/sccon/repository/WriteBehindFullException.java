@@ -0,0 +1,9 @@
+package br.com.jeandro.sccon.repository;
+
+/**
+ * A fila da cópia para SQL continuou cheia pelo tempo máximo de espera; a escrita não foi
+ * aplicada.
+ */
+public class WriteBehindFullException extends RuntimeException {
+    public WriteBehindFullException(String message) { super(message); }
+}
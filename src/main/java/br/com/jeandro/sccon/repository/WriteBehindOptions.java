@@ -0,0 +1,18 @@
+package br.com.jeandro.sccon.repository;
+
+import java.time.Duration;
+
+/**
+ * Configuração da cópia assíncrona para SQL ({@link SqlWriteBehind}).
+ *
+ * @param url           URL JDBC do banco (ex.: {@code jdbc:h2:file:./data/persons-sql})
+ * @param user          usuário do banco
+ * @param password      senha do banco
+ * @param flushInterval espera máxima de uma alteração antes de ir para o banco
+ * @param batchSize     IDs por lote JDBC; a fila com esse tanto dispara a gravação antes do intervalo
+ * @param capacity      IDs distintos aguardando gravação; acima disso as escritas esperam
+ * @param maxWait       espera máxima de uma escrita pela fila; depois ela é recusada sem ser aplicada
+ */
+public record WriteBehindOptions(String url, String user, String password, Duration flushInterval,
+                                 int batchSize, int capacity, Duration maxWait) {
+}
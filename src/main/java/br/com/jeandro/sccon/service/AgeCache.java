@@ -0,0 +1,57 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.exception.BadRequestException;
+import br.com.jeandro.sccon.util.DateUtils;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache das idades (dias, meses e anos) de cada pessoa, válido apenas no dia em que foi
+ * calculado. É limpo na virada do dia e a entrada de uma pessoa é descartada quando ela é
+ * alterada ou removida. Datas são tratadas como epoch-day; uma consulta em cache não aloca.
+ */
+class AgeCache {
+
+    /** Idades já calculadas; anos em centésimos. */
+    record Ages(long dias, long meses, long anosCentesimos) {
+        Number value(String output) {
+            return switch (output == null ? "" : output) {
+                case "dias" -> dias;
+                case "meses" -> meses;
+                case "anos" -> BigDecimal.valueOf(anosCentesimos, 2);
+                default -> throw new BadRequestException("Parâmetro 'output' deve ser dias, meses ou anos");
+            };
+        }
+    }
+
+    private record Entry(long dia, long nascimento, Ages ages) {}
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long dia = Long.MIN_VALUE;
+
+    Ages get(Long id, long nascimento, long hoje) {
+        if (hoje != dia) {
+            entries.clear();
+            dia = hoje;
+        }
+        Entry e = entries.get(id);
+        // o dia na entrada protege contra um cálculo de ontem gravado depois da limpeza
+        if (e != null && e.dia() == hoje && e.nascimento() == nascimento) return e.ages();
+        Ages ages = compute(nascimento, hoje);
+        entries.put(id, new Entry(hoje, nascimento, ages));
+        return ages;
+    }
+
+    void invalidate(Long id) {
+        entries.remove(id);
+    }
+
+    static Ages compute(long nascimento, long hoje) {
+        return new Ages(
+            DateUtils.idadeEmDias(nascimento, hoje),
+            DateUtils.idadeEmMeses(nascimento, hoje),
+            DateUtils.idadeEmAnosCentesimos(nascimento, hoje));
+    }
+}
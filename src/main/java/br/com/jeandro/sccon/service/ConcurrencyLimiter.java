@@ -0,0 +1,103 @@
+package br.com.jeandro.sccon.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.LongSupplier;
+
+/**
+ * Limite adaptativo de requisições simultâneas, por AIMD guiado pela latência medida. Uma
+ * requisição mais lenta que {@code latencyTarget} é sinal de sobrecarga e o limite cai para
+ * {@code backoff} vezes o atual. A queda acontece uma vez por janela: requisições admitidas antes
+ * dela já estavam sob o limite antigo e não a repetem. Respostas dentro do alvo, com pelo menos
+ * metade do limite em uso, somam {@code 1/limite}, ou seja, cerca de uma vaga a mais a cada volta
+ * completa de requisições. Acima do limite, {@link #tryAcquire} recusa na hora, sem fila.
+ */
+public final class ConcurrencyLimiter {
+
+    /**
+     * @param initial       limite inicial
+     * @param min           limite mínimo (ao menos 1)
+     * @param max           limite máximo
+     * @param latencyTarget latência acima da qual uma resposta indica sobrecarga
+     * @param backoff       fator da queda multiplicativa (entre 0 e 1)
+     */
+    public record Options(int initial, int min, int max, Duration latencyTarget, double backoff) {}
+
+    private final Options options;
+    private final long targetNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /** Limite atual em bits de double: fracionário, para os aumentos de {@code 1/limite} se acumularem. */
+    private final AtomicLong limitBits;
+    /** Instante da última queda; só requisições admitidas depois dele derrubam o limite de novo. */
+    private final AtomicLong lastDecrease;
+    private final LongAdder rejected = new LongAdder();
+
+    public ConcurrencyLimiter(Options options) {
+        this(options, System::nanoTime);
+    }
+
+    ConcurrencyLimiter(Options options, LongSupplier clock) {
+        if (options.min() < 1 || options.min() > options.initial() || options.initial() > options.max()) {
+            throw new IllegalArgumentException("Limites inválidos: é preciso 1 <= min <= initial <= max");
+        }
+        if (options.backoff() <= 0 || options.backoff() >= 1) throw new IllegalArgumentException("backoff deve ficar entre 0 e 1");
+        this.options = options;
+        this.targetNanos = options.latencyTarget().toNanos();
+        this.clock = clock;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(options.initial()));
+        this.lastDecrease = new AtomicLong(clock.getAsLong());
+    }
+
+    /** Ocupa uma vaga se houver; quem recebe true deve chamar {@link #release} ao terminar. */
+    public boolean tryAcquire() {
+        int limit = limit();
+        while (true) {
+            int n = inFlight.get();
+            if (n >= limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(n, n + 1)) return true;
+        }
+    }
+
+    /** Libera a vaga de uma requisição iniciada em {@code startNanos} e ajusta o limite pela latência dela. */
+    public void release(long startNanos) {
+        long now = clock.getAsLong();
+        int using = inFlight.getAndDecrement();
+        if (now - startNanos > targetNanos) {
+            long last = lastDecrease.get();
+            if (startNanos - last > 0 && lastDecrease.compareAndSet(last, now)) {
+                update(l -> Math.max(options.min(), l * options.backoff()));
+            }
+        } else if (using * 2 >= limit()) {
+            update(l -> Math.min(options.max(), l + 1 / l));
+        }
+    }
+
+    /** Vagas atuais (parte inteira do limite). */
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /** Requisições recusadas desde a criação. */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    private void update(DoubleUnaryOperator f) {
+        while (true) {
+            long bits = limitBits.get();
+            long next = Double.doubleToLongBits(f.applyAsDouble(Double.longBitsToDouble(bits)));
+            if (bits == next || limitBits.compareAndSet(bits, next)) return;
+        }
+    }
+}
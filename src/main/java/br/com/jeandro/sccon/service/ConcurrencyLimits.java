@@ -0,0 +1,43 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.exception.OverloadedException;
+
+/**
+ * Limites de concorrência da API de pessoas, um por custo de requisição: leituras pontuais
+ * (busca por ID, idade, salário) e operações caras (listagens, buscas e escritas). Cada grupo se
+ * ajusta à própria latência, então uma rajada de listagens não tira vagas das leituras.
+ */
+public final class ConcurrencyLimits {
+
+    public enum Cost { CHEAP, EXPENSIVE }
+
+    /** Vaga ocupada por uma requisição; {@link #release()} uma vez ao terminar. */
+    public record Permit(ConcurrencyLimiter limiter, long startNanos) {
+        public void release() {
+            limiter.release(startNanos);
+        }
+    }
+
+    private final ConcurrencyLimiter cheap;
+    private final ConcurrencyLimiter expensive;
+    private final int retryAfterSeconds;
+
+    public ConcurrencyLimits(ConcurrencyLimiter.Options cheap, ConcurrencyLimiter.Options expensive, int retryAfterSeconds) {
+        this.cheap = new ConcurrencyLimiter(cheap);
+        this.expensive = new ConcurrencyLimiter(expensive);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ConcurrencyLimiter limiter(Cost cost) {
+        return cost == Cost.CHEAP ? cheap : expensive;
+    }
+
+    /** Ocupa uma vaga do grupo ou lança {@link OverloadedException} (503) sem esperar. */
+    public Permit acquire(Cost cost) {
+        ConcurrencyLimiter limiter = limiter(cost);
+        if (!limiter.tryAcquire()) {
+            throw new OverloadedException("Servidor sobrecarregado; tente novamente em " + retryAfterSeconds + " s", retryAfterSeconds);
+        }
+        return new Permit(limiter, System.nanoTime());
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.dto.PersonChange;
+import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.exception.BadRequestException;
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.PersonChangeFeed;
+import br.com.jeandro.sccon.util.BootId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Leitor do feed de alterações para uma conexão, a partir de um cursor {@code <boot>-<sequência>}
+ * (ver {@link BootId}). Guarda a posição entre as chamadas e não é thread-safe.
+ */
+public class PersonChangeReader {
+    public static final int MAX_BATCH = 256;
+    static final String RESYNC = "RESYNC";
+
+    private final PersonChangeFeed feed;
+    private final Function<Person, PersonResponse> toResponse;
+    private final List<PersonChangeFeed.Change> batch = new ArrayList<>(MAX_BATCH);
+    private long after;
+    private boolean lost;
+
+    PersonChangeReader(PersonChangeFeed feed, String cursor, Function<Person, PersonResponse> toResponse) {
+        this.feed = feed;
+        this.toResponse = toResponse;
+        if (cursor == null || cursor.isBlank()) {
+            after = feed.lastSequence();
+            return;
+        }
+        int dash = cursor.lastIndexOf('-');
+        try {
+            after = Long.parseLong(cursor.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Cursor de alterações inválido");
+        }
+        // cursor de outra execução: as sequências recomeçaram
+        if (dash < 0 || !cursor.substring(0, dash).equals(BootId.VALUE)) lost = true;
+    }
+
+    static String cursor(long seq) {
+        return BootId.VALUE + "-" + seq;
+    }
+
+    /**
+     * Próximas alterações (até {@link #MAX_BATCH}), esperando até {@code timeoutMillis} se não
+     * houver nenhuma. Vazio quando nada mudou ou quando o leitor se perdeu (ver {@link #lost()}).
+     */
+    public List<PersonChange> poll(long timeoutMillis) {
+        if (lost) return List.of();
+        batch.clear();
+        if (!feed.poll(after, MAX_BATCH, TimeUnit.MILLISECONDS.toNanos(timeoutMillis), batch)) {
+            lost = true;
+            return List.of();
+        }
+        List<PersonChange> out = new ArrayList<>(batch.size());
+        for (PersonChangeFeed.Change c : batch) {
+            out.add(new PersonChange(cursor(c.seq()), c.type().name(), c.id(),
+                c.person() == null ? null : toResponse.apply(c.person())));
+            after = c.seq();
+        }
+        return out;
+    }
+
+    /**
+     * Se alterações depois do cursor não estão mais disponíveis (cursor antigo ou de outra
+     * execução, ou leitor mais lento que as escritas). O cliente deve reler a base e continuar
+     * do cursor de {@link #resync()}.
+     */
+    public boolean lost() {
+        return lost;
+    }
+
+    /** Evento RESYNC com o cursor atual do feed. */
+    public PersonChange resync() {
+        return new PersonChange(cursor(feed.lastSequence()), RESYNC, null, null);
+    }
+
+    /** Cursor da última alteração entregue. */
+    public String cursor() {
+        return cursor(after);
+    }
+}
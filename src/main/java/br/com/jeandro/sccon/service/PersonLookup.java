@@ -0,0 +1,65 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.PersonRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca por ID usada por GET /persons/{id}, /idade, /salario e pelas alterações. Opcionalmente:
+ * <ul>
+ *   <li><b>coalescing</b>: buscas simultâneas do mesmo ID compartilham uma única ida ao
+ *   repositório ({@link SingleFlight});</li>
+ *   <li><b>micro-batching</b>: buscas de IDs diferentes dentro de uma janela curta viram uma única
+ *   {@link PersonRepository#findAllById} ({@link PointLookupBatcher}).</li>
+ * </ul>
+ * Os dois só compensam quando o repositório é remoto (ex.: {@code sccon.cluster}); com o mapa em
+ * memória, a busca direta custa menos que a coordenação.
+ */
+@Component
+public class PersonLookup {
+    private final PersonRepository repo;
+    /** Null quando desligado. */
+    private final SingleFlight<Long, Optional<Person>> flights;
+    private final PointLookupBatcher batcher;
+
+    /** Busca direta, sem coalescing nem micro-batching. */
+    public PersonLookup(PersonRepository repo) {
+        this(repo, false, 0, 1);
+    }
+
+    @Autowired
+    public PersonLookup(PersonRepository repo,
+                        @Value("${sccon.lookup.coalesce:false}") boolean coalesce,
+                        @Value("${sccon.lookup.batch-window-us:0}") long batchWindowMicros,
+                        @Value("${sccon.lookup.batch-max:64}") int batchMax) {
+        if (batchWindowMicros < 0 || batchMax < 1)
+            throw new IllegalArgumentException("sccon.lookup.batch-window-us deve ser >= 0 e sccon.lookup.batch-max >= 1");
+        this.repo = repo;
+        this.flights = coalesce ? new SingleFlight<>() : null;
+        this.batcher = batchWindowMicros == 0 ? null
+            : new PointLookupBatcher(repo::findAllById, TimeUnit.MICROSECONDS.toNanos(batchWindowMicros), batchMax);
+    }
+
+    public Optional<Person> find(long id) {
+        return flights == null ? load(id) : flights.get(id, () -> load(id));
+    }
+
+    /** Se {@link #find} pode esperar por outra thread (coalescing) ou pela janela do lote. */
+    public boolean mayBlock() {
+        return flights != null || batcher != null;
+    }
+
+    /** Chamado depois de cada escrita concluída no ID: leituras seguintes não reaproveitam uma busca anterior a ela. */
+    public void written(long id) {
+        if (flights != null) flights.forget(id);
+    }
+
+    private Optional<Person> load(long id) {
+        return batcher == null ? repo.findById(id) : batcher.find(id);
+    }
+}
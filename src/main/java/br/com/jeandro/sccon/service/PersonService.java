@@ -2,23 +2,99 @@ package br.com.jeandro.sccon.service;
 
 import br.com.jeandro.sccon.dto.*;
 import br.com.jeandro.sccon.exception.BadRequestException;
+import br.com.jeandro.sccon.exception.ConflictException;
 import br.com.jeandro.sccon.exception.NotFoundException;
+import br.com.jeandro.sccon.exception.PreconditionFailedException;
 import br.com.jeandro.sccon.model.Person;
 import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.PayrollStats;
+import br.com.jeandro.sccon.repository.PersonFilter;
+import br.com.jeandro.sccon.repository.PersonNameKey;
+import br.com.jeandro.sccon.repository.PersonRepository;
+import br.com.jeandro.sccon.repository.SalaryHistory;
 import br.com.jeandro.sccon.util.DateUtils;
+import br.com.jeandro.sccon.util.ETags;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class PersonService {
-    private final InMemoryPersonRepository repo = new InMemoryPersonRepository();
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int BATCH_CHUNK_SIZE = 500;
+    public static final int DEFAULT_SEARCH_LIMIT = 20;
+    /** Tentativas de compare-and-set de uma alteração antes de desistir com 409. */
+    static final int MAX_UPDATE_ATTEMPTS = 16;
+    /** Timer de cada operação, com a tag {@code operation}; histograma e percentis vêm da configuração. */
+    public static final String OPERATION_TIMER = "sccon.person.operation";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
 
+    /** Operações medidas; o nome em minúsculas é o valor da tag. */
+    enum Operation { LIST, PAGE, FILTER, SEARCH, GET, CREATE, CREATE_BATCH, PUT, PATCH, DELETE, IDADE, SALARIO, SALARIO_HISTORICO, METRICS, STATS }
+
+    private final PersonRepository repo;
+    private final PersonLookup lookup;
+    private final Validator validator;
+    private final AgeCache ages = new AgeCache();
+    private final Timer[] timers = new Timer[Operation.values().length];
+
+    public PersonService() {
+        this(new InMemoryPersonRepository(), Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    public PersonService(PersonRepository repo, Validator validator) {
+        this(repo, validator, new SimpleMeterRegistry());
+    }
+
+    public PersonService(PersonRepository repo, Validator validator, MeterRegistry registry) {
+        this(repo, validator, registry, new PersonLookup(repo));
+    }
+
+    @Autowired
+    public PersonService(PersonRepository repo, Validator validator, MeterRegistry registry, PersonLookup lookup) {
+        this.repo = repo;
+        this.lookup = lookup;
+        this.validator = validator;
+        for (Operation op : Operation.values()) {
+            timers[op.ordinal()] = Timer.builder(OPERATION_TIMER)
+                .description("Duração das operações do PersonService (inclusive as que falham)")
+                .tag("operation", op.name().toLowerCase(Locale.ROOT))
+                .register(registry);
+        }
+    }
+
+    /**
+     * Se as leituras podem bloquear a thread: só o mapa local ({@link InMemoryPersonRepository})
+     * sem coalescing nem micro-batching responde sem esperar. Partições e réplicas fazem chamadas
+     * HTTP síncronas; o lote espera a sua janela.
+     */
+    public boolean readsMayBlock() {
+        return !(repo instanceof InMemoryPersonRepository) || lookup.mayBlock();
+    }
+
+    /** Carrega os dados de exemplo, exceto quando o repositório já tem dados (ex.: log persistente). */
     @PostConstruct
     public void seed() {
         repo.seed(List.of(
@@ -29,66 +105,333 @@ public class PersonService {
     }
 
     public List<PersonResponse> list() {
-        return repo.findAll().stream().map(this::toResponse).collect(Collectors.toList());
+        return timed(Operation.LIST, () -> repo.findAll().stream().map(this::toResponse).collect(Collectors.toList()));
+    }
+
+    /** Todas as pessoas em ordem alfabética, convertidas sob demanda (usado na exportação). */
+    public Stream<PersonResponse> stream() {
+        return repo.streamAll().map(this::toResponse);
+    }
+
+    /** Página em ordem alfabética, a partir do cursor 'after' (null = início). */
+    public PersonPage page(String after, int limit) {
+        return timed(Operation.PAGE, () -> doPage(after, limit));
+    }
+
+    private PersonPage doPage(String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new BadRequestException("'limit' deve estar entre 1 e " + MAX_PAGE_SIZE);
+        PersonNameKey from = null;
+        if (after != null && !after.isBlank()) {
+            try {
+                from = PersonNameKey.fromCursor(after);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Parâmetro 'after' inválido");
+            }
+        }
+        // busca um item a mais para saber se existe próxima página
+        List<Person> found = repo.findPageByName(from, limit + 1);
+        boolean hasNext = found.size() > limit;
+        List<Person> items = hasNext ? found.subList(0, limit) : found;
+        String next = hasNext ? PersonNameKey.of(items.get(limit - 1)).toCursor() : null;
+        return new PersonPage(items.stream().map(this::toResponse).collect(Collectors.toList()), next);
+    }
+
+    /**
+     * Pessoas que atendem aos filtros de intervalo, na ordem do índice usado (ver
+     * {@link PersonRepository#findByFilter}); {@code limit} nulo devolve todas.
+     */
+    public List<PersonResponse> filter(PersonFilter filter, Integer limit) {
+        return timed(Operation.FILTER, () -> doFilter(filter, limit));
+    }
+
+    private List<PersonResponse> doFilter(PersonFilter filter, Integer limit) {
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE))
+            throw new BadRequestException("'limit' deve estar entre 1 e " + MAX_PAGE_SIZE);
+        if (filter.admissaoDe() != null && filter.admissaoAte() != null && filter.admissaoDe().isAfter(filter.admissaoAte()))
+            throw new BadRequestException("'admissaoDe' deve ser anterior ou igual a 'admissaoAte'");
+        if (filter.salarioMin() != null && filter.salarioMax() != null && filter.salarioMin().compareTo(filter.salarioMax()) > 0)
+            throw new BadRequestException("'salarioMin' deve ser menor ou igual a 'salarioMax'");
+        if (filter.aniversarioMes() != null && (filter.aniversarioMes() < 1 || filter.aniversarioMes() > 12))
+            throw new BadRequestException("'aniversarioMes' deve estar entre 1 e 12");
+        Stream<Person> found = repo.findByFilter(filter);
+        if (limit != null) found = found.limit(limit);
+        return found.map(this::toResponse).collect(Collectors.toList());
+    }
+
+    /** Busca por nome (prefixo, trecho ou aproximada, ignorando acentos), da mais para a menos relevante. */
+    public List<PersonResponse> search(String q, Integer limit) {
+        return timed(Operation.SEARCH, () -> doSearch(q, limit));
+    }
+
+    private List<PersonResponse> doSearch(String q, Integer limit) {
+        if (q == null || q.isBlank()) throw new BadRequestException("Parâmetro 'q' é obrigatório");
+        int max = limit == null ? DEFAULT_SEARCH_LIMIT : limit;
+        if (max < 1 || max > MAX_PAGE_SIZE)
+            throw new BadRequestException("'limit' deve estar entre 1 e " + MAX_PAGE_SIZE);
+        return repo.searchByName(q, max).stream().map(this::toResponse).collect(Collectors.toList());
+    }
+
+    /** Versão dos dados da base, para a ETag de coleção (ver {@link PersonRepository#dataVersion()}). */
+    public String dataVersion() {
+        return repo.dataVersion();
+    }
+
+    /**
+     * Leitor do feed de alterações. Sem {@code cursor} começa da alteração mais recente; com um
+     * cursor já sobrescrito ou de outra execução o leitor pede ressincronização.
+     */
+    public PersonChangeReader changes(String cursor) {
+        return new PersonChangeReader(repo.changes(), cursor, this::toResponse);
     }
 
     public PersonResponse get(Long id) {
-        Person p = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
-        return toResponse(p);
+        return timed(Operation.GET, () -> toResponse(find(id)));
     }
 
     public PersonResponse create(PersonCreateRequest r) {
-        Person p = new Person(null, r.getNome(), r.getDataNascimento(), r.getDataAdmissao(), r.getSalarioAtual());
-        return toResponse(repo.save(p));
+        return timed(Operation.CREATE, () -> {
+            Person p = repo.save(new Person(null, r.getNome(), r.getDataNascimento(), r.getDataAdmissao(), r.getSalarioAtual()));
+            lookup.written(p.getId());
+            return toResponse(p);
+        });
+    }
+
+    /**
+     * Cria pessoas em lote: valida cada item e grava os válidos em blocos de {@link #BATCH_CHUNK_SIZE},
+     * reservando os IDs de cada bloco de uma vez. O iterador é consumido sob demanda (NDJSON);
+     * se ele falhar com BadRequestException (linha malformada) o processamento para nesse item,
+     * mantendo o que já foi gravado.
+     */
+    public PersonBatchResult createBatch(Iterator<PersonCreateRequest> requests) {
+        return timed(Operation.CREATE_BATCH, () -> doCreateBatch(requests));
+    }
+
+    private PersonBatchResult doCreateBatch(Iterator<PersonCreateRequest> requests) {
+        PersonBatchResult result = new PersonBatchResult();
+        List<Person> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        List<PersonBatchItemResult> pending = new ArrayList<>(BATCH_CHUNK_SIZE);
+        int index = 0;
+        try {
+            while (requests.hasNext()) {
+                PersonCreateRequest r = requests.next();
+                Map<String, String> errors = validate(r);
+                PersonBatchItemResult item;
+                if (errors.isEmpty()) {
+                    item = PersonBatchItemResult.created(index);
+                    chunk.add(new Person(null, r.getNome(), r.getDataNascimento(), r.getDataAdmissao(), r.getSalarioAtual()));
+                    pending.add(item);
+                } else {
+                    item = PersonBatchItemResult.invalid(index, errors);
+                }
+                result.add(item);
+                if (chunk.size() == BATCH_CHUNK_SIZE) flushBatch(chunk, pending);
+                index++;
+            }
+        } catch (BadRequestException e) {
+            result.add(PersonBatchItemResult.invalid(index, Map.of("body", e.getMessage())));
+        }
+        flushBatch(chunk, pending);
+        return result;
     }
 
     public void delete(Long id) {
-        if (!repo.existsById(id)) throw new NotFoundException("Pessoa não encontrada");
-        repo.deleteById(id);
+        timed(Operation.DELETE, () -> {
+            if (!repo.existsById(id)) throw new NotFoundException("Pessoa não encontrada");
+            repo.deleteById(id);
+            lookup.written(id);
+            ages.invalidate(id);
+            return null;
+        });
     }
 
     public PersonResponse put(Long id, PersonUpdateRequest r) {
-        Person p = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
-        p.setNome(r.getNome());
-        p.setDataNascimento(r.getDataNascimento());
-        p.setDataAdmissao(r.getDataAdmissao());
-        p.setSalarioAtual(r.getSalarioAtual());
-        return toResponse(repo.save(p));
+        return put(id, r, null);
+    }
+
+    /** Substitui todos os dados; com {@code ifMatch}, só se a versão atual for essa (senão 412). */
+    public PersonResponse put(Long id, PersonUpdateRequest r, Long ifMatch) {
+        return timed(Operation.PUT, () -> update(id, ifMatch, p -> new Person(id, r.getNome(), r.getDataNascimento(), r.getDataAdmissao(), r.getSalarioAtual())));
     }
 
     public PersonResponse patch(Long id, PersonPatchRequest r) {
-        Person p = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
-        if (r.getNome() != null) p.setNome(r.getNome());
-        if (r.getDataNascimento() != null) p.setDataNascimento(r.getDataNascimento());
-        if (r.getDataAdmissao() != null) p.setDataAdmissao(r.getDataAdmissao());
-        if (r.getSalarioAtual() != null) p.setSalarioAtual(r.getSalarioAtual());
-        return toResponse(repo.save(p));
+        return patch(id, r, null);
+    }
+
+    /** Altera os campos informados; com {@code ifMatch}, só se a versão atual for essa (senão 412). */
+    public PersonResponse patch(Long id, PersonPatchRequest r, Long ifMatch) {
+        return timed(Operation.PATCH, () -> update(id, ifMatch,
+            p -> p.withChanges(r.getNome(), r.getDataNascimento(), r.getDataAdmissao(), r.getSalarioAtual())));
     }
 
     public Number idade(Long id, String output) {
-        Person p = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
-        LocalDate hoje = LocalDate.now();
-        return switch (output == null ? "" : output.toLowerCase()) {
-            case "dias" -> DateUtils.idadeEmDias(p.getDataNascimento(), hoje);
-            case "meses" -> DateUtils.idadeEmMeses(p.getDataNascimento(), hoje);
-            case "anos" -> round(DateUtils.idadeEmAnos(p.getDataNascimento(), hoje), 2);
-            default -> throw new BadRequestException("Parâmetro 'output' deve ser dias, meses ou anos");
-        };
+        return timed(Operation.IDADE, () -> {
+            Person p = find(id);
+            return ages.get(p.getId(), p.getDataNascimento().toEpochDay(), DateUtils.hojeEpochDay()).value(output == null ? null : output.toLowerCase());
+        });
     }
 
     /** Retorna o múltiplo de salários mínimos (ex.: 2.51) */
     public java.math.BigDecimal salarioMultiplo(Long id, BigDecimal salarioMinimo) {
+        return timed(Operation.SALARIO, () -> {
+            checkSalarioMinimo(salarioMinimo);
+            return find(id).getSalarioAtual().divide(salarioMinimo, 2, RoundingMode.HALF_UP);
+        });
+    }
+
+    /**
+     * Salário em vigor no dia {@code em}, do histórico mantido pelo repositório, com o múltiplo
+     * de {@code salarioMinimo}. 404 se a pessoa não existe ou ainda não tinha salário nesse dia;
+     * 400 se o dia é depois da admissão, mas antes do início do histórico conhecido (pessoas
+     * recarregadas do disco só têm histórico desde a inicialização).
+     */
+    public PersonSalaryEntry salarioEm(Long id, LocalDate em, BigDecimal salarioMinimo) {
+        return timed(Operation.SALARIO, () -> {
+            checkSalarioMinimo(salarioMinimo);
+            Person p = find(id);
+            SalaryHistory.Entry e = repo.salaryAt(id, em).orElseThrow(() -> semSalario(p, em));
+            return new PersonSalaryEntry(e.desde(), e.salario(), e.salario().divide(salarioMinimo, 2, RoundingMode.HALF_UP));
+        });
+    }
+
+    private RuntimeException semSalario(Person p, LocalDate em) {
+        LocalDate inicio = repo.salaryHistory(p.getId()).stream().findFirst().map(SalaryHistory.Entry::desde).orElse(null);
+        if (inicio != null && em.isBefore(inicio) && (p.getDataAdmissao() == null || !em.isBefore(p.getDataAdmissao()))) {
+            return new BadRequestException("Salário em " + em.format(DATE_FORMAT) + " desconhecido: o histórico da pessoa começa em "
+                + inicio.format(DATE_FORMAT));
+        }
+        return new NotFoundException("Pessoa sem salário em " + em.format(DATE_FORMAT));
+    }
+
+    /** Salários da pessoa em ordem de data; cada um vale até o dia anterior ao {@code desde} do seguinte. */
+    public List<PersonSalaryEntry> salarioHistorico(Long id) {
+        return timed(Operation.SALARIO_HISTORICO, () -> {
+            find(id);
+            return repo.salaryHistory(id).stream()
+                .map(e -> new PersonSalaryEntry(e.desde(), e.salario(), null))
+                .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Idade e múltiplo do salário mínimo de várias pessoas (ou de todas) em uma única passada
+     * paralela. As idades vêm do cache diário; a ordem segue {@code ids} ou, com {@code all},
+     * a ordem alfabética. IDs inexistentes são listados em {@code notFound}.
+     */
+    public PersonMetricsResponse metrics(List<Long> ids, boolean all, String output, BigDecimal salarioMinimo) {
+        return timed(Operation.METRICS, () -> doMetrics(ids, all, output, salarioMinimo));
+    }
+
+    private PersonMetricsResponse doMetrics(List<Long> ids, boolean all, String output, BigDecimal salarioMinimo) {
+        checkSalarioMinimo(salarioMinimo);
+        String out = output == null ? null : output.toLowerCase();
+        if (!("dias".equals(out) || "meses".equals(out) || "anos".equals(out)))
+            throw new BadRequestException("Parâmetro 'output' deve ser dias, meses ou anos");
+        if (!all && (ids == null || ids.isEmpty()))
+            throw new BadRequestException("Informe 'ids' ou 'all'");
+
+        long hoje = DateUtils.hojeEpochDay();
+        Stream<Person> people;
+        List<Long> notFound = List.of();
+        if (all) {
+            people = repo.streamAll();
+        } else {
+            List<Person> found = new ArrayList<>(ids.size());
+            List<Long> missing = new ArrayList<>();
+            for (Long id : ids) {
+                Person p = id == null ? null : repo.findById(id).orElse(null);
+                if (p == null) missing.add(id);
+                else found.add(p);
+            }
+            people = found.stream();
+            notFound = missing;
+        }
+        List<PersonMetrics> items = people.parallel()
+            .map(p -> new PersonMetrics(p.getId(),
+                ages.get(p.getId(), p.getDataNascimento().toEpochDay(), hoje).value(out),
+                p.getSalarioAtual().divide(salarioMinimo, 2, RoundingMode.HALF_UP)))
+            .collect(Collectors.toList());
+        return new PersonMetricsResponse(out, salarioMinimo, items, notFound);
+    }
+
+    /**
+     * Estatísticas da folha, lidas dos agregados que o repositório mantém a cada escrita (sem
+     * percorrer a base). As faixas usam o {@link PayrollStats#SALARIO_MINIMO salário mínimo de referência}.
+     */
+    public PersonStatsResponse stats() {
+        return timed(Operation.STATS, () -> {
+            PayrollStats s = repo.payrollStats();
+            List<PersonStatsResponse.Faixa> faixas = s.faixas().stream()
+                .map(f -> new PersonStatsResponse.Faixa(f.de(), f.ate(), f.quantidade()))
+                .collect(Collectors.toList());
+            return new PersonStatsResponse(s.pessoas(), s.folha(), s.salarioMedio(), s.quantil(0.5),
+                PayrollStats.SALARIO_MINIMO, faixas, s.admissoesPorAno());
+        });
+    }
+
+    /**
+     * Atualização otimista: aplica {@code change} a uma cópia da versão atual e grava com
+     * {@link PersonRepository#replace}, que só aceita se ninguém gravou outra versão nesse meio
+     * tempo; se alguém gravou, relê e aplica de novo sobre o valor novo (sem perder a alteração
+     * alheia). Com {@code ifMatch} a versão lida precisa ser a esperada.
+     */
+    private PersonResponse update(Long id, Long ifMatch, UnaryOperator<Person> change) {
+        for (int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+            // lida direto do repositório: uma busca compartilhada pode ser anterior à última escrita
+            Person current = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
+            if (ifMatch != null && current.getVersion() != ifMatch)
+                throw new PreconditionFailedException("If-Match não corresponde à versão atual (" + ETags.of(current.getVersion()) + ")");
+            Person next = change.apply(current);
+            next.setVersion(current.getVersion() + 1);
+            if (repo.replace(current, next)) {
+                lookup.written(id);
+                ages.invalidate(id);
+                return toResponse(next);
+            }
+        }
+        throw new ConflictException("Pessoa alterada concorrentemente; tente novamente");
+    }
+
+    private static void checkSalarioMinimo(BigDecimal salarioMinimo) {
         if (salarioMinimo == null || salarioMinimo.compareTo(BigDecimal.ZERO) <= 0)
             throw new BadRequestException("'valorMinimo' deve ser positivo");
-        Person p = repo.findById(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
-        return p.getSalarioAtual().divide(salarioMinimo, 2, RoundingMode.HALF_UP);
     }
 
-    private java.math.BigDecimal round(double v, int scale) {
-        return new java.math.BigDecimal(v).setScale(scale, RoundingMode.HALF_UP);
+    /** Executa {@code op} registrando a duração no timer da operação, mesmo quando ela lança exceção. */
+    private <T> T timed(Operation operation, Supplier<T> op) {
+        long start = System.nanoTime();
+        try {
+            return op.get();
+        } finally {
+            timers[operation.ordinal()].record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Person find(Long id) {
+        return lookup.find(id).orElseThrow(() -> new NotFoundException("Pessoa não encontrada"));
+    }
+
+    private Map<String, String> validate(PersonCreateRequest r) {
+        if (r == null) return Map.of("body", "item nulo");
+        Map<String, String> errors = new TreeMap<>();
+        for (ConstraintViolation<PersonCreateRequest> v : validator.validate(r)) {
+            errors.put(v.getPropertyPath().toString(), v.getMessage());
+        }
+        return errors;
+    }
+
+    private void flushBatch(List<Person> chunk, List<PersonBatchItemResult> pending) {
+        if (chunk.isEmpty()) return;
+        repo.saveAll(chunk);
+        for (int i = 0; i < chunk.size(); i++) {
+            pending.get(i).setId(chunk.get(i).getId());
+            lookup.written(chunk.get(i).getId());
+        }
+        chunk.clear();
+        pending.clear();
     }
 
     private PersonResponse toResponse(Person p) {
-        return new PersonResponse(p.getId(), p.getNome(), p.getDataNascimento(), p.getDataAdmissao(), p.getSalarioAtual());
+        return new PersonResponse(p.getId(), p.getNome(), p.getDataNascimento(), p.getDataAdmissao(), p.getSalarioAtual(), p.getVersion());
     }
 }
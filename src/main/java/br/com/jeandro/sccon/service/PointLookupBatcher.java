@@ -0,0 +1,81 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.model.Person;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Agrupa as buscas por ID feitas dentro de uma janela curta numa única busca de vários IDs. A
+ * primeira busca abre o lote, espera a janela (ou o lote encher) e executa a busca por todos; as
+ * que chegam nesse meio tempo entram no lote e esperam o resultado. Sem thread de timer: quem abre
+ * o lote é quem o executa.
+ */
+final class PointLookupBatcher {
+    private final Function<Collection<Long>, Map<Long, Person>> loader;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final ReentrantLock lock = new ReentrantLock();
+    /** Lote aceitando IDs; null quando não há nenhum aberto. */
+    private Batch open;
+
+    private static final class Batch {
+        final Set<Long> ids = new HashSet<>();
+        final CompletableFuture<Map<Long, Person>> result = new CompletableFuture<>();
+        final Thread leader = Thread.currentThread();
+        volatile boolean full;
+    }
+
+    PointLookupBatcher(Function<Collection<Long>, Map<Long, Person>> loader, long windowNanos, int maxBatch) {
+        this.loader = loader;
+        this.windowNanos = windowNanos;
+        this.maxBatch = maxBatch;
+    }
+
+    Optional<Person> find(long id) {
+        Batch batch;
+        boolean leader;
+        lock.lock();
+        try {
+            leader = open == null;
+            if (leader) open = new Batch();
+            batch = open;
+            batch.ids.add(id);
+            if (batch.ids.size() >= maxBatch) {
+                open = null; // fechado: os próximos abrem outro
+                batch.full = true;
+                if (!leader) LockSupport.unpark(batch.leader);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (!leader) return Optional.ofNullable(SingleFlight.join(batch.result).get(id));
+
+        long deadline = System.nanoTime() + windowNanos;
+        for (long remaining = windowNanos; remaining > 0 && !batch.full; remaining = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(this, remaining);
+        }
+        lock.lock();
+        try {
+            if (open == batch) open = null;
+        } finally {
+            lock.unlock();
+        }
+        Map<Long, Person> found;
+        try {
+            found = loader.apply(batch.ids);
+        } catch (RuntimeException | Error e) {
+            batch.result.completeExceptionally(e);
+            throw e;
+        }
+        batch.result.complete(found);
+        return Optional.ofNullable(found.get(id));
+    }
+}
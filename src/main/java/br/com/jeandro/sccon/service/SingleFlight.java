@@ -0,0 +1,49 @@
+package br.com.jeandro.sccon.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Compartilha cálculos idênticos em andamento: enquanto uma chamada para {@code key} executa, as
+ * outras com a mesma chave esperam e recebem o mesmo resultado (ou a mesma exceção) em vez de
+ * repetir o trabalho. Nada é guardado depois que a chamada termina.
+ */
+final class SingleFlight<K, V> {
+    private final ConcurrentHashMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+    V get(K key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = calls.putIfAbsent(key, mine);
+        if (running != null) return join(running);
+        try {
+            V value = loader.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            calls.remove(key, mine);
+        }
+    }
+
+    /**
+     * Chamadas feitas daqui em diante não se juntam à que está em andamento para {@code key}, que
+     * pode ter lido um valor anterior a uma escrita recém-concluída.
+     */
+    void forget(K key) {
+        calls.remove(key);
+    }
+
+    static <V> V join(CompletableFuture<V> f) {
+        try {
+            return f.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException r) throw r;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
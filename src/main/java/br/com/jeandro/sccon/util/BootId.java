@@ -0,0 +1,11 @@
+package br.com.jeandro.sccon.util;
+
+/**
+ * Identifica esta execução da aplicação. Contadores que recomeçam a cada inicialização (ETag de
+ * coleção, cursor do feed de alterações) levam esse prefixo para não coincidirem entre execuções.
+ */
+public final class BootId {
+    public static final String VALUE = Long.toString(System.currentTimeMillis(), 36);
+
+    private BootId() {}
+}
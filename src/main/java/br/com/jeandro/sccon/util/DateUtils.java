@@ -2,18 +2,165 @@ package br.com.jeandro.sccon.util;
 
 import java.time.*;
 
+/**
+ * Cálculos de idade. As versões com {@code long} trabalham com epoch-day e datas empacotadas em
+ * {@code int} (ano, mês e dia), sem alocar objetos, e reproduzem exatamente a semântica de
+ * {@link Period#between} e {@link Duration#between} usada pelas versões com {@link LocalDate}.
+ */
 public final class DateUtils {
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final long DAYS_PER_CYCLE = 146_097L;
+
+    /** Dia corrente no fuso padrão, recalculado só quando o relógio sai do intervalo. */
+    private record Hoje(long epochDay, long deMillis, long ateMillis) {}
+
+    private static volatile Hoje hoje = new Hoje(0, Long.MAX_VALUE, Long.MIN_VALUE);
+
     private DateUtils() {}
 
     public static long idadeEmDias(LocalDate nascimento, LocalDate hoje) {
-        return Duration.between(nascimento.atStartOfDay(), hoje.atStartOfDay()).toDays();
+        return idadeEmDias(nascimento.toEpochDay(), hoje.toEpochDay());
     }
     public static long idadeEmMeses(LocalDate nascimento, LocalDate hoje) {
-        Period p = Period.between(nascimento, hoje);
-        return p.toTotalMonths();
+        return idadeEmMeses(nascimento.toEpochDay(), hoje.toEpochDay());
     }
     public static double idadeEmAnos(LocalDate nascimento, LocalDate hoje) {
         Period p = Period.between(nascimento, hoje);
         return p.getYears() + p.getMonths()/12.0 + p.getDays()/365.2425;
     }
+
+    /** Dias entre as datas (epoch-day). */
+    public static long idadeEmDias(long nascimento, long hoje) {
+        return hoje - nascimento;
+    }
+
+    /** Meses completos entre as datas (epoch-day), como {@code Period.between(..).toTotalMonths()}. */
+    public static long idadeEmMeses(long nascimento, long hoje) {
+        int inicio = fromEpochDay(nascimento);
+        int fim = fromEpochDay(hoje);
+        long meses = totalMonths(inicio, fim);
+        int dias = day(fim) - day(inicio);
+        if (meses > 0 && dias < 0) meses--;
+        else if (meses < 0 && dias > 0) meses++;
+        return meses;
+    }
+
+    /**
+     * Idade em anos com duas casas decimais, em centésimos ({@code 2575} = 25,75). Mesmo valor de
+     * {@code new BigDecimal(idadeEmAnos(..)).setScale(2, HALF_UP)}, sem passar por BigDecimal.
+     */
+    public static long idadeEmAnosCentesimos(long nascimento, long hoje) {
+        int inicio = fromEpochDay(nascimento);
+        int fim = fromEpochDay(hoje);
+        long meses = totalMonths(inicio, fim);
+        long dias = day(fim) - day(inicio);
+        if (meses > 0 && dias < 0) {
+            meses--;
+            dias = hoje - plusMonths(inicio, meses);
+        } else if (meses < 0 && dias > 0) {
+            meses++;
+            dias -= lengthOfMonth(year(fim), month(fim));
+        }
+        // mesma expressão (e ordem de operações) de idadeEmAnos
+        double anos = (int) (meses / 12) + (int) (meses % 12)/12.0 + (int) dias/365.2425;
+        return centesimosHalfUp(anos);
+    }
+
+    /** Epoch-day de hoje no fuso padrão da JVM. */
+    public static long hojeEpochDay() {
+        Hoje h = hoje;
+        long agora = System.currentTimeMillis();
+        if (agora >= h.deMillis() && agora < h.ateMillis()) return h.epochDay();
+        ZoneId zone = ZoneId.systemDefault();
+        LocalDate dia = Instant.ofEpochMilli(agora).atZone(zone).toLocalDate();
+        long de = dia.atStartOfDay(zone).toInstant().toEpochMilli();
+        long ate = dia.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        hoje = new Hoje(dia.toEpochDay(), de, ate);
+        return dia.toEpochDay();
+    }
+
+    /** Data empacotada: {@code ano << 9 | mês << 5 | dia}. Válida para |ano| < 4.000.000. */
+    public static int pack(int year, int month, int day) {
+        return year << 9 | month << 5 | day;
+    }
+    public static int year(int packed) { return packed >> 9; }
+    public static int month(int packed) { return (packed >> 5) & 0xF; }
+    public static int day(int packed) { return packed & 0x1F; }
+
+    /** Converte epoch-day em data empacotada (mesmo algoritmo de {@link LocalDate#ofEpochDay}). */
+    public static int fromEpochDay(long epochDay) {
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60; // dias a partir de 0000-03-01
+        long adjust = 0;
+        if (zeroDay < 0) {
+            long adjustCycles = (zeroDay + 1) / DAYS_PER_CYCLE - 1;
+            adjust = adjustCycles * 400;
+            zeroDay += -adjustCycles * DAYS_PER_CYCLE;
+        }
+        long yearEst = (400 * zeroDay + 591) / DAYS_PER_CYCLE;
+        long doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        if (doyEst < 0) {
+            yearEst--;
+            doyEst = zeroDay - (365 * yearEst + yearEst / 4 - yearEst / 100 + yearEst / 400);
+        }
+        yearEst += adjust;
+        int marchDoy0 = (int) doyEst;
+        int marchMonth0 = (marchDoy0 * 5 + 2) / 153;
+        int month = (marchMonth0 + 2) % 12 + 1;
+        int dom = marchDoy0 - (marchMonth0 * 306 + 5) / 10 + 1;
+        yearEst += marchMonth0 / 10;
+        return pack((int) yearEst, month, dom);
+    }
+
+    /** Converte data empacotada em epoch-day (mesmo algoritmo de {@link LocalDate#toEpochDay}). */
+    public static long toEpochDay(int packed) {
+        long y = year(packed);
+        long m = month(packed);
+        long total = 365 * y;
+        if (y >= 0) total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        else total -= y / -4 - y / -100 + y / -400;
+        total += (367 * m - 362) / 12;
+        total += day(packed) - 1;
+        if (m > 2) {
+            total--;
+            if (!isLeapYear(y)) total--;
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    public static boolean isLeapYear(long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    public static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static long totalMonths(int inicio, int fim) {
+        return (year(fim) * 12L + month(fim)) - (year(inicio) * 12L + month(inicio));
+    }
+
+    /** Epoch-day de {@code data + meses}, limitando o dia ao fim do mês como {@link LocalDate#plusMonths}. */
+    private static long plusMonths(int data, long meses) {
+        long monthCount = year(data) * 12L + (month(data) - 1) + meses;
+        int y = (int) Math.floorDiv(monthCount, 12);
+        int m = Math.floorMod(monthCount, 12) + 1;
+        return toEpochDay(pack(y, m, Math.min(day(data), lengthOfMonth(y, m))));
+    }
+
+    /**
+     * Arredonda HALF_UP para centésimos considerando o valor binário exato do double, como
+     * {@code new BigDecimal(v).setScale(2, HALF_UP)}. O fma decide os casos em que v * 100
+     * arredondado ficaria do outro lado da fronteira ,5.
+     */
+    private static long centesimosHalfUp(double v) {
+        if (v < 0) return -centesimosHalfUp(-v);
+        long c = (long) Math.floor(v * 100 + 0.5);
+        if (Math.fma(v, 100, -(c - 0.5)) < 0) c--;
+        else if (Math.fma(v, 100, -(c + 0.5)) >= 0) c++;
+        return c;
+    }
 }
@@ -0,0 +1,56 @@
+package br.com.jeandro.sccon.util;
+
+import br.com.jeandro.sccon.exception.BadRequestException;
+
+/**
+ * ETags fortes: da pessoa, derivada da versão ({@code "7"}), e de coleções, derivada da versão
+ * dos dados do repositório ({@code "lx3k9q-42"}, ver {@link BootId}). Leitura dos headers
+ * If-Match e If-None-Match.
+ */
+public final class ETags {
+    /** Versão que nenhuma pessoa tem: resultado de uma ETag fraca ou desconhecida no If-Match. */
+    public static final long NO_MATCH = -1;
+
+    private ETags() {}
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String ofCollection(String dataVersion) {
+        return "\"" + dataVersion + "\"";
+    }
+
+    /**
+     * Se o If-None-Match lista {@code etag} (ou é {@code *}), ou seja, se a cópia do cliente está
+     * atualizada e cabe um 304. Usa comparação fraca: {@code W/"7"} corresponde a {@code "7"}.
+     */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Versão exigida pelo If-Match, ou null quando o header está ausente ou é {@code *}. ETags
+     * fracas ({@code W/"7"}) nunca correspondem, pois o If-Match usa comparação forte.
+     */
+    public static Long ifMatch(String header) {
+        if (header == null || header.isBlank()) return null;
+        String tag = header.trim();
+        if (tag.equals("*")) return null;
+        if (tag.indexOf(',') >= 0) throw new BadRequestException("If-Match deve conter uma única ETag");
+        if (tag.startsWith("W/")) return NO_MATCH;
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"')
+            throw new BadRequestException("If-Match inválido: use a ETag entre aspas, ex.: \"3\"");
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return NO_MATCH;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.jeandro.sccon.util;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/** Negociação entre JSON e CBOR feita à mão, comum ao MVC e ao WebFlux. */
+public final class MediaTypes {
+
+    private MediaTypes() {}
+
+    /**
+     * Se o Accept pede CBOR com mais peso que JSON; com o mesmo peso vale o tipo mais específico
+     * ({@code application/cbor} ganha de {@code *}{@code /*}). Sem CBOR no header, JSON.
+     */
+    public static boolean prefersCbor(String accept) {
+        if (accept == null || !accept.contains("cbor")) return false;
+        MediaType best = null;
+        try {
+            for (MediaType t : MediaType.parseMediaTypes(accept)) {
+                if (!t.isCompatibleWith(MediaType.APPLICATION_JSON) && !t.isCompatibleWith(MediaType.APPLICATION_CBOR)) continue;
+                if (best == null || t.getQualityValue() > best.getQualityValue()
+                    || (t.getQualityValue() == best.getQualityValue() && best.isWildcardSubtype() && !t.isWildcardSubtype())) {
+                    best = t;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        return best != null && !best.isWildcardSubtype() && best.isCompatibleWith(MediaType.APPLICATION_CBOR);
+    }
+}
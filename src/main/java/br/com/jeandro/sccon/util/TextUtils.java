@@ -0,0 +1,18 @@
+package br.com.jeandro.sccon.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class TextUtils {
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+
+    private TextUtils() {}
+
+    /** Remove acentos e converte para minúsculas (ex.: "João" -> "joao"). */
+    public static String fold(String s) {
+        if (s == null) return "";
+        String semAcento = MARCAS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return semAcento.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,200 @@
+package br.com.jeandro.sccon.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.embedded.netty.NettyWebServer;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.FluxExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Uma requisição por rota do {@link PersonRouter}, no Netty e com os dados de exemplo. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "spring.main.web-application-type=reactive")
+@DisplayName("PersonRouter - Rotas reativas")
+class PersonRouterTest {
+
+    private static final String NOVA = """
+        {"nome":"Carla Dias","dataNascimento":"10/02/1995","dataAdmissao":"01/03/2021","salarioAtual":2800.00}""";
+
+    @Autowired
+    private WebTestClient client;
+
+    @Autowired
+    private ReactiveWebServerApplicationContext context;
+
+    @Test
+    @DisplayName("Deve subir no Netty")
+    void runsOnNetty() {
+        assertInstanceOf(NettyWebServer.class, context.getWebServer());
+    }
+
+    @Test
+    @DisplayName("GET /persons -> lista, página com cursor e filtro em JSON")
+    void list() {
+        client.get().uri("/persons").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$[0].nome").isNotEmpty();
+        client.get().uri("/persons?limit=1").exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists("X-Next-Cursor")
+            .expectBody().jsonPath("$.length()").isEqualTo(1);
+        client.get().uri("/persons?salarioMin=3000").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$[0].nome").isEqualTo("Maria Silva");
+    }
+
+    @Test
+    @DisplayName("GET /persons/export -> NDJSON")
+    void export() {
+        String body = client.get().uri("/persons/export").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class).returnResult().getResponseBody();
+        assertNotNull(body);
+        assertTrue(body.lines().count() >= 3, body);
+    }
+
+    @Test
+    @DisplayName("GET /persons/changes -> RESYNC para cursor desconhecido e, a partir dele, a alteração em SSE e NDJSON")
+    void changes() {
+        // Given: o cursor atual, vindo do RESYNC (a resposta só começa com o primeiro evento)
+        String resync = client.get().uri("/persons/changes?after=outro-boot-1").accept(MediaType.APPLICATION_NDJSON).exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .expectBody(String.class).returnResult().getResponseBody();
+        assertEquals("RESYNC", JsonPath.read(resync, "$.type"));
+        String cursor = JsonPath.read(resync, "$.cursor");
+
+        // When
+        client.post().uri("/persons").contentType(MediaType.APPLICATION_JSON).bodyValue(NOVA).exchange()
+            .expectStatus().isCreated();
+
+        // Then
+        FluxExchangeResult<String> sse = client.get().uri("/persons/changes?after={c}", cursor).exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+            .returnResult(String.class);
+        assertTrue(sse.getResponseBody().blockFirst(Duration.ofSeconds(5)).contains("Carla Dias"));
+        FluxExchangeResult<String> ndjson = client.get().uri("/persons/changes?after={c}", cursor)
+            .accept(MediaType.APPLICATION_NDJSON).exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(String.class);
+        assertTrue(ndjson.getResponseBody().blockFirst(Duration.ofSeconds(5)).contains("Carla Dias"));
+    }
+
+    @Test
+    @DisplayName("GET /persons/search e /persons/stats")
+    void searchAndStats() {
+        client.get().uri("/persons/search?q=silva").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$[0].nome").isEqualTo("Maria Silva");
+        client.get().uri("/persons/stats").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$.pessoas").exists();
+    }
+
+    @Test
+    @DisplayName("GET /persons/{id} -> JSON com ETag, 304 com If-None-Match e CBOR quando pedido")
+    void get() throws IOException {
+        String etag = client.get().uri("/persons/1").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$.id").isEqualTo(1)
+            .returnResult().getResponseHeaders().getETag();
+        client.get().uri("/persons/1").header(HttpHeaders.IF_NONE_MATCH, etag).exchange()
+            .expectStatus().isNotModified();
+
+        byte[] cbor = client.get().uri("/persons/1").accept(MediaType.APPLICATION_CBOR).exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class).returnResult().getResponseBody();
+        assertEquals(1, new ObjectMapper(new CBORFactory()).readValue(cbor, Map.class).get("id"));
+    }
+
+    @Test
+    @DisplayName("GET /persons/{id}/idade, /salario e /salario/historico")
+    void calculations() {
+        client.get().uri("/persons/1/idade?output=anos").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.output").isEqualTo("anos");
+        client.get().uri("/persons/1/salario?valorMinimo=1000").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.id").isEqualTo(1);
+        client.get().uri("/persons/1/salario/historico").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$[0]").exists();
+    }
+
+    @Test
+    @DisplayName("POST /persons, /persons/batch e /persons/metrics")
+    void posts() {
+        client.post().uri("/persons").contentType(MediaType.APPLICATION_JSON).bodyValue(NOVA).exchange()
+            .expectStatus().isCreated()
+            .expectHeader().exists(HttpHeaders.ETAG)
+            .expectBody().jsonPath("$.nome").isEqualTo("Carla Dias");
+        client.post().uri("/persons/batch").contentType(MediaType.APPLICATION_JSON).bodyValue("[" + NOVA + ",{}]").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.created").isEqualTo(1).jsonPath("$.rejected").isEqualTo(1);
+        client.post().uri("/persons/metrics").contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"ids\":[1,2],\"output\":\"anos\"}").exchange()
+            .expectStatus().isOk()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("PUT, PATCH e DELETE /persons/{id}")
+    void writes() {
+        Number id = JsonPath.read(client.post().uri("/persons").contentType(MediaType.APPLICATION_JSON).bodyValue(NOVA).exchange()
+            .expectStatus().isCreated()
+            .expectBody(String.class).returnResult().getResponseBody(), "$.id");
+
+        client.put().uri("/persons/{id}", id).contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(NOVA.replace("Carla Dias", "Carla Dias Neto")).exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.nome").isEqualTo("Carla Dias Neto");
+        client.patch().uri("/persons/{id}", id).contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"salarioAtual\":3000.00}").exchange()
+            .expectStatus().isOk()
+            .expectBody().jsonPath("$.salarioAtual").isEqualTo(3000.0);
+        client.delete().uri("/persons/{id}", id).exchange()
+            .expectStatus().isNoContent();
+        client.get().uri("/persons/{id}", id).exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    @DisplayName("Erros -> mesmo corpo do GlobalExceptionHandler, em JSON")
+    void errors() {
+        client.get().uri("/persons/999999").exchange()
+            .expectStatus().isNotFound()
+            .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_JSON)
+            .expectBody().jsonPath("$.status").isEqualTo(404).jsonPath("$.message").isNotEmpty();
+        client.get().uri("/persons/abc").exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.message").isEqualTo("ID inválido");
+        client.post().uri("/persons").contentType(MediaType.APPLICATION_JSON).bodyValue("{}").exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.errors.nome").exists();
+        client.patch().uri("/persons/1").contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"salarioAtual\": 1000000000.01}").exchange()
+            .expectStatus().isBadRequest()
+            .expectBody().jsonPath("$.errors.salarioAtual").exists();
+    }
+}
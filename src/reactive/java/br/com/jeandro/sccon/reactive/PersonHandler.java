@@ -0,0 +1,318 @@
+package br.com.jeandro.sccon.reactive;
+
+import br.com.jeandro.sccon.dto.*;
+import br.com.jeandro.sccon.exception.BadRequestException;
+import br.com.jeandro.sccon.exception.ConflictException;
+import br.com.jeandro.sccon.exception.GlobalExceptionHandler;
+import br.com.jeandro.sccon.exception.NotFoundException;
+import br.com.jeandro.sccon.exception.OverloadedException;
+import br.com.jeandro.sccon.exception.PreconditionFailedException;
+import br.com.jeandro.sccon.repository.PersonFilter;
+import br.com.jeandro.sccon.repository.ReplicaStaleException;
+import br.com.jeandro.sccon.repository.ShardUnavailableException;
+import br.com.jeandro.sccon.repository.WriteBehindFullException;
+import br.com.jeandro.sccon.util.ETags;
+import br.com.jeandro.sccon.util.MediaTypes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Handlers das rotas reativas, com as mesmas respostas e códigos de erro do
+ * {@code PersonController} (inclusive o corpo {@code {status, message}} / {@code {status, errors}}).
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonHandler {
+
+    private static final BigDecimal DEFAULT_SALARIO_MINIMO = new BigDecimal("1320.00");
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final Duration CHANGES_KEEP_ALIVE = Duration.ofSeconds(15);
+    private static final Duration CHANGES_MAX_DURATION = Duration.ofMinutes(5);
+
+    private final ReactivePersonService service;
+    private final Validator validator;
+    private final MeterRegistry registry;
+
+    public PersonHandler(ReactivePersonService service, Validator validator, MeterRegistry registry) {
+        this.service = service;
+        this.validator = validator;
+        this.registry = registry;
+    }
+
+    /**
+     * Sem parâmetros devolve a base inteira em streaming; com limit/after, uma página; com
+     * filtros de intervalo, as pessoas que os atendem. Com If-None-Match igual à ETag da base, 304.
+     */
+    public Mono<ServerResponse> list(ServerRequest req) {
+        String limit = req.queryParam("limit").orElse(null);
+        String after = req.queryParam("after").orElse(null);
+        PersonFilter filter = new PersonFilter(
+            req.queryParam("admissaoDe").map(v -> parseDate(v, "admissaoDe")).orElse(null),
+            req.queryParam("admissaoAte").map(v -> parseDate(v, "admissaoAte")).orElse(null),
+            req.queryParam("salarioMin").map(v -> parseDecimal(v, "salarioMin")).orElse(null),
+            req.queryParam("salarioMax").map(v -> parseDecimal(v, "salarioMax")).orElse(null),
+            req.queryParam("aniversarioMes").map(v -> parseInt(v, "aniversarioMes")).orElse(null));
+        if (!filter.isEmpty() && after != null) {
+            return Mono.error(new BadRequestException("'after' não pode ser combinado com filtros."));
+        }
+        Integer max = limit == null ? null : parseInt(limit, "limit");
+        // lida antes da consulta: uma escrita concorrente deixa a ETag velha, nunca os dados
+        return service.dataVersion().flatMap(version -> {
+            String etag = ETags.ofCollection(version);
+            if (ETags.notModified(ifNoneMatch(req), etag)) return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            if (!filter.isEmpty()) {
+                return service.filter(filter, max).flatMap(items -> ok(req).eTag(etag).bodyValue(items));
+            }
+            if (max == null && after == null) {
+                return ServerResponse.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(service.list(), PersonResponse.class);
+            }
+            return service.page(after, max == null ? DEFAULT_PAGE_SIZE : max)
+                .flatMap(page -> {
+                    ServerResponse.BodyBuilder ok = ok(req).eTag(etag);
+                    if (page.getNextCursor() != null) ok.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                    return ok.bodyValue(page.getItems());
+                });
+        });
+    }
+
+    public Mono<ServerResponse> export(ServerRequest req) {
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(service.list(), PersonResponse.class);
+    }
+
+    /** Feed de alterações em SSE (padrão) ou NDJSON, como no {@code PersonController}. */
+    public Mono<ServerResponse> changes(ServerRequest req) {
+        List<String> lastEventId = req.headers().header("Last-Event-ID");
+        String cursor = lastEventId.isEmpty() ? req.queryParam("after").orElse(null) : lastEventId.get(0);
+        Flux<List<PersonChange>> batches = service.changes(cursor, CHANGES_KEEP_ALIVE, CHANGES_MAX_DURATION);
+        boolean ndjson = req.headers().header("Accept").stream().anyMatch(a -> a.contains(MediaType.APPLICATION_NDJSON_VALUE));
+        if (ndjson) {
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(batches.concatMapIterable(batch -> batch), PersonChange.class);
+        }
+        Flux<ServerSentEvent<PersonChange>> events = batches.concatMap(batch -> batch.isEmpty()
+            ? Flux.just(ServerSentEvent.<PersonChange>builder().comment("keep-alive").build())
+            : Flux.fromIterable(batch).map(PersonHandler::event));
+        return ServerResponse.ok().contentType(MediaType.TEXT_EVENT_STREAM)
+            .body(BodyInserters.fromServerSentEvents(events));
+    }
+
+    private static ServerSentEvent<PersonChange> event(PersonChange c) {
+        // o RESYNC vai sem id, como no PersonChangeWriter
+        if (c.getId() == null) return ServerSentEvent.builder(c).event("resync").build();
+        return ServerSentEvent.builder(c).id(c.getCursor()).build();
+    }
+
+    public Mono<ServerResponse> search(ServerRequest req) {
+        Integer limit = req.queryParam("limit").map(v -> parseInt(v, "limit")).orElse(null);
+        return service.search(req.queryParam("q").orElse(null), limit)
+            .flatMap(items -> ok(req).bodyValue(items));
+    }
+
+    public Mono<ServerResponse> stats(ServerRequest req) {
+        return service.stats().flatMap(s -> ok(req).bodyValue(s));
+    }
+
+    public Mono<ServerResponse> get(ServerRequest req) {
+        String ifNoneMatch = ifNoneMatch(req);
+        return service.get(id(req)).flatMap(p -> {
+            String etag = ETags.of(p.getVersion());
+            if (ETags.notModified(ifNoneMatch, etag)) return ServerResponse.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            return ok(req).eTag(etag).bodyValue(p);
+        });
+    }
+
+    public Mono<ServerResponse> create(ServerRequest req) {
+        return req.bodyToMono(PersonCreateRequest.class)
+            .flatMap(body -> validated(req, body, r -> service.create(r)
+                .flatMap(p -> status(req, HttpStatus.CREATED).eTag(ETags.of(p.getVersion())).bodyValue(p))));
+    }
+
+    /** Aceita array JSON ou NDJSON; os itens são decodificados e gravados conforme chegam. */
+    public Mono<ServerResponse> createBatch(ServerRequest req) {
+        return service.createBatch(req.bodyToFlux(PersonCreateRequest.class)
+                .onErrorMap(ServerWebInputException.class, e -> new BadRequestException("Lote inválido: " + e.getReason())))
+            .flatMap(result -> ok(req).bodyValue(result));
+    }
+
+    public Mono<ServerResponse> metrics(ServerRequest req) {
+        return req.bodyToMono(PersonMetricsRequest.class)
+            .flatMap(r -> service.metrics(r.getIds(), r.isAll(), normalizeOutput(r.getOutput()),
+                r.getValorMinimo() == null ? DEFAULT_SALARIO_MINIMO : r.getValorMinimo()))
+            .flatMap(m -> ok(req).bodyValue(m));
+    }
+
+    public Mono<ServerResponse> delete(ServerRequest req) {
+        return service.delete(id(req)).then(ServerResponse.noContent().build());
+    }
+
+    public Mono<ServerResponse> put(ServerRequest req) {
+        Long id = id(req);
+        Long ifMatch = ifMatch(req);
+        return req.bodyToMono(PersonUpdateRequest.class)
+            .flatMap(body -> validated(req, body, r -> service.put(id, r, ifMatch)
+                .flatMap(p -> ok(req).eTag(ETags.of(p.getVersion())).bodyValue(p))));
+    }
+
+    public Mono<ServerResponse> patch(ServerRequest req) {
+        Long id = id(req);
+        Long ifMatch = ifMatch(req);
+        return req.bodyToMono(PersonPatchRequest.class)
+            .flatMap(body -> validated(req, body, r -> service.patch(id, r, ifMatch)
+                .flatMap(p -> ok(req).eTag(ETags.of(p.getVersion())).bodyValue(p))));
+    }
+
+    public Mono<ServerResponse> idade(ServerRequest req) {
+        Long id = id(req);
+        String output = normalizeOutput(req.queryParam("output").orElse(null));
+        if (!("dias".equals(output) || "meses".equals(output) || "anos".equals(output))) {
+            return Mono.error(new BadRequestException("Parâmetro 'output' inválido. Use: dias | meses | anos."));
+        }
+        return service.idade(id, output)
+            .flatMap(valor -> ok(req).bodyValue(new PersonIdadeResponse(id, output, valor)));
+    }
+
+    public Mono<ServerResponse> salario(ServerRequest req) {
+        Long id = id(req);
+        BigDecimal minimo = req.queryParam("valorMinimo").map(v -> parseDecimal(v, "valorMinimo")).orElse(DEFAULT_SALARIO_MINIMO);
+        LocalDate em = req.queryParam("em").map(v -> parseDate(v, "em")).orElse(null);
+        if (em != null) {
+            return service.salarioEm(id, em, minimo)
+                .flatMap(e -> ok(req).bodyValue(PersonSalarioResponse.em(id, em, e, minimo)));
+        }
+        return service.salarioMultiplo(id, minimo)
+            .flatMap(multiplo -> ok(req).bodyValue(PersonSalarioResponse.atual(id, multiplo, minimo)));
+    }
+
+    public Mono<ServerResponse> salarioHistorico(ServerRequest req) {
+        return service.salarioHistorico(id(req)).flatMap(h -> ok(req).bodyValue(h));
+    }
+
+    /** Mesmo corpo do GlobalExceptionHandler. */
+    Mono<ServerResponse> error(Throwable e, ServerRequest req) {
+        HttpStatus status;
+        if (e instanceof NotFoundException) status = HttpStatus.NOT_FOUND;
+        else if (e instanceof ConflictException) status = HttpStatus.CONFLICT;
+        else if (e instanceof PreconditionFailedException) status = HttpStatus.PRECONDITION_FAILED;
+        else if (e instanceof ShardUnavailableException || e instanceof ReplicaStaleException
+            || e instanceof WriteBehindFullException || e instanceof OverloadedException) status = HttpStatus.SERVICE_UNAVAILABLE;
+        else status = HttpStatus.BAD_REQUEST;
+        count(e.getClass().getSimpleName(), status);
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", status.value());
+        body.put("message", e.getMessage());
+        if (e instanceof OverloadedException o) {
+            return status(req, status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(o.getRetryAfterSeconds()))
+                .bodyValue(body);
+        }
+        return status(req, status).bodyValue(body);
+    }
+
+    private <T> Mono<ServerResponse> validated(ServerRequest req, T body, java.util.function.Function<T, Mono<ServerResponse>> next) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (violations.isEmpty()) return next.apply(body);
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<T> v : violations) errors.put(v.getPropertyPath().toString(), v.getMessage());
+        count(GlobalExceptionHandler.VALIDATION_ERROR, HttpStatus.BAD_REQUEST);
+        Map<String, Object> error = new HashMap<>();
+        error.put("status", HttpStatus.BAD_REQUEST.value());
+        error.put("errors", errors);
+        return status(req, HttpStatus.BAD_REQUEST).bodyValue(error);
+    }
+
+    private static ServerResponse.BodyBuilder ok(ServerRequest req) {
+        return status(req, HttpStatus.OK);
+    }
+
+    /**
+     * Rotas funcionais não negociam o tipo pelo Accept: sem Content-Type explícito o corpo iria para
+     * o primeiro codec que o aceitasse. CBOR só quando o Accept o prefere, como no MVC.
+     */
+    private static ServerResponse.BodyBuilder status(ServerRequest req, HttpStatus status) {
+        List<String> accept = req.headers().header(HttpHeaders.ACCEPT);
+        boolean cbor = MediaTypes.prefersCbor(accept.isEmpty() ? null : String.join(",", accept));
+        return ServerResponse.status(status).contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON);
+    }
+
+    /** Mesmo contador do GlobalExceptionHandler. */
+    private void count(String type, HttpStatus status) {
+        Counter.builder(GlobalExceptionHandler.ERROR_COUNTER)
+            .tag("type", type)
+            .tag("status", String.valueOf(status.value()))
+            .register(registry)
+            .increment();
+    }
+
+    private static Long id(ServerRequest req) {
+        try {
+            return Long.valueOf(req.pathVariable("id"));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("ID inválido");
+        }
+    }
+
+    private static Long ifMatch(ServerRequest req) {
+        List<String> values = req.headers().header("If-Match");
+        return ETags.ifMatch(values.isEmpty() ? null : String.join(",", values));
+    }
+
+    private static String ifNoneMatch(ServerRequest req) {
+        List<String> values = req.headers().header("If-None-Match");
+        return values.isEmpty() ? null : String.join(",", values);
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Parâmetro '" + name + "' inválido");
+        }
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value, DATE_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Parâmetro '" + name + "' inválido (use dd/MM/yyyy)");
+        }
+    }
+
+    private static BigDecimal parseDecimal(String value, String name) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Parâmetro '" + name + "' inválido");
+        }
+    }
+
+    private static String normalizeOutput(String output) {
+        return output == null ? "" : output.trim().toLowerCase(Locale.ROOT);
+    }
+}
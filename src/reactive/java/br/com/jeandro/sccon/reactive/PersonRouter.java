@@ -0,0 +1,136 @@
+package br.com.jeandro.sccon.reactive;
+
+import br.com.jeandro.sccon.exception.BadRequestException;
+import br.com.jeandro.sccon.exception.ConflictException;
+import br.com.jeandro.sccon.exception.NotFoundException;
+import br.com.jeandro.sccon.exception.OverloadedException;
+import br.com.jeandro.sccon.exception.PreconditionFailedException;
+import br.com.jeandro.sccon.repository.ReplicaStaleException;
+import br.com.jeandro.sccon.repository.ShardUnavailableException;
+import br.com.jeandro.sccon.repository.WriteBehindFullException;
+import br.com.jeandro.sccon.service.ConcurrencyLimits;
+import br.com.jeandro.sccon.service.ConcurrencyLimits.Cost;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.util.MimeType;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/** Rotas de /persons no WebFlux, equivalentes às do {@code PersonController}. */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class PersonRouter {
+
+    /**
+     * Netty em vez do Tomcat: o starter-web continua no classpath com o perfil reactive e a
+     * configuração automática do Boot escolheria o Tomcat (servlet adaptado) por vir antes.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /** CBOR ({@code application/cbor}) com o mesmo ObjectMapper do conversor do {@code JacksonConfig}. */
+    @Bean
+    public CodecCustomizer cborCodecs(MappingJackson2CborHttpMessageConverter cbor) {
+        return configurer -> {
+            // o tipo vai explícito: sem ele os codecs Jackson assumem application/json
+            configurer.customCodecs().register(new Jackson2CborDecoder(cbor.getObjectMapper(), MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().register(new CborEncoder(cbor.getObjectMapper()));
+        };
+    }
+
+    /**
+     * O {@link Jackson2CborEncoder} só codifica valores avulsos e lança exceção em {@code encode},
+     * que é o caminho das respostas do WebFlux. Aqui o Mono vira um valor e o Flux, um array. Como os
+     * codecs customizados vêm antes dos padrão, só aceita CBOR pedido explicitamente; com o
+     * Content-Type em aberto a vez é do JSON.
+     */
+    static class CborEncoder extends Jackson2CborEncoder {
+
+        CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public boolean canEncode(ResolvableType elementType, MimeType mimeType) {
+            return mimeType != null && !mimeType.isWildcardType() && !mimeType.isWildcardSubtype()
+                && super.canEncode(elementType, mimeType);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> input, DataBufferFactory factory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+            if (input instanceof Mono<?> mono) {
+                return mono.map(value -> encodeValue(value, factory, elementType, mimeType, hints)).flux();
+            }
+            return Flux.from(input).collectList()
+                .map(values -> encodeValue(values, factory, ResolvableType.forClassWithGenerics(List.class, elementType), mimeType, hints))
+                .flux();
+        }
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> personRoutes(PersonHandler h, ObjectProvider<ConcurrencyLimits> concurrencyLimits) {
+        ConcurrencyLimits l = concurrencyLimits.getIfAvailable();
+        return RouterFunctions.route()
+            .GET("/persons", limited(l, Cost.EXPENSIVE, h::list))
+            .GET("/persons/export", h::export)
+            .GET("/persons/changes", h::changes)
+            .GET("/persons/search", limited(l, Cost.EXPENSIVE, h::search))
+            .GET("/persons/stats", limited(l, Cost.CHEAP, h::stats))
+            .GET("/persons/{id}", limited(l, Cost.CHEAP, h::get))
+            .GET("/persons/{id}/idade", limited(l, Cost.CHEAP, h::idade))
+            .GET("/persons/{id}/salario", limited(l, Cost.CHEAP, h::salario))
+            .GET("/persons/{id}/salario/historico", limited(l, Cost.CHEAP, h::salarioHistorico))
+            .POST("/persons/batch", limited(l, Cost.EXPENSIVE, h::createBatch))
+            .POST("/persons/metrics", limited(l, Cost.EXPENSIVE, h::metrics))
+            .POST("/persons", limited(l, Cost.EXPENSIVE, h::create))
+            .PUT("/persons/{id}", limited(l, Cost.EXPENSIVE, h::put))
+            .PATCH("/persons/{id}", limited(l, Cost.EXPENSIVE, h::patch))
+            .DELETE("/persons/{id}", limited(l, Cost.EXPENSIVE, h::delete))
+            // primeiro filtro (o mais interno): exceções lançadas direto pelo handler viram Mono.error
+            .filter((req, next) -> Mono.defer(() -> next.handle(req)))
+            .onError(NotFoundException.class, (e, req) -> h.error(e, req))
+            .onError(BadRequestException.class, (e, req) -> h.error(e, req))
+            .onError(ConflictException.class, (e, req) -> h.error(e, req))
+            .onError(PreconditionFailedException.class, (e, req) -> h.error(e, req))
+            .onError(ShardUnavailableException.class, (e, req) -> h.error(e, req))
+            .onError(ReplicaStaleException.class, (e, req) -> h.error(e, req))
+            .onError(WriteBehindFullException.class, (e, req) -> h.error(e, req))
+            .onError(OverloadedException.class, (e, req) -> h.error(e, req))
+            .build();
+    }
+
+    /**
+     * Mesmo papel do {@code ConcurrencyLimitInterceptor}: a vaga é ocupada na assinatura e liberada
+     * quando o Mono da resposta termina. Sem {@code sccon.limit.enabled}, devolve o handler intacto.
+     */
+    private static HandlerFunction<ServerResponse> limited(ConcurrencyLimits limits, Cost cost, HandlerFunction<ServerResponse> f) {
+        if (limits == null) return f;
+        return req -> Mono.defer(() -> {
+            ConcurrencyLimits.Permit permit = limits.acquire(cost);
+            return f.handle(req).doFinally(s -> permit.release());
+        });
+    }
+}
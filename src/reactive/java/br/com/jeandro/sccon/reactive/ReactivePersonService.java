@@ -0,0 +1,140 @@
+package br.com.jeandro.sccon.reactive;
+
+import br.com.jeandro.sccon.dto.*;
+import br.com.jeandro.sccon.repository.PersonFilter;
+import br.com.jeandro.sccon.service.PersonChangeReader;
+import br.com.jeandro.sccon.service.PersonService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Fachada não bloqueante do {@link PersonService}. Escritas podem esperar o fsync do log
+ * (persistência) e cálculos sobre a base inteira usam CPU por mais tempo, então ambos são
+ * executados no {@code boundedElastic}. Leituras rodam direto no event loop só com o mapa local
+ * sem coalescing nem micro-batching ({@link PersonService#readsMayBlock()}); com partições,
+ * réplicas ou a janela de lote elas fazem chamadas HTTP ou esperam, e também vão para o
+ * {@code boundedElastic}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonService {
+
+    private final PersonService service;
+    private final Scheduler blocking = Schedulers.boundedElastic();
+    private final boolean readsMayBlock;
+
+    public ReactivePersonService(PersonService service) {
+        this.service = service;
+        this.readsMayBlock = service.readsMayBlock();
+    }
+
+    /** Todas as pessoas em ordem alfabética, lidas do índice conforme a demanda do assinante. */
+    public Flux<PersonResponse> list() {
+        Flux<PersonResponse> all = Flux.fromStream(service::stream);
+        return readsMayBlock ? all.subscribeOn(blocking) : all;
+    }
+
+    public Mono<PersonPage> page(String after, int limit) {
+        return read(() -> service.page(after, limit));
+    }
+
+    public Mono<List<PersonResponse>> filter(PersonFilter filter, Integer limit) {
+        return read(() -> service.filter(filter, limit));
+    }
+
+    public Mono<List<PersonResponse>> search(String q, Integer limit) {
+        return read(() -> service.search(q, limit));
+    }
+
+    public Mono<PersonStatsResponse> stats() {
+        return read(service::stats);
+    }
+
+    /** Versão dos dados para a ETag de coleção; com partições, consulta todos os nós. */
+    public Mono<String> dataVersion() {
+        return read(service::dataVersion);
+    }
+
+    /**
+     * Lotes de alterações a partir de {@code cursor}; um lote vazio significa que nada mudou no
+     * intervalo de {@code keepAlive}. O leitor bloqueia esperando alterações, então roda no
+     * {@code boundedElastic}. Termina com um lote só com o RESYNC quando o leitor se perde, ou
+     * após {@code maxDuration}. O cursor é validado já na chamada (400 antes de abrir o fluxo).
+     */
+    public Flux<List<PersonChange>> changes(String cursor, Duration keepAlive, Duration maxDuration) {
+        PersonChangeReader reader = service.changes(cursor);
+        return Flux.<List<PersonChange>>generate(sink -> {
+                if (reader.lost()) {
+                    sink.next(List.of(reader.resync()));
+                    sink.complete();
+                    return;
+                }
+                sink.next(reader.poll(keepAlive.toMillis()));
+            })
+            .subscribeOn(blocking)
+            .take(maxDuration);
+    }
+
+    public Mono<PersonResponse> get(Long id) {
+        return read(() -> service.get(id));
+    }
+
+    public Mono<Number> idade(Long id, String output) {
+        return read(() -> service.idade(id, output));
+    }
+
+    public Mono<BigDecimal> salarioMultiplo(Long id, BigDecimal salarioMinimo) {
+        return read(() -> service.salarioMultiplo(id, salarioMinimo));
+    }
+
+    public Mono<PersonSalaryEntry> salarioEm(Long id, LocalDate em, BigDecimal salarioMinimo) {
+        return read(() -> service.salarioEm(id, em, salarioMinimo));
+    }
+
+    public Mono<List<PersonSalaryEntry>> salarioHistorico(Long id) {
+        return read(() -> service.salarioHistorico(id));
+    }
+
+    public Mono<PersonMetricsResponse> metrics(List<Long> ids, boolean all, String output, BigDecimal salarioMinimo) {
+        return Mono.fromCallable(() -> service.metrics(ids, all, output, salarioMinimo)).subscribeOn(blocking);
+    }
+
+    public Mono<PersonResponse> create(PersonCreateRequest r) {
+        return Mono.fromCallable(() -> service.create(r)).subscribeOn(blocking);
+    }
+
+    /**
+     * Consome {@code requests} sob demanda (o iterador pede novos itens conforme o lote avança),
+     * então um NDJSON grande não é carregado inteiro em memória.
+     */
+    public Mono<PersonBatchResult> createBatch(Flux<PersonCreateRequest> requests) {
+        return Mono.fromCallable(() -> service.createBatch(requests.toIterable().iterator())).subscribeOn(blocking);
+    }
+
+    public Mono<PersonResponse> put(Long id, PersonUpdateRequest r, Long ifMatch) {
+        return Mono.fromCallable(() -> service.put(id, r, ifMatch)).subscribeOn(blocking);
+    }
+
+    public Mono<PersonResponse> patch(Long id, PersonPatchRequest r, Long ifMatch) {
+        return Mono.fromCallable(() -> service.patch(id, r, ifMatch)).subscribeOn(blocking);
+    }
+
+    public Mono<Void> delete(Long id) {
+        return Mono.<Void>fromRunnable(() -> service.delete(id)).subscribeOn(blocking);
+    }
+
+    private <T> Mono<T> read(Callable<T> query) {
+        Mono<T> result = Mono.fromCallable(query);
+        return readsMayBlock ? result.subscribeOn(blocking) : result;
+    }
+}
@@ -1,16 +1,30 @@
 package br.com.jeandro.sccon.controller;
 
+import br.com.jeandro.sccon.config.StreamingConfig;
 import br.com.jeandro.sccon.dto.PersonCreateRequest;
+import br.com.jeandro.sccon.dto.PersonIdadeResponse;
 import br.com.jeandro.sccon.dto.PersonPatchRequest;
 import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.dto.PersonSalarioResponse;
 import br.com.jeandro.sccon.dto.PersonUpdateRequest;
+import br.com.jeandro.sccon.service.PersonChangeReader;
 import br.com.jeandro.sccon.service.PersonService;
+import br.com.jeandro.sccon.util.MediaTypes;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -50,11 +64,11 @@ class PersonControllerDirectTest {
 
         PersonUpdateRequest req = mock(PersonUpdateRequest.class);
         PersonResponse resp = sample();
-        when(service.put(3L, req)).thenReturn(resp);
+        when(service.put(3L, req, null)).thenReturn(resp);
 
-        var result = controller.put(3L, req);
-        assertSame(resp, result);
-        verify(service).put(3L, req);
+        var result = controller.put(3L, req, null);
+        assertSame(resp, result.getBody());
+        verify(service).put(3L, req, null);
     }
 
     @Test
@@ -65,15 +79,15 @@ class PersonControllerDirectTest {
 
         PersonPatchRequest req = mock(PersonPatchRequest.class);
         PersonResponse resp = sample();
-        when(service.patch(4L, req)).thenReturn(resp);
+        when(service.patch(4L, req, 2L)).thenReturn(resp);
 
-        var result = controller.patch(4L, req);
-        assertSame(resp, result);
-        verify(service).patch(4L, req);
+        var result = controller.patch(4L, req, "\"2\"");
+        assertSame(resp, result.getBody());
+        verify(service).patch(4L, req, 2L);
     }
 
     @Test
-    @DisplayName("GET idade -> normaliza output e monta Map")
+    @DisplayName("GET idade -> normaliza output e monta a resposta")
     void idade_map() {
         PersonService service = mock(PersonService.class);
         PersonController controller = new PersonController(service);
@@ -83,11 +97,11 @@ class PersonControllerDirectTest {
         // Alternativa à prova de erro de casamento:
         // when(service.idade(anyLong(), anyString())).thenReturn(30L);
 
-        Map<String, Object> out = controller.idade(1L, "AnOs");
+        PersonIdadeResponse out = controller.idade(1L, "AnOs");
 
-        assertEquals(1L, out.get("id"));
-        assertEquals("anos", out.get("output")); // normalizado
-        assertEquals(30L, out.get("valor"));
+        assertEquals(1L, out.getId());
+        assertEquals("anos", out.getOutput()); // normalizado
+        assertEquals(30L, out.getValor());
 
         verify(service).idade(1L, "anos");
     }
@@ -99,10 +113,183 @@ class PersonControllerDirectTest {
         PersonController controller = new PersonController(service);
         when(service.salarioMultiplo(eq(2L), any())).thenReturn(new BigDecimal("1.50"));
 
-        Map<String, Object> out = controller.salario(2L, null);
-        assertEquals(2L, out.get("id"));
-        assertEquals(new BigDecimal("1.50"), out.get("salarioAtualMultiplo"));
-        assertEquals(new BigDecimal("1320.00"), out.get("salarioMinimo"));
+        PersonSalarioResponse out = controller.salario(2L, null, null);
+        assertEquals(2L, out.getId());
+        assertEquals(new BigDecimal("1.50"), out.getSalarioAtualMultiplo());
+        assertEquals(new BigDecimal("1320.00"), out.getSalarioMinimo());
         verify(service).salarioMultiplo(2L, new BigDecimal("1320.00"));
     }
+
+    @Test
+    @DisplayName("GET export -> escreve uma pessoa por linha em NDJSON")
+    void export_ndjson() throws Exception {
+        PersonService service = new PersonService();
+        service.seed();
+        PersonController controller = new PersonController(service);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.export().getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        for (String line : lines) assertTrue(line.startsWith("{") && line.endsWith("}"), line);
+        assertTrue(lines[0].startsWith("{\"id\":3,\"nome\":\"Ana Lima\""), lines[0]);
+        assertTrue(lines[0].contains("\"dataNascimento\":\"23/08/2001\""), lines[0]);
+    }
+
+    @Test
+    @DisplayName("GET por ID e lista -> 304 com If-None-Match atual; 200 com JSON novo após PATCH")
+    void conditionalGet() {
+        PersonService service = new PersonService();
+        service.seed();
+        PersonController controller = new PersonController(service);
+
+        var first = controller.get(1L, null, null);
+        String etag = first.getHeaders().getETag();
+        assertEquals("\"1\"", etag);
+        String body = new String(first.getBody(), StandardCharsets.UTF_8);
+        assertTrue(body.startsWith("{\"id\":1,\"nome\":\"Maria Silva\""), body);
+        assertSame(first.getBody(), controller.get(1L, null, null).getBody(), "segunda leitura vem do cache");
+        assertEquals(304, controller.get(1L, etag, null).getStatusCodeValue());
+        assertEquals(304, controller.get(1L, "W/" + etag, null).getStatusCodeValue());
+
+        var list = controller.list(null, null, null, null, null, null, null, null);
+        String listEtag = list.getHeaders().getETag();
+        assertEquals(304, controller.list(null, null, null, null, null, null, null, listEtag).getStatusCodeValue());
+
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setNome("Maria Araújo");
+        controller.patch(1L, patch, null);
+
+        var changed = controller.get(1L, etag, null);
+        assertEquals(200, changed.getStatusCodeValue());
+        assertEquals("\"2\"", changed.getHeaders().getETag());
+        assertTrue(new String(changed.getBody(), StandardCharsets.UTF_8).contains("Maria Araújo"));
+        var changedList = controller.list(null, null, null, null, null, null, null, listEtag);
+        assertEquals(200, changedList.getStatusCodeValue());
+        assertNotEquals(listEtag, changedList.getHeaders().getETag());
+    }
+
+    @Test
+    @DisplayName("GET por ID -> CBOR só quando o Accept o prefere a JSON")
+    void prefersCbor() {
+        assertFalse(MediaTypes.prefersCbor(null));
+        assertFalse(MediaTypes.prefersCbor("*/*"));
+        assertFalse(MediaTypes.prefersCbor("application/json, application/cbor"));
+        assertFalse(MediaTypes.prefersCbor("application/cbor;q=0.5, application/json"));
+        assertTrue(MediaTypes.prefersCbor("application/cbor"));
+        assertTrue(MediaTypes.prefersCbor("*/*, application/cbor"));
+        assertTrue(MediaTypes.prefersCbor("application/json;q=0.8, application/cbor"));
+        assertFalse(MediaTypes.prefersCbor("cbor"), "Accept inválido fica com JSON");
+    }
+
+    @Test
+    @DisplayName("GET changes -> SSE com id por evento; cursor perdido -> evento resync e fim")
+    void changesStream() throws Exception {
+        PersonService service = new PersonService();
+        service.seed();
+        PersonChangeWriter writer = new PersonChangeWriter(new ObjectMapper().findAndRegisterModules(), 200);
+
+        var reader = service.changes(null);
+        service.delete(2L);
+        ByteArrayOutputStream sse = new ByteArrayOutputStream();
+        writer.write(reader, true, sse);
+        String text = sse.toString(StandardCharsets.UTF_8);
+        assertTrue(text.startsWith("id: " + reader.cursor() + "\ndata: {\"cursor\":\"" + reader.cursor()
+            + "\",\"type\":\"DELETE\",\"id\":2}\n\n"), text);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        writer.write(service.changes("0-1"), false, ndjson);
+        assertEquals("{\"cursor\":\"" + reader.cursor() + "\",\"type\":\"RESYNC\"}\n", ndjson.toString(StandardCharsets.UTF_8));
+
+        var response = new PersonController(service).changes(null, "0-1", null);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertTrue(out.toString(StandardCharsets.UTF_8).startsWith("event: resync\ndata: "));
+    }
+
+    @Test
+    @DisplayName("GET export -> NDJSON com flush a cada bloco de pessoas, não a cada uma")
+    void exportFlushesInBlocks() throws Exception {
+        // Given
+        int people = 2_000;
+        List<PersonResponse> all = new ArrayList<>();
+        for (long id = 1; id <= people; id++) all.add(new PersonResponse(id, "P" + id, null, null, null));
+        PersonNdjsonWriter writer = new PersonNdjsonWriter(new ObjectMapper().findAndRegisterModules());
+        int[] flushes = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes[0]++;
+            }
+        };
+
+        // When
+        long count = writer.write(all.stream(), out);
+
+        // Then: 3 blocos de 512, o flush final e o do fechamento do gerador
+        assertEquals(people, count);
+        assertEquals(people, out.toString(StandardCharsets.UTF_8).lines().count());
+        assertTrue(flushes[0] <= people / 512 + 2, "flushes: " + flushes[0]);
+    }
+
+    @Test
+    @DisplayName("GET changes -> mais conexões simultâneas que as 8 threads do pool padrão recebem a alteração")
+    void changesStreamsDoNotQueue() throws Exception {
+        // Given: 64 assinantes no executor dos streams, esperando alterações
+        PersonService service = new PersonService();
+        service.seed();
+        PersonChangeWriter writer = new PersonChangeWriter(new ObjectMapper().findAndRegisterModules(), 10_000);
+        Executor executor = StreamingConfig.streamExecutor();
+        int subscribers = 64;
+        CountDownLatch received = new CountDownLatch(subscribers);
+        CountDownLatch finished = new CountDownLatch(subscribers);
+        List<PersonChangeReader> readers = new ArrayList<>();
+        for (int i = 0; i < subscribers; i++) readers.add(service.changes(null));
+        for (PersonChangeReader reader : readers) {
+            executor.execute(() -> {
+                try {
+                    writer.write(reader, false, new DisconnectAfterData(received));
+                } catch (IOException e) {
+                    // cliente "desconectou" depois de receber a alteração
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        // When
+        service.delete(2L);
+
+        // Then: todos recebem, sem esperar os primeiros terminarem
+        assertTrue(received.await(5, TimeUnit.SECONDS), "sem receber: " + received.getCount());
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+    }
+
+    /** Saída que conta a primeira linha recebida e falha no flush seguinte, como um cliente que saiu. */
+    private static final class DisconnectAfterData extends OutputStream {
+        private final CountDownLatch received;
+        private boolean data;
+
+        DisconnectAfterData(CountDownLatch received) {
+            this.received = received;
+        }
+
+        @Override
+        public void write(int b) {
+            data = true;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            data = true;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (!data) return;
+            received.countDown();
+            throw new IOException("cliente desconectado");
+        }
+    }
 }
@@ -0,0 +1,100 @@
+package br.com.jeandro.sccon.dto;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * O módulo deve produzir e aceitar exatamente o mesmo JSON que os beans anotados, lidos por
+ * reflexão.
+ */
+@DisplayName("PersonJsonModule - (De)serializadores escritos à mão")
+class PersonJsonModuleTest {
+
+    private final ObjectMapper reflective = JsonMapper.builder()
+        .addModule(new JavaTimeModule())
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+    private final ObjectMapper module = reflective.copy().registerModule(new PersonJsonModule());
+
+    @Test
+    @DisplayName("Respostas devem sair byte a byte iguais às dos beans")
+    void serializeMatchesBeans() throws Exception {
+        // Given: respostas com nulos, ano de cinco dígitos, acentos e os dois formatos de salário
+        List<Object> responses = List.of(
+            new PersonResponse(1L, "José da Silva \"Zé\" – ç", LocalDate.of(2000, 4, 6), LocalDate.of(2020, 5, 10), new BigDecimal("1234.50")),
+            new PersonResponse(2L, "Ana", LocalDate.of(12345, 1, 2), LocalDate.of(-44, 3, 15), new BigDecimal("1E+3")),
+            new PersonResponse(null, null, null, null, null),
+            new PersonIdadeResponse(1L, "days", 9125L),
+            new PersonIdadeResponse(1L, "years", new BigDecimal("24.99")),
+            new PersonIdadeResponse(1L, "months", 7),
+            PersonSalarioResponse.atual(1L, new BigDecimal("2.33"), new BigDecimal("1302.00")),
+            PersonSalarioResponse.em(1L, LocalDate.of(2021, 1, 1),
+                new PersonSalaryEntry(LocalDate.of(2020, 5, 10), new BigDecimal("3000.00"), new BigDecimal("2.88")), new BigDecimal("1302.00")),
+            PersonSalarioResponse.em(1L, LocalDate.of(2021, 1, 1), new PersonSalaryEntry(null, new BigDecimal("3000.00"), null), null));
+
+        for (Object r : responses) {
+            // When: serializamos pelos dois caminhos
+            String expected = reflective.writeValueAsString(r);
+            String actual = module.writeValueAsString(r);
+
+            // Then: o JSON é o mesmo
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    @DisplayName("Requisições devem ser lidas como pelos beans, inclusive coerções e datas ajustadas")
+    void deserializeMatchesBeans() throws Exception {
+        // Given: corpos com datas comuns, dia fora do mês, números em string, nulos e campos desconhecidos
+        List<String> bodies = List.of(
+            "{\"nome\":\"Maria\",\"dataNascimento\":\"06/04/2000\",\"dataAdmissao\":\"10/05/2020\",\"salarioAtual\":1234.5}",
+            "{\"dataAdmissao\":\"31/02/2020\",\"nome\":\"Ana\",\"salarioAtual\":\"3000.00\",\"extra\":{\"a\":[1,2]}}",
+            "{\"nome\":null,\"dataNascimento\":null,\"salarioAtual\":10}",
+            "{\"dataNascimento\":\"29/02/2024\",\"dataAdmissao\":\"01/01/0001\"}",
+            "{}");
+
+        for (String body : bodies) {
+            // When: lemos pelos dois caminhos
+            PersonCreateRequest expected = reflective.readValue(body, PersonCreateRequest.class);
+            PersonCreateRequest actual = module.readValue(body, PersonCreateRequest.class);
+
+            // Then: os campos coincidem
+            assertEquals(expected.getNome(), actual.getNome(), body);
+            assertEquals(expected.getDataNascimento(), actual.getDataNascimento(), body);
+            assertEquals(expected.getDataAdmissao(), actual.getDataAdmissao(), body);
+            assertEquals(expected.getSalarioAtual(), actual.getSalarioAtual(), body);
+        }
+        PersonPatchRequest patch = module.readValue("{\"salarioAtual\":5000}", PersonPatchRequest.class);
+        assertEquals(new BigDecimal("5000"), patch.getSalarioAtual());
+        assertNull(patch.getNome());
+    }
+
+    @Test
+    @DisplayName("Datas inválidas e campos desconhecidos devem falhar como nos beans")
+    void deserializeErrorsMatchBeans() {
+        // Given: uma data fora do formato
+        String body = "{\"nome\":\"Maria\",\"dataNascimento\":\"2000-04-06\"}";
+
+        // When / Then: os dois caminhos recusam com o mesmo tipo de erro
+        assertThrows(InvalidFormatException.class, () -> reflective.readValue(body, PersonUpdateRequest.class));
+        assertThrows(InvalidFormatException.class, () -> module.readValue(body, PersonUpdateRequest.class));
+
+        // E com FAIL_ON_UNKNOWN_PROPERTIES ligado o campo desconhecido é recusado
+        ObjectMapper strict = module.copy().enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        assertThrows(UnrecognizedPropertyException.class, () -> strict.readValue("{\"x\":1}", PersonUpdateRequest.class));
+    }
+}
@@ -0,0 +1,207 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do backend compacto, comparando-o com o repositório em mapa.
+ */
+@DisplayName("CompactPersonRepository - Armazenamento em colunas primitivas")
+class CompactPersonRepositoryTest {
+
+    @Test
+    @DisplayName("Deve preservar todos os campos, inclusive escala do salário e nulos")
+    void roundTrip() {
+        CompactPersonRepository repo = new CompactPersonRepository();
+        Person p = repo.save(new Person(null, "João Souza", LocalDate.of(1988, 12, 10), LocalDate.of(2015, 3, 1),
+            new BigDecimal("1800.505")));
+        Person semDados = repo.save(new Person(null, null, null, null, null));
+
+        Person lido = repo.findById(p.getId()).orElseThrow();
+        assertEquals("João Souza", lido.getNome());
+        assertEquals(LocalDate.of(1988, 12, 10), lido.getDataNascimento());
+        assertEquals(LocalDate.of(2015, 3, 1), lido.getDataAdmissao());
+        assertEquals(new BigDecimal("1800.505"), lido.getSalarioAtual());
+        assertNotSame(p, lido, "leituras materializam um objeto novo");
+
+        Person vazio = repo.findById(semDados.getId()).orElseThrow();
+        assertNull(vazio.getNome());
+        assertNull(vazio.getDataNascimento());
+        assertNull(vazio.getSalarioAtual());
+    }
+
+    @Test
+    @DisplayName("Deve manter a mesma ordem e paginação do repositório em mapa sob escritas aleatórias")
+    void matchesMapRepository() {
+        // Given: as mesmas operações aleatórias aplicadas aos dois backends
+        CompactPersonRepository compact = new CompactPersonRepository();
+        InMemoryPersonRepository map = new InMemoryPersonRepository();
+        Random rnd = new Random(42);
+        String[] nomes = {"Ana", "ana", "Ána", "Bruno", "Álvaro", "Zé", "Carlos", "Maria Silva", "João"};
+        for (int i = 0; i < 5_000; i++) {
+            int op = rnd.nextInt(10);
+            long id = 1 + rnd.nextInt(800);
+            if (op < 7) {
+                String nome = nomes[rnd.nextInt(nomes.length)] + " " + rnd.nextInt(50);
+                compact.save(person(id, nome));
+                map.save(person(id, nome));
+            } else {
+                compact.deleteById(id);
+                map.deleteById(id);
+            }
+        }
+
+        // Then: contagem, ordem completa e páginas por cursor coincidem
+        assertEquals(map.count(), compact.count());
+        assertEquals(ids(map.findAll()), ids(compact.findAll()));
+        PersonNameKey after = null;
+        List<Person> page;
+        do {
+            page = compact.findPageByName(after, 37);
+            assertEquals(ids(map.findPageByName(after, 37)), ids(page));
+            if (!page.isEmpty()) after = PersonNameKey.of(page.get(page.size() - 1));
+        } while (!page.isEmpty());
+        assertEquals(ids(map.findAll()), ids(compact.streamAll().toList()));
+        assertEquals(map.payrollStats().faixas(), compact.payrollStats().faixas());
+        assertEquals(map.payrollStats().folha(), compact.payrollStats().folha());
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem a cada escrita, com leituras e lotes intercalados")
+    void keepsOrderBetweenWrites() {
+        // Given
+        CompactPersonRepository compact = new CompactPersonRepository();
+        InMemoryPersonRepository map = new InMemoryPersonRepository();
+        Random rnd = new Random(7);
+        String[] nomes = {"Ana", "ana", "Ána", "Bruno", "Álvaro", "Zé", null};
+
+        for (int i = 0; i < 2_000; i++) {
+            // When: gravação, remoção ou lote (com renomeações e IDs repetidos)
+            int op = rnd.nextInt(10);
+            if (op < 6) {
+                long id = 1 + rnd.nextInt(300);
+                String nome = nome(nomes, rnd);
+                compact.save(person(id, nome));
+                map.save(person(id, nome));
+            } else if (op < 8) {
+                long id = 1 + rnd.nextInt(300);
+                compact.deleteById(id);
+                map.deleteById(id);
+            } else {
+                List<Person> a = new ArrayList<>();
+                List<Person> b = new ArrayList<>();
+                for (int j = rnd.nextInt(20); j >= 0; j--) {
+                    long id = 1 + rnd.nextInt(300);
+                    String nome = nome(nomes, rnd);
+                    a.add(person(id, nome));
+                    b.add(person(id, nome));
+                }
+                compact.saveAll(a);
+                map.saveAll(b);
+            }
+
+            // Then: a ordem já está certa na leitura seguinte
+            assertEquals(ids(map.findAll()), ids(compact.findAll()));
+        }
+        PersonNameKey meio = PersonNameKey.of(map.findAll().get((int) map.count() / 2));
+        assertEquals(ids(map.findPageByName(meio, 25)), ids(compact.findPageByName(meio, 25)));
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem ao dividir blocos cheios e descartar blocos esvaziados")
+    void keepsOrderAcrossBlocks() {
+        // Given: um lote de 5 mil pessoas, maior que vários blocos da ordem alfabética
+        CompactPersonRepository compact = new CompactPersonRepository();
+        InMemoryPersonRepository map = new InMemoryPersonRepository();
+        List<Person> a = new ArrayList<>();
+        List<Person> b = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            a.add(person(null, String.format("P%05d", i)));
+            b.add(person(null, String.format("P%05d", i)));
+        }
+        compact.saveAll(a);
+        map.saveAll(b);
+
+        // When: um trecho contíguo é removido (esvazia blocos) e depois regravado um a um no
+        // mesmo ponto da ordem (enche e divide blocos)
+        for (long id = 1_001; id <= 3_000; id++) {
+            compact.deleteById(id);
+            map.deleteById(id);
+        }
+        assertEquals(ids(map.findAll()), ids(compact.findAll()));
+        for (int i = 0; i < 3_000; i++) {
+            String nome = String.format("P01000 %04d", i);
+            compact.save(person(null, nome));
+            map.save(person(null, nome));
+        }
+
+        // Then: a ordem completa e as páginas em volta das fronteiras coincidem
+        assertEquals(ids(map.findAll()), ids(compact.findAll()));
+        for (int at = 0; at < map.count(); at += 500) {
+            PersonNameKey after = PersonNameKey.of(map.findAll().get(at));
+            assertEquals(ids(map.findPageByName(after, 700)), ids(compact.findPageByName(after, 700)));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve liberar e compactar a área de nomes sem referências")
+    void reclaimsNames() {
+        // Given
+        CompactPersonRepository.NameArena arena = new CompactPersonRepository.NameArena();
+        int[] ids = new int[10_000];
+        for (int i = 0; i < ids.length; i++) ids[i] = arena.intern("Nome Único Número " + i);
+        int cheio = arena.used();
+
+        // When: todas as referências são soltas, menos a última
+        int mantido = arena.intern("Nome Único Número 9999");
+        for (int id : ids) arena.release(id);
+
+        // Then: a área foi compactada e o nome restante continua legível
+        assertTrue(arena.used() < cheio / 100, "bytes usados: " + arena.used());
+        assertEquals("Nome Único Número 9999", arena.get(mantido));
+        assertEquals("nome unico numero 9999", arena.folded(mantido));
+
+        // Then: IDs liberados são reaproveitados e o nome repetido volta ao mesmo ID
+        assertTrue(arena.intern("Outro") < ids.length);
+        assertEquals(mantido, arena.intern("Nome Único Número 9999"));
+    }
+
+    @Test
+    @DisplayName("Deve reservar IDs contíguos em lote e continuar a sequência após remoções")
+    void saveAllAndDelete() {
+        CompactPersonRepository repo = new CompactPersonRepository();
+        List<Person> lote = new ArrayList<>();
+        for (int i = 0; i < 100; i++) lote.add(person(null, "P" + i));
+        repo.saveAll(lote);
+        assertEquals(100L, lote.get(99).getId());
+
+        for (long id = 1; id <= 50; id++) repo.deleteById(id);
+        for (int i = 0; i < 50; i++) repo.save(person(null, "Nova " + i));
+
+        assertEquals(100, repo.count());
+        assertFalse(repo.existsById(1L));
+        assertEquals("Nova 49", repo.findById(150L).orElseThrow().getNome());
+    }
+
+    private static Person person(Long id, String nome) {
+        return new Person(id, nome, LocalDate.of(1990, 5, 17), LocalDate.of(2020, 1, 2), new BigDecimal("2500.00"));
+    }
+
+    private static String nome(String[] nomes, Random rnd) {
+        String n = nomes[rnd.nextInt(nomes.length)];
+        return n == null ? null : n + " " + rnd.nextInt(5);
+    }
+
+    private static List<Long> ids(List<Person> people) {
+        return people.stream().map(Person::getId).toList();
+    }
+}
@@ -0,0 +1,487 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do repositório em modo persistente (log append-only) e dos índices secundários.
+ */
+@DisplayName("InMemoryPersonRepository - Persistência em log e índices")
+class InMemoryPersonRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Deve restaurar saves, updates e deletes ao reabrir o log")
+    void replayAfterReopen() throws IOException {
+        // Given: um repositório persistente com três pessoas, uma alterada e uma removida
+        Path file = dir.resolve("persons.log");
+        InMemoryPersonRepository repo = open(file);
+        repo.seed(List.of(person("Maria Silva"), person("João Souza"), person("Ana Lima")));
+        repo.save(repo.findById(2L).orElseThrow().withChanges(null, null, null, new BigDecimal("1999.99")));
+        repo.deleteById(1L);
+        repo.close();
+
+        // When: reabrimos o mesmo arquivo
+        InMemoryPersonRepository reopened = open(file);
+
+        // Then: o estado é o mesmo e a sequência de IDs continua de onde parou
+        assertEquals(2, reopened.count());
+        assertFalse(reopened.existsById(1L));
+        assertEquals(new BigDecimal("1999.99"), reopened.findById(2L).orElseThrow().getSalarioAtual());
+        assertEquals(2, reopened.findById(2L).orElseThrow().getVersion(), "versão também vem do log");
+        assertEquals(LocalDate.of(1990, 5, 17), reopened.findById(3L).orElseThrow().getDataNascimento());
+        assertEquals(4L, reopened.save(person("Nova")).getId());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar um registro truncado no fim do log")
+    void ignoresTornTail() throws IOException {
+        // Given: um log com duas pessoas
+        Path file = dir.resolve("persons.log");
+        InMemoryPersonRepository repo = open(file);
+        repo.seed(List.of(person("Maria Silva"), person("João Souza")));
+        repo.close();
+
+        // When: o último registro é cortado ao meio (queda durante a escrita)
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 5);
+        }
+
+        // Then: apenas o registro íntegro é restaurado e novas escritas continuam funcionando
+        InMemoryPersonRepository reopened = open(file);
+        assertEquals(1, reopened.count());
+        assertEquals("Maria Silva", reopened.findById(1L).orElseThrow().getNome());
+        reopened.save(person("Depois da queda"));
+        reopened.close();
+        InMemoryPersonRepository again = open(file);
+        assertEquals(2, again.count());
+        again.close();
+    }
+
+    @Test
+    @DisplayName("Deve compactar o log mantendo apenas o último estado de cada ID")
+    void compaction() throws IOException {
+        // Given: muitas atualizações sobre poucas pessoas
+        Path file = dir.resolve("persons.log");
+        InMemoryPersonRepository repo = new InMemoryPersonRepository(file, 0, 0, 0);
+        repo.seed(List.of(person("Maria Silva"), person("João Souza")));
+        for (int i = 0; i < 1000; i++) {
+            repo.save(repo.findById(1L).orElseThrow().withChanges(null, null, null, new BigDecimal(1000 + i)));
+        }
+        repo.deleteById(2L);
+        repo.close();
+        long before = Files.size(file);
+
+        // When: compactamos diretamente pelo log
+        try (PersonLog log = PersonLog.open(file, 0, 0, 0, noReplay())) {
+            log.compact();
+        }
+
+        // Then: o arquivo encolhe e o estado final é preservado
+        assertTrue(Files.size(file) < before / 100, "log deveria ter encolhido");
+        InMemoryPersonRepository reopened = open(file);
+        assertEquals(1, reopened.count());
+        assertEquals(new BigDecimal(1999), reopened.findById(1L).orElseThrow().getSalarioAtual());
+        assertEquals(1001, reopened.findById(1L).orElseThrow().getVersion());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Não deve dar como sincronizadas escritas no arquivo novo por causa de um fsync do arquivo compactado")
+    void compactionDuringGroupCommit() throws Exception {
+        // Given: escritores esperando o fsync de cada gravação, sempre nos mesmos 10 IDs
+        try (PersonLog log = PersonLog.open(dir.resolve("persons.log"), 0, 0, 0, noReplay())) {
+            AtomicBoolean done = new AtomicBoolean();
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> writers = new ArrayList<>();
+            for (int w = 0; w < 8; w++) {
+                writers.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        for (long i = 0; !done.get(); i++) {
+                            Person p = person("Pessoa " + i);
+                            p.setId(1 + i % 10);
+                            log.awaitDurable(log.appendSave(p));
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }));
+            }
+
+            // When: a compactação encolhe o arquivo repetidamente enquanto eles gravam
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            Thread compactor = Thread.ofPlatform().start(() -> {
+                try {
+                    while (System.nanoTime() < deadline) log.compact();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            long minUnsynced = 0;
+            while (compactor.isAlive()) minUnsynced = Math.min(minUnsynced, log.unsyncedBytes());
+            done.set(true);
+            for (Thread t : writers) t.join();
+
+            // Then: a posição sincronizada nunca passou do fim do arquivo atual
+            assertNull(failure.get());
+            assertEquals(0, minUnsynced, "fsync marcou como durável uma posição além do fim do log");
+        }
+    }
+
+    @Test
+    @DisplayName("Deve restaurar do snapshot e reaplicar só o log gravado depois dele")
+    void snapshotThenReplay() throws IOException {
+        // Given: 10 mil pessoas, um snapshot, e alterações feitas depois do snapshot
+        PersistenceOptions options = new PersistenceOptions(dir.resolve("persons.log"), 0, Long.MAX_VALUE, 0,
+            dir.resolve("persons.snapshot"));
+        InMemoryPersonRepository repo = new InMemoryPersonRepository(options);
+        List<Person> people = new java.util.ArrayList<>();
+        for (int i = 0; i < 10_000; i++) people.add(person("Pessoa " + i));
+        repo.saveAll(people);
+        repo.deleteById(10_000L); // maior ID removido: não pode ser reutilizado
+        Person semNome = new Person(null, null, null, LocalDate.of(2020, 1, 2), null);
+        repo.save(semNome);
+
+        assertEquals(10_000, repo.snapshot());
+
+        repo.save(repo.findById(1L).orElseThrow().withChanges("Renomeada Depois", null, null, null));
+        repo.deleteById(2L);
+        repo.close();
+        assertTrue(Files.size(options.logPath()) < 200, "log deveria conter só o que veio depois do snapshot");
+
+        // When: reabrimos
+        InMemoryPersonRepository reopened = new InMemoryPersonRepository(options);
+
+        // Then: snapshot + cauda do log reproduzem o estado final
+        InMemoryPersonRepository.StartupReport report = reopened.startupReport();
+        assertEquals(10_000, report.snapshotRows());
+        assertEquals(2, report.logRecords());
+        assertEquals(9_999, reopened.count());
+        assertEquals("Renomeada Depois", reopened.findById(1L).orElseThrow().getNome());
+        assertEquals(2, reopened.findById(1L).orElseThrow().getVersion());
+        assertEquals(1, reopened.findById(3L).orElseThrow().getVersion(), "versão também vem do snapshot");
+        assertFalse(reopened.existsById(2L));
+        assertEquals("Pessoa 9998", reopened.findById(9_999L).orElseThrow().getNome());
+        assertEquals(new BigDecimal("2500.00"), reopened.findById(9_999L).orElseThrow().getSalarioAtual());
+        Person restaurada = reopened.findById(semNome.getId()).orElseThrow();
+        assertNull(restaurada.getNome());
+        assertNull(restaurada.getSalarioAtual());
+        assertEquals(10_002L, reopened.save(person("Nova")).getId());
+        reopened.close();
+    }
+
+    @Test
+    @DisplayName("Deve gravar no snapshot salários com qualquer escala e tamanho, sem alterá-los")
+    void snapshotKeepsAnySalary() throws IOException {
+        // Given: salários que não cabem em long sem escala, ou cuja escala não cabe em um byte (o
+        // repositório recusa os acima do teto dos agregados, então o formato é testado direto)
+        Path file = dir.resolve("persons.snapshot");
+        List<BigDecimal> salarios = List.of(
+            new BigDecimal("3450.75"),
+            new BigDecimal("1234.567"),
+            new BigDecimal("-1E+3"),
+            new BigDecimal("123456789012345678901234567890.12"),
+            new BigDecimal("9223372036854775807"),
+            new BigDecimal("9223372036854775808"),
+            new BigDecimal("1E-200"),
+            new BigDecimal("5E+300"));
+        List<Person> people = new ArrayList<>();
+        for (BigDecimal s : salarios) {
+            Person p = person("Pessoa " + s);
+            p.setId(people.size() + 1L);
+            p.setSalarioAtual(s);
+            people.add(p);
+        }
+
+        // When
+        assertEquals(salarios.size(), PersonSnapshot.write(file, people.iterator(), salarios.size()));
+        List<Person> loaded = new ArrayList<>();
+        PersonSnapshot.load(file, loaded::add);
+
+        // Then: valor e escala iguais
+        assertEquals(salarios, loaded.stream().sorted(Comparator.comparing(Person::getId)).map(Person::getSalarioAtual).toList());
+    }
+
+    @Test
+    @DisplayName("Deve exigir a versão nos registros SAVE do log")
+    void saveRecordRequiresVersion() {
+        // Given: um registro com versão e o mesmo registro sem os 8 bytes finais da versão
+        Person p = person("Maria Silva");
+        p.setId(7L);
+        p.setVersion(3);
+        byte[] record = PersonCodec.encodeSave(p);
+        byte[] semVersao = Arrays.copyOf(record, record.length - 8);
+
+        // Then
+        assertEquals(3, PersonCodec.decodeSave(ByteBuffer.wrap(record)).getVersion());
+        assertThrows(IllegalArgumentException.class, () -> PersonCodec.decodeSave(ByteBuffer.wrap(semVersao)));
+    }
+
+    @Test
+    @DisplayName("Deve recusar gravar de novo a instância gravada alterada no lugar, sem mexer nos agregados")
+    void rejectsInPlaceMutation() {
+        // Given
+        InMemoryPersonRepository repo = new InMemoryPersonRepository();
+        Person p = repo.save(person("Maria Silva"));
+        BigDecimal folha = repo.payrollStats().folha();
+
+        // When: a instância devolvida pela busca é alterada e gravada
+        Person stored = repo.findById(p.getId()).orElseThrow();
+        stored.setSalarioAtual(new BigDecimal("9999.00"));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> repo.save(stored));
+        assertEquals(folha, repo.payrollStats().folha());
+    }
+
+    @Test
+    @DisplayName("Deve recusar salários acima do teto dos agregados sem alterar nada, em vez de limitá-los")
+    void rejectsSalaryAboveCap() {
+        // Given: uma pessoa gravada com salário no teto
+        InMemoryPersonRepository repo = new InMemoryPersonRepository();
+        Person p = person("Maria Silva");
+        p.setSalarioAtual(new BigDecimal("1000000000.00"));
+        repo.save(p);
+
+        // When: a mesma pessoa com um centavo a mais, e uma nova muito acima
+        Person above = repo.findById(p.getId()).orElseThrow().withChanges(null, null, null, new BigDecimal("1000000000.01"));
+        assertThrows(IllegalArgumentException.class, () -> repo.save(above));
+        Person huge = person("Ana Souza");
+        huge.setSalarioAtual(new BigDecimal("5E+300"));
+        assertThrows(IllegalArgumentException.class, () -> repo.save(huge));
+
+        // Then: nada foi gravado e a folha continua exata
+        assertEquals(1, repo.count());
+        assertEquals(new BigDecimal("1000000000.00"), repo.findById(p.getId()).orElseThrow().getSalarioAtual());
+        assertEquals(new BigDecimal("1000000000.00"), repo.payrollStats().folha());
+    }
+
+    @Test
+    @DisplayName("Filtros pelos índices secundários devem coincidir com uma varredura completa, inclusive após updates e deletes")
+    void secondaryIndexesMatchScan() {
+        // Given: um repositório em memória com pessoas aleatórias, parte delas alterada e parte removida
+        Random rnd = new Random(7);
+        InMemoryPersonRepository repo = new InMemoryPersonRepository();
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) people.add(randomPerson(rnd, "P" + i));
+        repo.saveAll(people);
+        for (int i = 0; i < 300; i++) {
+            long id = 1 + rnd.nextInt(2000);
+            if (rnd.nextBoolean()) {
+                repo.deleteById(id);
+            } else {
+                Person p = randomPerson(rnd, "Q" + i);
+                p.setId(id);
+                repo.save(p);
+            }
+        }
+
+        // When: aplicamos filtros de admissão, salário, mês de aniversário e combinações
+        List<PersonFilter> filters = List.of(
+            new PersonFilter(LocalDate.of(2010, 1, 1), LocalDate.of(2012, 6, 30), null, null, null),
+            new PersonFilter(null, LocalDate.of(2001, 3, 15), null, null, null),
+            new PersonFilter(null, null, new BigDecimal("2000"), new BigDecimal("3500.50"), null),
+            new PersonFilter(null, null, new BigDecimal("9000"), null, null),
+            new PersonFilter(null, null, null, null, 2),
+            new PersonFilter(LocalDate.of(2005, 1, 1), null, null, new BigDecimal("4000"), 12));
+
+        // Then: o resultado (como conjunto de IDs) é o mesmo de filtrar todas as pessoas
+        for (PersonFilter f : filters) {
+            assertEquals(ids(repo.findAll().stream().filter(f::matches).toList()), ids(repo.findByFilter(f).toList()), f.toString());
+        }
+
+        // Then: o índice de salário vem em ordem crescente
+        List<BigDecimal> salarios = repo.findByFilter(filters.get(2)).map(Person::getSalarioAtual).toList();
+        assertEquals(salarios.stream().sorted().toList(), salarios);
+    }
+
+    @Test
+    @DisplayName("Busca pelo índice de n-gramas deve coincidir com a pontuação da base inteira, inclusive após renomear e remover")
+    void nameSearchMatchesScan() {
+        // Given: o mesmo conjunto de nomes no repositório em mapa (índice) e no compacto (varredura)
+        String[] nomes = { "Maria", "Mário", "João", "Joana", "José", "Ana", "Luíza", "Érica" };
+        String[] sobrenomes = { "Silva", "Silveira", "Souza", "Sousa", "Lima", "Araújo", "da Costa", "Ângelo" };
+        Random rnd = new Random(11);
+        InMemoryPersonRepository indexed = new InMemoryPersonRepository();
+        CompactPersonRepository scanned = new CompactPersonRepository();
+        for (int i = 0; i < 3000; i++) {
+            String nome = nomes[rnd.nextInt(nomes.length)] + " " + sobrenomes[rnd.nextInt(sobrenomes.length)];
+            indexed.save(randomPerson(rnd, nome));
+            scanned.save(new Person(null, nome, null, null, null));
+        }
+        for (int i = 0; i < 500; i++) {
+            long id = 1 + rnd.nextInt(3000);
+            if (rnd.nextInt(3) == 0) {
+                indexed.deleteById(id);
+                scanned.deleteById(id);
+            } else {
+                String nome = nomes[rnd.nextInt(nomes.length)] + " " + sobrenomes[rnd.nextInt(sobrenomes.length)] + " " + i;
+                Person p = randomPerson(rnd, nome);
+                p.setId(id);
+                indexed.save(p);
+                scanned.save(new Person(id, nome, null, null, null));
+            }
+        }
+
+        // When/Then: prefixos, trechos, acentos e erros de digitação dão os mesmos IDs na mesma ordem
+        for (String q : List.of("sil", "Joao", "maria sil", "ilva", "s", "jo", "slva", "Angelo", "sousa", "ana costa", "xyz", "Luiza 42")) {
+            assertEquals(ids(scanned.searchByName(q, 50), false), ids(indexed.searchByName(q, 50), false), q);
+        }
+    }
+
+    @Test
+    @DisplayName("Agregados da folha devem coincidir com os valores calculados sobre a base, inclusive após updates, deletes e reabertura")
+    void payrollStatsMatchScan() throws IOException {
+        // Given: pessoas aleatórias, parte alterada (por save de outra instância, de uma cópia e por replace) e parte removida
+        Random rnd = new Random(3);
+        InMemoryPersonRepository repo = open(dir.resolve("persons.log"));
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) people.add(randomPerson(rnd, "P" + i));
+        repo.saveAll(people);
+        for (int i = 0; i < 600; i++) {
+            long id = 1 + rnd.nextInt(2000);
+            Person current = repo.findById(id).orElse(null);
+            switch (i % 4) {
+                case 0 -> repo.deleteById(id);
+                case 1 -> {
+                    Person p = randomPerson(rnd, "Q" + i);
+                    p.setId(id);
+                    repo.save(p);
+                }
+                case 2 -> {
+                    if (current == null) continue;
+                    Person next = current.withChanges(null, null, LocalDate.of(2024, 2, 1), new BigDecimal("99999.99"));
+                    next.setVersion(current.getVersion() + 1);
+                    assertTrue(repo.replace(current, next));
+                }
+                default -> {
+                    if (current == null) continue;
+                    repo.save(current.withChanges(null, null, null, new BigDecimal("1320.00")));
+                }
+            }
+        }
+
+        // When/Then: os agregados batem com a base, antes e depois de reabrir o log
+        assertPayrollMatches(repo);
+        repo.close();
+        InMemoryPersonRepository reopened = open(dir.resolve("persons.log"));
+        assertPayrollMatches(reopened);
+        reopened.close();
+    }
+
+    private static void assertPayrollMatches(InMemoryPersonRepository repo) {
+        PayrollStats stats = repo.payrollStats();
+        List<Person> all = repo.findAll();
+        assertEquals(all.size(), stats.pessoas());
+        assertEquals(all.stream().map(Person::getSalarioAtual).reduce(BigDecimal.ZERO, BigDecimal::add), stats.folha());
+        assertEquals(all.stream().collect(Collectors.groupingBy(p -> p.getDataAdmissao().getYear(), Collectors.counting())),
+            stats.admissoesPorAno());
+        for (PayrollStats.Faixa f : stats.faixas()) {
+            BigDecimal de = PayrollStats.SALARIO_MINIMO.multiply(BigDecimal.valueOf(f.de()));
+            BigDecimal ate = f.ate() == null ? null : PayrollStats.SALARIO_MINIMO.multiply(BigDecimal.valueOf(f.ate()));
+            long expected = all.stream().map(Person::getSalarioAtual)
+                .filter(s -> (f.de() == 0 || s.compareTo(de) > 0) && (ate == null || s.compareTo(ate) <= 0)).count();
+            assertEquals(expected, f.quantidade(), "faixa " + f);
+        }
+        List<BigDecimal> sorted = all.stream().map(Person::getSalarioAtual).sorted().toList();
+        for (double q : new double[] { 0.1, 0.5, 0.9 }) {
+            double exact = sorted.get((int) (q * (sorted.size() - 1))).doubleValue();
+            assertEquals(exact, stats.quantil(q).doubleValue(), exact * 0.011, "quantil " + q);
+        }
+    }
+
+    private static List<Long> ids(List<Person> people, boolean sorted) {
+        return sorted ? ids(people) : people.stream().map(Person::getId).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Person> people) {
+        return people.stream().map(Person::getId).sorted(Comparator.naturalOrder()).collect(Collectors.toList());
+    }
+
+    private static Person randomPerson(Random rnd, String nome) {
+        return new Person(null, nome, LocalDate.of(1960, 1, 1).plusDays(rnd.nextInt(15_000)),
+            LocalDate.of(1995, 1, 1).plusDays(rnd.nextInt(10_000)), BigDecimal.valueOf(100_000 + rnd.nextInt(900_000), 2));
+    }
+
+    private static InMemoryPersonRepository open(Path file) throws IOException {
+        return new InMemoryPersonRepository(file, 0, Long.MAX_VALUE, 0);
+    }
+
+    private static PersonLog.Replay noReplay() {
+        return new PersonLog.Replay() {
+            @Override public void save(Person p) { }
+            @Override public void delete(long id) { }
+        };
+    }
+
+    @Test
+    @DisplayName("Deve registrar salários alterados e esquecê-los na remoção, sem registrar a recarga do log")
+    void salaryHistory() throws IOException {
+        // Given: uma pessoa gravada e depois alterada com save e com replace
+        Path file = dir.resolve("persons.log");
+        InMemoryPersonRepository repo = open(file);
+        Person p = repo.save(person("Maria Silva"));
+        repo.save(repo.findById(p.getId()).orElseThrow().withChanges(null, null, null, new BigDecimal("2800.00")));
+        Person current = repo.findById(p.getId()).orElseThrow();
+        Person next = current.withChanges(null, null, null, new BigDecimal("3100.00"));
+        next.setVersion(current.getVersion() + 1);
+        assertTrue(repo.replace(current, next));
+
+        // Then: a admissão com o salário original e uma entrada hoje com o último valor
+        LocalDate hoje = LocalDate.now();
+        assertEquals(List.of(new SalaryHistory.Entry(LocalDate.of(2020, 1, 2), new BigDecimal("2500.00")),
+            new SalaryHistory.Entry(hoje, new BigDecimal("3100.00"))), repo.salaryHistory(p.getId()));
+        assertEquals(new BigDecimal("2500.00"), repo.salaryAt(p.getId(), hoje.minusDays(1)).orElseThrow().salario());
+        assertTrue(repo.salaryAt(p.getId(), LocalDate.of(2020, 1, 1)).isEmpty());
+        repo.close();
+
+        // When: reabrimos o log
+        InMemoryPersonRepository reopened = open(file);
+
+        // Then: o histórico não vai para o log; o salário recarregado só é conhecido desde hoje
+        assertEquals(List.of(new SalaryHistory.Entry(hoje, new BigDecimal("3100.00"))), reopened.salaryHistory(p.getId()));
+        assertTrue(reopened.salaryAt(p.getId(), hoje.minusDays(1)).isEmpty(), "não supõe o salário atual desde a admissão");
+        Person later = reopened.save(person("Ana Souza"));
+        assertEquals(LocalDate.of(2020, 1, 2), reopened.salaryHistory(later.getId()).get(0).desde(), "criada depois da recarga");
+        Person raised = reopened.findById(p.getId()).orElseThrow().withChanges(null, null, null, new BigDecimal("3300.00"));
+        reopened.save(raised);
+        assertEquals(List.of(new SalaryHistory.Entry(hoje, new BigDecimal("3300.00"))), reopened.salaryHistory(p.getId()));
+
+        // When: removemos a pessoa
+        reopened.deleteById(p.getId());
+
+        // Then: sem pessoa, sem histórico
+        assertEquals(List.of(), reopened.salaryHistory(p.getId()));
+        assertTrue(reopened.salaryAt(p.getId(), hoje).isEmpty());
+        reopened.close();
+    }
+
+    private static Person person(String nome) {
+        return new Person(null, nome, LocalDate.of(1990, 5, 17), LocalDate.of(2020, 1, 2), new BigDecimal("2500.00"));
+    }
+}
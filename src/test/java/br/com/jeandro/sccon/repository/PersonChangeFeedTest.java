@@ -0,0 +1,93 @@
+package br.com.jeandro.sccon.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do buffer circular de alterações: ordem, retomada, sobrescrita e espera.
+ */
+@DisplayName("PersonChangeFeed - Buffer circular de alterações")
+class PersonChangeFeedTest {
+
+    @Test
+    @DisplayName("Deve entregar as alterações em ordem e retomar de qualquer sequência ainda no buffer")
+    void orderAndResume() {
+        // Given: um feed de 8 posições com 5 alterações
+        PersonChangeFeed feed = new PersonChangeFeed(8);
+        for (long id = 1; id <= 5; id++) feed.record(PersonChangeFeed.Type.CREATE, id, null);
+
+        // When: lemos tudo, em lotes de 3, e depois a partir da sequência 3
+        List<PersonChangeFeed.Change> out = new ArrayList<>();
+        assertTrue(feed.poll(0, 3, 0, out));
+        assertTrue(feed.poll(3, 3, 0, out));
+
+        // Then: as sequências são 1..5 e correspondem aos IDs gravados
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), out.stream().map(PersonChangeFeed.Change::seq).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), out.stream().map(PersonChangeFeed.Change::id).toList());
+        assertEquals(5, feed.lastSequence());
+
+        // Then: em dia, sem espera, o lote vem vazio
+        out.clear();
+        assertTrue(feed.poll(5, 3, 0, out));
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve pedir ressincronização quando o leitor fica mais de uma volta para trás")
+    void overwrittenOrInvalid() {
+        // Given: um feed de 4 posições com 6 alterações (1 e 2 já foram sobrescritas)
+        PersonChangeFeed feed = new PersonChangeFeed(4);
+        for (long id = 1; id <= 6; id++) feed.record(PersonChangeFeed.Type.UPDATE, id, null);
+        List<PersonChangeFeed.Change> out = new ArrayList<>();
+
+        // Then: a partir de 0 ou 1 não dá mais; a partir de 2 ainda dá (3..6 estão no buffer)
+        assertFalse(feed.poll(0, 10, 0, out));
+        assertFalse(feed.poll(1, 10, 0, new ArrayList<>()));
+        out.clear();
+        assertTrue(feed.poll(2, 10, 0, out));
+        assertEquals(List.of(3L, 4L, 5L, 6L), out.stream().map(PersonChangeFeed.Change::seq).toList());
+
+        // Then: sequências que o feed nunca gerou também pedem ressincronização
+        assertFalse(feed.poll(7, 10, 0, new ArrayList<>()));
+        assertFalse(feed.poll(-1, 10, 0, new ArrayList<>()));
+    }
+
+    @Test
+    @DisplayName("Deve acordar o leitor que espera assim que uma alteração é registrada")
+    void wakesWaitingReader() throws Exception {
+        // Given: um leitor em dia esperando até 10 s
+        PersonChangeFeed feed = new PersonChangeFeed(8);
+        List<PersonChangeFeed.Change> out = new ArrayList<>();
+        Thread reader = new Thread(() -> feed.poll(0, 10, TimeUnit.SECONDS.toNanos(10), out));
+        reader.start();
+        Thread.sleep(50);
+
+        // When: uma alteração é registrada
+        long start = System.nanoTime();
+        feed.record(PersonChangeFeed.Type.DELETE, 42L, null);
+        reader.join(5000);
+
+        // Then: o leitor volta logo, com a alteração
+        assertFalse(reader.isAlive());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(1, out.size());
+        assertEquals(42L, out.get(0).id());
+    }
+
+    @Test
+    @DisplayName("Deve devolver lote vazio quando o tempo de espera acaba")
+    void timesOut() {
+        PersonChangeFeed feed = new PersonChangeFeed(8);
+        List<PersonChangeFeed.Change> out = new ArrayList<>();
+        long start = System.nanoTime();
+        assertTrue(feed.poll(0, 10, TimeUnit.MILLISECONDS.toNanos(50), out));
+        assertTrue(out.isEmpty());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
@@ -0,0 +1,199 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Testes da replicação líder → réplica, com líder e réplica no mesmo processo em portas locais. */
+@DisplayName("ReplicaPersonRepository - Replicação líder/réplica")
+class ReplicaPersonRepositoryTest {
+    private static final Duration HEARTBEAT = Duration.ofMillis(50);
+    private static final String SECRET = "segredo-do-teste";
+
+    private final InMemoryPersonRepository leader = new InMemoryPersonRepository();
+    private ReplicationServer stream;
+    private ShardServer writes;
+    private final List<ReplicaPersonRepository> replicas = new ArrayList<>();
+
+    @AfterEach
+    void stop() throws IOException {
+        for (ReplicaPersonRepository r : replicas) r.close();
+        if (stream != null) stream.close();
+        if (writes != null) writes.close();
+    }
+
+    @Test
+    @DisplayName("Deve copiar a base e as alterações do líder com as mesmas versões")
+    void replicatesInOrder() throws IOException {
+        // Given: um líder com dados antes de a réplica conectar
+        for (int i = 0; i < 50; i++) leader.save(person("Pessoa " + i));
+        startLeader();
+        ReplicaPersonRepository replica = replica(Duration.ofSeconds(5));
+
+        // When: o líder altera e remove depois da réplica conectada
+        Person p = leader.findById(1L).orElseThrow();
+        Person next = p.withChanges("Renomeada", null, null, null);
+        next.setVersion(p.getVersion() + 1);
+        assertTrue(leader.replace(p, next));
+        leader.deleteById(2L);
+        Person created = leader.save(person("Nova"));
+
+        // Then: a réplica chega ao mesmo estado, com as versões do líder
+        await(() -> replica.appliedSequence() == leader.modificationCount());
+        assertEquals(leader.count(), replica.count());
+        assertEquals("Renomeada", replica.findById(1L).orElseThrow().getNome());
+        assertEquals(2, replica.findById(1L).orElseThrow().getVersion());
+        assertFalse(replica.existsById(2L));
+        assertEquals(created.getVersion(), replica.findById(created.getId()).orElseThrow().getVersion());
+        assertEquals(ids(leader.findAll()), ids(replica.findAll()));
+    }
+
+    @Test
+    @DisplayName("Deve encaminhar escritas ao líder e ler a própria escrita na réplica")
+    void forwardsWrites() throws IOException {
+        startLeader();
+        ReplicaPersonRepository replica = replica(Duration.ofSeconds(5));
+        await(() -> replica.stalenessMillis() < 1000);
+
+        // When: a réplica cria, altera com compare-and-set e remove
+        Person p = replica.save(person("Maria Silva"));
+        Person next = p.withChanges(null, null, null, new BigDecimal("2500"));
+        next.setVersion(p.getVersion() + 1);
+        boolean replaced = replica.replace(p, next);
+        boolean stale = replica.replace(p, next);
+        Person other = replica.save(person("João Souza"));
+        replica.deleteById(other.getId());
+
+        // Then: o ID veio do líder e cada escrita já está visível na própria réplica
+        assertEquals(p.getId(), leader.findById(p.getId()).orElseThrow().getId());
+        assertTrue(replaced);
+        assertFalse(stale, "versão 1 não é mais a atual");
+        assertEquals(new BigDecimal("2500"), replica.findById(p.getId()).orElseThrow().getSalarioAtual());
+        assertEquals(2, replica.findById(p.getId()).orElseThrow().getVersion());
+        assertFalse(replica.existsById(other.getId()));
+        assertFalse(leader.existsById(other.getId()));
+    }
+
+    @Test
+    @DisplayName("Deve recusar leituras quando passa do atraso máximo e se ressincronizar ao voltar")
+    void boundedStalenessAndResync() throws IOException {
+        // Given: réplica em dia com o líder
+        leader.save(person("Ana Lima"));
+        leader.save(person("Bia Lima"));
+        startLeader();
+        int port = stream.port();
+        ReplicaPersonRepository replica = replica(Duration.ofMillis(300));
+        await(() -> replica.count() == 2);
+
+        // When: o stream do líder cai e o líder continua recebendo escritas
+        stream.close();
+        leader.deleteById(1L);
+        leader.save(person("Carla Lima"));
+
+        // Then: passado o atraso máximo, a réplica responde que está desatualizada
+        await(() -> replica.stalenessMillis() > 300);
+        assertThrows(ReplicaStaleException.class, () -> replica.findById(2L));
+
+        // When: o líder volta (nova execução, outra época) na mesma porta
+        stream = ReplicationServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), leader, HEARTBEAT, SECRET);
+
+        // Then: a réplica recebe a base inteira e descarta o que o líder removeu
+        await(() -> replica.stalenessMillis() < 300 && replica.count() == 2);
+        assertFalse(replica.existsById(1L));
+        assertEquals(ids(leader.findAll()), ids(replica.findAll()));
+    }
+
+    @Test
+    @DisplayName("Deve registrar no feed da réplica só as alterações novas do líder, em ordem")
+    void localFeed() throws IOException {
+        startLeader();
+        ReplicaPersonRepository replica = replica(Duration.ofSeconds(5));
+        for (int i = 0; i < 10; i++) leader.save(person("Pessoa " + i));
+        await(() -> replica.appliedSequence() == 10);
+
+        // When: o líder grava mais 10 pessoas
+        long before = replica.changes().lastSequence();
+        for (int i = 10; i < 20; i++) leader.save(person("Pessoa " + i));
+
+        // Then: o feed local (GET /persons/changes na réplica) recebe só essas 10, em ordem
+        await(() -> replica.appliedSequence() == 20);
+        List<PersonChangeFeed.Change> changes = new ArrayList<>();
+        assertTrue(replica.changes().poll(before, 100, 0, changes));
+        assertEquals(10, changes.size());
+        assertEquals(11L, changes.get(0).id());
+    }
+
+    @Test
+    @DisplayName("Não deve replicar para quem não tem o segredo do líder")
+    void rejectsWrongSecret() throws Exception {
+        // Given: um líder com dados e uma réplica configurada com outro segredo
+        leader.save(person("Ana Souza"));
+        startLeader();
+        ReplicaPersonRepository replica = replica(Duration.ofMillis(200), "outro");
+
+        // When: passam vários heartbeats
+        Thread.sleep(HEARTBEAT.toMillis() * 6);
+
+        // Then: nada chegou e a réplica se declara desatualizada
+        assertEquals(0, replica.appliedSequence());
+        assertThrows(ReplicaStaleException.class, () -> replica.findById(1L));
+    }
+
+    private void startLeader() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        stream = ReplicationServer.start(new InetSocketAddress(loopback, 0), leader, HEARTBEAT, SECRET);
+        writes = ShardServer.start(new InetSocketAddress(loopback, 0), leader, SECRET);
+    }
+
+    private ReplicaPersonRepository replica(Duration maxStaleness) {
+        return replica(maxStaleness, SECRET);
+    }
+
+    private ReplicaPersonRepository replica(Duration maxStaleness, String secret) {
+        ReplicaPersonRepository r = ReplicaPersonRepository.start(new InMemoryPersonRepository(), new ReplicaOptions(
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), stream.port()),
+            URI.create("http://127.0.0.1:" + writes.port()),
+            HEARTBEAT, maxStaleness, Duration.ofSeconds(2), secret));
+        replicas.add(r);
+        return r;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (true) {
+            try {
+                if (condition.getAsBoolean()) return;
+            } catch (ReplicaStaleException ignored) {
+                // ainda sincronizando
+            }
+            if (System.nanoTime() > deadline) fail("Condição não atingida em 5 s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static List<Long> ids(List<Person> people) {
+        return people.stream().map(Person::getId).toList();
+    }
+
+    private static Person person(String nome) {
+        return new Person(null, nome, LocalDate.of(1990, 3, 15), LocalDate.of(2020, 1, 10), new BigDecimal("1000.00"));
+    }
+}
@@ -0,0 +1,162 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da linha do tempo de salários: codificação compacta, troca para a larga e busca por data.
+ */
+@DisplayName("SalaryHistory - Histórico de salários")
+class SalaryHistoryTest {
+    private static final LocalDate ADMISSAO = LocalDate.of(2020, 1, 2);
+
+    @Test
+    @DisplayName("Deve responder pelo salário em vigor em cada data")
+    void pointInTime() {
+        // Given: uma pessoa admitida com 2500.00 que teve dois aumentos
+        SalaryHistory history = new SalaryHistory();
+        Person p = person("2500.00");
+        p = change(history, p, "3000.00", LocalDate.of(2022, 3, 1));
+        p = change(history, p, "3500.50", LocalDate.of(2023, 7, 15));
+
+        // When / Then: cada data cai na entrada que começou nela ou antes
+        assertEquals(Optional.empty(), history.at(p, ADMISSAO.minusDays(1)));
+        assertEquals(entry(ADMISSAO, "2500.00"), history.at(p, ADMISSAO).orElseThrow());
+        assertEquals(entry(ADMISSAO, "2500.00"), history.at(p, LocalDate.of(2022, 2, 28)).orElseThrow());
+        assertEquals(entry(LocalDate.of(2022, 3, 1), "3000.00"), history.at(p, LocalDate.of(2022, 3, 1)).orElseThrow());
+        assertEquals(entry(LocalDate.of(2023, 7, 15), "3500.50"), history.at(p, LocalDate.of(2030, 1, 1)).orElseThrow());
+        assertEquals(3, history.history(p).size());
+    }
+
+    @Test
+    @DisplayName("Deve ignorar gravações sem mudança de salário e juntar as do mesmo dia")
+    void sameSalaryAndSameDay() {
+        // Given: uma pessoa sem alterações
+        SalaryHistory history = new SalaryHistory();
+        Person p = person("2500.00");
+        LocalDate dia = LocalDate.of(2024, 5, 10);
+
+        // When: grava o mesmo salário (com outra escala) e depois duas alterações no mesmo dia
+        p = change(history, p, "2500.0", dia);
+        assertEquals(List.of(entry(ADMISSAO, "2500.0")), history.history(p), "sem linha do tempo: só o atual");
+        p = change(history, p, "2600.00", dia);
+        p = change(history, p, "2700.00", dia);
+
+        // Then: uma entrada por dia, com o último valor
+        assertEquals(List.of(entry(ADMISSAO, "2500.00"), entry(dia, "2700.00")), history.history(p));
+    }
+
+    @Test
+    @DisplayName("Deve passar para a codificação larga sem perder entradas")
+    void widensWhenDeltaDoesNotFit() {
+        // Given: salários aleatórios, alguns muito acima de R$ 21 milhões de diferença
+        SalaryHistory history = new SalaryHistory();
+        Person p = person("1500.00");
+        List<SalaryHistory.Entry> expected = new ArrayList<>(List.of(entry(ADMISSAO, "1500.00")));
+        Random rnd = new Random(7);
+        LocalDate dia = ADMISSAO;
+
+        // When: registramos 200 alterações em dias crescentes
+        for (int i = 0; i < 200; i++) {
+            dia = dia.plusDays(1 + rnd.nextInt(400));
+            BigDecimal salario = BigDecimal.valueOf(i == 150 ? 900_000_000_00L : 100_000 + rnd.nextInt(10_000_000), 2);
+            p = change(history, p, salario.toPlainString(), dia);
+            expected.add(new SalaryHistory.Entry(dia, salario));
+        }
+
+        // Then: a lista e as buscas conferem, antes e depois do ponto em que a linha do tempo alargou
+        assertEquals(expected, history.history(p));
+        for (SalaryHistory.Entry e : expected) {
+            assertEquals(e, history.at(p, e.desde()).orElseThrow());
+            assertEquals(e, SalaryHistory.at(expected, e.desde()).orElseThrow());
+        }
+    }
+
+    @Test
+    @DisplayName("Deve esquecer o histórico de quem foi removido")
+    void remove() {
+        SalaryHistory history = new SalaryHistory();
+        Person p = change(history, person("2500.00"), "3000.00", LocalDate.of(2024, 1, 1));
+
+        history.remove(p.getId());
+
+        assertEquals(List.of(entry(ADMISSAO, "3000.00")), history.history(p));
+    }
+
+    @Test
+    @DisplayName("Deve entregar às leituras concorrentes sempre uma linha do tempo completa, sem lock")
+    void readsWhileWriting() throws Exception {
+        // Given: no dia k depois da admissão o salário é salario(k); cada dia é gravado antes com
+        // salario(k) + 0,01 e depois corrigido, e a partir de k = 3000 a linha do tempo alarga
+        SalaryHistory history = new SalaryHistory();
+        Person inicial = person("1000.00");
+        int dias = 6_000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> failure = new AtomicReference<>();
+        Runnable reader = () -> {
+            int lastSize = 0;
+            while (!done.get() && failure.get() == null) {
+                List<SalaryHistory.Entry> entries = history.history(inicial);
+                if (entries.size() < lastSize) failure.set("linha do tempo encolheu: " + entries.size());
+                lastSize = entries.size();
+                for (int i = 0; i < entries.size(); i++) {
+                    SalaryHistory.Entry e = entries.get(i);
+                    long k = e.desde().toEpochDay() - ADMISSAO.toEpochDay();
+                    boolean ok = e.salario().equals(salario(k))
+                        || (i == entries.size() - 1 && e.salario().equals(salario(k).add(new BigDecimal("0.01"))));
+                    if (!ok || (i > 0 && !e.desde().isAfter(entries.get(i - 1).desde()))) {
+                        failure.set("entrada " + i + " inconsistente: " + e);
+                    }
+                }
+                LocalDate dia = ADMISSAO.plusDays(lastSize / 2);
+                history.at(inicial, dia).filter(e -> e.desde().isAfter(dia)).ifPresent(e -> failure.set("at(" + dia + ") = " + e));
+            }
+        };
+        Thread[] readers = {Thread.ofVirtual().start(reader), Thread.ofPlatform().start(reader)};
+
+        // When
+        Person p = inicial;
+        for (int k = 1; k <= dias; k++) {
+            LocalDate dia = ADMISSAO.plusDays(k);
+            p = change(history, p, salario(k).add(new BigDecimal("0.01")).toPlainString(), dia);
+            p = change(history, p, salario(k).toPlainString(), dia);
+        }
+        done.set(true);
+        for (Thread t : readers) t.join();
+
+        // Then
+        assertNull(failure.get());
+        assertEquals(dias + 1, history.history(p).size());
+        assertEquals(salario(dias), history.at(p, ADMISSAO.plusDays(dias)).orElseThrow().salario());
+    }
+
+    private static BigDecimal salario(long k) {
+        return BigDecimal.valueOf(k < 3_000 ? 100_000 + k : 900_000_000_00L + k, 2);
+    }
+
+    private static Person change(SalaryHistory history, Person current, String salario, LocalDate dia) {
+        Person next = current.withChanges(null, null, null, new BigDecimal(salario));
+        history.changed(current.getId(), PayrollAggregates.Contribution.of(current), next, dia.toEpochDay());
+        return next;
+    }
+
+    private static Person person(String salario) {
+        return new Person(1L, "Maria Silva", LocalDate.of(1990, 5, 17), ADMISSAO, new BigDecimal(salario));
+    }
+
+    private static SalaryHistory.Entry entry(LocalDate desde, String salario) {
+        return new SalaryHistory.Entry(desde, new BigDecimal(salario));
+    }
+}
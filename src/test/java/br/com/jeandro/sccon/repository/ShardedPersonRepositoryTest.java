@@ -0,0 +1,221 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do repositório particionado com três nós no mesmo processo, cada um com a sua partição
+ * e o seu servidor interno em uma porta local.
+ */
+@DisplayName("ShardedPersonRepository - Particionamento por hash consistente")
+class ShardedPersonRepositoryTest {
+    private static final String SECRET = "segredo-do-teste";
+
+    private final List<ShardServer> servers = new ArrayList<>();
+    private final List<InMemoryPersonRepository> partitions = new ArrayList<>();
+    private final List<ShardedPersonRepository> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stop() throws IOException {
+        for (ShardedPersonRepository n : nodes) n.close();
+        for (ShardServer s : servers) s.close();
+    }
+
+    @Test
+    @DisplayName("Deve gravar cada pessoa no nó dono e responder igual em qualquer nó")
+    void routesAndScatterGathers() {
+        // Given: três nós e uma referência com as mesmas pessoas num único repositório
+        cluster(3);
+        InMemoryPersonRepository reference = new InMemoryPersonRepository();
+        Random rnd = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            Person p = randomPerson(rnd, i);
+            nodes.get(i % 3).save(p); // cada nó cria um terço
+            Person copy = new Person(p.getId(), p.getNome(), p.getDataNascimento(), p.getDataAdmissao(), p.getSalarioAtual());
+            reference.save(copy);
+        }
+
+        // Then: IDs únicos, cada partição só com os IDs que o anel atribui a ela e todas com dados
+        Set<Long> ids = reference.findAll().stream().map(Person::getId).collect(Collectors.toSet());
+        assertEquals(300, ids.size());
+        for (int n = 0; n < 3; n++) {
+            int node = n;
+            assertTrue(partitions.get(n).count() > 0);
+            assertTrue(partitions.get(n).findAll().stream().allMatch(p -> nodes.get(0).owner(p.getId()) == node));
+        }
+
+        // Then: qualquer nó encontra qualquer ID, lista em ordem global e filtra como a referência
+        for (ShardedPersonRepository node : nodes) {
+            assertEquals(300, node.count());
+            for (long id : List.copyOf(ids).subList(0, 20)) assertTrue(node.findById(id).isPresent());
+            List<Long> some = new ArrayList<>(List.copyOf(ids).subList(0, 40));
+            some.add(999_999L);
+            assertEquals(new HashSet<>(some.subList(0, 40)), node.findAllById(some).keySet());
+            assertEquals(ids(reference.findAll()), ids(node.findAll()));
+            PersonNameKey after = PersonNameKey.of(reference.findAll().get(99));
+            assertEquals(ids(reference.findPageByName(after, 50)), ids(node.findPageByName(after, 50)));
+            PersonFilter filter = new PersonFilter(null, null, new BigDecimal("2000"), new BigDecimal("6000"), null);
+            assertEquals(ids(reference.findByFilter(filter).toList()), ids(node.findByFilter(filter).toList()));
+            PersonFilter mes = new PersonFilter(null, null, null, null, 3);
+            assertEquals(ids(reference.findByFilter(mes).toList()), ids(node.findByFilter(mes).toList()));
+            assertEquals(ids(reference.searchByName("silva 1", 10)), ids(node.searchByName("silva 1", 10)));
+            // os agregados de cada partição somados dão os da base inteira, quantis inclusive
+            PayrollStats stats = node.payrollStats();
+            PayrollStats expected = reference.payrollStats();
+            assertEquals(expected.folha(), stats.folha());
+            assertEquals(expected.admissoesPorAno(), stats.admissoesPorAno());
+            assertEquals(expected.faixas(), stats.faixas());
+            assertEquals(expected.quantil(0.5), stats.quantil(0.5));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve encaminhar alteração, compare-and-set e remoção ao nó dono")
+    void forwardsWrites() {
+        // Given: uma pessoa criada no nó 0 e um nó que não é o dono dela
+        cluster(3);
+        Person p = nodes.get(0).save(new Person(null, "Maria Silva", LocalDate.of(1990, 1, 1), LocalDate.of(2020, 1, 1), new BigDecimal("1000")));
+        ShardedPersonRepository other = nodes.get((nodes.get(0).owner(p.getId()) + 1) % 3);
+
+        // When: o outro nó troca a versão 1 pela 2 e tenta de novo com a versão já velha
+        Person next = p.withChanges(null, null, null, new BigDecimal("2000"));
+        next.setVersion(2);
+        assertTrue(other.replace(p, next));
+        assertFalse(other.replace(p, next), "versão 1 não é mais a atual");
+
+        // Then: a alteração está no dono e a remoção pelo outro nó também chega lá
+        assertEquals(new BigDecimal("2000"), nodes.get(0).findById(p.getId()).orElseThrow().getSalarioAtual());
+        assertEquals(2, other.findById(p.getId()).orElseThrow().getVersion());
+        assertEquals(List.of(new SalaryHistory.Entry(LocalDate.of(2020, 1, 1), new BigDecimal("1000.00")),
+            new SalaryHistory.Entry(LocalDate.now(), new BigDecimal("2000.00"))), other.salaryHistory(p.getId()));
+        assertEquals(new BigDecimal("1000.00"), other.salaryAt(p.getId(), LocalDate.of(2021, 6, 1)).orElseThrow().salario());
+        other.deleteById(p.getId());
+        assertFalse(nodes.get(0).existsById(p.getId()));
+        assertEquals(0, nodes.get(2).count());
+    }
+
+    @Test
+    @DisplayName("Deve falhar com ShardUnavailableException quando o nó dono está fora")
+    void ownerDown() {
+        cluster(2);
+        Person p = nodes.get(1).save(new Person(null, "Ana Lima", LocalDate.of(1990, 1, 1), LocalDate.of(2020, 1, 1), BigDecimal.TEN));
+        servers.get(1).close();
+
+        assertThrows(ShardUnavailableException.class, () -> nodes.get(0).findById(p.getId()));
+        assertThrows(ShardUnavailableException.class, () -> nodes.get(0).count());
+        assertTrue(nodes.get(1).findById(p.getId()).isPresent(), "o próprio dono continua lendo");
+    }
+
+    @Test
+    @DisplayName("Deve recusar chamadas entre nós sem o segredo do cluster")
+    void rejectsWrongSecret() {
+        // Given: dois nós e um terceiro processo que conhece os endereços, mas não o segredo
+        cluster(2);
+        Person p = nodes.get(1).save(new Person(null, "Ana Lima", LocalDate.of(1990, 1, 1), LocalDate.of(2020, 1, 1), BigDecimal.TEN));
+        List<URI> addresses = List.of(URI.create("http://127.0.0.1:" + servers.get(0).port()), URI.create("http://127.0.0.1:" + servers.get(1).port()));
+
+        // When / Then: o nó 1 responde 401 e nada é lido nem gravado
+        ShardedPersonRepository intruder = new ShardedPersonRepository(0, addresses, new InMemoryPersonRepository(), Duration.ofSeconds(2), "outro");
+        nodes.add(intruder);
+        ShardUnavailableException e = assertThrows(ShardUnavailableException.class, () -> intruder.findById(p.getId()));
+        assertTrue(e.getMessage().contains("segredo"), e.getMessage());
+        assertThrows(ShardUnavailableException.class, () -> intruder.deleteById(p.getId()));
+        assertTrue(nodes.get(0).existsById(p.getId()));
+    }
+
+    @Test
+    @DisplayName("Deve mudar a versão dos dados quando um nó reinicia, mesmo com a soma dos contadores igual")
+    void dataVersionAfterRestart() throws IOException {
+        // Given: duas gravações no nó 1
+        cluster(2);
+        for (int i = 0; i < 2; i++) partitions.get(1).save(randomPerson(new Random(i), i));
+        String before = nodes.get(0).dataVersion();
+        assertEquals(before, nodes.get(1).dataVersion(), "todos os nós calculam a mesma versão");
+
+        // When: o nó 1 reinicia (outra execução) na mesma porta e grava de novo duas vezes
+        int port = servers.get(1).port();
+        servers.get(1).close();
+        InMemoryPersonRepository restarted = new InMemoryPersonRepository() {
+            @Override
+            public String dataVersion() {
+                return "reiniciado-" + modificationCount();
+            }
+        };
+        servers.set(1, ShardServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), restarted, SECRET));
+        for (int i = 0; i < 2; i++) restarted.save(randomPerson(new Random(i), i));
+
+        // Then: os contadores somam o mesmo, mas a versão (e a ETag da coleção) não se repete
+        assertEquals(2, nodes.get(0).modificationCount());
+        assertNotEquals(before, nodes.get(0).dataVersion());
+    }
+
+    @Test
+    @DisplayName("Deve distribuir IDs por igual e mover só uma fração ao acrescentar um nó")
+    void ringBalance() {
+        // Given: anéis de 4 e 5 nós
+        ConsistentHashRing four = new ConsistentHashRing(4);
+        ConsistentHashRing five = new ConsistentHashRing(5);
+        int[] load = new int[4];
+        int moved = 0, total = 100_000;
+
+        // When: distribuímos IDs sequenciais
+        for (long id = 1; id <= total; id++) {
+            int owner = four.owner(id);
+            load[owner]++;
+            if (five.owner(id) != owner) moved++;
+        }
+
+        // Then: cada nó fica com ~1/4 e ~1/5 dos IDs muda de dono
+        for (int l : load) assertEquals(total / 4.0, l, total * 0.05, "carga por nó");
+        assertEquals(total / 5.0, moved, total * 0.05, "IDs movidos");
+    }
+
+    private void cluster(int n) {
+        List<URI> addresses = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            InMemoryPersonRepository local = new InMemoryPersonRepository();
+            try {
+                ShardServer server = ShardServer.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), local, SECRET);
+                servers.add(server);
+                addresses.add(URI.create("http://127.0.0.1:" + server.port()));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            partitions.add(local);
+        }
+        for (int i = 0; i < n; i++) {
+            nodes.add(new ShardedPersonRepository(i, addresses, partitions.get(i), Duration.ofSeconds(2), SECRET));
+        }
+    }
+
+    private static List<Long> ids(List<Person> people) {
+        return people.stream().map(Person::getId).toList();
+    }
+
+    private static Person randomPerson(Random rnd, int i) {
+        String[] nomes = { "Maria", "João", "Ana", "José", "Beatriz" };
+        String[] sobrenomes = { "Silva", "Souza", "Lima", "Araújo" };
+        return new Person(null, nomes[rnd.nextInt(nomes.length)] + " " + sobrenomes[rnd.nextInt(sobrenomes.length)] + " " + i,
+            LocalDate.of(1960 + rnd.nextInt(40), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28)),
+            LocalDate.of(2000 + rnd.nextInt(24), 1 + rnd.nextInt(12), 1 + rnd.nextInt(28)),
+            new BigDecimal(1000 + rnd.nextInt(9000) + ".00"));
+    }
+}
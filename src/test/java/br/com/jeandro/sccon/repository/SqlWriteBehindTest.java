@@ -0,0 +1,146 @@
+package br.com.jeandro.sccon.repository;
+
+import br.com.jeandro.sccon.model.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Testes da cópia assíncrona para SQL, com um H2 em memória. */
+@DisplayName("SqlWriteBehind - Cópia assíncrona para SQL")
+class SqlWriteBehindTest {
+    private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+    private final InMemoryPersonRepository repo = new InMemoryPersonRepository();
+
+    @AfterEach
+    void close() throws IOException {
+        repo.close();
+    }
+
+    @Test
+    @DisplayName("Deve gravar no banco só o estado final de cada ID, em lotes")
+    void coalescesAndFlushes() throws Exception {
+        // Given: a cópia ligada com intervalo longo (só o lote cheio ou o close gravam)
+        SqlWriteBehind sql = attach(Duration.ofMinutes(1), 1000, 1000, Duration.ofSeconds(1));
+
+        // When: criamos, alteramos várias vezes e removemos antes de qualquer gravação
+        Person ana = repo.save(person("Ana", "1000.00"));
+        Person bia = repo.save(person("Bia", "2000.00"));
+        for (int i = 1; i <= 5; i++) {
+            Person current = repo.findById(ana.getId()).orElseThrow();
+            Person next = current.withChanges(null, null, null, new BigDecimal(1000 + i + ".00"));
+            next.setVersion(current.getVersion() + 1);
+            assertTrue(repo.replace(current, next));
+        }
+        repo.deleteById(bia.getId());
+
+        // Then: a fila tem um ID por pessoa alterada
+        assertEquals(2, sql.pending());
+
+        // e o close grava o estado final de cada uma
+        sql.close();
+        Map<Long, String> rows = rows();
+        assertEquals(Map.of(ana.getId(), "Ana|1005.00|6"), rows);
+        assertEquals(0, sql.pending());
+        assertEquals(0, sql.lagMillis());
+        assertEquals(2, sql.rowsWritten());
+    }
+
+    @Test
+    @DisplayName("Deve gravar sozinho quando a fila junta um lote")
+    void flushesOnBatchSize() throws Exception {
+        // Given: lotes de 10 e intervalo longo
+        SqlWriteBehind sql = attach(Duration.ofMinutes(1), 10, 1000, Duration.ofSeconds(1));
+
+        // When: gravamos 10 pessoas
+        for (int i = 0; i < 10; i++) repo.save(person("Pessoa " + i, "1500.00"));
+
+        // Then: o lote vai para o banco sem esperar o intervalo
+        await(() -> sql.batchesWritten() >= 1 && sql.pending() == 0);
+        assertEquals(10, rows().size());
+    }
+
+    @Test
+    @DisplayName("Ao ser ligada, deve trocar o conteúdo da tabela pelo do repositório")
+    void reloadsOnAttach() throws Exception {
+        // Given: uma tabela com uma linha que o repositório não tem e um repositório já com dados
+        try (Connection c = DriverManager.getConnection(url, "sa", ""); Statement st = c.createStatement()) {
+            st.execute(SqlWriteBehind.CREATE_TABLE);
+            st.executeUpdate("INSERT INTO person (id, nome, version) VALUES (999, 'Antiga', 1)");
+        }
+        Person ana = repo.save(person("Ana", "1000.00"));
+
+        // When: a cópia é ligada e fechada sem outras escritas
+        attach(Duration.ofMinutes(1), 1000, 1000, Duration.ofSeconds(1)).close();
+
+        // Then: a tabela espelha o repositório
+        assertEquals(Map.of(ana.getId(), "Ana|1000.00|1"), rows());
+    }
+
+    @Test
+    @DisplayName("Com o banco fora e a fila cheia, deve recusar escritas sem aplicá-las")
+    void backpressure() {
+        // Given: um banco inacessível e uma fila de 2 IDs com espera curta
+        SqlWriteBehind sql = new SqlWriteBehind(new WriteBehindOptions("jdbc:sccon-inexistente:x", "sa", "",
+            Duration.ofMillis(20), 10, 2, Duration.ofMillis(50)));
+        sql.attach(repo);
+
+        // When: dois IDs enchem a fila
+        repo.save(person("Ana", "1000.00"));
+        repo.save(person("Bia", "2000.00"));
+
+        // Then: a terceira escrita espera, é recusada e não fica na memória
+        assertThrows(WriteBehindFullException.class, () -> repo.save(person("Cris", "3000.00")));
+        assertEquals(2, repo.count());
+        assertEquals(1, sql.rejected());
+        await(() -> sql.failures() > 0);
+        await(() -> sql.lagMillis() > 0);
+        assertEquals(2, sql.pending());
+    }
+
+    private SqlWriteBehind attach(Duration flushInterval, int batchSize, int capacity, Duration maxWait) {
+        SqlWriteBehind sql = new SqlWriteBehind(new WriteBehindOptions(url, "sa", "", flushInterval, batchSize, capacity, maxWait));
+        sql.attach(repo);
+        return sql;
+    }
+
+    /** Linhas da tabela como {@code id -> nome|salario|versão}. */
+    private Map<Long, String> rows() throws SQLException {
+        Map<Long, String> rows = new HashMap<>();
+        try (Connection c = DriverManager.getConnection(url, "sa", "");
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT id, nome, salario_atual, version FROM person")) {
+            while (rs.next()) {
+                rows.put(rs.getLong(1), rs.getString(2) + "|" + rs.getBigDecimal(3) + "|" + rs.getLong(4));
+            }
+        }
+        return rows;
+    }
+
+    private static Person person(String nome, String salario) {
+        return new Person(null, nome, LocalDate.of(1990, 1, 1), LocalDate.of(2020, 1, 1), new BigDecimal(salario));
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) fail("condição não atingida em 5 s");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package br.com.jeandro.sccon.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Testes do limite adaptativo (AIMD) com relógio controlado. */
+@DisplayName("ConcurrencyLimiter - Limite adaptativo de concorrência")
+class ConcurrencyLimiterTest {
+    private static final long MS = 1_000_000;
+
+    private final long[] now = {1_000 * MS};
+
+    private ConcurrencyLimiter limiter(int initial, int min, int max, long targetMs) {
+        return new ConcurrencyLimiter(
+            new ConcurrencyLimiter.Options(initial, min, max, Duration.ofMillis(targetMs), 0.9), () -> now[0]);
+    }
+
+    @Test
+    @DisplayName("Deve recusar acima do limite e voltar a admitir após a liberação")
+    void rejectsAboveLimit() {
+        // Given
+        ConcurrencyLimiter l = limiter(2, 1, 10, 100);
+
+        // When / Then
+        assertTrue(l.tryAcquire());
+        assertTrue(l.tryAcquire());
+        assertFalse(l.tryAcquire());
+        assertEquals(1, l.rejected());
+        assertEquals(2, l.inFlight());
+
+        l.release(now[0]);
+        assertEquals(1, l.inFlight());
+        assertTrue(l.tryAcquire());
+    }
+
+    @Test
+    @DisplayName("Deve reduzir o limite uma única vez por janela de requisições lentas")
+    void decreasesOncePerWindow() {
+        // Given: duas requisições admitidas antes de qualquer queda
+        ConcurrencyLimiter l = limiter(10, 1, 100, 10);
+        now[0] += MS;
+        long start = now[0];
+        l.tryAcquire();
+        l.tryAcquire();
+
+        // When: as duas terminam acima do alvo
+        now[0] += 50 * MS;
+        l.release(start);
+        l.release(start);
+
+        // Then: só a primeira derruba o limite
+        assertEquals(9, l.limit());
+
+        // When: uma requisição admitida depois da queda também é lenta
+        now[0] += MS;
+        long later = now[0];
+        l.tryAcquire();
+        now[0] += 50 * MS;
+        l.release(later);
+
+        // Then: 9 * 0.9 = 8.1
+        assertEquals(8, l.limit());
+    }
+
+    @Test
+    @DisplayName("Deve aumentar o limite só com ao menos metade das vagas em uso")
+    void increasesOnlyWhenHalfInUse() {
+        // Given
+        ConcurrencyLimiter l = limiter(10, 1, 100, 10);
+
+        // When: uma requisição rápida com o limite quase vazio
+        l.tryAcquire();
+        for (int i = 0; i < 50; i++) {
+            l.release(now[0]);
+            l.tryAcquire();
+        }
+
+        // Then
+        assertEquals(10, l.limit());
+
+        // When: cinco em andamento; cada resposta rápida soma 1/limite
+        for (int i = 0; i < 4; i++) l.tryAcquire();
+        for (int i = 0; i < 11; i++) {
+            l.release(now[0]);
+            l.tryAcquire();
+        }
+
+        // Then
+        assertEquals(11, l.limit());
+    }
+
+    @Test
+    @DisplayName("Deve manter o limite entre min e max")
+    void clampsToMinAndMax() {
+        // Given
+        ConcurrencyLimiter l = limiter(4, 2, 5, 10);
+
+        // When: muitas janelas lentas
+        for (int i = 0; i < 20; i++) {
+            now[0] += MS;
+            long start = now[0];
+            l.tryAcquire();
+            now[0] += 50 * MS;
+            l.release(start);
+        }
+
+        // Then
+        assertEquals(2, l.limit());
+
+        // When: muitas respostas rápidas com o limite cheio
+        for (int i = 0; i < 1_000; i++) {
+            while (l.tryAcquire()) { }
+            l.release(now[0]);
+        }
+
+        // Then
+        assertEquals(5, l.limit());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar opções inválidas")
+    void rejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(1, 0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> limiter(20, 1, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrencyLimiter(
+            new ConcurrencyLimiter.Options(5, 1, 10, Duration.ofMillis(10), 1.0)));
+    }
+
+    @Test
+    @DisplayName("Deve manter a latência das admitidas limitada com o dobro da carga suportada")
+    void boundsLatencyPastSaturation() {
+        // Given: servidor que atende 8 requisições de 1 ms em paralelo e divide a CPU entre o excesso,
+        // recebendo 16 requisições por ms (o dobro da capacidade) durante 1 s
+        Simulation unlimited = simulate(null);
+        Simulation limited = simulate(limiter(4, 1, 1_000, 2));
+
+        // Then: sem limite a fila cresce sem parar e a cauda explode
+        assertTrue(unlimited.p99Ms() > 100, "p99 sem limite: " + unlimited.p99Ms());
+        // Then: com limite o excesso recebe 503, a cauda fica perto do alvo e a vazão, na capacidade
+        assertTrue(limited.p99Ms() < 5, "p99 com limite: " + limited.p99Ms());
+        assertTrue(limited.completed() > 7_000, "concluídas com limite: " + limited.completed());
+        assertTrue(limited.rejected() > 7_000, "recusadas com limite: " + limited.rejected());
+    }
+
+    record Simulation(double p99Ms, int completed, long rejected) {}
+
+    /** Simulação em passos de 0,1 ms: cada requisição precisa de 1 ms de CPU e há 8 núcleos. */
+    private Simulation simulate(ConcurrencyLimiter l) {
+        long step = MS / 10;
+        double cores = 8;
+        double arrivalsPerStep = 1.6;
+        record Request(long start, double[] work) {}
+        List<Request> inFlight = new ArrayList<>();
+        List<Long> latencies = new ArrayList<>();
+        long rejected = 0;
+        double arrivals = 0;
+        for (int t = 0; t < 10_000; t++) {
+            now[0] += step;
+            for (arrivals += arrivalsPerStep; arrivals >= 1; arrivals--) {
+                if (l == null || l.tryAcquire()) inFlight.add(new Request(now[0], new double[]{MS}));
+                else rejected++;
+            }
+            double share = step * Math.min(1, cores / inFlight.size());
+            for (Iterator<Request> it = inFlight.iterator(); it.hasNext(); ) {
+                Request r = it.next();
+                if ((r.work()[0] -= share) > 0) continue;
+                it.remove();
+                latencies.add(now[0] - r.start());
+                if (l != null) l.release(r.start());
+            }
+        }
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        double p99 = sorted.length == 0 ? Double.MAX_VALUE : sorted[(int) (sorted.length * 0.99) - 1] / (double) MS;
+        return new Simulation(p99, sorted.length, rejected);
+    }
+}
@@ -0,0 +1,150 @@
+package br.com.jeandro.sccon.service;
+
+import br.com.jeandro.sccon.model.Person;
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Testes do coalescing e do micro-batching das buscas por ID. */
+@DisplayName("PersonLookup - Coalescing e micro-batching")
+class PersonLookupTest {
+
+    /** Repositório que conta as buscas e segura cada uma até {@code release} abrir. */
+    static class SlowRepository extends InMemoryPersonRepository {
+        final AtomicInteger findById = new AtomicInteger();
+        final AtomicInteger findAllById = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public Optional<Person> findById(Long id) {
+            findById.incrementAndGet();
+            await();
+            return super.findById(id);
+        }
+
+        @Override
+        public Map<Long, Person> findAllById(Collection<Long> ids) {
+            findAllById.incrementAndGet();
+            Map<Long, Person> found = new HashMap<>();
+            for (Long id : ids) super.findById(id).ifPresent(p -> found.put(id, p));
+            return found;
+        }
+
+        private void await() {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve compartilhar uma única busca entre chamadas simultâneas do mesmo ID")
+    void coalescesSameId() throws Exception {
+        // Given: uma pessoa e um repositório lento
+        SlowRepository repo = new SlowRepository();
+        Person p = repo.save(person("Maria Silva"));
+        PersonLookup lookup = new PersonLookup(repo, true, 0, 1);
+
+        // When: 8 buscas do mesmo ID enquanto a primeira ainda está no repositório
+        List<Future<Optional<Person>>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) results.add(pool.submit(() -> lookup.find(p.getId())));
+            while (repo.findById.get() == 0) Thread.onSpinWait();
+            Thread.sleep(50); // as outras chegam e se juntam à busca em andamento
+            repo.release.countDown();
+        }
+
+        // Then: uma ida ao repositório e o mesmo resultado para todas
+        assertEquals(1, repo.findById.get());
+        for (Future<Optional<Person>> r : results) assertSame(p, r.get().orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Não deve reaproveitar uma busca em andamento depois de uma escrita no ID")
+    void writtenStartsNewFlight() throws Exception {
+        SlowRepository repo = new SlowRepository();
+        Person p = repo.save(person("Maria Silva"));
+        PersonLookup lookup = new PersonLookup(repo, true, 0, 1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<Person>> before = pool.submit(() -> lookup.find(p.getId()));
+            while (repo.findById.get() == 0) Thread.onSpinWait();
+            // When: uma escrita termina enquanto a busca anterior ainda está no repositório
+            lookup.written(p.getId());
+            Future<Optional<Person>> after = pool.submit(() -> lookup.find(p.getId()));
+            while (repo.findById.get() < 2) Thread.onSpinWait();
+            repo.release.countDown();
+            before.get();
+            after.get();
+        }
+
+        // Then: a busca posterior foi feita por conta própria
+        assertEquals(2, repo.findById.get());
+    }
+
+    @Test
+    @DisplayName("Deve agrupar buscas de IDs diferentes da mesma janela numa única busca em lote")
+    void batchesWithinWindow() throws Exception {
+        // Given: 32 pessoas e uma janela de 20 ms
+        SlowRepository repo = new SlowRepository();
+        List<Person> people = new ArrayList<>();
+        for (int i = 0; i < 32; i++) people.add(repo.save(person("Pessoa " + i)));
+        PersonLookup lookup = new PersonLookup(repo, false, 20_000, 64);
+
+        // When: as 32 buscas (e uma de ID inexistente) chegam juntas
+        List<Future<Optional<Person>>> results = new ArrayList<>();
+        Future<Optional<Person>> missing;
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Person p : people) results.add(pool.submit(() -> lookup.find(p.getId())));
+            missing = pool.submit(() -> lookup.find(999L));
+        }
+
+        // Then: poucas buscas em lote, nenhuma individual e cada uma com a sua pessoa
+        assertTrue(repo.findAllById.get() <= 3, "lotes: " + repo.findAllById.get());
+        assertEquals(0, repo.findById.get());
+        for (int i = 0; i < people.size(); i++) assertSame(people.get(i), results.get(i).get().orElseThrow());
+        assertTrue(missing.get().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve fechar o lote ao atingir o tamanho máximo sem esperar a janela")
+    void fullBatchRunsEarly() throws Exception {
+        SlowRepository repo = new SlowRepository();
+        for (int i = 0; i < 4; i++) repo.save(person("Pessoa " + i));
+        PersonLookup lookup = new PersonLookup(repo, false, TimeUnit.SECONDS.toMicros(30), 4);
+
+        long start = System.nanoTime();
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long id = 1; id <= 4; id++) {
+                long i = id;
+                pool.submit(() -> lookup.find(i));
+            }
+        }
+
+        assertEquals(1, repo.findAllById.get());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10), "não esperou a janela de 30 s");
+    }
+
+    private static Person person(String nome) {
+        return new Person(null, nome, LocalDate.of(1990, 3, 15), LocalDate.of(2020, 1, 10), new BigDecimal("1000.00"));
+    }
+}
@@ -1,13 +1,41 @@
 package br.com.jeandro.sccon.service;
 
+import br.com.jeandro.sccon.dto.PersonBatchItemResult;
+import br.com.jeandro.sccon.dto.PersonBatchResult;
+import br.com.jeandro.sccon.dto.PersonChange;
 import br.com.jeandro.sccon.dto.PersonCreateRequest;
+import br.com.jeandro.sccon.dto.PersonMetricsResponse;
+import br.com.jeandro.sccon.dto.PersonPage;
+import br.com.jeandro.sccon.dto.PersonPatchRequest;
 import br.com.jeandro.sccon.dto.PersonResponse;
+import br.com.jeandro.sccon.dto.PersonSalaryEntry;
+import br.com.jeandro.sccon.dto.PersonStatsResponse;
+import br.com.jeandro.sccon.exception.BadRequestException;
 import br.com.jeandro.sccon.exception.NotFoundException;
+import br.com.jeandro.sccon.exception.PreconditionFailedException;
+import br.com.jeandro.sccon.repository.CompactPersonRepository;
+import br.com.jeandro.sccon.repository.InMemoryPersonRepository;
+import br.com.jeandro.sccon.repository.PersonFilter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -49,4 +77,415 @@ class PersonServiceTest {
         assertThrows(NotFoundException.class, () -> service.delete(999L),
             "Esperava NotFoundException ao deletar pessoa inexistente");
     }
+
+    @Test
+    @DisplayName("Deve listar em ordem alfabética, ignorando acentos, e reordenar após renomear")
+    void listOrderedByName() {
+        // Given: um serviço com dados seed (Maria, João, Ana)
+        PersonService service = new PersonService();
+        service.seed();
+
+        // Then: a listagem vem ordenada por nome
+        assertEquals(List.of("Ana Lima", "João Souza", "Maria Silva"), nomes(service.list()));
+
+        // When: renomeamos Ana para um nome que vem por último
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setNome("Zélia Lima");
+        service.patch(3L, patch);
+
+        // Then: o índice acompanha a alteração
+        assertEquals(List.of("João Souza", "Maria Silva", "Zélia Lima"), nomes(service.list()));
+    }
+
+    @Test
+    @DisplayName("Deve paginar por cursor percorrendo todas as pessoas sem repetição")
+    void pageWithCursor() {
+        // Given: seed + 10 pessoas extras
+        PersonService service = new PersonService();
+        service.seed();
+        for (int i = 0; i < 10; i++) service.create(request("Pessoa " + i));
+
+        // When: percorremos páginas de 4 itens seguindo o nextCursor
+        List<String> vistos = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            PersonPage page = service.page(cursor, 4);
+            vistos.addAll(nomes(page.getItems()));
+            cursor = page.getNextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        // Then: a concatenação das páginas é igual à listagem completa
+        assertEquals(4, paginas);
+        assertEquals(nomes(service.list()), vistos);
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar limit fora da faixa e cursor inválido")
+    void pageInvalidParams() {
+        PersonService service = new PersonService();
+        service.seed();
+
+        assertThrows(BadRequestException.class, () -> service.page(null, 0));
+        assertThrows(BadRequestException.class, () -> service.page(null, PersonService.MAX_PAGE_SIZE + 1));
+        assertThrows(BadRequestException.class, () -> service.page("@@nao-e-cursor@@", 10));
+    }
+
+    @Test
+    @DisplayName("Deve criar em lote com IDs contíguos e reportar itens inválidos")
+    void createBatch() {
+        // Given: um lote com 1200 itens válidos (mais de um bloco) e dois inválidos no meio
+        PersonService service = new PersonService();
+        service.seed();
+        List<PersonCreateRequest> lote = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) lote.add(request("Lote " + i));
+        PersonCreateRequest semNome = request(null);
+        lote.add(600, semNome);
+        lote.add(601, null);
+
+        // When
+        PersonBatchResult result = service.createBatch(lote.iterator());
+
+        // Then: os válidos recebem IDs em sequência após o seed e os inválidos trazem os erros
+        assertEquals(1200, result.getCreated());
+        assertEquals(2, result.getRejected());
+        assertEquals(1202, result.getItems().size());
+        assertEquals(4L, result.getItems().get(0).getId());
+        assertEquals(PersonBatchItemResult.INVALID, result.getItems().get(600).getStatus());
+        assertTrue(result.getItems().get(600).getErrors().containsKey("nome"));
+        assertEquals(PersonBatchItemResult.INVALID, result.getItems().get(601).getStatus());
+        assertEquals(604L, result.getItems().get(602).getId());
+        assertEquals(1203L, result.getItems().get(1201).getId());
+        assertEquals("Lote 1199", service.get(1203L).getNome());
+        assertEquals(1203, service.list().size());
+    }
+
+    @Test
+    @DisplayName("Deve interromper o lote numa linha malformada mantendo o que já foi gravado")
+    void createBatchStopsOnMalformedInput() {
+        PersonService service = new PersonService();
+        Iterator<PersonCreateRequest> it = new Iterator<>() {
+            int n = 0;
+            public boolean hasNext() { return true; }
+            public PersonCreateRequest next() {
+                if (n == 2) throw new BadRequestException("NDJSON inválido na linha 3");
+                return request("Item " + n++);
+            }
+        };
+
+        PersonBatchResult result = service.createBatch(it);
+
+        assertEquals(2, result.getCreated());
+        assertEquals(1, result.getRejected());
+        assertEquals(2, result.getItems().get(2).getIndex());
+        assertEquals(2, service.list().size());
+    }
+
+    private static PersonCreateRequest request(String nome) {
+        PersonCreateRequest r = new PersonCreateRequest();
+        r.setNome(nome);
+        r.setDataNascimento(LocalDate.of(2000, 1, 1));
+        r.setDataAdmissao(LocalDate.of(2020, 1, 1));
+        r.setSalarioAtual(new BigDecimal("2640"));
+        return r;
+    }
+
+    private static List<String> nomes(List<PersonResponse> people) {
+        return people.stream().map(PersonResponse::getNome).toList();
+    }
+
+    @Test
+    @DisplayName("Deve calcular métricas em lote e refletir atualizações da data de nascimento")
+    void metricsBatch() {
+        // Given: um serviço com dados seed
+        PersonService service = new PersonService();
+        service.seed();
+        List<PersonResponse> all = service.list();
+        Long id = all.get(0).getId();
+        BigDecimal minimo = new BigDecimal("1000");
+
+        // When: pedimos as métricas de um ID existente e de um inexistente
+        PersonMetricsResponse r = service.metrics(List.of(id, 999L), false, "dias", minimo);
+
+        // Then: o existente vem com idade igual à do endpoint individual e o outro em notFound
+        assertEquals(1, r.getItems().size());
+        assertEquals(service.idade(id, "dias"), r.getItems().get(0).getIdade());
+        assertEquals(service.salarioMultiplo(id, minimo), r.getItems().get(0).getSalarioAtualMultiplo());
+        assertEquals(List.of(999L), r.getNotFound());
+
+        // When: a data de nascimento muda (o cache do dia deve ser descartado)
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setDataNascimento(LocalDate.now().minusDays(10));
+        service.patch(id, patch);
+
+        // Then: a nova idade é refletida, e 'all' devolve todos na ordem alfabética
+        assertEquals(10L, service.idade(id, "dias"));
+        PersonMetricsResponse todos = service.metrics(null, true, "anos", minimo);
+        assertEquals(all.size(), todos.getItems().size());
+        assertEquals(all.get(all.size() - 1).getId(), todos.getItems().get(all.size() - 1).getId());
+
+        // When/Then: parâmetros inválidos geram BadRequestException
+        assertThrows(BadRequestException.class, () -> service.metrics(List.of(), false, "anos", minimo));
+        assertThrows(BadRequestException.class, () -> service.metrics(List.of(id), false, "horas", minimo));
+        assertThrows(BadRequestException.class, () -> service.metrics(List.of(id), false, "anos", BigDecimal.ZERO));
+    }
+
+    @Test
+    @DisplayName("Deve filtrar por faixa de salário e rejeitar intervalos inválidos")
+    void filterRanges() {
+        // Given: um serviço com dados seed (salários 1800, 2500 e 3320)
+        PersonService service = new PersonService();
+        service.seed();
+
+        // When: filtramos salários entre 2000 e 4000
+        List<PersonResponse> found = service.filter(new PersonFilter(null, null, new BigDecimal("2000"), new BigDecimal("4000"), null), null);
+
+        // Then: vêm Ana (2500) e Maria (3320), em ordem de salário
+        assertEquals(List.of("Ana Lima", "Maria Silva"), nomes(found));
+        assertEquals(List.of("Ana Lima"), nomes(service.filter(new PersonFilter(null, null, new BigDecimal("2000"), null, null), 1)));
+        assertEquals(List.of("João Souza"), nomes(service.filter(new PersonFilter(null, null, null, null, 12), null)));
+
+        // When/Then: intervalos invertidos, mês fora de 1..12 e limit inválido geram BadRequestException
+        assertThrows(BadRequestException.class, () -> service.filter(
+            new PersonFilter(LocalDate.of(2020, 1, 2), LocalDate.of(2020, 1, 1), null, null, null), null));
+        assertThrows(BadRequestException.class, () -> service.filter(
+            new PersonFilter(null, null, new BigDecimal("5"), new BigDecimal("4"), null), null));
+        assertThrows(BadRequestException.class, () -> service.filter(new PersonFilter(null, null, null, null, 13), null));
+        assertThrows(BadRequestException.class, () -> service.filter(new PersonFilter(null, null, null, null, 1), 0));
+    }
+
+    @Test
+    @DisplayName("Deve buscar por prefixo, sem acentos e aproximada, refletindo alterações e remoções")
+    void searchByName() {
+        // Given: um serviço com dados seed (Maria Silva, João Souza, Ana Lima)
+        PersonService service = new PersonService();
+        service.seed();
+        Long maria = service.search("Maria", null).get(0).getId();
+
+        // When/Then: prefixo, acentos ignorados e erro de digitação
+        assertEquals(List.of("Maria Silva"), nomes(service.search("sil", null)));
+        assertEquals(List.of("João Souza"), nomes(service.search("Joao", null)));
+        assertEquals("Maria Silva", service.search("slva", null).get(0).getNome());
+
+        // When: Maria muda de nome e João é removido
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setNome("Maria Araújo");
+        service.patch(maria, patch);
+        service.delete(service.search("joao", null).get(0).getId());
+
+        // Then: o índice acompanha as alterações
+        assertEquals(List.of("Maria Araújo"), nomes(service.search("arau", null)));
+        assertTrue(service.search("silva", null).isEmpty());
+        assertTrue(service.search("souza", null).isEmpty());
+
+        // When/Then: busca vazia e limit inválido geram BadRequestException
+        assertThrows(BadRequestException.class, () -> service.search(" ", null));
+        assertThrows(BadRequestException.class, () -> service.search("ana", 0));
+    }
+
+    @Test
+    @DisplayName("Deve versionar alterações, rejeitar If-Match desatualizado e não perder atualizações concorrentes")
+    void optimisticUpdates() throws Exception {
+        // Given: um serviço com dados seed; Maria começa na versão 1
+        PersonService service = new PersonService();
+        service.seed();
+        PersonResponse maria = service.get(1L);
+        assertEquals(1, maria.getVersion());
+
+        // When: alteramos com a versão atual
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setSalarioAtual(new BigDecimal("100"));
+        PersonResponse alterada = service.patch(1L, patch, 1L);
+
+        // Then: a versão sobe, os demais campos são mantidos e a versão antiga passa a ser recusada
+        assertEquals(2, alterada.getVersion());
+        assertEquals("Maria Silva", alterada.getNome());
+        assertThrows(PreconditionFailedException.class, () -> service.patch(1L, patch, 1L));
+        assertEquals(new BigDecimal("100"), service.get(1L).getSalarioAtual());
+
+        // When: 4 threads somam 1 ao salário 250 vezes cada, relendo a cada 412 (ler-alterar-gravar)
+        int threads = 4, increments = 250;
+        Set<Long> versions = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> done = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            done.add(pool.submit(() -> {
+                for (int i = 0; i < increments; i++) {
+                    while (true) {
+                        PersonResponse atual = service.get(1L);
+                        PersonPatchRequest inc = new PersonPatchRequest();
+                        inc.setSalarioAtual(atual.getSalarioAtual().add(BigDecimal.ONE));
+                        try {
+                            versions.add(service.patch(1L, inc, atual.getVersion()).getVersion());
+                            break;
+                        } catch (PreconditionFailedException conflito) {
+                            // outra thread gravou antes: relê e tenta de novo
+                        }
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : done) f.get();
+        pool.shutdown();
+
+        // Then: nenhum incremento se perdeu e cada gravação gerou uma versão distinta
+        assertEquals(new BigDecimal("1100"), service.get(1L).getSalarioAtual());
+        assertEquals(2 + threads * increments, service.get(1L).getVersion());
+        assertEquals(threads * increments, versions.size());
+    }
+
+    @Test
+    @DisplayName("Deve entregar as alterações a partir do cursor e pedir RESYNC para cursor de outra execução")
+    void changeFeed() {
+        // Given: um serviço com dados seed e um leitor a partir de agora
+        PersonService service = new PersonService();
+        service.seed();
+        PersonChangeReader reader = service.changes(null);
+        assertTrue(reader.poll(0).isEmpty(), "sem cursor começa depois das alterações existentes");
+
+        // When: criamos, alteramos e removemos pessoas
+        PersonResponse nova = service.create(request("Nova Pessoa"));
+        PersonPatchRequest patch = new PersonPatchRequest();
+        patch.setSalarioAtual(new BigDecimal("10"));
+        service.patch(nova.getId(), patch, null);
+        service.delete(1L);
+        List<PersonChange> changes = reader.poll(1000);
+
+        // Then: os três eventos chegam em ordem, com a pessoa gravada em CREATE e UPDATE
+        assertEquals(List.of("CREATE", "UPDATE", "DELETE"), changes.stream().map(PersonChange::getType).toList());
+        assertEquals("Nova Pessoa", changes.get(0).getPerson().getNome());
+        assertEquals(new BigDecimal("10"), changes.get(1).getPerson().getSalarioAtual());
+        assertEquals(1L, changes.get(2).getId());
+        assertNull(changes.get(2).getPerson());
+        assertEquals(changes.get(2).getCursor(), reader.cursor());
+
+        // Then: retomar do cursor do CREATE entrega só o que veio depois dele
+        List<PersonChange> resumed = service.changes(changes.get(0).getCursor()).poll(0);
+        assertEquals(List.of("UPDATE", "DELETE"), resumed.stream().map(PersonChange::getType).toList());
+
+        // Then: cursor de outra execução pede ressincronização; cursor malformado é 400
+        PersonChangeReader outraExecucao = service.changes("0-5");
+        assertTrue(outraExecucao.poll(0).isEmpty());
+        assertTrue(outraExecucao.lost());
+        assertEquals("RESYNC", outraExecucao.resync().getType());
+        assertEquals(reader.cursor(), outraExecucao.resync().getCursor());
+        assertThrows(BadRequestException.class, () -> service.changes("abc"));
+    }
+
+    @Test
+    @DisplayName("Deve devolver as estatísticas da folha atualizadas a cada escrita")
+    void payrollStats() {
+        // Given: os dados de exemplo (3320.00, 1800.00 e 2500.00)
+        PersonService service = new PersonService();
+        service.seed();
+
+        // When: consultamos, aumentamos um salário e consultamos de novo
+        PersonStatsResponse before = service.stats();
+        PersonPatchRequest aumento = new PersonPatchRequest();
+        aumento.setSalarioAtual(new BigDecimal("30000.00"));
+        service.patch(2L, aumento);
+        PersonStatsResponse after = service.stats();
+
+        // Then: totais, médias, faixas e admissões por ano refletem cada estado
+        assertEquals(3, before.getPessoas());
+        assertEquals(new BigDecimal("7620.00"), before.getFolhaTotal());
+        assertEquals(new BigDecimal("2540.00"), before.getSalarioMedio());
+        assertEquals(2500, before.getSalarioMediano().doubleValue(), 25);
+        assertEquals(List.of(0L, 2L, 1L, 0L, 0L, 0L, 0L), before.getFaixasSalarioMinimo().stream().map(PersonStatsResponse.Faixa::quantidade).toList());
+        assertEquals(List.of(2015, 2020, 2023), List.copyOf(before.getAdmissoesPorAno().keySet()));
+        assertEquals(new BigDecimal("35820.00"), after.getFolhaTotal());
+        assertEquals(3320, after.getSalarioMediano().doubleValue(), 33.2);
+        assertEquals(List.of(0L, 1L, 1L, 0L, 0L, 0L, 1L), after.getFaixasSalarioMinimo().stream().map(PersonStatsResponse.Faixa::quantidade).toList());
+    }
+
+    @Test
+    @DisplayName("Deve consultar o salário em vigor numa data e o histórico de salários")
+    void salarioEmEHistorico() {
+        // Given: João (1800.00 desde 01/03/2015) recebe um aumento hoje
+        PersonService service = new PersonService();
+        service.seed();
+        PersonPatchRequest aumento = new PersonPatchRequest();
+        aumento.setSalarioAtual(new BigDecimal("2000.00"));
+        service.patch(2L, aumento);
+
+        // When: consultamos antes e depois do aumento
+        PersonSalaryEntry antes = service.salarioEm(2L, LocalDate.of(2016, 1, 1), new BigDecimal("1320.00"));
+        PersonSalaryEntry hoje = service.salarioEm(2L, LocalDate.now(), new BigDecimal("1320.00"));
+        List<PersonSalaryEntry> historico = service.salarioHistorico(2L);
+
+        // Then: cada data vê o salário da época; antes da admissão, ou de quem não existe, é 404
+        assertEquals(LocalDate.of(2015, 3, 1), antes.getDesde());
+        assertEquals(new BigDecimal("1800.00"), antes.getSalario());
+        assertEquals(new BigDecimal("1.36"), antes.getSalarioMultiplo());
+        assertEquals(new BigDecimal("2000.00"), hoje.getSalario());
+        assertEquals(List.of(new BigDecimal("1800.00"), new BigDecimal("2000.00")),
+            historico.stream().map(PersonSalaryEntry::getSalario).toList());
+        assertNull(historico.get(0).getSalarioMultiplo());
+        assertEquals(1, service.salarioHistorico(1L).size(), "sem alterações: só o salário atual");
+        assertThrows(NotFoundException.class, () -> service.salarioEm(2L, LocalDate.of(2014, 1, 1), new BigDecimal("1320.00")));
+        assertThrows(NotFoundException.class, () -> service.salarioHistorico(99L));
+        assertThrows(BadRequestException.class, () -> service.salarioEm(2L, LocalDate.now(), BigDecimal.ZERO));
+    }
+
+    @Test
+    @DisplayName("Deve recusar datas anteriores ao histórico conhecido de quem foi recarregado do disco")
+    void salarioEmAntesDaRecarga(@TempDir Path dir) throws IOException {
+        // Given: João (1800.00 desde 01/03/2015) gravado num log e recarregado
+        Path file = dir.resolve("persons.log");
+        InMemoryPersonRepository before = new InMemoryPersonRepository(file, 0, Long.MAX_VALUE, 0);
+        new PersonService(before, Validation.buildDefaultValidatorFactory().getValidator()).seed();
+        before.close();
+        InMemoryPersonRepository reloaded = new InMemoryPersonRepository(file, 0, Long.MAX_VALUE, 0);
+        PersonService service = new PersonService(reloaded, Validation.buildDefaultValidatorFactory().getValidator());
+
+        // Then: hoje responde; entre a admissão e a recarga é desconhecido (400); antes da admissão, 404
+        assertEquals(LocalDate.now(), service.salarioEm(2L, LocalDate.now(), new BigDecimal("1320.00")).getDesde());
+        BadRequestException e = assertThrows(BadRequestException.class,
+            () -> service.salarioEm(2L, LocalDate.of(2016, 1, 1), new BigDecimal("1320.00")));
+        assertTrue(e.getMessage().contains("desconhecido"), e.getMessage());
+        assertThrows(NotFoundException.class, () -> service.salarioEm(2L, LocalDate.of(2014, 1, 1), new BigDecimal("1320.00")));
+        reloaded.close();
+    }
+
+    @Test
+    @DisplayName("Deve registrar a duração de cada operação, inclusive das que falham")
+    void operationTimers() {
+        // Given: um serviço com um registro de métricas próprio
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PersonService service = new PersonService(new InMemoryPersonRepository(),
+            Validation.buildDefaultValidatorFactory().getValidator(), registry);
+        service.seed();
+
+        // When: duas leituras, uma delas de ID inexistente, e uma remoção
+        service.get(1L);
+        assertThrows(NotFoundException.class, () -> service.get(99L));
+        service.delete(2L);
+
+        // Then: cada operação tem o seu timer
+        assertEquals(2, timer(registry, "get").count());
+        assertEquals(1, timer(registry, "delete").count());
+        assertEquals(0, timer(registry, "patch").count());
+        assertTrue(timer(registry, "get").totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    @DisplayName("Deve indicar leituras bloqueantes fora do mapa local ou com coalescing/lote")
+    void readsMayBlock() {
+        // Given
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        var registry = new SimpleMeterRegistry();
+        InMemoryPersonRepository map = new InMemoryPersonRepository();
+        CompactPersonRepository compact = new CompactPersonRepository();
+
+        // Then
+        assertFalse(new PersonService(map, validator, registry).readsMayBlock());
+        assertTrue(new PersonService(compact, validator, registry).readsMayBlock());
+        assertTrue(new PersonService(map, validator, registry, new PersonLookup(map, true, 0, 64)).readsMayBlock());
+        assertTrue(new PersonService(map, validator, registry, new PersonLookup(map, false, 200, 64)).readsMayBlock());
+    }
+
+    private static Timer timer(SimpleMeterRegistry registry, String operation) {
+        return registry.find(PersonService.OPERATION_TIMER).tag("operation", operation).timer();
+    }
 }
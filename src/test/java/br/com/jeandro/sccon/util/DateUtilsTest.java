@@ -0,0 +1,95 @@
+package br.com.jeandro.sccon.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de propriedade: os cálculos primitivos (epoch-day / datas empacotadas) devem produzir
+ * exatamente os mesmos resultados que a implementação com java.time.
+ */
+@DisplayName("DateUtils - Cálculo de idade sem alocação")
+class DateUtilsTest {
+
+    private static final long SEED = 20240229L;
+    private static final int SAMPLES = 200_000;
+
+    @Test
+    @DisplayName("Conversões epoch-day ⇄ data empacotada devem coincidir com LocalDate")
+    void epochDayRoundTrip() {
+        // Given: dias aleatórios entre os anos -3000 e 3000
+        Random rnd = new Random(SEED);
+        long min = LocalDate.of(-3000, 1, 1).toEpochDay();
+        long max = LocalDate.of(3000, 12, 31).toEpochDay();
+        for (int i = 0; i < SAMPLES; i++) {
+            long epochDay = min + (long) (rnd.nextDouble() * (max - min));
+            LocalDate d = LocalDate.ofEpochDay(epochDay);
+
+            // When: convertemos para a forma empacotada e de volta
+            int packed = DateUtils.fromEpochDay(epochDay);
+
+            // Then: ano, mês, dia e epoch-day conferem com LocalDate
+            assertEquals(d.getYear(), DateUtils.year(packed), "ano de " + d);
+            assertEquals(d.getMonthValue(), DateUtils.month(packed), "mês de " + d);
+            assertEquals(d.getDayOfMonth(), DateUtils.day(packed), "dia de " + d);
+            assertEquals(epochDay, DateUtils.toEpochDay(packed), "epoch-day de " + d);
+        }
+    }
+
+    @Test
+    @DisplayName("Idade em dias, meses e anos deve coincidir com Duration/Period em datas aleatórias")
+    void randomDatesMatchJavaTime() {
+        // Given: pares aleatórios (nascimento, hoje), inclusive com nascimento no futuro
+        Random rnd = new Random(SEED);
+        long base = LocalDate.of(1900, 1, 1).toEpochDay();
+        int span = (int) (LocalDate.of(2100, 12, 31).toEpochDay() - base);
+        for (int i = 0; i < SAMPLES; i++) {
+            LocalDate nascimento = LocalDate.ofEpochDay(base + rnd.nextInt(span));
+            LocalDate hoje = LocalDate.ofEpochDay(base + rnd.nextInt(span));
+
+            // When/Then: os resultados primitivos são idênticos aos de java.time
+            assertMatches(nascimento, hoje);
+        }
+    }
+
+    @Test
+    @DisplayName("Aniversários em 29/02 e fins de mês devem seguir a semântica de Period.between")
+    void leapDayAndMonthEnds() {
+        // Given: nascimentos em 29/02 e em fins de mês, comparados com todos os dias de vários anos
+        LocalDate[] nascimentos = {
+            LocalDate.of(2000, 2, 29), LocalDate.of(1996, 2, 29), LocalDate.of(2004, 2, 29),
+            LocalDate.of(1999, 1, 31), LocalDate.of(2001, 3, 31), LocalDate.of(1990, 12, 31),
+            LocalDate.of(2024, 2, 29), LocalDate.of(1900, 2, 28)
+        };
+        for (LocalDate nascimento : nascimentos) {
+            for (LocalDate hoje = nascimento.minusYears(2); hoje.isBefore(nascimento.plusYears(9)); hoje = hoje.plusDays(1)) {
+                // When/Then: cada dia bate com java.time, inclusive 28/02 e 01/03 de anos não bissextos
+                assertMatches(nascimento, hoje);
+            }
+        }
+
+        // Then: casos conhecidos — em ano não bissexto, quem nasceu em 29/02 completa o ano em 01/03
+        LocalDate leap = LocalDate.of(2000, 2, 29);
+        assertEquals(11L, DateUtils.idadeEmMeses(leap, LocalDate.of(2001, 2, 28)));
+        assertEquals(12L, DateUtils.idadeEmMeses(leap, LocalDate.of(2001, 3, 1)));
+    }
+
+    private static void assertMatches(LocalDate nascimento, LocalDate hoje) {
+        long n = nascimento.toEpochDay();
+        long h = hoje.toEpochDay();
+        String ctx = nascimento + " → " + hoje;
+        assertEquals(Duration.between(nascimento.atStartOfDay(), hoje.atStartOfDay()).toDays(),
+            DateUtils.idadeEmDias(n, h), "dias " + ctx);
+        assertEquals(Period.between(nascimento, hoje).toTotalMonths(), DateUtils.idadeEmMeses(n, h), "meses " + ctx);
+        BigDecimal anos = new BigDecimal(DateUtils.idadeEmAnos(nascimento, hoje)).setScale(2, RoundingMode.HALF_UP);
+        assertEquals(anos, BigDecimal.valueOf(DateUtils.idadeEmAnosCentesimos(n, h), 2), "anos " + ctx);
+    }
+}